@@ -0,0 +1,114 @@
+package cgeo.geocaching.benchmark;
+
+import cgeo.geocaching.enumerations.CacheSize;
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Access to the fixture data of the benchmarks. All generated data is created from fixed seeds, so benchmark runs on
+ * different commits or machines work on identical input.
+ */
+public final class BenchmarkFixtures {
+
+    /** system property with the path of the routing tile used by the brouter benchmarks */
+    public static final String PROPERTY_RD5 = "cgeo.benchmark.rd5";
+
+    private static final long SEED = 4711;
+
+    private static final CacheType[] TYPES = {CacheType.TRADITIONAL, CacheType.TRADITIONAL, CacheType.TRADITIONAL, CacheType.MULTI, CacheType.MYSTERY, CacheType.MYSTERY,
+            CacheType.EARTH, CacheType.LETTERBOX, CacheType.WHERIGO, CacheType.EVENT, CacheType.VIRTUAL};
+    private static final CacheSize[] SIZES = {CacheSize.MICRO, CacheSize.SMALL, CacheSize.SMALL, CacheSize.REGULAR, CacheSize.LARGE, CacheSize.OTHER, CacheSize.NOT_CHOSEN};
+    private static final String[] NAME_WORDS = {"Old", "Mill", "Bridge", "Forest", "Tower", "Lake", "Church", "View", "Castle", "Trail", "Stone", "River", "Hidden", "Lost",
+            "Secret", "Fox", "Owl", "Mystery", "Tour", "Bonus", "#", "No."};
+
+    private BenchmarkFixtures() {
+        // utility class
+    }
+
+    /** returns the content of a resource of the benchmark module as text */
+    public static String readResource(final String name) throws IOException {
+        try (InputStream is = openResource(name)) {
+            return IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+    }
+
+    /** returns the non-empty, non-comment lines of a resource */
+    public static List<String> readResourceLines(final String name) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        for (final String line : readResource(name).split("\n")) {
+            final String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                lines.add(trimmed);
+            }
+        }
+        return lines;
+    }
+
+    public static InputStream openResource(final String name) throws IOException {
+        final InputStream is = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(name);
+        if (is == null) {
+            throw new IOException("benchmark resource " + name + " not found");
+        }
+        return is;
+    }
+
+    /** returns the routing tile configured for the brouter benchmarks, see README.md on how to get one */
+    public static File getRd5File() {
+        final String path = System.getProperty(PROPERTY_RD5);
+        final File file = path == null ? null : new File(path);
+        if (file == null || !file.isFile()) {
+            throw new IllegalStateException("routing tile " + path + " not found, run the 'downloadRd5Tile' task or set -PbenchmarkRd5");
+        }
+        return file;
+    }
+
+    /**
+     * creates a synthetic set of caches around a center, with a typical mix of types, sizes, ratings and names
+     */
+    public static List<Geocache> createCaches(final int count) {
+        final Random random = new Random(SEED);
+        final List<Geocache> caches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode("GC" + Integer.toString(0x10000 + i * 7919 % 0xfffff, 36).toUpperCase());
+            cache.setName(createName(random, i));
+            cache.setType(TYPES[random.nextInt(TYPES.length)]);
+            cache.setSize(SIZES[random.nextInt(SIZES.length)]);
+            cache.setDifficulty(1 + random.nextInt(9) * 0.5f);
+            cache.setTerrain(1 + random.nextInt(9) * 0.5f);
+            // about 2% of caches without coordinates, as for some premium caches
+            if (random.nextInt(50) > 0) {
+                cache.setCoords(new Geopoint(49.9 + random.nextGaussian() * 0.2, 8.6 + random.nextGaussian() * 0.3));
+            }
+            cache.setFavoritePoints(random.nextInt(10) == 0 ? random.nextInt(500) : random.nextInt(10));
+            cache.setHidden(new Date(1_000_000_000_000L + random.nextInt(600_000) * 1_000_000L));
+            cache.setDisabled(random.nextInt(20) == 0);
+            cache.setOwnerDisplayName("owner" + random.nextInt(count / 10 + 1));
+            caches.add(cache);
+        }
+        return caches;
+    }
+
+    private static String createName(final Random random, final int index) {
+        final StringBuilder name = new StringBuilder();
+        final int words = 1 + random.nextInt(3);
+        for (int w = 0; w < words; w++) {
+            name.append(NAME_WORDS[random.nextInt(NAME_WORDS.length)]).append(' ');
+        }
+        // series names with numbers are common and need the numeric sorting of NameComparator
+        return name.append(index % 97).toString();
+    }
+
+}
@@ -0,0 +1,104 @@
+package cgeo.geocaching.brouter.codec;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Bit level coding of routing data, on synthetic data shaped like the content of a micro cache: sorted node ids,
+ * elevation differences and predicted coordinates of links. Decoding is part of every routing request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatCoderContextBenchmark {
+
+    /** number of nodes, typical micro caches hold some hundred up to a few thousand nodes */
+    @Param({"500", "4000"})
+    public int nodeCount;
+
+    private int[] nodeIds;
+    private int[] elevationDiffs;
+    private int[] linkPredictors;
+    private int[] linkValues;
+
+    private byte[] encoded;
+    private int[] decodedIds;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(nodeCount);
+        nodeIds = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodeIds[i] = random.nextInt(1 << 29);
+        }
+        Arrays.sort(nodeIds);
+
+        elevationDiffs = new int[nodeCount];
+        linkPredictors = new int[nodeCount];
+        linkValues = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            elevationDiffs[i] = (int) (random.nextGaussian() * 12);
+            linkPredictors[i] = random.nextInt(2000) - 1000;
+            linkValues[i] = linkPredictors[i] + (int) (random.nextGaussian() * 40);
+        }
+
+        encoded = new byte[nodeCount * 16 + 1024];
+        decodedIds = new int[nodeCount];
+        final int length = encode(encoded);
+        encoded = Arrays.copyOf(encoded, length + 8);
+        if (decode() != checksum()) {
+            throw new IllegalStateException("decoded data differs from encoded data");
+        }
+    }
+
+    private int encode(final byte[] buffer) {
+        final StatCoderContext bc = new StatCoderContext(buffer);
+        bc.encodeNoisyNumber(nodeCount, 5);
+        bc.encodeSortedArray(nodeIds, 0, nodeCount, 0x20000000, 0);
+        for (int i = 0; i < nodeCount; i++) {
+            bc.encodeNoisyDiff(elevationDiffs[i], 3);
+            bc.encodePredictedValue(linkValues[i], linkPredictors[i]);
+            bc.encodeVarBits(i & 15);
+        }
+        return bc.closeAndGetEncodedLength();
+    }
+
+    private long checksum() {
+        long sum = nodeCount;
+        for (int i = 0; i < nodeCount; i++) {
+            sum = sum * 31 + nodeIds[i] + elevationDiffs[i] * 7L + linkValues[i] * 13L + (i & 15);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long decode() {
+        final StatCoderContext bc = new StatCoderContext(encoded);
+        final int size = bc.decodeNoisyNumber(5);
+        bc.decodeSortedArray(decodedIds, 0, size, 29, 0);
+        long sum = size;
+        for (int i = 0; i < size; i++) {
+            final int elevationDiff = bc.decodeNoisyDiff(3);
+            final int linkValue = bc.decodePredictedValue(linkPredictors[i]);
+            final int feature = bc.decodeVarBits();
+            sum = sum * 31 + decodedIds[i] + elevationDiff * 7L + linkValue * 13L + feature;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int encode() {
+        return encode(new byte[encoded.length + 1024]);
+    }
+
+}
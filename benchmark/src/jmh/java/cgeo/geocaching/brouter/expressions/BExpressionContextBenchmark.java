@@ -0,0 +1,98 @@
+package cgeo.geocaching.brouter.expressions;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Evaluating the routing profiles shipped with the app for way tags, which is done for each link the routing engine
+ * looks at. Tag combinations are generated randomly from the lookup table of the app, like the regression tests of
+ * BRouter do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BExpressionContextBenchmark {
+
+    private static final int WAY_COUNT = 2000;
+
+    @Param({"routing_trekking.brf", "routing_car_fast.brf", "routing_shortest.brf"})
+    public String profile;
+
+    /** size of result cache, as used by the routing engine (memory class 64 * 512), 0 disables it */
+    @Param({"0", "32768"})
+    public int cacheSize;
+
+    private BExpressionContextWay wayContext;
+    private byte[][] wayDescriptions;
+
+    @Setup
+    public void setUp() throws IOException {
+        final BExpressionMetaData meta = new BExpressionMetaData();
+        wayContext = new BExpressionContextWay(cacheSize, meta);
+        final BExpressionContextNode nodeContext = new BExpressionContextNode(0, meta);
+        nodeContext.setForeignContext(wayContext);
+        try (InputStream is = BenchmarkFixtures.openResource("routing_lookups.dat")) {
+            meta.readMetaData(is);
+        }
+        wayContext.parseProfile(this::openProfile, profile, "global", null);
+        nodeContext.parseProfile(this::openProfile, profile, "global", null);
+
+        final Random random = new Random(WAY_COUNT);
+        wayDescriptions = new byte[WAY_COUNT][];
+        int count = 0;
+        while (count < WAY_COUNT) {
+            // ways without any tags are not encoded
+            final byte[] ab = wayContext.encode(wayContext.generateRandomValues(random));
+            if (ab != null) {
+                wayDescriptions[count++] = ab;
+            }
+        }
+    }
+
+    private InputStream openProfile() {
+        try {
+            return BenchmarkFixtures.openResource(profile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** evaluates all generated ways in both directions, returns the sum of cost factors */
+    @Benchmark
+    public float evaluateWays() {
+        float sum = 0;
+        for (final byte[] ab : wayDescriptions) {
+            wayContext.evaluate(false, ab);
+            sum += wayContext.getCostfactor();
+            wayContext.evaluate(true, ab);
+            sum += wayContext.getCostfactor();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BExpressionContextWay parseProfile() throws IOException {
+        final BExpressionMetaData meta = new BExpressionMetaData();
+        final BExpressionContextWay context = new BExpressionContextWay(cacheSize, meta);
+        try (InputStream is = BenchmarkFixtures.openResource("routing_lookups.dat")) {
+            meta.readMetaData(is);
+        }
+        context.parseProfile(this::openProfile, profile, "global", null);
+        return context;
+    }
+
+}
@@ -0,0 +1,91 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+import cgeo.geocaching.brouter.codec.DataBuffers;
+import cgeo.geocaching.brouter.codec.MicroCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reading and decoding the micro caches (MicroCache2 format) of one 1°x1° square of a real routing tile, as done by
+ * the routing engine and the elevation lookup when entering new areas. Needs a routing tile, see README.md.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MicroCacheDecodeBenchmark {
+
+    /** index of the 1°x1° square within the 5°x5° tile, the default tile E5_N45 has dense data in all of them */
+    @Param({"12"})
+    public int squareIndex;
+
+    private PhysicalFile physicalFile;
+    private OsmFile osmFile;
+    private DataBuffers dataBuffers;
+    private int lonDegree;
+    private int latDegree;
+
+    @Setup
+    public void setUp() throws IOException {
+        final File rd5 = BenchmarkFixtures.getRd5File();
+        dataBuffers = new DataBuffers();
+        physicalFile = new PhysicalFile(rd5.getName(), new FileInputStream(rd5), dataBuffers, -1);
+        lonDegree = squareIndex / 5;
+        latDegree = squareIndex % 5;
+        osmFile = new OsmFile(physicalFile, lonDegree, latDegree, dataBuffers);
+        if (!osmFile.hasData()) {
+            throw new IllegalStateException("no routing data in square " + squareIndex + " of " + rd5);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        physicalFile.close();
+    }
+
+    /** decodes all micro caches of the square, returns the number of decoded nodes */
+    @Benchmark
+    public int decodeSquare() throws IOException {
+        final int divisor = physicalFile.divisor;
+        int nodes = 0;
+        for (int lonIdx = 0; lonIdx < divisor; lonIdx++) {
+            for (int latIdx = 0; latIdx < divisor; latIdx++) {
+                final MicroCache mc = osmFile.createMicroCache(lonDegree * divisor + lonIdx, latDegree * divisor + latIdx, dataBuffers, null, null, true, null);
+                nodes += mc.getSize();
+            }
+        }
+        return nodes;
+    }
+
+    /** reads the raw data of all micro caches without decoding, to separate file access from decoding cost */
+    @Benchmark
+    public int readSquare() throws IOException {
+        final int divisor = physicalFile.divisor;
+        byte[] buffer = dataBuffers.iobuffer;
+        int bytes = 0;
+        for (int subIdx = 0; subIdx < divisor * divisor; subIdx++) {
+            final int size = osmFile.getDataInputForSubIdx(subIdx, buffer);
+            if (size > buffer.length) {
+                // same handling of large micro caches as in OsmFile.createMicroCache
+                buffer = new byte[size];
+                osmFile.getDataInputForSubIdx(subIdx, buffer);
+            }
+            bytes += size;
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,109 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Node index of the routing graph (OsmNodesMap) compared to the HashMap it replaced. The access pattern follows a
+ * long route: nodes of a corridor are put as hollow nodes, looked up when links are decoded, replaced when their tile
+ * is loaded and removed again. Run with -PjmhProfilers=gc to compare allocation rates and GC counts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OsmNodesMapBenchmark {
+
+    /** nodes along the route, long routes touch some 100000 nodes */
+    @Param({"20000", "200000"})
+    public int nodeCount;
+
+    @Param({"HashMap", "OsmNodeIndex"})
+    public String implementation;
+
+    private int[] lons;
+    private int[] lats;
+    private int[] lookups;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(nodeCount);
+        lons = new int[nodeCount];
+        lats = new int[nodeCount];
+        // corridor of about 2km width heading north east, in brouter coordinates (microdegrees shifted to positive)
+        for (int i = 0; i < nodeCount; i++) {
+            lons[i] = 188000000 + i * 20 + random.nextInt(20000);
+            lats[i] = 138000000 + i * 15 + random.nextInt(20000);
+        }
+        lookups = new int[nodeCount * 4];
+        for (int i = 0; i < lookups.length; i++) {
+            // links mostly point to nearby nodes
+            lookups[i] = Math.min(nodeCount - 1, Math.max(0, i / 4 + random.nextInt(200) - 100));
+        }
+    }
+
+    @Benchmark
+    public int route() {
+        return "HashMap".equals(implementation) ? routeHashMap() : routeIndex();
+    }
+
+    private int routeIndex() {
+        final OsmNodeIndex index = new OsmNodeIndex(4096);
+        int found = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            index.put(new OsmNode(lons[i], lats[i]));
+        }
+        for (int i : lookups) {
+            if (index.get(lons[i], lats[i]) != null) {
+                found++;
+            }
+        }
+        for (int i = 0; i < nodeCount; i += 2) {
+            final OsmNode loaded = new OsmNode(lons[i], lats[i]);
+            // like NodesCache, the node found in the map is put back
+            final OsmNode hollow = index.put(loaded);
+            if (hollow != null) {
+                index.put(hollow);
+            }
+            index.remove(loaded);
+        }
+        return found + index.size();
+    }
+
+    private int routeHashMap() {
+        final Map<OsmNode, OsmNode> map = new HashMap<>(4096);
+        final OsmNode testKey = new OsmNode();
+        int found = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            final OsmNode node = new OsmNode(lons[i], lats[i]);
+            map.put(node, node);
+        }
+        for (int i : lookups) {
+            testKey.ilon = lons[i];
+            testKey.ilat = lats[i];
+            if (map.get(testKey) != null) {
+                found++;
+            }
+        }
+        for (int i = 0; i < nodeCount; i += 2) {
+            final OsmNode loaded = new OsmNode(lons[i], lats[i]);
+            final OsmNode hollow = map.put(loaded, loaded);
+            if (hollow != null) {
+                map.put(hollow, hollow);
+            }
+            map.remove(loaded);
+        }
+        return found + map.size();
+    }
+
+}
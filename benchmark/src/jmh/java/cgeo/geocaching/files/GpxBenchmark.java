@@ -0,0 +1,114 @@
+package cgeo.geocaching.files;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * GPX import steps which run on a plain JVM: character filtering, XML tokenizing and date parsing.
+ *
+ * {@link GPXParser#parse} itself needs the Android SAX framework and the database, so the benchmark feeds the filtered
+ * input into the SAX parser of the JVM and parses all timestamps like the GPX parser does for cache and log dates.
+ * The GPX files of the instrumentation tests are used, with their waypoints repeated to get large imports.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GpxBenchmark {
+
+    private static final Pattern PATTERN_TIME = Pattern.compile("<(?:time|groundspeak:date|date)>([^<]+)</");
+
+    @Param({"gctour_gpx.gpx", "terracaching_gpx.gpx", "challenge.gpx"})
+    public String gpxFile;
+
+    @Param({"1", "10"})
+    public int waypointCopies;
+
+    private String gpx;
+    private final List<String> dates = new ArrayList<>();
+    private SAXParser saxParser;
+
+    @Setup
+    public void setUp() throws Exception {
+        final String content = BenchmarkFixtures.readResource(gpxFile);
+        final int start = content.indexOf("<wpt");
+        final int end = content.lastIndexOf("</wpt>") + "</wpt>".length();
+        final StringBuilder builder = new StringBuilder(content.length() * waypointCopies);
+        builder.append(content, 0, start);
+        for (int i = 0; i < waypointCopies; i++) {
+            builder.append(content, start, end);
+        }
+        builder.append(content, end, content.length());
+        gpx = builder.toString();
+
+        final Matcher matcher = PATTERN_TIME.matcher(gpx);
+        while (matcher.find()) {
+            dates.add(matcher.group(1));
+        }
+
+        final SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        saxParser = factory.newSAXParser();
+    }
+
+    @Benchmark
+    public int filterInvalidCharacters() throws IOException {
+        int count = 0;
+        try (Reader reader = new InvalidXMLCharacterFilterReader(new StringReader(gpx))) {
+            final char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                count += read;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public void parseDates(final Blackhole blackhole) throws ParseException {
+        for (final String date : dates) {
+            blackhole.consume(GPXParser.parseDate(date));
+        }
+    }
+
+    @Benchmark
+    public void tokenize(final Blackhole blackhole) throws Exception {
+        saxParser.reset();
+        saxParser.parse(new InputSource(new InvalidXMLCharacterFilterReader(new StringReader(gpx))), new DefaultHandler() {
+            @Override
+            public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+                blackhole.consume(localName);
+            }
+
+            @Override
+            public void characters(final char[] ch, final int start, final int length) {
+                blackhole.consume(length);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,84 @@
+package cgeo.geocaching.filters.core;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.models.Geocache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * In-memory filtering of a synthetic cache list, as done for caches on the map and in lists which are not filtered
+ * by the database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeocacheFilterBenchmark {
+
+    @Param({"1000", "10000"})
+    public int cacheCount;
+
+    @Param({"name", "type", "difficulty", "combined"})
+    public String filterKind;
+
+    private List<Geocache> caches;
+    private GeocacheFilter filter;
+    private String filterConfig;
+
+    @Setup
+    public void setUp() {
+        caches = BenchmarkFixtures.createCaches(cacheCount);
+        filter = GeocacheFilter.create("benchmark", false, false, createFilterTree(filterKind));
+        filterConfig = filter.toConfig();
+    }
+
+    private static IGeocacheFilter createFilterTree(final String kind) {
+        final NameGeocacheFilter name = GeocacheFilterType.NAME.create();
+        name.getStringFilter().setTextValue("bridge");
+        final TypeGeocacheFilter type = GeocacheFilterType.TYPE.create();
+        type.setValues(Arrays.asList(CacheType.TRADITIONAL, CacheType.MULTI));
+        final DifficultyGeocacheFilter difficulty = GeocacheFilterType.DIFFICULTY.create();
+        difficulty.setMinMaxRange(2f, 4f);
+
+        switch (kind) {
+            case "name":
+                return name;
+            case "type":
+                return type;
+            case "difficulty":
+                return difficulty;
+            default:
+                final AndGeocacheFilter and = new AndGeocacheFilter();
+                and.addChild(type);
+                and.addChild(difficulty);
+                and.addChild(name);
+                return and;
+        }
+    }
+
+    @Benchmark
+    public List<Geocache> filterList() {
+        final List<Geocache> list = new ArrayList<>(caches);
+        filter.filterList(list);
+        return list;
+    }
+
+    /** filters are restored from their configuration on each start of a list or map */
+    @Benchmark
+    public GeocacheFilter parseConfig() {
+        return GeocacheFilter.createFromConfig(filterConfig);
+    }
+
+}
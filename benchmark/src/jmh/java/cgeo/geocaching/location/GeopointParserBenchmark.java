@@ -0,0 +1,51 @@
+package cgeo.geocaching.location;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Scanning cache listings for coordinates. The listing in fixtures/listing.txt is repeated to get long texts as found
+ * in multi stage caches or cache series.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeopointParserBenchmark {
+
+    @Param({"1", "20"})
+    public int listingCopies;
+
+    private String text;
+
+    @Setup
+    public void setUp() throws IOException {
+        final String listing = BenchmarkFixtures.readResource("fixtures/listing.txt");
+        final StringBuilder builder = new StringBuilder(listing.length() * listingCopies);
+        for (int i = 0; i < listingCopies; i++) {
+            builder.append(listing);
+        }
+        text = builder.toString();
+    }
+
+    @Benchmark
+    public Object parseAll() {
+        return GeopointParser.parseAll(text);
+    }
+
+    @Benchmark
+    public Object parseSingle() {
+        return GeopointParser.parse("N 49° 56.031 E 8° 38.564", null);
+    }
+
+}
@@ -0,0 +1,127 @@
+package cgeo.geocaching.sensors;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.ProximityIndex;
+import cgeo.geocaching.location.WaypointDistanceInfo;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.sorting.DistanceResorter;
+import cgeo.geocaching.sorting.TargetDistanceComparator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Work done per location fix by the pure Java consumers of the location pipeline, driven by a replayed trace
+ * ({@link ReplayTrace}, as used by {@link TraceReplayProvider}): re-sorting the cache list, proximity notification
+ * checks and navigation to a target. Each benchmark call processes the next fix of the trace, so scores are per fix.
+ * Run with -PjmhProfilers=gc for the allocations per fix.
+ *
+ * Consumers on the main thread (map position layers, compass views) need Android and are not covered. To measure them
+ * on a device, replay a trace via {@link LocationDataProvider#startReplay} while recording a performance trace.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocationPipelineBenchmark {
+
+    private static final Geopoint START = new Geopoint(49.9, 8.6);
+    /** one hour walk with one fix per second */
+    private static final int FIX_COUNT = 3600;
+    private static final double WALKING_SPEED_KM_PER_SECOND = 0.0014;
+    private static final int PROXIMITY_DISTANCE_METERS = 500;
+
+    @Param({"1000", "10000"})
+    public int cacheCount;
+
+    private byte[] traceData;
+    private List<Geopoint> positions;
+    private List<Geocache> sortedCaches;
+    private ProximityIndex proximityIndex;
+    private Geopoint target;
+    private int fix = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        traceData = createTrace().getBytes(StandardCharsets.UTF_8);
+        final ReplayTrace trace = ReplayTrace.parse(new ByteArrayInputStream(traceData));
+        positions = new ArrayList<>(trace.size());
+        for (ReplayTrace.Fix f : trace.getFixes()) {
+            positions.add(f.getCoords());
+        }
+        final List<Geocache> caches = BenchmarkFixtures.createCaches(cacheCount);
+        proximityIndex = new ProximityIndex(() -> caches);
+        sortedCaches = caches;
+        new TargetDistanceComparator(START).sort(sortedCaches);
+        target = sortedCaches.get(sortedCaches.size() / 2).getCoords();
+    }
+
+    /** GPX track of a random walk with fixed seed */
+    private static String createTrace() {
+        final Random random = new Random(FIX_COUNT);
+        final StringBuilder gpx = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<gpx version=\"1.1\" xmlns=\"http://www.topografix.com/GPX/1/1\"><trk><trkseg>\n");
+        Geopoint position = START;
+        double heading = 45;
+        for (int i = 0; i < FIX_COUNT; i++) {
+            gpx.append(String.format(Locale.US, "<trkpt lat=\"%.6f\" lon=\"%.6f\"><ele>%.1f</ele><time>2021-06-01T%02d:%02d:%02dZ</time></trkpt>\n",
+                    position.getLatitude(), position.getLongitude(), 120 + random.nextGaussian(), 10 + i / 3600, i / 60 % 60, i % 60));
+            heading += random.nextGaussian() * 10;
+            position = position.project(heading, WALKING_SPEED_KM_PER_SECOND * (0.5 + random.nextDouble()));
+        }
+        return gpx.append("</trkseg></trk></gpx>\n").toString();
+    }
+
+    private Geopoint nextPosition() {
+        fix = (fix + 1) % positions.size();
+        return positions.get(fix);
+    }
+
+    @Benchmark
+    public List<Geocache> resortCacheList() {
+        sortedCaches = DistanceResorter.resort(sortedCaches, nextPosition()).caches;
+        return sortedCaches;
+    }
+
+    @Benchmark
+    public WaypointDistanceInfo checkProximity() {
+        return proximityIndex.checkClosest(nextPosition(), PROXIMITY_DISTANCE_METERS);
+    }
+
+    @Benchmark
+    public float navigate() {
+        final Geopoint position = nextPosition();
+        return position.distanceTo(target) + position.bearingTo(target);
+    }
+
+    /** all consumers together, as for one fix of the live pipeline */
+    @Benchmark
+    public int allConsumers() {
+        final Geopoint position = nextPosition();
+        sortedCaches = DistanceResorter.resort(sortedCaches, position).caches;
+        final WaypointDistanceInfo closest = proximityIndex.checkClosest(position, PROXIMITY_DISTANCE_METERS);
+        return sortedCaches.size() + (closest == null ? 0 : closest.meters) + (int) (position.distanceTo(target) + position.bearingTo(target));
+    }
+
+    /** parsing the whole recorded trace (not per fix) */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int parseTrace() throws IOException {
+        return ReplayTrace.parse(new ByteArrayInputStream(traceData)).size();
+    }
+
+}
@@ -0,0 +1,60 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Sorting a synthetic cache list with the comparators offered in the cache list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheSortBenchmark {
+
+    private static final Geopoint POSITION = new Geopoint(49.9, 8.6);
+
+    @Param({"1000", "10000"})
+    public int cacheCount;
+
+    @Param({"NAME", "GEOCODE", "DIFFICULTY", "SIZE", "FAVORITES", "HIDDEN_DATE", "TARGET_DISTANCE"})
+    public GeocacheSort.SortType sortType;
+
+    private List<Geocache> shuffledCaches;
+    private CacheComparator comparator;
+
+    @Setup
+    public void setUp() {
+        shuffledCaches = BenchmarkFixtures.createCaches(cacheCount);
+        Collections.shuffle(shuffledCaches, new Random(cacheCount));
+
+        final GeocacheSort sort = new GeocacheSort();
+        sort.setTargetCoords(POSITION);
+        sort.setType(sortType);
+        comparator = sort.getComparator();
+    }
+
+    @Benchmark
+    public List<Geocache> sort() {
+        // sort a fresh copy, sorting an already sorted list is not representative
+        final List<Geocache> caches = new ArrayList<>(shuffledCaches);
+        comparator.sort(caches);
+        return caches;
+    }
+
+}
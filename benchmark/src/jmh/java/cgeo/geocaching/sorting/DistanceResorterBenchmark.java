@@ -0,0 +1,51 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Re-sorting a cache list by distance after a position update, as done by the cache list while moving.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DistanceResorterBenchmark {
+
+    private static final Geopoint POSITION = new Geopoint(49.9, 8.6);
+
+    @Param({"1000", "10000"})
+    public int cacheCount;
+
+    /** movement since last sort in meters, small moves only change the order locally */
+    @Param({"50", "2000"})
+    public int movedMeters;
+
+    private List<Geocache> sortedByDistance;
+    private Geopoint movedPosition;
+
+    @Setup
+    public void setUp() {
+        sortedByDistance = BenchmarkFixtures.createCaches(cacheCount);
+        new TargetDistanceComparator(POSITION).sort(sortedByDistance);
+        movedPosition = POSITION.project(45, movedMeters / 1000.0);
+    }
+
+    @Benchmark
+    public DistanceResorter.Result resort() {
+        return DistanceResorter.resort(sortedByDistance, movedPosition);
+    }
+
+}
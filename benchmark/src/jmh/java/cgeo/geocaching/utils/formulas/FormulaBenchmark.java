@@ -0,0 +1,77 @@
+package cgeo.geocaching.utils.formulas;
+
+import cgeo.geocaching.benchmark.BenchmarkFixtures;
+import cgeo.geocaching.utils.functions.Func1;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compiling and evaluating the formula corpus in fixtures/formulas.txt. Each operation handles the complete corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormulaBenchmark {
+
+    private List<String> expressions;
+    private Formula[] formulas;
+    private Func1<String, Value> variables;
+    private int uncachedRound;
+
+    @Setup
+    public void setUp() throws IOException {
+        expressions = BenchmarkFixtures.readResourceLines("fixtures/formulas.txt");
+        final Map<String, Value> values = new HashMap<>();
+        final int[] numbers = {3, 5, 7, 2, 4, 6, 8, 1, 9, 0};
+        for (int i = 0; i < numbers.length; i++) {
+            values.put(String.valueOf((char) ('A' + i)), Value.of(numbers[i]));
+        }
+        variables = values::get;
+
+        formulas = new Formula[expressions.size()];
+        for (int i = 0; i < formulas.length; i++) {
+            // fail early on broken corpus entries instead of benchmarking exception handling
+            formulas[i] = Formula.compile(expressions.get(i));
+            formulas[i].evaluate(variables);
+        }
+    }
+
+    /** compile as done on each redraw of the variable list, mostly served by the formula cache */
+    @Benchmark
+    public void compileCached(final Blackhole blackhole) {
+        for (final String expression : expressions) {
+            blackhole.consume(Formula.compile(expression));
+        }
+    }
+
+    /** compile of expressions not seen before, e.g. while the user is typing (includes eviction from the formula cache) */
+    @Benchmark
+    public void compileUncached(final Blackhole blackhole) {
+        // parsing starts behind the prefix, it only makes the cache key unique
+        final String prefix = Integer.toString(uncachedRound++) + ':';
+        for (final String expression : expressions) {
+            blackhole.consume(Formula.compile(prefix + expression, prefix.length(), null));
+        }
+    }
+
+    @Benchmark
+    public void evaluate(final Blackhole blackhole) {
+        for (final Formula formula : formulas) {
+            blackhole.consume(formula.evaluate(variables));
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import cgeo.geocaching.utils.CommonUtils;
 
 import android.os.Parcel;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -80,4 +81,90 @@ public class SearchResultTest  {
 
         assertThat(newSearch.getFilteredGeocodes()).contains("GC45678").doesNotContain("GC12345");
     }
+
+    @Test
+    public void testParcelLargeSearchResultByHandle() {
+        final SearchResult search = createLargeSearchResult();
+
+        final Parcel parcel = Parcel.obtain();
+        search.writeToParcel(parcel, 0);
+        // only the handle is parcelled
+        assertThat(parcel.dataSize()).isLessThan(1000);
+        search.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+
+        final SearchResult receive = new SearchResult(parcel);
+        final SearchResult receiveAgain = new SearchResult(parcel);
+        parcel.recycle();
+
+        assertThat(receive.getGeocodes()).isEqualTo(search.getGeocodes());
+        assertThat(receiveAgain.getGeocodes()).isEqualTo(search.getGeocodes());
+        assertThat(CommonUtils.first(receive.getCacheData().getFoundBy())).isEqualTo("user");
+
+        // received search result is independent of registered one
+        receive.addGeocode("GCXXXXX");
+        assertThat(receiveAgain.getGeocodes()).doesNotContain("GCXXXXX");
+        receive.getCacheData().addFoundBy("other");
+        assertThat(receiveAgain.getCacheData().getFoundBy()).doesNotContain("other");
+        assertThat(search.getCacheData().getFoundBy()).doesNotContain("other");
+    }
+
+    @Test
+    public void testRegistryHandles() {
+        final SearchResult search = createLargeSearchResult();
+        final SearchResultRegistry registry = SearchResultRegistry.get();
+
+        final String handle = registry.register(search, null, 0);
+        // unmodified search result reuses handle
+        assertThat(registry.register(search, handle, 0)).isEqualTo(handle);
+        // modified search result gets a new handle
+        assertThat(registry.register(search, handle, 1)).isNotEqualTo(handle);
+
+        // handles can be read repeatedly
+        assertThat(registry.take(handle)).isNotNull();
+        assertThat(registry.take(handle)).isNotNull();
+        assertThat(registry.isInMemory(handle)).isTrue();
+    }
+
+    @Test
+    public void testRegistryEviction() {
+        final SearchResult search = createLargeSearchResult();
+        final SearchResultRegistry registry = SearchResultRegistry.get();
+
+        final String first = registry.register(search, null, 0);
+        for (int i = 1; i <= SearchResultRegistry.MAX_ENTRIES; i++) {
+            registry.register(search, null, i);
+        }
+        assertThat(registry.isInMemory(first)).isFalse();
+    }
+
+    @Test
+    public void testRegistrySpillFile() {
+        final SearchResult search = createLargeSearchResult();
+        final String handle = "test-" + System.currentTimeMillis();
+
+        try {
+            SearchResultRegistry.writeSpillFile(handle, search.snapshot());
+            final SearchResult restored = SearchResultRegistry.readSpillFile(handle);
+
+            assertThat(restored).isNotNull();
+            assertThat(restored.getGeocodes()).isEqualTo(search.getGeocodes());
+            assertThat(restored.getFilteredGeocodes()).isEqualTo(search.getFilteredGeocodes());
+            assertThat(restored.getCacheData().getFoundBy()).isEqualTo(search.getCacheData().getFoundBy());
+            assertThat(SearchResultRegistry.readSpillFile("test-unknown")).isNull();
+        } finally {
+            SearchResultRegistry.deleteSpillFile(handle);
+        }
+    }
+
+    private static SearchResult createLargeSearchResult() {
+        final Set<String> geocodes = new HashSet<>();
+        for (int i = 0; i < SearchResultRegistry.INLINE_LIMIT * 2; i++) {
+            geocodes.add("GC" + (10000 + i));
+        }
+        final SearchResult search = new SearchResult(geocodes);
+        search.addFilteredGeocodes(Collections.singleton("GC99999"));
+        search.getOrCreateCacheData().addFoundBy("user");
+        return search;
+    }
 }
@@ -0,0 +1,63 @@
+package cgeo.geocaching.brouter;
+
+import cgeo.geocaching.brouter.core.OsmPathElement;
+import cgeo.geocaching.brouter.core.OsmTrack;
+
+import android.os.Bundle;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class PackedTrackTest {
+
+    private static OsmTrack createTrack() {
+        final OsmTrack track = new OsmTrack();
+        // engine coordinates are shifted by 180/90 degrees, elevations are stored in quarter meters
+        track.nodes.add(OsmPathElement.create(180000000 + 8650000, 90000000 + 49870000, (short) 1003, null, false));
+        track.nodes.add(OsmPathElement.create(180000000 + 8651000, 90000000 + 49871000, (short) 1002, null, false));
+        track.nodes.add(OsmPathElement.create(180000000 - 1000, 90000000 - 2000, (short) -6, null, false));
+        track.nodes.add(OsmPathElement.create(180000000 + 8652000, 90000000 + 49872000, Short.MIN_VALUE, null, false));
+        track.distance = 1234;
+        return track;
+    }
+
+    @Test
+    public void testFromTrack() {
+        final PackedTrack packed = PackedTrack.fromTrack(createTrack());
+        assertThat(packed.size()).isEqualTo(4);
+        assertThat(packed.latitudesE6).containsExactly(49870000, 49871000, -2000, 49872000);
+        assertThat(packed.longitudesE6).containsExactly(8650000, 8651000, -1000, 8652000);
+        // elevations are rounded to whole meters
+        assertThat(packed.elevations).containsExactly((short) 251, (short) 251, (short) -1, PackedTrack.NO_ELEVATION);
+        assertThat(packed.distance).isEqualTo(1234);
+    }
+
+    @Test
+    public void testBundleRoundTrip() {
+        final PackedTrack packed = PackedTrack.fromTrack(createTrack());
+        final Bundle bundle = packed.toBundle();
+        assertThat(PackedTrack.getError(bundle)).isNull();
+
+        final PackedTrack restored = PackedTrack.fromBundle(bundle);
+        assertThat(restored).isNotNull();
+        assertThat(restored.latitudesE6).containsExactly(packed.latitudesE6);
+        assertThat(restored.longitudesE6).containsExactly(packed.longitudesE6);
+        assertThat(restored.elevations).containsExactly(packed.elevations);
+        assertThat(restored.distance).isEqualTo(packed.distance);
+        assertThat(restored.seconds).isEqualTo(packed.seconds);
+    }
+
+    @Test
+    public void testErrorBundle() {
+        final Bundle bundle = PackedTrack.errorBundle("no route");
+        assertThat(PackedTrack.getError(bundle)).isEqualTo("no route");
+        assertThat(PackedTrack.fromBundle(bundle)).isNull();
+    }
+
+    @Test
+    public void testInconsistentBundle() {
+        final Bundle bundle = new PackedTrack(new int[]{1, 2}, new int[]{1}, new short[]{0, 0}, 0, 0).toBundle();
+        assertThat(PackedTrack.fromBundle(bundle)).isNull();
+    }
+
+}
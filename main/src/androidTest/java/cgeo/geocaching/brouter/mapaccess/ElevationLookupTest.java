@@ -0,0 +1,100 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import cgeo.geocaching.brouter.codec.MicroCache;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ElevationLookupTest {
+
+    // around 48 N 11 E, in engine coordinates (shifted by 180/90 degrees)
+    private static final int ILON = 191000000;
+    private static final int ILAT = 138000000;
+    /** about 111m to the north */
+    private static final int LAT_100M = 1000;
+
+    /** micro cache with given nodes, node bodies only contain turn restrictions and elevation */
+    private static final class SyntheticMicroCache extends MicroCache {
+        private final long[] ids;
+
+        /**
+         * @param selev            elevation per node in 1/4 meters, Short.MIN_VALUE for nodes without data
+         * @param turnRestrictions number of turn restrictions per node
+         */
+        SyntheticMicroCache(final int[] ilon, final int[] ilat, final short[] selev, final int[] turnRestrictions) {
+            super(new byte[1024]);
+            final int size = ilon.length;
+            ids = new long[size];
+            faid = new int[size];
+            fapos = new int[size];
+            for (int n = 0; n < size; n++) {
+                ids[n] = ((long) ilon[n]) << 32 | ilat[n];
+                faid[n] = n;
+                if (selev[n] != Short.MIN_VALUE) {
+                    for (int t = 0; t < turnRestrictions[n]; t++) {
+                        writeBoolean(true);
+                        write(new byte[2 + 1 + 4 * 4]);
+                    }
+                    writeBoolean(false);
+                    writeShort(selev[n]);
+                }
+                fapos[n] = aboffset;
+            }
+            init(size);
+        }
+
+        @Override
+        public long expandId(final int id32) {
+            return ids[id32];
+        }
+    }
+
+    private static MicroCache createMicroCache() {
+        return new SyntheticMicroCache(
+                new int[]{ILON, ILON, ILON, ILON},
+                new int[]{ILAT, ILAT + LAT_100M, ILAT + 2 * LAT_100M, ILAT + 5 * LAT_100M},
+                new short[]{400, 800, Short.MIN_VALUE, -20},
+                new int[]{0, 0, 0, 2});
+    }
+
+    @Test
+    public void testNodeElevation() {
+        final MicroCache mc = createMicroCache();
+        assertThat(mc.getSize()).isEqualTo(4);
+        assertThat(mc.getNodeElevation(0)).isEqualTo((short) 400);
+        assertThat(mc.getNodeElevation(1)).isEqualTo((short) 800);
+        assertThat(mc.getNodeElevation(2)).isEqualTo(Short.MIN_VALUE);
+        // turn restrictions are skipped
+        assertThat(mc.getNodeElevation(3)).isEqualTo((short) -20);
+        assertThat(mc.getNodeId(3)).isEqualTo(((long) ILON) << 32 | (ILAT + 5 * LAT_100M));
+    }
+
+    @Test
+    public void testSegmentSkipsNodesWithoutData() {
+        final ElevationLookup.Segment segment = ElevationLookup.Segment.of(createMicroCache());
+        assertThat(segment.selev).containsExactly((short) 400, (short) 800, (short) -20);
+        assertThat(segment.ilat).containsExactly(ILAT, ILAT + LAT_100M, ILAT + 5 * LAT_100M);
+    }
+
+    @Test
+    public void testNearestElevation() {
+        final ElevationLookup.Segment segment = ElevationLookup.Segment.of(createMicroCache());
+        // elevations are converted to meters
+        assertThat(ElevationLookup.getNearestElevation(segment, ILON, ILAT + 100)).isEqualTo(100f);
+        assertThat(ElevationLookup.getNearestElevation(segment, ILON + 200, ILAT + 900)).isEqualTo(200f);
+        // node without data is ignored, next one is about 111m away
+        assertThat(ElevationLookup.getNearestElevation(segment, ILON, ILAT + 2 * LAT_100M)).isEqualTo(200f);
+        assertThat(ElevationLookup.getNearestElevation(segment, ILON, ILAT + 6 * LAT_100M)).isEqualTo(-5f);
+    }
+
+    @Test
+    public void testNoElevationBeyondMaxDistance() {
+        final ElevationLookup.Segment segment = ElevationLookup.Segment.of(createMicroCache());
+        // about 222m from the last node
+        assertThat(ElevationLookup.getNearestElevation(segment, ILON, ILAT + 7 * LAT_100M)).isEqualTo(-5f);
+        // about 333m from the last node
+        assertThat(ElevationLookup.getNearestElevation(segment, ILON, ILAT + 8 * LAT_100M)).isNaN();
+        assertThat(ElevationLookup.getNearestElevation(ElevationLookup.Segment.EMPTY, ILON, ILAT)).isNaN();
+    }
+
+}
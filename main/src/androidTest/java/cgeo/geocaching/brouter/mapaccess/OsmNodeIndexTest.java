@@ -0,0 +1,119 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class OsmNodeIndexTest {
+
+    /** home slot of a position in a table of 16 slots, same hash as OsmNodeIndex */
+    private static int homeSlot16(final int ilon, final int ilat) {
+        final long key = ((long) ilon) << 32 | (ilat & 0xffffffffL);
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 60);
+    }
+
+    /** @return nodes whose positions share the same home slot in a table of 16 slots */
+    private static List<OsmNode> collidingNodes(final int count) {
+        final List<OsmNode> nodes = new ArrayList<>();
+        final int slot = homeSlot16(180000000, 90000000);
+        for (int ilat = 90000000; nodes.size() < count; ilat++) {
+            if (homeSlot16(180000000, ilat) == slot) {
+                nodes.add(new OsmNode(180000000, ilat));
+            }
+        }
+        return nodes;
+    }
+
+    @Test
+    public void testPutAndGet() {
+        final OsmNodeIndex index = new OsmNodeIndex(4);
+        final OsmNode node = new OsmNode(8650000, 49870000);
+        assertThat(index.put(node)).isNull();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.get(8650000, 49870000)).isSameAs(node);
+        assertThat(index.get(8650000, 49870001)).isNull();
+
+        // same position replaces the node
+        final OsmNode replacement = new OsmNode(8650000, 49870000);
+        assertThat(index.put(replacement)).isSameAs(node);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.get(8650000, 49870000)).isSameAs(replacement);
+    }
+
+    @Test
+    public void testCollisionChain() {
+        final List<OsmNode> nodes = collidingNodes(5);
+        final OsmNodeIndex index = new OsmNodeIndex(4);
+        for (OsmNode node : nodes) {
+            assertThat(index.put(node)).isNull();
+        }
+        for (OsmNode node : nodes) {
+            assertThat(index.get(node.ilon, node.ilat)).isSameAs(node);
+        }
+
+        // removing from the start and the middle of the chain keeps the following entries reachable
+        assertThat(index.remove(nodes.get(0))).isSameAs(nodes.get(0));
+        assertThat(index.remove(nodes.get(2))).isSameAs(nodes.get(2));
+        assertThat(index.remove(nodes.get(2))).isNull();
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.get(nodes.get(0).ilon, nodes.get(0).ilat)).isNull();
+        assertThat(index.get(nodes.get(2).ilon, nodes.get(2).ilat)).isNull();
+        assertThat(index.get(nodes.get(1).ilon, nodes.get(1).ilat)).isSameAs(nodes.get(1));
+        assertThat(index.get(nodes.get(3).ilon, nodes.get(3).ilat)).isSameAs(nodes.get(3));
+        assertThat(index.get(nodes.get(4).ilon, nodes.get(4).ilat)).isSameAs(nodes.get(4));
+
+        // removing the end of the chain
+        assertThat(index.remove(nodes.get(4))).isSameAs(nodes.get(4));
+        assertThat(index.get(nodes.get(1).ilon, nodes.get(1).ilat)).isSameAs(nodes.get(1));
+        assertThat(index.get(nodes.get(3).ilon, nodes.get(3).ilat)).isSameAs(nodes.get(3));
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testResize() {
+        final OsmNodeIndex index = new OsmNodeIndex(1);
+        final List<OsmNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final OsmNode node = new OsmNode(180000000 + i % 37, 90000000 + i / 37);
+            nodes.add(node);
+            index.put(node);
+        }
+        assertThat(index.size()).isEqualTo(1000);
+        for (OsmNode node : nodes) {
+            assertThat(index.get(node.ilon, node.ilat)).isSameAs(node);
+        }
+        final Set<OsmNode> visited = new HashSet<>();
+        index.forEach(visited::add);
+        assertThat(visited).hasSize(1000);
+    }
+
+    @Test
+    public void testCompareWithHashMap() {
+        final Random random = new Random(12345);
+        final OsmNodeIndex index = new OsmNodeIndex(16);
+        final Map<Long, OsmNode> reference = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            // small area, so positions are put and removed repeatedly
+            final OsmNode node = new OsmNode(180000000 + random.nextInt(100), 90000000 + random.nextInt(100));
+            final Long key = ((long) node.ilon) << 32 | node.ilat;
+            if (random.nextInt(3) == 0) {
+                assertThat(index.remove(node)).isSameAs(reference.remove(key));
+            } else {
+                assertThat(index.put(node)).isSameAs(reference.put(key, node));
+            }
+            assertThat(index.size()).isEqualTo(reference.size());
+        }
+        for (Map.Entry<Long, OsmNode> entry : reference.entrySet()) {
+            final OsmNode node = entry.getValue();
+            assertThat(index.get(node.ilon, node.ilat)).isSameAs(node);
+        }
+    }
+
+}
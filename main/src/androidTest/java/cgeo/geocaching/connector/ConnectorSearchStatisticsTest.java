@@ -0,0 +1,148 @@
+package cgeo.geocaching.connector;
+
+import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.connector.unknown.UnknownConnector;
+import cgeo.geocaching.enumerations.StatusCode;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ConnectorSearchStatisticsTest {
+
+    private static final ConnectorSearchStatistics.Operation OPERATION = ConnectorSearchStatistics.Operation.SEARCH_BY_FILTER;
+
+    /** active connector without any capabilities, distinguished by name only */
+    private static final class FakeConnector extends UnknownConnector {
+        private final String name;
+
+        FakeConnector(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        @NonNull
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        ConnectorSearchStatistics.clear();
+    }
+
+    private static void recordSamples(final IConnector connector, final int count, final long durationMillis) {
+        for (int i = 0; i < count; i++) {
+            ConnectorSearchStatistics.recordLatency(connector, OPERATION, durationMillis * 1000000);
+        }
+    }
+
+    private static SearchResult result(final String geocode) {
+        return new SearchResult(Collections.singleton(geocode));
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            // cancelled request
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testHedgeDelay() {
+        final IConnector connector = new FakeConnector("hedge delay");
+        recordSamples(connector, ConnectorSearchStatistics.MIN_SAMPLES_FOR_HEDGING - 1, 5000);
+        assertThat(ConnectorSearchStatistics.getHedgeDelay(connector, OPERATION)).isEqualTo(0);
+
+        recordSamples(connector, 1, 5000);
+        assertThat(ConnectorSearchStatistics.getHedgeDelay(connector, OPERATION)).isBetween(4500L, 5500L);
+
+        // fast connectors are not hedged too early
+        final IConnector fast = new FakeConnector("fast");
+        recordSamples(fast, ConnectorSearchStatistics.MIN_SAMPLES_FOR_HEDGING, 10);
+        assertThat(ConnectorSearchStatistics.getHedgeDelay(fast, OPERATION)).isEqualTo(ConnectorSearchStatistics.MIN_HEDGE_DELAY_MS);
+    }
+
+    @Test
+    public void testSummary() {
+        final IConnector connector = new FakeConnector("summary");
+        assertThat(ConnectorSearchStatistics.getSummary(connector)).isNull();
+
+        recordSamples(connector, 1, 100);
+        ConnectorSearchStatistics.recordError(connector, OPERATION);
+        ConnectorSearchStatistics.recordTimeout(connector, OPERATION);
+        assertThat(ConnectorSearchStatistics.getSummary(connector)).startsWith(OPERATION + ": ").contains("errors=1", "timeouts=1", "hedged=0");
+    }
+
+    @Test
+    public void testDeadlineKeepsOtherResults() {
+        final IConnector fast = new FakeConnector("fast");
+        final IConnector slow = new FakeConnector("slow");
+
+        final SearchResult result = SearchResult.parallelCombineActive(null, Arrays.asList(fast, slow), connector -> {
+            if (connector == slow) {
+                sleep(10000);
+                return result("GCSLOW");
+            }
+            return result("GCFAST");
+        }, OPERATION, 500, false, null);
+
+        assertThat(result.getGeocodes()).containsOnly("GCFAST");
+        assertThat(result.getError()).isEqualTo(StatusCode.CONNECTOR_TIMEOUT);
+        assertThat(ConnectorSearchStatistics.getSummary(slow)).contains("timeouts=1");
+    }
+
+    @Test
+    public void testHedgeAfterEnoughSamples() {
+        final IConnector connector = new FakeConnector("hedged");
+        recordSamples(connector, ConnectorSearchStatistics.MIN_SAMPLES_FOR_HEDGING, 10);
+        final AtomicInteger calls = new AtomicInteger();
+
+        final long start = System.currentTimeMillis();
+        final SearchResult result = SearchResult.parallelCombineActive(null, Collections.singletonList(connector), c -> {
+            if (calls.incrementAndGet() == 1) {
+                // first request hangs, hedged one answers immediately
+                sleep(10000);
+                return result("GCFIRST");
+            }
+            return result("GCHEDGED");
+        }, OPERATION, 0, true, null);
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(5000);
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(result.getGeocodes()).containsOnly("GCHEDGED");
+        assertThat(ConnectorSearchStatistics.getSummary(connector)).contains("hedged=1");
+    }
+
+    @Test
+    public void testNoHedgeBelowMinimumSamples() {
+        final IConnector connector = new FakeConnector("not hedged");
+        recordSamples(connector, ConnectorSearchStatistics.MIN_SAMPLES_FOR_HEDGING - 1, 10);
+        final AtomicInteger calls = new AtomicInteger();
+
+        final SearchResult result = SearchResult.parallelCombineActive(null, Collections.singletonList(connector), c -> {
+            calls.incrementAndGet();
+            sleep(ConnectorSearchStatistics.MIN_HEDGE_DELAY_MS + 500);
+            return result("GCSLOW");
+        }, OPERATION, 0, true, null);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(result.getGeocodes()).containsOnly("GCSLOW");
+        assertThat(ConnectorSearchStatistics.getSummary(connector)).contains("hedged=0");
+    }
+
+}
@@ -14,6 +14,7 @@ import cgeo.geocaching.test.R;
 import androidx.annotation.NonNull;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
@@ -22,6 +23,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -86,6 +89,29 @@ public class GpxSerializerTest {
         assertThat(replaceLogIds(gpxSecond)).isEqualTo(replaceLogIds(gpxFirst));
     }
 
+    @Test
+    public void testZipExport() throws IOException, ParserException {
+        final String geocode = "GC1BKP3";
+        final Geocache cache = CgeoTestUtils.loadCacheFromResource(R.raw.gc1bkp3_gpx101);
+        assertThat(cache).isNotNull();
+
+        final ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+        new GpxSerializer().writeGPX(Collections.singletonList(geocode), zipped, GpxSerializer.Compression.ZIP, "export.gpx", null);
+
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(zipped.toByteArray()))) {
+            final ZipEntry entry = zip.getNextEntry();
+            assertThat(entry).isNotNull();
+            assertThat(entry.getName()).isEqualTo("export.gpx");
+            final String gpx = IOUtils.toString(zip, StandardCharsets.UTF_8);
+            assertThat(zip.getNextEntry()).isNull();
+
+            assertThat(replaceLogIds(gpx)).isEqualTo(replaceLogIds(getGPXFromCache(geocode)));
+            final Collection<Geocache> caches = new GPX10Parser(StoredList.TEMPORARY_LIST.id).parse(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)), null);
+            assertThat(caches).hasSize(1);
+            assertThat(caches.iterator().next().getGeocode()).isEqualTo(geocode);
+        }
+    }
+
     private static String replaceLogIds(final String gpx) {
         return gpx.replaceAll("log id=\"\\d*\"", "");
     }
@@ -205,10 +205,15 @@ public class ContentStorageTest {
         //create something to copy in source Folder
         createTree(sourceFolder, COMPLEX_FOLDER_STRUCTURE);
 
-        //copy complete
+        //copy complete. Status must be sent from calling thread only, even though files are copied in parallel
         final List<FolderUtils.FolderProcessStatus> folderProcessStatuses = new ArrayList<>();
+        final Set<Thread> statusThreads = new HashSet<>();
         final AtomicBoolean cancelFlag = new AtomicBoolean(false);
-        FolderUtils.FolderProcessResult result = FolderUtils.get().copyAll(sourceFolder, targetFolder, false, cancelFlag, folderProcessStatuses::add);
+        FolderUtils.FolderProcessResult result = FolderUtils.get().copyAll(sourceFolder, targetFolder, false, cancelFlag, cs -> {
+            statusThreads.add(Thread.currentThread());
+            folderProcessStatuses.add(cs);
+        });
+        assertThat(statusThreads).containsExactly(Thread.currentThread());
         assertCopyResult(result, FolderUtils.ProcessResult.OK, 7, 3);
         //expect one initial status (with files/dirs to copy = -1), one status before (with files/dirs copied = 0 but known nr of files/dirs to copy) and then one for each file/dir
         assertThat(folderProcessStatuses).hasSize(2 + 3 + 7);
@@ -234,17 +239,20 @@ public class ContentStorageTest {
         });
         assertThat(result.result).isEqualTo(FolderUtils.ProcessResult.ABORTED);
         //expect one initial status (with files/dirs to copy = -1), one status before (with files/dirs copied = 0 but known nr of files/dirs to copy) and then one for each file/dir
+        //no status is sent after abort except the final one
         assertThat(folderProcessStatuses).hasSize(abortAfter + 1);
         assertThat(folderProcessStatuses.get(0).filesInSource).isEqualTo(-1);
         assertThat(folderProcessStatuses.get(0).dirsInSource).isEqualTo(-1);
         assertThat(folderProcessStatuses.get(0).filesProcessed + folderProcessStatuses.get(0).dirsProcessed).isEqualTo(0);
         prevSum = 0;
-        for (int i = 1; i < abortAfter + 1; i++) {
+        for (int i = 1; i < abortAfter; i++) {
             assertThat(folderProcessStatuses.get(i).filesInSource).isEqualTo(7);
             assertThat(folderProcessStatuses.get(i).dirsInSource).isEqualTo(3);
             assertThat(folderProcessStatuses.get(i).filesProcessed + folderProcessStatuses.get(i).dirsProcessed).isEqualTo(prevSum);
             prevSum++;
         }
+        //files being copied in parallel when abort happened are still completed and counted in final status
+        assertThat(folderProcessStatuses.get(abortAfter).filesProcessed + folderProcessStatuses.get(abortAfter).dirsProcessed).isGreaterThanOrEqualTo(prevSum);
         //check that result status of different sources match also when copy was aborted
         assertThat(folderProcessStatuses.get(abortAfter).filesProcessed).isEqualTo(result.filesModified);
         assertThat(folderProcessStatuses.get(abortAfter).dirsProcessed).isEqualTo(result.dirsModified);
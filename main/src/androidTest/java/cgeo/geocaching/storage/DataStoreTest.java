@@ -18,6 +18,7 @@ import cgeo.geocaching.models.Trackable;
 import static cgeo.geocaching.enumerations.LoadFlags.REMOVE_ALL;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -194,6 +195,44 @@ public class DataStoreTest {
         assertThat(logsLoadeded).containsExactlyInAnyOrderElementsOf(logs);
     }
 
+    @Test
+    public void testLogUpsert() {
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        final long now = new Date().getTime();
+
+        final LogEntry changed = new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY * 3).setLog("testlog").setLogType(LogType.NOTE).setServiceLogId("pid1")
+                .addLogImage(new Image.Builder().setUrl("https://www.cgeo.org/images/logo.png").setTitle("The logo").build()).build();
+        final LogEntry unchanged = new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY * 2).setLog("testlog2").setLogType(LogType.NOTE).setServiceLogId("pid2").build();
+        final LogEntry deleted = new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY).setLog("testlog3").setLogType(LogType.NOTE).setServiceLogId("pid3").build();
+        DataStore.saveLogs(ARTIFICIAL_GEOCODE, Arrays.asList(changed, unchanged, deleted), true);
+        final List<LogEntry> stored = DataStore.loadLogs(ARTIFICIAL_GEOCODE);
+
+        final LogEntry changedNew = changed.buildUpon().setLog("testlog changed").setLogImages(new ArrayList<>()).build();
+        final LogEntry inserted = new LogEntry.Builder().setDate(now).setLog("testlog4").setLogType(LogType.FOUND_IT).setServiceLogId("pid4").build();
+        DataStore.saveLogs(ARTIFICIAL_GEOCODE, Arrays.asList(changedNew, unchanged, inserted), true);
+        final List<LogEntry> updated = DataStore.loadLogs(ARTIFICIAL_GEOCODE);
+
+        assertThat(updated).containsExactlyInAnyOrder(changedNew, unchanged, inserted);
+        for (LogEntry log : updated) {
+            if ("pid1".equals(log.serviceLogId)) {
+                assertThat(log.logImages).isEmpty();
+                assertThat(log.id).isEqualTo(findByServiceLogId(stored, "pid1").id);
+            } else if ("pid2".equals(log.serviceLogId)) {
+                assertThat(log.id).isEqualTo(findByServiceLogId(stored, "pid2").id);
+            }
+        }
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+    }
+
+    private static LogEntry findByServiceLogId(final List<LogEntry> logs, final String serviceLogId) {
+        for (LogEntry log : logs) {
+            if (serviceLogId.equals(log.serviceLogId)) {
+                return log;
+            }
+        }
+        return null;
+    }
+
     @Test
     public void testLoadCacheHistory() {
         final SearchResult history = DataStore.getBatchOfStoredCaches(null, PseudoList.HISTORY_LIST.id);
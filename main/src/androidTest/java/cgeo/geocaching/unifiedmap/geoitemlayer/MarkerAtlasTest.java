@@ -0,0 +1,92 @@
+package cgeo.geocaching.unifiedmap.geoitemlayer;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MarkerAtlasTest {
+
+    private static Bitmap createBitmap(final int width, final int height, final int color) {
+        final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(color);
+        return bitmap;
+    }
+
+    @Test
+    public void addsEachVariantOnce() {
+        final MarkerAtlas atlas = new MarkerAtlas();
+        final Bitmap bitmap = createBitmap(20, 30, Color.RED);
+
+        final MarkerAtlas.Region region = atlas.add(1, bitmap);
+        assertThat(region).isNotNull();
+        assertThat(atlas.add(1, bitmap)).isSameAs(region);
+        assertThat(atlas.get(1, bitmap)).isSameAs(region);
+        assertThat(atlas.get(2, bitmap)).isNull();
+
+        assertThat(region.width).isEqualTo(20);
+        assertThat(region.height).isEqualTo(30);
+        assertThat(region.u1).isEqualTo((float) region.x / MarkerAtlas.PAGE_SIZE);
+        assertThat(region.v2).isEqualTo((float) (region.y + 30) / MarkerAtlas.PAGE_SIZE);
+    }
+
+    @Test
+    public void changedBitmapGetsNewRegion() {
+        final MarkerAtlas atlas = new MarkerAtlas();
+        final Bitmap bitmap = createBitmap(20, 20, Color.RED);
+        final Bitmap scaled = createBitmap(40, 40, Color.RED);
+
+        final MarkerAtlas.Region region = atlas.add(1, bitmap);
+        final MarkerAtlas.Region scaledRegion = atlas.add(1, scaled);
+        assertThat(scaledRegion).isNotNull();
+        assertThat(scaledRegion).isNotSameAs(region);
+        assertThat(scaledRegion.width).isEqualTo(40);
+        assertThat(atlas.get(1, bitmap)).isNull();
+        assertThat(atlas.get(1, scaled)).isSameAs(scaledRegion);
+    }
+
+    @Test
+    public void rejectsTooLargeBitmaps() {
+        final MarkerAtlas atlas = new MarkerAtlas();
+        assertThat(atlas.add(1, createBitmap(MarkerAtlas.PAGE_SIZE + 1, 10, Color.RED))).isNull();
+    }
+
+    @Test
+    public void snapshotContainsRegionsAddedBefore() {
+        final MarkerAtlas atlas = new MarkerAtlas();
+        final MarkerAtlas.Region red = atlas.add(1, createBitmap(10, 10, Color.RED));
+        final MarkerAtlas.PageSnapshot snapshot = atlas.snapshot(red.page);
+        final MarkerAtlas.Region blue = atlas.add(2, createBitmap(10, 10, Color.BLUE));
+
+        assertThat(blue.page).isEqualTo(red.page);
+        assertThat(snapshot.contains(red)).isTrue();
+        assertThat(snapshot.contains(blue)).isFalse();
+        assertThat(snapshot.bitmap.getPixel(red.x, red.y)).isEqualTo(Color.RED);
+        // snapshot is a copy, later regions are not drawn into it
+        assertThat(snapshot.bitmap.getPixel(blue.x, blue.y)).isEqualTo(Color.TRANSPARENT);
+
+        final MarkerAtlas.PageSnapshot newSnapshot = atlas.snapshot(red.page);
+        assertThat(newSnapshot.contains(blue)).isTrue();
+        assertThat(newSnapshot.bitmap.getPixel(blue.x, blue.y)).isEqualTo(Color.BLUE);
+    }
+
+    @Test
+    public void clearDropsAllVariants() {
+        final MarkerAtlas atlas = new MarkerAtlas();
+        final Bitmap bitmap = createBitmap(10, 10, Color.RED);
+        final MarkerAtlas.Region region = atlas.add(1, bitmap);
+        final MarkerAtlas.PageSnapshot snapshot = atlas.snapshot(region.page);
+
+        atlas.clear();
+        assertThat(atlas.get(1, bitmap)).isNull();
+
+        // regions added after clear are on new pages, even if placed at the same position
+        final MarkerAtlas.Region newRegion = atlas.add(1, bitmap);
+        assertThat(newRegion).isNotNull();
+        assertThat(newRegion).isNotSameAs(region);
+        assertThat(snapshot.contains(region)).isTrue();
+        assertThat(snapshot.contains(newRegion)).isFalse();
+    }
+
+}
@@ -0,0 +1,71 @@
+package cgeo.geocaching.unifiedmap.geoitemlayer;
+
+import cgeo.geocaching.models.geoitem.GeoIcon;
+
+import android.graphics.Bitmap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MarkerVariantCacheTest {
+
+    private static Bitmap createBitmap() {
+        return Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    }
+
+    @Test
+    public void sharesObjectPerVariant() {
+        final MarkerVariantCache<String> cache = new MarkerVariantCache<>();
+        final AtomicInteger created = new AtomicInteger();
+        final Bitmap bitmap = createBitmap();
+
+        assertThat(cache.get(GeoIcon.builder().setMarkerBitmap(1, bitmap).build(), b -> "v" + created.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get(GeoIcon.builder().setMarkerBitmap(1, bitmap).build(), b -> "v" + created.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get(GeoIcon.builder().setMarkerBitmap(2, bitmap).build(), b -> "v" + created.incrementAndGet())).isEqualTo("v2");
+        assertThat(created.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void recreatesObjectForChangedBitmap() {
+        final MarkerVariantCache<Bitmap> cache = new MarkerVariantCache<>();
+        final Bitmap bitmap = createBitmap();
+        final Bitmap changed = createBitmap();
+
+        assertThat(cache.get(GeoIcon.builder().setMarkerBitmap(1, bitmap).build(), b -> b)).isSameAs(bitmap);
+        assertThat(cache.get(GeoIcon.builder().setMarkerBitmap(1, changed).build(), b -> b)).isSameAs(changed);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void ignoresIconsWithoutMarkerKey() {
+        final MarkerVariantCache<String> cache = new MarkerVariantCache<>();
+        final AtomicInteger created = new AtomicInteger();
+
+        assertThat(cache.get(GeoIcon.builder().setBitmap(createBitmap()).build(), b -> "v" + created.incrementAndGet())).isNull();
+        assertThat(created.get()).isEqualTo(0);
+        // creator returning null is not cached
+        assertThat(cache.get(GeoIcon.builder().setMarkerBitmap(1, createBitmap()).build(), b -> null)).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void removeIfAndClear() {
+        final MarkerVariantCache<String> cache = new MarkerVariantCache<>();
+        final Bitmap bitmap = createBitmap();
+        cache.get(GeoIcon.builder().setMarkerBitmap(1, bitmap).build(), b -> "a");
+        cache.get(GeoIcon.builder().setMarkerBitmap(2, bitmap).build(), b -> "b");
+        cache.get(GeoIcon.builder().setMarkerBitmap(3, bitmap).build(), b -> "a");
+
+        cache.removeIf("a"::equals);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(GeoIcon.builder().setMarkerBitmap(2, bitmap).build(), b -> "new")).isEqualTo("b");
+        assertThat(cache.get(GeoIcon.builder().setMarkerBitmap(1, bitmap).build(), b -> "new")).isEqualTo("new");
+
+        cache.clear();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+}
@@ -2541,7 +2541,7 @@ public class CacheDetailActivity extends TabbedViewPagerActivity
         pages.add(Page.DESCRIPTION.id);
         // enforce showing the empty log book if new entries can be added
         if (cache != null) {
-            if (cache.supportsLogging() || !cache.getLogs().isEmpty()) {
+            if (cache.supportsLogging() || cache.getLogSummary().logCount > 0) {
                 pages.add(Page.LOGS.id);
             }
             if (CollectionUtils.isNotEmpty(cache.getFriendsLogs()) && Settings.isFriendLogsWanted()) {
@@ -251,6 +251,9 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
 
             if (search != null && search.getError() == StatusCode.UNAPPROVED_LICENSE) {
                 showLicenseConfirmationDialog();
+            } else if (search != null && search.getError() == StatusCode.CONNECTOR_TIMEOUT && search.getCount() > 0) {
+                // keep results of the connectors which answered in time
+                showToast(search.getError().getErrorString());
             } else if (search != null && search.getError() != StatusCode.NO_ERROR) {
                 showToast(res.getString(R.string.err_download_fail) + ' ' + search.getError().getErrorString() + '.');
 
@@ -1966,6 +1969,10 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
             updateGui();
             lph.setLastListPosition();
         }
+        if (arg0 instanceof AbstractSearchLoader && ((AbstractSearchLoader) arg0).isDeliveringPartialResult()) {
+            // more results to come
+            return;
+        }
         showProgress(false);
         hideLoading();
         invalidateOptionsMenuCompatible();
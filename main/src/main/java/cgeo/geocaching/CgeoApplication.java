@@ -150,6 +150,9 @@ public class CgeoApplication extends Application {
             // Restore cookies
             Cookies.restoreCookies();
 
+            // search results passed between screens of a previous process
+            SearchResultRegistry.restoreSpillFilesInBackground();
+
             // dump hash key to log, if requested
             // Log.e("app hashkey: " + getApplicationHashkey(this));
 
@@ -21,6 +21,12 @@ public class SearchCacheData implements Parcelable {
         //do nothing
     }
 
+    /** creates an independent copy of the given data */
+    public SearchCacheData(@NonNull final SearchCacheData other) {
+        foundBy.addAll(other.foundBy);
+        notFoundBy.addAll(other.notFoundBy);
+    }
+
 
     public void addFoundBy(final String foundBy) {
         this.foundBy.add(foundBy);
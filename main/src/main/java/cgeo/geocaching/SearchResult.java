@@ -1,5 +1,6 @@
 package cgeo.geocaching;
 
+import cgeo.geocaching.connector.ConnectorSearchStatistics;
 import cgeo.geocaching.connector.IConnector;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.LoadFlags.LoadFlag;
@@ -9,6 +10,7 @@ import cgeo.geocaching.gcvote.GCVote;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.AndroidRxUtils;
+import cgeo.geocaching.utils.JsonUtils;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.functions.Func1;
 import cgeo.geocaching.utils.functions.Func2;
@@ -28,9 +30,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.functions.Function;
@@ -43,11 +52,30 @@ public class SearchResult implements Parcelable {
     public static final String CON_URL = "con_url";
     public static final String CON_ERROR = "con_error";
 
+    /** parcel content markers, see {@link SearchResultRegistry} */
+    private static final int PARCEL_CONTENT = 0;
+    private static final int PARCEL_HANDLE = 1;
+
+    private static final String JSON_GEOCODES = "geocodes";
+    private static final String JSON_FILTERED_GEOCODES = "filteredGeocodes";
+    private static final String JSON_FOUND_BY = "foundBy";
+    private static final String JSON_NOT_FOUND_BY = "notFoundBy";
+    private static final String JSON_CONTEXT = "context";
+    private static final String JSON_LONG_PREFIX = "long:";
+
+    /** marker for connectors which did not deliver a result in {@link #parallelCombineActive} */
+    private static final SearchResult NO_RESULT = new SearchResult();
+
     private final Set<String> geocodes = Collections.synchronizedSet(new HashSet<>());
     private final Set<String> filteredGeocodes = Collections.synchronizedSet(new HashSet<>());
 
     private SearchCacheData searchCacheData = null;
 
+    /** incremented on (potential) modifications, used to reuse registry handles of unmodified search results */
+    private final AtomicInteger modCount = new AtomicInteger();
+    /** handle this search result was last registered with in {@link SearchResultRegistry} */
+    private volatile String registryHandle = null;
+
     //A bundle of bundles where connectors can store specific context values
     private final Bundle connectorContext = new Bundle();
 
@@ -85,6 +113,10 @@ public class SearchResult implements Parcelable {
      * @param searchResult the original search result, which cannot be null
      */
     public SearchResult(final SearchResult searchResult) {
+        copyFrom(searchResult);
+    }
+
+    private void copyFrom(final SearchResult searchResult) {
         geocodes.clear();
         geocodes.addAll(searchResult.geocodes);
         filteredGeocodes.clear();
@@ -118,6 +150,21 @@ public class SearchResult implements Parcelable {
 
     @VisibleForTesting
     SearchResult(final Parcel in) {
+        if (in.readInt() == PARCEL_HANDLE) {
+            final String handle = in.readString();
+            final SearchResult registered = handle == null ? null : SearchResultRegistry.get().take(handle);
+            if (registered == null) {
+                Log.w("SearchResult: lost search result " + handle + ", using empty result");
+            } else {
+                copyFrom(registered);
+                detach();
+            }
+        } else {
+            readContentFromParcel(in);
+        }
+    }
+
+    void readContentFromParcel(final Parcel in) {
         final ArrayList<String> list = new ArrayList<>();
         in.readStringList(list);
         geocodes.addAll(list);
@@ -148,12 +195,119 @@ public class SearchResult implements Parcelable {
         addAndPutInCache(caches);
     }
 
+    /**
+     * Large search results are only parcelled as handle of {@link SearchResultRegistry},
+     * to keep Intents and saved instance states small.
+     */
     @Override
     public void writeToParcel(final Parcel out, final int flags) {
+        if (geocodes.size() + filteredGeocodes.size() <= SearchResultRegistry.INLINE_LIMIT) {
+            out.writeInt(PARCEL_CONTENT);
+            writeContentToParcel(out, flags);
+            return;
+        }
+        final String handle = SearchResultRegistry.get().register(this, registryHandle, modCount.get());
+        registryHandle = handle;
+        out.writeInt(PARCEL_HANDLE);
+        out.writeString(handle);
+    }
+
+    void writeContentToParcel(final Parcel out, final int flags) {
         out.writeStringArray(geocodes.toArray(new String[0]));
         out.writeStringArray(filteredGeocodes.toArray(new String[0]));
         out.writeParcelable(searchCacheData, flags);
-        out.writeBundle(connectorContext);
+        synchronized (connectorContext) {
+            out.writeBundle(connectorContext);
+        }
+    }
+
+    /** copy of this search result which is independent of later modifications of connector context and cache data */
+    @NonNull
+    SearchResult snapshot() {
+        final SearchResult snapshot = new SearchResult(this);
+        snapshot.detach();
+        return snapshot;
+    }
+
+    /** replaces connector specific context bundles and search cache data (which are shared after copying) by own copies */
+    private void detach() {
+        synchronized (connectorContext) {
+            for (String key : new ArrayList<>(connectorContext.keySet())) {
+                connectorContext.putBundle(key, new Bundle(connectorContext.getBundle(key)));
+            }
+        }
+        if (searchCacheData != null) {
+            searchCacheData = new SearchCacheData(searchCacheData);
+        }
+    }
+
+    /**
+     * Stores the content of this search result as JSON, e.g. for persisting it in a file. Connector context values other
+     * than strings and numbers (like sort orders) are not included, connectors fall back to their defaults for them.
+     */
+    @NonNull
+    ObjectNode writeContentToJson() {
+        final ObjectNode node = JsonUtils.createObjectNode();
+        JsonUtils.setTextCollection(node, JSON_GEOCODES, new ArrayList<>(geocodes));
+        JsonUtils.setTextCollection(node, JSON_FILTERED_GEOCODES, new ArrayList<>(filteredGeocodes));
+        if (searchCacheData != null) {
+            JsonUtils.setTextCollection(node, JSON_FOUND_BY, new ArrayList<>(searchCacheData.getFoundBy()));
+            JsonUtils.setTextCollection(node, JSON_NOT_FOUND_BY, new ArrayList<>(searchCacheData.getNotFoundBy()));
+        }
+        final ObjectNode context = JsonUtils.createObjectNode();
+        synchronized (connectorContext) {
+            for (String conKey : connectorContext.keySet()) {
+                final Bundle bundle = connectorContext.getBundle(conKey);
+                final ObjectNode values = JsonUtils.createObjectNode();
+                for (String key : bundle.keySet()) {
+                    final Object value = bundle.get(key);
+                    if (value instanceof String) {
+                        values.put(key, (String) value);
+                    } else if (value instanceof Integer) {
+                        values.put(key, (Integer) value);
+                    } else if (value instanceof Long) {
+                        // marked to distinguish from int values on reading
+                        values.put(JSON_LONG_PREFIX + key, (Long) value);
+                    } else if (value instanceof Boolean) {
+                        values.put(key, (Boolean) value);
+                    }
+                }
+                context.set(conKey, values);
+            }
+        }
+        node.set(JSON_CONTEXT, context);
+        return node;
+    }
+
+    void readContentFromJson(@NonNull final JsonNode node) {
+        geocodes.addAll(JsonUtils.getTextList(node, JSON_GEOCODES));
+        filteredGeocodes.addAll(JsonUtils.getTextList(node, JSON_FILTERED_GEOCODES));
+        if (node.has(JSON_FOUND_BY) || node.has(JSON_NOT_FOUND_BY)) {
+            getOrCreateCacheData().addFoundBy(JsonUtils.getTextList(node, JSON_FOUND_BY));
+            getOrCreateCacheData().addNotFoundBy(JsonUtils.getTextList(node, JSON_NOT_FOUND_BY));
+        }
+        final JsonNode context = node.get(JSON_CONTEXT);
+        if (context == null) {
+            return;
+        }
+        final Iterator<Map.Entry<String, JsonNode>> connectors = context.fields();
+        while (connectors.hasNext()) {
+            final Map.Entry<String, JsonNode> connector = connectors.next();
+            final Bundle bundle = getConnectorContext(connector.getKey());
+            final Iterator<Map.Entry<String, JsonNode>> values = connector.getValue().fields();
+            while (values.hasNext()) {
+                final Map.Entry<String, JsonNode> value = values.next();
+                if (value.getKey().startsWith(JSON_LONG_PREFIX)) {
+                    bundle.putLong(value.getKey().substring(JSON_LONG_PREFIX.length()), value.getValue().asLong());
+                } else if (value.getValue().isBoolean()) {
+                    bundle.putBoolean(value.getKey(), value.getValue().asBoolean());
+                } else if (value.getValue().isInt()) {
+                    bundle.putInt(value.getKey(), value.getValue().asInt());
+                } else if (value.getValue().isTextual()) {
+                    bundle.putString(value.getKey(), value.getValue().asText());
+                }
+            }
+        }
     }
 
     @Override
@@ -202,8 +356,15 @@ public class SearchResult implements Parcelable {
         setToContext(con, b -> b.putInt(CON_LEFT_TO_FETCH, leftToFetch));
     }
 
+    /** returns the (mutable) context of a connector. Counts as modification, as callers may change the returned bundle */
     public Bundle getConnectorContext(@Nullable final IConnector con) {
-        return getConnectorContext(con == null ? "null" : con.getName());
+        modCount.incrementAndGet();
+        return getConnectorContext(getConnectorKey(con));
+    }
+
+    @NonNull
+    private static String getConnectorKey(@Nullable final IConnector con) {
+        return con == null ? "null" : con.getName();
     }
 
     private Bundle getConnectorContext(@NonNull final String conKey) {
@@ -220,7 +381,7 @@ public class SearchResult implements Parcelable {
 
     public <T> T getFromContext(@Nullable final IConnector con, final Func1<Bundle, T> getter) {
         synchronized (this.connectorContext) {
-            final Bundle b = getConnectorContext(con);
+            final Bundle b = getConnectorContext(getConnectorKey(con));
             return getter.call(b);
         }
     }
@@ -248,8 +409,9 @@ public class SearchResult implements Parcelable {
     }
 
     public void setToContext(@NonNull final IConnector con, final Consumer<Bundle> setter) {
+        modCount.incrementAndGet();
         synchronized (this.connectorContext) {
-            setter.accept(getConnectorContext(con));
+            setter.accept(getConnectorContext(getConnectorKey(con)));
         }
     }
 
@@ -260,6 +422,7 @@ public class SearchResult implements Parcelable {
     }
 
     public SearchCacheData getOrCreateCacheData() {
+        modCount.incrementAndGet();
         if (this.searchCacheData == null) {
             this.searchCacheData = new SearchCacheData();
         }
@@ -267,6 +430,7 @@ public class SearchResult implements Parcelable {
     }
 
     public void setCacheData(@NonNull final SearchCacheData searchCacheData) {
+        modCount.incrementAndGet();
         this.searchCacheData = searchCacheData;
     }
 
@@ -303,6 +467,7 @@ public class SearchResult implements Parcelable {
         if (StringUtils.isBlank(geocode)) {
             throw new IllegalArgumentException("geocode must not be blank");
         }
+        modCount.incrementAndGet();
         return geocodes.add(geocode);
     }
 
@@ -310,6 +475,7 @@ public class SearchResult implements Parcelable {
      * Add the geocodes to the search. No caches are loaded into the CacheCache
      */
     public boolean addGeocodes(final Set<String> geocodes) {
+        modCount.incrementAndGet();
         return this.geocodes.addAll(geocodes);
     }
 
@@ -338,6 +504,7 @@ public class SearchResult implements Parcelable {
     }
 
     public void addFilteredGeocodes(final Set<String> cachedMissingFromSearch) {
+        modCount.incrementAndGet();
         filteredGeocodes.addAll(cachedMissingFromSearch);
     }
 
@@ -349,6 +516,7 @@ public class SearchResult implements Parcelable {
         if (other == null) {
             return;
         }
+        modCount.incrementAndGet();
         addGeocodes(other.geocodes);
         addFilteredGeocodes(other.filteredGeocodes);
         searchCacheData = other.searchCacheData;
@@ -379,22 +547,123 @@ public class SearchResult implements Parcelable {
     @WorkerThread
     public static <C extends IConnector> SearchResult parallelCombineActive(
             @Nullable final SearchResult initial, final Collection<C> connectors, final Function<C, SearchResult> func) {
-        return Observable.fromIterable(connectors).flatMapMaybe((Function<C, Maybe<SearchResult>>) connector -> {
-            if (!connector.isActive()) {
-                return Maybe.empty();
+        return parallelCombineActive(initial, connectors, func, null, 0, false, null);
+    }
+
+    /**
+     * execute the given connector request in parallel on all active connectors, publishing partial results
+     * as soon as single connectors have answered
+     *
+     * @param initial             optional initial SearchResult. If given, new results are added to this, otherwise a new one is created
+     * @param connectors          connectors to be considered in request
+     * @param func                connector request
+     * @param operation           kind of request, used for collecting latency statistics. No statistics are collected if null
+     * @param deadlineMillis      maximum time to wait for each single connector (0 for no limit). Results arriving later are
+     *                            dropped and a {@link StatusCode#CONNECTOR_TIMEOUT} error is set for the connector
+     * @param hedged              if true, a second request is started for connectors answering slower than usual (see
+     *                            {@link ConnectorSearchStatistics}), the slower of both requests is cancelled. Only use for
+     *                            requests without side effects. Requires an operation.
+     * @param partialResultAction optional action called with a copy of the combined result each time a connector has
+     *                            answered while other connectors are still pending. Called on the calling thread.
+     */
+    @WorkerThread
+    public static <C extends IConnector> SearchResult parallelCombineActive(
+            @Nullable final SearchResult initial, final Collection<C> connectors, final Function<C, SearchResult> func, @Nullable final ConnectorSearchStatistics.Operation operation,
+            final long deadlineMillis, final boolean hedged, @Nullable final Consumer<SearchResult> partialResultAction) {
+        final List<C> activeConnectors = new ArrayList<>();
+        for (final C connector : connectors) {
+            if (connector.isActive()) {
+                activeConnectors.add(connector);
             }
-            return Maybe.fromCallable(() -> {
-                try {
-                    return func.apply(connector);
-                } catch (final Throwable t) {
+        }
+        final SearchResult result = initial == null ? new SearchResult() : initial;
+        final int[] pending = {activeConnectors.size()};
+        Observable.fromIterable(activeConnectors)
+                .flatMapSingle(connector -> searchConnector(connector, func, operation, deadlineMillis, hedged).defaultIfEmpty(NO_RESULT))
+                .blockingForEach(searchResult -> {
+                    pending[0]--;
+                    if (searchResult == NO_RESULT) {
+                        return;
+                    }
+                    result.addSearchResult(searchResult);
+                    if (pending[0] > 0 && partialResultAction != null) {
+                        partialResultAction.accept(new SearchResult(result));
+                    }
+                });
+        return result;
+    }
+
+    /** request of a single connector, bounded by deadline and optionally hedged */
+    private static <C extends IConnector> Maybe<SearchResult> searchConnector(final C connector, final Function<C, SearchResult> func,
+                                                                            @Nullable final ConnectorSearchStatistics.Operation operation,
+                                                                            final long deadlineMillis, final boolean hedged) {
+        Maybe<SearchResult> request = createConnectorRequest(connector, func, operation);
+        final long hedgeDelay = hedged && operation != null ? ConnectorSearchStatistics.getHedgeDelay(connector, operation) : 0;
+        if (hedgeDelay > 0 && (deadlineMillis <= 0 || hedgeDelay < deadlineMillis)) {
+            // amb disposes (and thus interrupts) the request which did not answer first
+            request = request.ambWith(Maybe.timer(hedgeDelay, TimeUnit.MILLISECONDS).flatMap(ignore -> {
+                Log.d("parallelCombineActive: starting hedged request for connector " + connector);
+                ConnectorSearchStatistics.recordHedge(connector, operation);
+                return createConnectorRequest(connector, func, operation);
+            }));
+        }
+        if (deadlineMillis > 0) {
+            request = request.timeout(deadlineMillis, TimeUnit.MILLISECONDS, Maybe.fromCallable(() -> {
+                Log.w("parallelCombineActive: connector " + connector + " did not answer within " + deadlineMillis + "ms, dropping its result");
+                if (operation != null) {
+                    ConnectorSearchStatistics.recordTimeout(connector, operation);
+                }
+                return new SearchResult(connector, StatusCode.CONNECTOR_TIMEOUT);
+            }));
+        }
+        return request;
+    }
+
+    /**
+     * Runs a single connector request on the network scheduler. Disposing the returned Maybe interrupts the request, so
+     * that requests no longer needed (hedged requests which lost, requests after their deadline) don't keep running.
+     */
+    private static <C extends IConnector> Maybe<SearchResult> createConnectorRequest(final C connector, final Function<C, SearchResult> func,
+                                                                                   @Nullable final ConnectorSearchStatistics.Operation operation) {
+        return Maybe.<SearchResult>create(emitter -> {
+            final Thread thread = Thread.currentThread();
+            final AtomicBoolean running = new AtomicBoolean(true);
+            emitter.setCancellable(() -> {
+                synchronized (running) {
+                    if (running.get()) {
+                        thread.interrupt();
+                    }
+                }
+            });
+            final long start = System.nanoTime();
+            SearchResult searchResult = null;
+            try {
+                searchResult = func.apply(connector);
+                if (operation != null && !emitter.isDisposed()) {
+                    ConnectorSearchStatistics.recordLatency(connector, operation, System.nanoTime() - start);
+                }
+            } catch (final Throwable t) {
+                if (emitter.isDisposed()) {
+                    Log.d("parallelCombineActive: cancelled request of connector " + connector);
+                } else {
+                    if (operation != null) {
+                        ConnectorSearchStatistics.recordError(connector, operation);
+                    }
                     Log.w("parallelCombineActive: swallowing error from connector " + connector, t);
-                    return null;
                 }
-            }).subscribeOn(AndroidRxUtils.networkScheduler);
-        }).reduce(initial == null ? new SearchResult() : initial, (searchResult, searchResult2) -> {
-            searchResult.addSearchResult(searchResult2);
-            return searchResult;
-        }).blockingGet();
+            } finally {
+                synchronized (running) {
+                    running.set(false);
+                }
+                // don't leave a pending interrupt to the next task of this pooled thread
+                Thread.interrupted();
+            }
+            if (searchResult == null) {
+                emitter.onComplete();
+            } else {
+                emitter.onSuccess(searchResult);
+            }
+        }).subscribeOn(AndroidRxUtils.networkScheduler);
     }
 
 }
@@ -0,0 +1,247 @@
+package cgeo.geocaching;
+
+import cgeo.geocaching.storage.LocalStorage;
+import cgeo.geocaching.utils.FileUtils;
+import cgeo.geocaching.utils.JsonUtils;
+import cgeo.geocaching.utils.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * In-process registry of search results passed between screens.
+ *
+ * Large search results are not written into a Parcel (Intent extras, saved instance state) completely, but registered
+ * here and only their handle is parcelled. A handle may be read any number of times (e.g. the same saved state being
+ * restored again), so entries are not released on reading. Only the {@link #MAX_ENTRIES} most recently used entries
+ * are kept in memory.
+ *
+ * To survive process death and eviction from memory, each registered search result is additionally spilled to a JSON
+ * file in the background. Spill files are cleaned up by age and number.
+ */
+final class SearchResultRegistry {
+
+    /** search results with up to this number of geocodes are still parcelled completely */
+    static final int INLINE_LIMIT = 500;
+
+    @VisibleForTesting
+    static final int MAX_ENTRIES = 8;
+    private static final int MAX_SPILL_FILES = 20;
+    private static final long MAX_SPILL_FILE_AGE_MS = 3 * 24 * 3600 * 1000L;
+    private static final String SPILL_DIRECTORY = "searchresults";
+    private static final String SPILL_FILE_PREFIX = "searchresult-";
+    /** maximum time a reader waits for a search result which is not in memory, as it is usually the UI thread */
+    private static final long SPILL_READ_TIMEOUT_MS = 200;
+
+    private static final SearchResultRegistry INSTANCE = new SearchResultRegistry();
+
+    private static final class Entry {
+        @NonNull final SearchResult snapshot;
+        final int modCount;
+
+        Entry(@NonNull final SearchResult snapshot, final int modCount) {
+            this.snapshot = snapshot;
+            this.modCount = modCount;
+        }
+    }
+
+    private final AtomicInteger handleCounter = new AtomicInteger();
+    /** released once spill files of a previous process have been restored, see {@link #restoreSpillFilesInBackground()} */
+    private final CountDownLatch restoreDone = new CountDownLatch(1);
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private SearchResultRegistry() {
+        // singleton
+    }
+
+    @NonNull
+    static SearchResultRegistry get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the current state of a search result and returns a handle for it. If the same search result was
+     * registered before and has not been modified since, the existing handle is returned.
+     */
+    @NonNull
+    synchronized String register(@NonNull final SearchResult searchResult, @Nullable final String previousHandle, final int modCount) {
+        if (previousHandle != null) {
+            final Entry previous = entries.get(previousHandle);
+            if (previous != null && previous.modCount == modCount) {
+                return previousHandle;
+            }
+        }
+        // handles must stay unique across process restarts, they are used as names of spill files
+        final String handle = System.currentTimeMillis() + "-" + handleCounter.incrementAndGet();
+        final SearchResult snapshot = searchResult.snapshot();
+        entries.put(handle, new Entry(snapshot, modCount));
+        Log.d("SearchResultRegistry: registered " + handle + " with " + snapshot.getCount() + " geocodes");
+        Schedulers.io().scheduleDirect(() -> writeSpillFile(handle, snapshot));
+        return handle;
+    }
+
+    /**
+     * Returns the search result registered for given handle. Falls back to the spill file if the entry is not in
+     * memory (anymore), e.g. after process death. Returns null if nothing can be found in time.
+     * The returned search result must not be modified, callers need to copy it.
+     *
+     * Spill files are read on an io thread (or restored in background on app start, see
+     * {@link #restoreSpillFilesInBackground()}), but the calling thread blocks until they are available. This wait is
+     * bounded by {@link #SPILL_READ_TIMEOUT_MS} in total, as the calling thread is often the UI thread.
+     */
+    @Nullable
+    SearchResult take(@NonNull final String handle) {
+        SearchResult result = getFromMemory(handle);
+        if (result != null) {
+            return result;
+        }
+        final long deadline = System.currentTimeMillis() + SPILL_READ_TIMEOUT_MS;
+        try {
+            if (!restoreDone.await(SPILL_READ_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                Log.w("SearchResultRegistry: restoring spill files takes too long");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        result = getFromMemory(handle);
+        final long remaining = deadline - System.currentTimeMillis();
+        if (result != null || remaining <= 0) {
+            return result;
+        }
+        return Maybe.fromCallable(() -> readSpillFile(handle))
+                .subscribeOn(Schedulers.io())
+                .timeout(remaining, TimeUnit.MILLISECONDS)
+                .onErrorComplete()
+                .blockingGet();
+    }
+
+    @Nullable
+    private synchronized SearchResult getFromMemory(@NonNull final String handle) {
+        final Entry entry = entries.get(handle);
+        return entry == null ? null : entry.snapshot;
+    }
+
+    /** reads the most recent spill files into memory in background, so handles surviving process death can be resolved quickly */
+    static void restoreSpillFilesInBackground() {
+        Schedulers.io().scheduleDirect(() -> {
+            try {
+                final File[] files = getSpillDirectory().listFiles((dir, name) -> name.startsWith(SPILL_FILE_PREFIX));
+                if (files == null) {
+                    return;
+                }
+                Arrays.sort(files, (f1, f2) -> Long.compare(f2.lastModified(), f1.lastModified()));
+                for (int i = Math.min(files.length, MAX_ENTRIES) - 1; i >= 0; i--) {
+                    final String handle = files[i].getName().substring(SPILL_FILE_PREFIX.length());
+                    final SearchResult searchResult = readSpillFile(handle);
+                    if (searchResult != null) {
+                        get().restore(handle, searchResult);
+                    }
+                }
+            } finally {
+                get().restoreDone.countDown();
+            }
+        });
+    }
+
+    private synchronized void restore(@NonNull final String handle, @NonNull final SearchResult searchResult) {
+        if (!entries.containsKey(handle)) {
+            entries.put(handle, new Entry(searchResult, -1));
+        }
+    }
+
+    @VisibleForTesting
+    synchronized boolean isInMemory(@NonNull final String handle) {
+        return entries.containsKey(handle);
+    }
+
+    @VisibleForTesting
+    synchronized void clearMemory() {
+        entries.clear();
+    }
+
+    @NonNull
+    private static File getSpillDirectory() {
+        return new File(LocalStorage.getInternalCgeoCacheDirectory(), SPILL_DIRECTORY);
+    }
+
+    @NonNull
+    private static File getSpillFile(@NonNull final String handle) {
+        return new File(getSpillDirectory(), SPILL_FILE_PREFIX + handle);
+    }
+
+    @VisibleForTesting
+    static void deleteSpillFile(@NonNull final String handle) {
+        FileUtils.deleteIgnoringFailure(getSpillFile(handle));
+    }
+
+    @VisibleForTesting
+    static void writeSpillFile(@NonNull final String handle, @NonNull final SearchResult snapshot) {
+        final File directory = getSpillDirectory();
+        if (!FileUtils.mkdirs(directory)) {
+            return;
+        }
+        try {
+            JsonUtils.writer.writeValue(getSpillFile(handle), snapshot.writeContentToJson());
+        } catch (final IOException | RuntimeException e) {
+            Log.w("SearchResultRegistry: could not spill search result " + handle, e);
+        }
+        cleanupSpillFiles(directory);
+    }
+
+    @Nullable
+    @VisibleForTesting
+    @WorkerThread
+    static SearchResult readSpillFile(@NonNull final String handle) {
+        final File file = getSpillFile(handle);
+        if (!file.isFile()) {
+            Log.w("SearchResultRegistry: search result " + handle + " is neither registered nor spilled");
+            return null;
+        }
+        try {
+            final SearchResult searchResult = new SearchResult();
+            searchResult.readContentFromJson(JsonUtils.mapper.readTree(file));
+            Log.d("SearchResultRegistry: restored " + handle + " from spill file");
+            return searchResult;
+        } catch (final IOException | RuntimeException e) {
+            Log.w("SearchResultRegistry: could not read spilled search result " + handle, e);
+            return null;
+        }
+    }
+
+    /** removes outdated spill files and keeps at most {@link #MAX_SPILL_FILES} of the most recent ones */
+    private static synchronized void cleanupSpillFiles(@NonNull final File directory) {
+        final File[] files = directory.listFiles((dir, name) -> name.startsWith(SPILL_FILE_PREFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (f1, f2) -> Long.compare(f2.lastModified(), f1.lastModified()));
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < files.length; i++) {
+            if (i >= MAX_SPILL_FILES || now - files[i].lastModified() > MAX_SPILL_FILE_AGE_MS) {
+                FileUtils.deleteIgnoringFailure(files[i]);
+            }
+        }
+    }
+
+}
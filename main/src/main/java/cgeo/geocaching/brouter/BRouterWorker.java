@@ -158,4 +158,60 @@ public class BRouterWorker {
         return null;
     }
 
+    /**
+     * Calculates a route like {@link #getTrackFromParams(Bundle)} in routing mode, but returns it as {@link PackedTrack}
+     * bundle (or a bundle containing an error message) without formatting the track. Returns null if no track was found.
+     * Only supports waypoints given as "lats"/"lons" arrays, as used by c:geo.
+     */
+    public Bundle getPackedTrackFromParams(final Bundle params) {
+        final RoutingContext rc = new RoutingContext();
+        rc.rawTrackPath = rawTrackPath;
+        rc.profileFilename = profileFilename;
+
+        final double[] lats = params.getDoubleArray("lats");
+        final double[] lons = params.getDoubleArray("lons");
+        if (lats == null || lons == null) {
+            throw new IllegalArgumentException("no points!");
+        }
+        params.remove("lats");
+        params.remove("lons");
+        final RoutingParamCollector routingParamCollector = new RoutingParamCollector();
+        waypoints = routingParamCollector.readPositions(lons, lats);
+        if (waypoints.size() < 2) {
+            throw new IllegalArgumentException("we need two lat/lon points at least!");
+        }
+
+        if (nogoList != null && !nogoList.isEmpty()) {
+            // forward already read nogos from filesystem
+            if (rc.nogopoints == null) {
+                rc.nogopoints = nogoList;
+            } else {
+                rc.nogopoints.addAll(nogoList);
+            }
+        }
+
+        final Map<String, String> routingParams = new HashMap<>();
+        for (String key : params.keySet()) {
+            routingParams.put(key, String.valueOf(params.get(key)));
+        }
+        routingParamCollector.setParams(rc, waypoints, routingParams);
+
+        final String maxRunningTime = params.getString("maxRunningTime");
+        final RoutingEngine cr = new RoutingEngine(waypoints, rc, RoutingEngine.BROUTER_ENGINEMODE_ROUTING);
+        cr.doRun(maxRunningTime == null ? 60000 : Integer.parseInt(maxRunningTime) * 1000L);
+
+        // store new reference track if any (can exist for timed-out search)
+        if (cr.getFoundRawTrack() != null) {
+            try {
+                cr.getFoundRawTrack().writeBinary(rawTrackPath);
+            } catch (Exception ignored) {
+            }
+        }
+        if (cr.getErrorMessage() != null) {
+            return PackedTrack.errorBundle(cr.getErrorMessage());
+        }
+        final OsmTrack track = cr.getFoundTrack();
+        return track == null ? null : PackedTrack.fromTrack(track).toBundle();
+    }
+
 }
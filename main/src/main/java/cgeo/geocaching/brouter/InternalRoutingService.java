@@ -12,6 +12,8 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.IBinder;
 
+import androidx.annotation.Nullable;
+
 import java.io.File;
 import java.util.ArrayList;
 
@@ -22,37 +24,60 @@ public class InternalRoutingService extends Service {
     private final IInternalRoutingService.Stub myBRouterServiceStub = new IInternalRoutingService.Stub() {
         @Override
         public String getTrackFromParams(final Bundle params) {
-            final BRouterWorker worker = new BRouterWorker();
-
             int engineMode = 0;
             if (params.containsKey("engineMode")) {
                 engineMode = params.getInt("engineMode", 0);
             }
 
-            if (engineMode == RoutingEngine.BROUTER_ENGINEMODE_ROUTING) {
-                worker.profileFilename = params.getString(PROFILE_PARAMTERKEY);
-                if (StringUtils.isBlank(worker.profileFilename)) {
-                    return ""; // cannot calculate a route without a profile
-                }
-            } else {
-                worker.profileFilename = BROUTER_PROFILE_ELEVATION_ONLY;
+            final BRouterWorker worker = createWorker(params, engineMode);
+            if (worker == null) {
+                return ""; // cannot calculate a route without a profile
             }
 
-            final String mode = params.getString("v");
-            worker.rawTrackPath = getApplicationContext().getFilesDir().getAbsolutePath() + "/routing/";
-            FileUtils.mkdirs(new File(worker.rawTrackPath));
-            worker.rawTrackPath += mode + "_rawtrack.dat";
-
-            worker.nogoList = new ArrayList<>();
-
             try {
                 return worker.getTrackFromParams(params);
             } catch (IllegalArgumentException iae) {
                 return iae.getMessage();
             }
         }
+
+        @Override
+        public Bundle getPackedTrackFromParams(final Bundle params) {
+            final BRouterWorker worker = createWorker(params, RoutingEngine.BROUTER_ENGINEMODE_ROUTING);
+            if (worker == null) {
+                return null; // cannot calculate a route without a profile
+            }
+
+            try {
+                return worker.getPackedTrackFromParams(params);
+            } catch (IllegalArgumentException iae) {
+                return PackedTrack.errorBundle(String.valueOf(iae.getMessage()));
+            }
+        }
     };
 
+    @Nullable
+    private BRouterWorker createWorker(final Bundle params, final int engineMode) {
+        final BRouterWorker worker = new BRouterWorker();
+
+        if (engineMode == RoutingEngine.BROUTER_ENGINEMODE_ROUTING) {
+            worker.profileFilename = params.getString(PROFILE_PARAMTERKEY);
+            if (StringUtils.isBlank(worker.profileFilename)) {
+                return null;
+            }
+        } else {
+            worker.profileFilename = BROUTER_PROFILE_ELEVATION_ONLY;
+        }
+
+        final String mode = params.getString("v");
+        worker.rawTrackPath = getApplicationContext().getFilesDir().getAbsolutePath() + "/routing/";
+        FileUtils.mkdirs(new File(worker.rawTrackPath));
+        worker.rawTrackPath += mode + "_rawtrack.dat";
+
+        worker.nogoList = new ArrayList<>();
+        return worker;
+    }
+
     @Override
     public IBinder onBind(final Intent arg0) {
         Log.d(getClass().getSimpleName() + "onBind()");
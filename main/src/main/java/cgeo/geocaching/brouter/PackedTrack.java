@@ -0,0 +1,105 @@
+package cgeo.geocaching.brouter;
+
+import cgeo.geocaching.brouter.core.OsmPathElement;
+import cgeo.geocaching.brouter.core.OsmTrack;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Compact representation of a calculated route, transported from the internal routing service as plain arrays
+ * instead of a formatted (GPX) track. Used by live navigation, where only the geometry of a route is needed.
+ */
+public final class PackedTrack {
+
+    /** marker for missing elevation values */
+    public static final short NO_ELEVATION = Short.MIN_VALUE;
+
+    private static final String KEY_LATITUDES = "latitudesE6";
+    private static final String KEY_LONGITUDES = "longitudesE6";
+    private static final String KEY_ELEVATIONS = "elevations";
+    private static final String KEY_DISTANCE = "distance";
+    private static final String KEY_SECONDS = "seconds";
+    private static final String KEY_ERROR = "error";
+
+    /** latitudes in microdegrees */
+    @NonNull public final int[] latitudesE6;
+    /** longitudes in microdegrees */
+    @NonNull public final int[] longitudesE6;
+    /** elevations in meters, {@link #NO_ELEVATION} if unknown */
+    @NonNull public final short[] elevations;
+    /** length of route in meters */
+    public final int distance;
+    /** estimated travel time in seconds */
+    public final int seconds;
+
+    public PackedTrack(@NonNull final int[] latitudesE6, @NonNull final int[] longitudesE6, @NonNull final short[] elevations, final int distance, final int seconds) {
+        this.latitudesE6 = latitudesE6;
+        this.longitudesE6 = longitudesE6;
+        this.elevations = elevations;
+        this.distance = distance;
+        this.seconds = seconds;
+    }
+
+    public int size() {
+        return latitudesE6.length;
+    }
+
+    /** packs nodes of a track calculated by the routing engine */
+    @NonNull
+    public static PackedTrack fromTrack(@NonNull final OsmTrack track) {
+        final int size = track.nodes.size();
+        final int[] latitudes = new int[size];
+        final int[] longitudes = new int[size];
+        final short[] elevations = new short[size];
+        for (int i = 0; i < size; i++) {
+            final OsmPathElement node = track.nodes.get(i);
+            // engine coordinates are shifted to be non-negative
+            latitudes[i] = node.getILat() - 90000000;
+            longitudes[i] = node.getILon() - 180000000;
+            final short selev = node.getSElev();
+            elevations[i] = selev == Short.MIN_VALUE ? NO_ELEVATION : (short) Math.round(node.getElev());
+        }
+        return new PackedTrack(latitudes, longitudes, elevations, track.distance, track.getTotalSeconds());
+    }
+
+    @NonNull
+    public Bundle toBundle() {
+        final Bundle bundle = new Bundle();
+        bundle.putIntArray(KEY_LATITUDES, latitudesE6);
+        bundle.putIntArray(KEY_LONGITUDES, longitudesE6);
+        bundle.putShortArray(KEY_ELEVATIONS, elevations);
+        bundle.putInt(KEY_DISTANCE, distance);
+        bundle.putInt(KEY_SECONDS, seconds);
+        return bundle;
+    }
+
+    /** creates result bundle for an error message of the routing engine */
+    @NonNull
+    public static Bundle errorBundle(@NonNull final String message) {
+        final Bundle bundle = new Bundle();
+        bundle.putString(KEY_ERROR, message);
+        return bundle;
+    }
+
+    /** returns error message contained in result bundle, or null if there is none */
+    @Nullable
+    public static String getError(@NonNull final Bundle bundle) {
+        return bundle.getString(KEY_ERROR);
+    }
+
+    /** restores a track from result bundle, returns null if bundle does not contain a track */
+    @Nullable
+    public static PackedTrack fromBundle(@NonNull final Bundle bundle) {
+        final int[] latitudes = bundle.getIntArray(KEY_LATITUDES);
+        final int[] longitudes = bundle.getIntArray(KEY_LONGITUDES);
+        final short[] elevations = bundle.getShortArray(KEY_ELEVATIONS);
+        if (latitudes == null || longitudes == null || elevations == null || latitudes.length != longitudes.length || latitudes.length != elevations.length) {
+            return null;
+        }
+        return new PackedTrack(latitudes, longitudes, elevations, bundle.getInt(KEY_DISTANCE), bundle.getInt(KEY_SECONDS));
+    }
+
+}
@@ -157,6 +157,29 @@ public class MicroCache extends ByteDataWriter {
         }
     }
 
+    /**
+     * returns the 64-bit (lon|lat) global-id of the node with given index
+     */
+    public final long getNodeId(final int n) {
+        return expandId(faid[n]);
+    }
+
+    /**
+     * returns the elevation (in 1/4 meters) of the node with given index without decoding the node body,
+     * or Short.MIN_VALUE if node has no data. Moves the internal reader.
+     */
+    public final short getNodeElevation(final int n) {
+        aboffset = startPos(n);
+        aboffsetEnd = fapos[n] & 0x7fffffff;
+        if (aboffset >= aboffsetEnd) {
+            return Short.MIN_VALUE; // dummy node
+        }
+        while (readBoolean()) { // skip turn restrictions
+            aboffset += 2 + 1 + 4 * 4;
+        }
+        return readShort();
+    }
+
     /**
      * expand a 32-bit micro-cache-internal id into a 64-bit (lon|lat) global-id
      *
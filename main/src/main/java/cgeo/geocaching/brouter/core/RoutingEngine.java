@@ -987,9 +987,13 @@ public class RoutingEngine extends Thread {
             final boolean detailed = guideTrack != null;
             resetCache(detailed);
             nodesCache.nodesMap.cleanupMode = detailed ? 0 : (routingContext.considerTurnRestrictions ? 2 : 1);
+            if (startWp != null && endWp != null) {
+                nodesCache.prefetchCorridor(startWp.waypoint, endWp.waypoint);
+            }
             return findTrackHelper(operationName, startWp, endWp, costCuttingTrack, refTrack, fastPartialRecalc);
         } finally {
             routingContext.restoreNogoList();
+            nodesCache.cancelPrefetch();
             nodesCache.clean(false); // clean only non-virgin caches
         }
     }
@@ -1505,6 +1509,10 @@ public class RoutingEngine extends Thread {
 
     public void terminate() {
         terminated = true;
+        final NodesCache cache = nodesCache;
+        if (cache != null) {
+            cache.cancelPrefetch();
+        }
     }
 
     public String getOutfile() {
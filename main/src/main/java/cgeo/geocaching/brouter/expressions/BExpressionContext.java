@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
+import java.util.function.Supplier;
 
 public abstract class BExpressionContext implements IByteArrayUnifier {
     private static final String CONTEXT_TAG = "---context:";
@@ -807,9 +808,17 @@ public abstract class BExpressionContext implements IByteArrayUnifier {
     }
 
     public void parseFile(final Uri uri, String readOnlyContext, Map<String, String> keyValues) {
-        final InputStream is = ContentStorage.get().openForRead(uri);
+        parseProfile(() -> ContentStorage.get().openForRead(uri), uri.toString(), readOnlyContext, keyValues);
+    }
+
+    /**
+     * parses a profile provided as stream (e.g. outside of the app, where there is no content storage).
+     * The supplier is called twice if a read-only context is given.
+     */
+    public void parseProfile(final Supplier<InputStream> profile, final String profileName, String readOnlyContext, Map<String, String> keyValues) {
+        final InputStream is = profile.get();
         if (is == null) {
-            throw new IllegalArgumentException("profile " + uri + " does not exist");
+            throw new IllegalArgumentException("profile " + profileName + " does not exist");
         }
         try {
             if (readOnlyContext != null) {
@@ -817,7 +826,7 @@ public abstract class BExpressionContext implements IByteArrayUnifier {
                 final String realContext = context;
                 context = readOnlyContext;
 
-                final InputStream is2 = ContentStorage.get().openForRead(uri);
+                final InputStream is2 = profile.get();
                 expressionList = parseFileHelper(is2, keyValues);
                 variableData = new float[variableNumbers.size()];
                 evaluate(lookupData); // lookupData is dummy here - evaluate just to create the variables
@@ -843,7 +852,7 @@ public abstract class BExpressionContext implements IByteArrayUnifier {
                 variableData[i] = readOnlyData[i];
             }
         } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("ParseException " + uri.toString() + " at line " + linenr + ": " + e.getMessage());
+            throw new IllegalArgumentException("ParseException " + profileName + " at line " + linenr + ": " + e.getMessage());
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
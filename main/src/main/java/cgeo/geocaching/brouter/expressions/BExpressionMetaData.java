@@ -11,6 +11,8 @@ import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.PersistableFolder;
 
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.HashMap;
 import java.util.Map;
@@ -33,48 +35,55 @@ public final class BExpressionMetaData {
     }
 
     public void readMetaData() {
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(ContentStorage.get().openForRead(PersistableFolder.ROUTING_BASE.getFolder(), BRouterConstants.BROUTER_LOOKUPS_FILENAME)))) {
-            BExpressionContext ctx = null;
+        try (InputStream is = ContentStorage.get().openForRead(PersistableFolder.ROUTING_BASE.getFolder(), BRouterConstants.BROUTER_LOOKUPS_FILENAME)) {
+            readMetaData(is);
+        } catch (Exception e) {
+            throw new RuntimeException("file: " + ContentStorage.get().getFileInfo(PersistableFolder.ROUTING_BASE.getFolder(), BRouterConstants.BROUTER_LOOKUPS_FILENAME), e);
+        }
+    }
 
-            for (; ; ) {
-                String line = br.readLine();
-                if (line == null) {
-                    break;
-                }
-                line = line.trim();
-                if (line.length() == 0 || line.startsWith("#")) {
-                    continue;
-                }
-                if (line.startsWith(CONTEXT_TAG)) {
-                    ctx = listeners.get(line.substring(CONTEXT_TAG.length()));
-                    continue;
-                }
-                if (line.startsWith(VERSION_TAG)) {
-                    lookupVersion = Short.parseShort(line.substring(VERSION_TAG.length()));
-                    continue;
-                }
-                if (line.startsWith(MINOR_VERSION_TAG)) {
-                    lookupMinorVersion = Short.parseShort(line.substring(MINOR_VERSION_TAG.length()));
-                    continue;
-                }
-                if (line.startsWith(MIN_APP_VERSION_TAG)) {
-                    minAppVersion = Short.parseShort(line.substring(MIN_APP_VERSION_TAG.length()));
-                    continue;
-                }
-                if (line.startsWith(VARLENGTH_TAG)) {
-                    continue; // tag removed...
-                }
-                if (ctx != null) {
-                    ctx.parseMetaLine(line);
-                }
-            }
+    /**
+     * reads the lookup table from given stream (e.g. outside of the app, where there is no content storage)
+     */
+    public void readMetaData(final InputStream is) throws IOException {
+        final BufferedReader br = new BufferedReader(new InputStreamReader(is));
+        BExpressionContext ctx = null;
 
-            for (BExpressionContext c : listeners.values()) {
-                c.finishMetaParsing();
+        for (; ; ) {
+            String line = br.readLine();
+            if (line == null) {
+                break;
+            }
+            line = line.trim();
+            if (line.length() == 0 || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith(CONTEXT_TAG)) {
+                ctx = listeners.get(line.substring(CONTEXT_TAG.length()));
+                continue;
+            }
+            if (line.startsWith(VERSION_TAG)) {
+                lookupVersion = Short.parseShort(line.substring(VERSION_TAG.length()));
+                continue;
             }
+            if (line.startsWith(MINOR_VERSION_TAG)) {
+                lookupMinorVersion = Short.parseShort(line.substring(MINOR_VERSION_TAG.length()));
+                continue;
+            }
+            if (line.startsWith(MIN_APP_VERSION_TAG)) {
+                minAppVersion = Short.parseShort(line.substring(MIN_APP_VERSION_TAG.length()));
+                continue;
+            }
+            if (line.startsWith(VARLENGTH_TAG)) {
+                continue; // tag removed...
+            }
+            if (ctx != null) {
+                ctx.parseMetaLine(line);
+            }
+        }
 
-        } catch (Exception e) {
-            throw new RuntimeException("file: " + ContentStorage.get().getFileInfo(PersistableFolder.ROUTING_BASE.getFolder(), BRouterConstants.BROUTER_LOOKUPS_FILENAME), e);
+        for (BExpressionContext c : listeners.values()) {
+            c.finishMetaParsing();
         }
     }
 }
@@ -0,0 +1,281 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import cgeo.geocaching.brouter.BRouterConstants;
+import cgeo.geocaching.brouter.codec.DataBuffers;
+import cgeo.geocaching.brouter.codec.MicroCache;
+import cgeo.geocaching.storage.ContentStorage;
+import cgeo.geocaching.storage.PersistableFolder;
+import cgeo.geocaching.utils.Log;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Elevation lookup based on the node elevations stored in rd5 routing tiles, without running the routing engine.
+ *
+ * For a position the elevation of the nearest node (within {@link #MAX_NODE_DISTANCE_METERS}) is returned.
+ * Decoded segments are reduced to node positions and elevations and kept in a small LRU cache,
+ * so batch queries along a polyline only decode each segment once.
+ *
+ * Instances are thread-safe.
+ */
+public final class ElevationLookup {
+
+    /** elevation value for positions without elevation data */
+    public static final float NO_ELEVATION = Float.NaN;
+
+    /** nodes further away are not considered for elevation of a position (same as default waypoint catching range) */
+    static final double MAX_NODE_DISTANCE_METERS = 250;
+    private static final int MAX_CACHED_SEGMENTS = 32;
+    /** missing tile files are checked again after this time */
+    private static final long MISSING_FILE_RETRY_MS = 60000;
+    private static final double MICRODEGREES_PER_METER = 1e6 / 111195;
+
+    private static final ElevationLookup INSTANCE = new ElevationLookup();
+
+    private final DataBuffers dataBuffers = new DataBuffers();
+    private final Map<String, PhysicalFile> files = new HashMap<>();
+    private final Map<String, Long> missingFiles = new HashMap<>();
+    private final Map<Long, OsmFile> osmFiles = new HashMap<>();
+    private final LinkedHashMap<Long, Segment> segments = new LinkedHashMap<Long, Segment>(MAX_CACHED_SEGMENTS, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Segment> eldest) {
+            return size() > MAX_CACHED_SEGMENTS;
+        }
+    };
+
+    /** node positions and elevations of one decoded segment (micro cache) */
+    static final class Segment {
+        static final Segment EMPTY = new Segment(new int[0], new int[0], new short[0]);
+
+        final int[] ilon;
+        final int[] ilat;
+        final short[] selev;
+
+        Segment(final int[] ilon, final int[] ilat, final short[] selev) {
+            this.ilon = ilon;
+            this.ilat = ilat;
+            this.selev = selev;
+        }
+
+        static Segment of(final MicroCache mc) {
+            final int size = mc.getSize();
+            final int[] ilon = new int[size];
+            final int[] ilat = new int[size];
+            final short[] selev = new short[size];
+            int count = 0;
+            for (int n = 0; n < size; n++) {
+                final short elevation = mc.getNodeElevation(n);
+                if (elevation == Short.MIN_VALUE) {
+                    continue;
+                }
+                final long id = mc.getNodeId(n);
+                ilon[count] = (int) (id >> 32);
+                ilat[count] = (int) (id & 0xffffffffL);
+                selev[count] = elevation;
+                count++;
+            }
+            if (count == size) {
+                return new Segment(ilon, ilat, selev);
+            }
+            final int[] ilonShort = new int[count];
+            final int[] ilatShort = new int[count];
+            final short[] selevShort = new short[count];
+            System.arraycopy(ilon, 0, ilonShort, 0, count);
+            System.arraycopy(ilat, 0, ilatShort, 0, count);
+            System.arraycopy(selev, 0, selevShort, 0, count);
+            return new Segment(ilonShort, ilatShort, selevShort);
+        }
+    }
+
+    public static ElevationLookup getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * returns elevation in meters for given position, or {@link #NO_ELEVATION} if there is no elevation data available
+     */
+    public synchronized float getElevation(final double latitude, final double longitude) {
+        return lookup(toILon(longitude), toILat(latitude));
+    }
+
+    /**
+     * returns elevations in meters for all given positions (e.g. the points of a route), {@link #NO_ELEVATION} for
+     * positions without elevation data
+     */
+    public float[] getElevations(final double[] latitudes, final double[] longitudes) {
+        final float[] result = new float[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            // lock per point, so single lookups (e.g. from UI) don't have to wait for a whole batch
+            synchronized (this) {
+                result[i] = lookup(toILon(longitudes[i]), toILat(latitudes[i]));
+            }
+        }
+        return result;
+    }
+
+    /** closes all tile files and drops cached data, e.g. after tiles have been updated */
+    public synchronized void clear() {
+        for (final PhysicalFile file : files.values()) {
+            if (file != null) {
+                file.close();
+            }
+        }
+        files.clear();
+        missingFiles.clear();
+        osmFiles.clear();
+        segments.clear();
+    }
+
+    private static int toILon(final double longitude) {
+        return (int) Math.round((longitude + 180) * 1e6);
+    }
+
+    private static int toILat(final double latitude) {
+        return (int) Math.round((latitude + 90) * 1e6);
+    }
+
+    private float lookup(final int ilon, final int ilat) {
+        try {
+            final OsmFile osmFile = getOsmFile(ilon, ilat);
+            if (osmFile == null || !osmFile.hasData()) {
+                return NO_ELEVATION;
+            }
+            final int cellSize = osmFile.getCellSize();
+            final double lonScale = getLonScale(ilat);
+            final double maxDistance = MAX_NODE_DISTANCE_METERS * MICRODEGREES_PER_METER;
+
+            // nearest node in own segment and - if it might be nearer - in neighbouring segments
+            final int lonIdx = ilon / cellSize;
+            final int latIdx = ilat / cellSize;
+            final double[] best = {maxDistance * maxDistance, NO_ELEVATION};
+            for (int dLat = -1; dLat <= 1; dLat++) {
+                for (int dLon = -1; dLon <= 1; dLon++) {
+                    final double borderDistanceLon = dLon == 0 ? 0 : (dLon < 0 ? ilon - lonIdx * cellSize : (lonIdx + 1) * cellSize - ilon) * lonScale;
+                    final double borderDistanceLat = dLat == 0 ? 0 : (dLat < 0 ? ilat - latIdx * cellSize : (latIdx + 1) * cellSize - ilat);
+                    if (borderDistanceLon * borderDistanceLon + borderDistanceLat * borderDistanceLat >= best[0]) {
+                        continue;
+                    }
+                    findNearest(getSegment((lonIdx + dLon) * cellSize, (latIdx + dLat) * cellSize), ilon, ilat, lonScale, best);
+                }
+            }
+            return (float) best[1];
+        } catch (final Exception e) {
+            Log.w("ElevationLookup: error reading elevation", e);
+            return NO_ELEVATION;
+        }
+    }
+
+    /**
+     * returns elevation in meters of the node of a single segment which is nearest to the given position,
+     * or {@link #NO_ELEVATION} if there is none within {@link #MAX_NODE_DISTANCE_METERS}
+     */
+    static float getNearestElevation(final Segment segment, final int ilon, final int ilat) {
+        final double maxDistance = MAX_NODE_DISTANCE_METERS * MICRODEGREES_PER_METER;
+        final double[] best = {maxDistance * maxDistance, NO_ELEVATION};
+        findNearest(segment, ilon, ilat, getLonScale(ilat), best);
+        return (float) best[1];
+    }
+
+    private static double getLonScale(final int ilat) {
+        return Math.cos(Math.toRadians(ilat / 1e6 - 90));
+    }
+
+    private static void findNearest(final Segment segment, final int ilon, final int ilat, final double lonScale, final double[] best) {
+        for (int i = 0; i < segment.ilon.length; i++) {
+            final double dx = (segment.ilon[i] - ilon) * lonScale;
+            final double dy = segment.ilat[i] - ilat;
+            final double distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared < best[0]) {
+                best[0] = distanceSquared;
+                best[1] = segment.selev[i] / 4.0;
+            }
+        }
+    }
+
+    private Segment getSegment(final int ilon, final int ilat) throws Exception {
+        final OsmFile osmFile = getOsmFile(ilon, ilat);
+        if (osmFile == null || !osmFile.hasData()) {
+            return Segment.EMPTY;
+        }
+        final int lonIdx = ilon / osmFile.getCellSize();
+        final int latIdx = ilat / osmFile.getCellSize();
+        final long key = ((long) lonIdx) << 32 | latIdx;
+        Segment segment = segments.get(key);
+        if (segment == null) {
+            final MicroCache mc = osmFile.createMicroCache(lonIdx, latIdx, dataBuffers, null, null, true, null);
+            segment = mc == null ? Segment.EMPTY : Segment.of(mc);
+            segments.put(key, segment);
+        }
+        return segment;
+    }
+
+    private OsmFile getOsmFile(final int ilon, final int ilat) throws Exception {
+        if (ilon < 0 || ilat < 0 || ilon >= 360000000 || ilat >= 180000000) {
+            return null;
+        }
+        final int lonDegree = ilon / 1000000;
+        final int latDegree = ilat / 1000000;
+        final long key = ((long) lonDegree) << 32 | latDegree;
+        OsmFile osmFile = osmFiles.get(key);
+        if (osmFile == null) {
+            final PhysicalFile physicalFile = getPhysicalFile(lonDegree, latDegree);
+            if (physicalFile == null) {
+                return null;
+            }
+            osmFile = new OsmFile(physicalFile, lonDegree, latDegree, dataBuffers);
+            osmFiles.put(key, osmFile);
+        }
+        return osmFile;
+    }
+
+    private PhysicalFile getPhysicalFile(final int lonDegree, final int latDegree) throws Exception {
+        // same naming scheme as NodesCache
+        final int lon = lonDegree - 180 - lonDegree % 5;
+        final int lat = latDegree - 90 - latDegree % 5;
+        final String filenameBase = (lon < 0 ? "W" + (-lon) : "E" + lon) + "_" + (lat < 0 ? "S" + (-lat) : "N" + lat);
+
+        if (files.containsKey(filenameBase)) {
+            return files.get(filenameBase);
+        }
+        final Long missingSince = missingFiles.get(filenameBase);
+        if (missingSince != null && System.currentTimeMillis() - missingSince < MISSING_FILE_RETRY_MS) {
+            return null;
+        }
+
+        final ContentStorage.FileInformation fi = ContentStorage.get().getFileInfo(PersistableFolder.ROUTING_TILES.getFolder(), filenameBase + BRouterConstants.BROUTER_TILE_FILEEXTENSION);
+        if (fi == null || fi.isDirectory) {
+            missingFiles.put(filenameBase, System.currentTimeMillis());
+            return null;
+        }
+        final InputStream is = ContentStorage.get().openForRead(fi.uri);
+        if (!(is instanceof FileInputStream)) {
+            Log.w("ElevationLookup: problem opening tile file " + fi + ", is = " + is);
+            IOUtils.closeQuietly(is);
+            missingFiles.put(filenameBase, System.currentTimeMillis());
+            return null;
+        }
+        PhysicalFile physicalFile = null;
+        try {
+            // lookup version is irrelevant for node elevations
+            physicalFile = new PhysicalFile(fi.name, (FileInputStream) is, dataBuffers, -1);
+        } finally {
+            if (physicalFile == null) {
+                // unreadable tile file, don't try again on each lookup
+                IOUtils.closeQuietly(is);
+                missingFiles.put(filenameBase, System.currentTimeMillis());
+            }
+        }
+        files.put(filenameBase, physicalFile);
+        missingFiles.remove(filenameBase);
+        return physicalFile;
+    }
+
+}
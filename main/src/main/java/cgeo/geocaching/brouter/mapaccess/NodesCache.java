@@ -18,6 +18,8 @@ import java.io.Closeable;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
@@ -50,6 +52,11 @@ public final class NodesCache implements Closeable {
 
     private final boolean directWeaving = !Boolean.getBoolean("disableDirectWeaving");
 
+    /** half widths of the prefetched corridor in cells, cells within the first width are read first */
+    private static final double[] PREFETCH_CORRIDOR_WIDTHS = {1.5, 3, 6};
+    private static final int PREFETCH_MAX_CELLS = 2500;
+    private volatile SegmentPrefetcher prefetcher;
+
     private static final Hashtable<String, FileInformationCacheEntry> folderInfoCache = new Hashtable<>();
 
     private static class FileInformationCacheEntry {
@@ -78,6 +85,7 @@ public final class NodesCache implements Closeable {
         firstFileAccessName = null;
 
         if (oldCache != null) {
+            oldCache.cancelPrefetch();
             fileCache = oldCache.fileCache;
             dataBuffers = oldCache.dataBuffers;
 
@@ -118,12 +126,16 @@ public final class NodesCache implements Closeable {
         }
     }
 
-    // if the cache sum exceeded a threshold,
+    // if the cache sum (including prefetched data) exceeded a threshold,
     // clean all ghosts and enable garbage collection
     private void checkEnableCacheCleaning() {
-        if (cacheSum < maxmemtiles) {
+        final SegmentPrefetcher p = prefetcher;
+        if (cacheSum + (p == null ? 0 : p.getBytes()) < maxmemtiles) {
             return;
         }
+        if (p != null) {
+            p.evictStale(true);
+        }
 
         for (int i = 0; i < fileRows.length; i++) {
             final OsmFile[] fileRow = fileRows[i];
@@ -153,28 +165,29 @@ public final class NodesCache implements Closeable {
         return mc == null ? 0 : mc.getSize();
     }
 
+    private OsmFile getFileFor(final int ilon, final int ilat) throws Exception {
+        final int lonDegree = ilon / 1000000;
+        final int latDegree = ilat / 1000000;
+        final OsmFile[] fileRow = fileRows[latDegree];
+        final int ndegrees = fileRow == null ? 0 : fileRow.length;
+        for (int i = 0; i < ndegrees; i++) {
+            if (fileRow[i].lonDegree == lonDegree) {
+                return fileRow[i];
+            }
+        }
+        final OsmFile osmf = fileForSegment(lonDegree, latDegree);
+        final OsmFile[] newFileRow = new OsmFile[ndegrees + 1];
+        for (int i = 0; i < ndegrees; i++) {
+            newFileRow[i] = fileRow[i];
+        }
+        newFileRow[ndegrees] = osmf;
+        fileRows[latDegree] = newFileRow;
+        return osmf;
+    }
+
     public MicroCache getSegmentFor(final int ilon, final int ilat) {
         try {
-            final int lonDegree = ilon / 1000000;
-            final int latDegree = ilat / 1000000;
-            OsmFile osmf = null;
-            final OsmFile[] fileRow = fileRows[latDegree];
-            final int ndegrees = fileRow == null ? 0 : fileRow.length;
-            for (int i = 0; i < ndegrees; i++) {
-                if (fileRow[i].lonDegree == lonDegree) {
-                    osmf = fileRow[i];
-                    break;
-                }
-            }
-            if (osmf == null) {
-                osmf = fileForSegment(lonDegree, latDegree);
-                final OsmFile[] newFileRow = new OsmFile[ndegrees + 1];
-                for (int i = 0; i < ndegrees; i++) {
-                    newFileRow[i] = fileRow[i];
-                }
-                newFileRow[ndegrees] = osmf;
-                fileRows[latDegree] = newFileRow;
-            }
+            final OsmFile osmf = getFileFor(ilon, ilat);
             currentFileName = osmf.filename;
 
             if (!osmf.hasData()) {
@@ -184,7 +197,9 @@ public final class NodesCache implements Closeable {
             MicroCache segment = osmf.getMicroCache(ilon, ilat);
             if (segment == null) {
                 checkEnableCacheCleaning();
-                segment = osmf.createMicroCache(ilon, ilat, dataBuffers, expCtxWay, waypointMatcher, directWeaving ? nodesMap : null);
+                final SegmentPrefetcher p = prefetcher;
+                final byte[] prefetchedData = p == null ? null : p.take(osmf, ilon, ilat);
+                segment = osmf.createMicroCache(ilon, ilat, dataBuffers, expCtxWay, waypointMatcher, directWeaving ? nodesMap : null, prefetchedData);
 
                 cacheSum += segment.getDataSize();
             } else if (segment.ghost) {
@@ -321,6 +336,85 @@ public final class NodesCache implements Closeable {
         }
     }
 
+    /**
+     * Starts reading the routing data around the straight line between two positions on a background thread,
+     * in passes of growing corridor width, so the cells most likely touched by the search are read first.
+     * Prefetched data is counted in the tile memory, limited to a quarter of it and released when the cache is closed
+     * or replaced or when the search does not use it.
+     */
+    public void prefetchCorridor(final OsmNode from, final OsmNode to) {
+        cancelPrefetch();
+        final String savedFileAccessName = firstFileAccessName;
+        final boolean savedFileAccessFailed = firstFileAccessFailed;
+        try {
+            final OsmFile startFile = getFileFor(from.ilon, from.ilat);
+            if (!startFile.hasData()) {
+                return;
+            }
+            final int cellSize = startFile.getCellSize();
+            final double fromLon = from.ilon / (double) cellSize;
+            final double fromLat = from.ilat / (double) cellSize;
+            final double lonScale = Math.cos(Math.toRadians((from.ilat + to.ilat) / 2e6 - 90));
+            final double dLon = (to.ilon / (double) cellSize - fromLon) * lonScale;
+            final double dLat = to.ilat / (double) cellSize - fromLat;
+            final double length2 = dLon * dLon + dLat * dLat;
+
+            final double maxWidth = PREFETCH_CORRIDOR_WIDTHS[PREFETCH_CORRIDOR_WIDTHS.length - 1];
+            final int maxLonOffset = (int) Math.ceil(maxWidth / Math.max(lonScale, 0.1));
+            final int minLonIdx = Math.max(0, (Math.min(from.ilon, to.ilon) / cellSize) - maxLonOffset);
+            final int maxLonIdx = Math.min(360000000 / cellSize - 1, (Math.max(from.ilon, to.ilon) / cellSize) + maxLonOffset);
+            final int minLatIdx = Math.max(0, (Math.min(from.ilat, to.ilat) / cellSize) - (int) Math.ceil(maxWidth));
+            final int maxLatIdx = Math.min(180000000 / cellSize - 1, (Math.max(from.ilat, to.ilat) / cellSize) + (int) Math.ceil(maxWidth));
+
+            // order cells by corridor pass, then by position along the line
+            final List<double[]> candidates = new ArrayList<>();
+            for (int lonIdx = minLonIdx; lonIdx <= maxLonIdx; lonIdx++) {
+                for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
+                    final double x = (lonIdx + 0.5 - fromLon) * lonScale;
+                    final double y = latIdx + 0.5 - fromLat;
+                    final double t = length2 == 0 ? 0 : Math.max(0, Math.min(1, (x * dLon + y * dLat) / length2));
+                    final double distance = Math.hypot(x - t * dLon, y - t * dLat);
+                    for (int pass = 0; pass < PREFETCH_CORRIDOR_WIDTHS.length; pass++) {
+                        if (distance <= PREFETCH_CORRIDOR_WIDTHS[pass]) {
+                            candidates.add(new double[]{pass + t, lonIdx, latIdx});
+                            break;
+                        }
+                    }
+                }
+            }
+            Collections.sort(candidates, (c1, c2) -> Double.compare(c1[0], c2[0]));
+
+            final List<SegmentPrefetcher.Cell> cells = new ArrayList<>();
+            for (double[] candidate : candidates) {
+                if (cells.size() >= PREFETCH_MAX_CELLS) {
+                    break;
+                }
+                final int ilon = (int) candidate[1] * cellSize;
+                final int ilat = (int) candidate[2] * cellSize;
+                final OsmFile osmf = getFileFor(ilon, ilat);
+                if (osmf.hasData() && osmf.getCellSize() == cellSize && osmf.getMicroCache(ilon, ilat) == null) {
+                    cells.add(new SegmentPrefetcher.Cell(osmf, (int) candidate[1], (int) candidate[2]));
+                }
+            }
+            prefetcher = new SegmentPrefetcher(maxmemtiles / 4);
+            prefetcher.prefetch(cells);
+        } catch (Exception e) {
+            // prefetching is optional, the search reads the data itself and reports errors
+            Log.d("prefetching routing data failed: " + e);
+        } finally {
+            firstFileAccessName = savedFileAccessName;
+            firstFileAccessFailed = savedFileAccessFailed;
+        }
+    }
+
+    /** stops prefetching and releases the prefetched data. May be called from any thread */
+    public void cancelPrefetch() {
+        final SegmentPrefetcher p = prefetcher;
+        if (p != null) {
+            p.cancel();
+        }
+    }
+
     private void preloadPosition(final OsmNode n, final int d) {
         firstFileAccessFailed = false;
         firstFileAccessName = null;
@@ -388,6 +482,7 @@ public final class NodesCache implements Closeable {
 
     @Override
     public void close() {
+        cancelPrefetch();
         for (PhysicalFile f : fileCache.values()) {
             if (f != null) {
                 f.close();
@@ -76,6 +76,11 @@ final class OsmFile {
         return microCaches != null;
     }
 
+    /** size of a micro cache cell in micro degrees */
+    int getCellSize() {
+        return cellsize;
+    }
+
     public MicroCache getMicroCache(final int ilon, final int ilat) {
         final int lonIdx = ilon / cellsize;
         final int latIdx = ilat / cellsize;
@@ -83,13 +88,12 @@ final class OsmFile {
         return microCaches[subIdx];
     }
 
-    public MicroCache createMicroCache(final int ilon, final int ilat, final DataBuffers dataBuffers, final TagValueValidator wayValidator, final WaypointMatcher waypointMatcher, final OsmNodesMap hollowNodes)
-            throws Exception {
+    public MicroCache createMicroCache(final int ilon, final int ilat, final DataBuffers dataBuffers, final TagValueValidator wayValidator, final WaypointMatcher waypointMatcher, final OsmNodesMap hollowNodes,
+                                       final byte[] prefetchedData) throws Exception {
         final int lonIdx = ilon / cellsize;
         final int latIdx = ilat / cellsize;
-        final MicroCache segment = createMicroCache(lonIdx, latIdx, dataBuffers, wayValidator, waypointMatcher, true, hollowNodes);
-        final int subIdx = (latIdx - divisor * latDegree) * divisor + (lonIdx - divisor * lonDegree);
-        microCaches[subIdx] = segment;
+        final MicroCache segment = createMicroCache(lonIdx, latIdx, dataBuffers, wayValidator, waypointMatcher, true, hollowNodes, prefetchedData);
+        microCaches[getSubIdx(lonIdx, latIdx)] = segment;
         return segment;
     }
 
@@ -107,12 +111,41 @@ final class OsmFile {
         return size;
     }
 
+    /**
+     * Reads the raw data of a micro cache into a new buffer, without using or changing any state of this file
+     * besides the index, so it may be called from another thread (see {@link SegmentPrefetcher})
+     */
+    byte[] readSegmentData(final int lonIdx, final int latIdx) throws IOException {
+        final int subIdx = getSubIdx(lonIdx, latIdx);
+        final int startPos = getPosIdx(subIdx - 1);
+        final byte[] data = new byte[getPosIdx(subIdx) - startPos];
+        if (data.length > 0) {
+            this.rafile.readFully(fileOffset + startPos, data.length, data);
+        }
+        return data;
+    }
+
+    private int getSubIdx(final int lonIdx, final int latIdx) {
+        return (latIdx - divisor * latDegree) * divisor + (lonIdx - divisor * lonDegree);
+    }
+
     public MicroCache createMicroCache(final int lonIdx, final int latIdx, final DataBuffers dataBuffers, final TagValueValidator wayValidator,
                                        final WaypointMatcher waypointMatcher, final boolean reallyDecode, final OsmNodesMap hollowNodes) throws IOException {
-        final int subIdx = (latIdx - divisor * latDegree) * divisor + (lonIdx - divisor * lonDegree);
+        return createMicroCache(lonIdx, latIdx, dataBuffers, wayValidator, waypointMatcher, reallyDecode, hollowNodes, null);
+    }
+
+    private MicroCache createMicroCache(final int lonIdx, final int latIdx, final DataBuffers dataBuffers, final TagValueValidator wayValidator,
+                                        final WaypointMatcher waypointMatcher, final boolean reallyDecode, final OsmNodesMap hollowNodes, final byte[] prefetchedData) throws IOException {
+        final int subIdx = getSubIdx(lonIdx, latIdx);
 
         byte[] ab = dataBuffers.iobuffer;
-        int asize = getDataInputForSubIdx(subIdx, ab);
+        int asize;
+        if (prefetchedData != null) {
+            ab = prefetchedData;
+            asize = prefetchedData.length;
+        } else {
+            asize = getDataInputForSubIdx(subIdx, ab);
+        }
 
         if (asize == 0) {
             return MicroCache.emptyCache();
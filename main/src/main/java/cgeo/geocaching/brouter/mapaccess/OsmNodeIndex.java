@@ -0,0 +1,146 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import java.util.function.Consumer;
+
+/**
+ * Open addressing hash index of the nodes of a routing graph, keyed by their position
+ * <p>
+ * Replaces a HashMap&lt;OsmNode, OsmNode&gt;: keys are stored as primitive longs next to
+ * the node references, so there are no entry objects per node, and lookups by position
+ * need no temporary key node. Collisions are resolved by linear probing, removal shifts
+ * following entries back (no tombstones), so lookups stay short even after many removals.
+ */
+final class OsmNodeIndex {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private OsmNode[] nodes;
+    private int size;
+    private int mask;
+    private int shift;
+
+    OsmNodeIndex(final int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        nodes = new OsmNode[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private static long key(final int ilon, final int ilat) {
+        return ((long) ilon) << 32 | (ilat & 0xffffffffL);
+    }
+
+    private int slot(final long key) {
+        // fibonacci hashing, spreads the nearby positions of a tile over the table
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** @return the node at the given position or null */
+    public OsmNode get(final int ilon, final int ilat) {
+        final long key = key(ilon, ilat);
+        for (int i = slot(key); nodes[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return nodes[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts the node at its position, replacing a node at the same position
+     *
+     * @return the replaced node or null
+     */
+    public OsmNode put(final OsmNode node) {
+        final long key = key(node.ilon, node.ilat);
+        int i = slot(key);
+        for (; nodes[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                final OsmNode previous = nodes[i];
+                nodes[i] = node;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        nodes[i] = node;
+        if (++size * 2 > nodes.length) {
+            rehash(nodes.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the node at the position of the given node
+     *
+     * @return the removed node or null
+     */
+    public OsmNode remove(final OsmNode node) {
+        final long key = key(node.ilon, node.ilat);
+        for (int i = slot(key); nodes[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                final OsmNode removed = nodes[i];
+                shiftBack(i);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    /** closes the gap at the given slot by moving back entries of the same probe sequence */
+    private void shiftBack(final int gap) {
+        int free = gap;
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (nodes[i] == null) {
+                break;
+            }
+            final int home = slot(keys[i]);
+            // entry can move to the free slot if its home slot is not within (free, i]
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = keys[i];
+                nodes[free] = nodes[i];
+                free = i;
+            }
+        }
+        nodes[free] = null;
+    }
+
+    private void rehash(final int capacity) {
+        final long[] oldKeys = keys;
+        final OsmNode[] oldNodes = nodes;
+        allocate(capacity);
+        for (int j = 0; j < oldNodes.length; j++) {
+            if (oldNodes[j] != null) {
+                int i = slot(oldKeys[j]);
+                while (nodes[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                nodes[i] = oldNodes[j];
+            }
+        }
+    }
+
+    public void forEach(final Consumer<OsmNode> action) {
+        for (final OsmNode node : nodes) {
+            if (node != null) {
+                action.accept(node);
+            }
+        }
+    }
+
+}
@@ -8,9 +8,7 @@ package cgeo.geocaching.brouter.mapaccess;
 import cgeo.geocaching.brouter.util.ByteArrayUnifier;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public final class OsmNodesMap {
     public int nodesCreated;
@@ -23,9 +21,8 @@ public final class OsmNodesMap {
     public OsmNode endNode1;
     public OsmNode endNode2;
     public int cleanupMode = 0;
-    private final Map<OsmNode, OsmNode> hmap = new HashMap<>(4096);
+    private final OsmNodeIndex hmap = new OsmNodeIndex(4096);
     private final ByteArrayUnifier abUnifier = new ByteArrayUnifier(16384, false);
-    private final OsmNode testKey = new OsmNode();
     private long currentmaxmem = 4000000; // start with 4 MB
     private List<OsmNode> nodes2check;
 
@@ -224,9 +221,7 @@ public final class OsmNodesMap {
     public void collectOutreachers() {
         nodes2check = new ArrayList<>(nodesCreated);
         nodesCreated = 0;
-        for (OsmNode n : hmap.values()) {
-            addActiveNode(nodes2check, n);
-        }
+        hmap.forEach(n -> addActiveNode(nodes2check, n));
 
         lastVisitID++;
         baseID = lastVisitID;
@@ -263,9 +258,7 @@ public final class OsmNodesMap {
      * @return the node for the given id if exist, else null
      */
     public OsmNode get(final int ilon, final int ilat) {
-        testKey.ilon = ilon;
-        testKey.ilat = ilat;
-        return hmap.get(testKey);
+        return hmap.get(ilon, ilat);
     }
 
     // ********************** test cleanup **********************
@@ -282,7 +275,7 @@ public final class OsmNodesMap {
      * @return the previous node if that id existed, else null
      */
     public OsmNode put(final OsmNode node) {
-        return hmap.put(node, node);
+        return hmap.put(node);
     }
 
 }
@@ -0,0 +1,190 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import cgeo.geocaching.utils.Log;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads the raw data of micro caches on a background thread, ahead of the routing search
+ * <p>
+ * Decoding has to stay on the routing thread (it weaves the nodes directly into the
+ * routing graph and evaluates the routing profile), but reading the data from the tile
+ * files does not, so the search finds the data of prefetched cells already in memory.
+ * Prefetched data is limited to a byte budget. If the budget is used up, cells the search
+ * passed by without using them are evicted, otherwise reading pauses until the search
+ * consumes prefetched cells. If the search does not load any cell for a while,
+ * prefetching stops and releases its data.
+ */
+final class SegmentPrefetcher {
+
+    /** a prefetched cell is considered unused once the search loaded this many cells after it was prefetched */
+    private static final int STALE_AFTER_TAKES = 32;
+    /** prefetching stops if the search does not load a cell within this time while the budget is used up */
+    private static final long IDLE_TIMEOUT_MS = 5000;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "brouter-prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /** a micro cache cell to prefetch */
+    static final class Cell {
+        final OsmFile file;
+        final int lonIdx;
+        final int latIdx;
+
+        Cell(final OsmFile file, final int lonIdx, final int latIdx) {
+            this.file = file;
+            this.lonIdx = lonIdx;
+            this.latIdx = latIdx;
+        }
+    }
+
+    private static final class Segment {
+        final byte[] data;
+        final long takesBefore;
+
+        Segment(final byte[] data, final long takesBefore) {
+            this.data = data;
+            this.takesBefore = takesBefore;
+        }
+    }
+
+    private final Map<Long, Segment> segments = new LinkedHashMap<>(); // guarded by this, in prefetch order
+    private final Set<Long> loaded = ConcurrentHashMap.newKeySet(); // cells the search read itself
+    private final long maxBytes;
+    private long bytes = 0; // guarded by this
+    private long takes = 0; // guarded by this
+    private volatile boolean cancelled = false;
+
+    SegmentPrefetcher(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    private static long key(final int cellSize, final int lonIdx, final int latIdx) {
+        return ((long) cellSize) << 40 | ((long) lonIdx) << 20 | latIdx;
+    }
+
+    /** starts reading the given cells in the given order */
+    void prefetch(final List<Cell> cells) {
+        EXECUTOR.execute(() -> {
+            try {
+                for (Cell cell : cells) {
+                    final long key = key(cell.file.getCellSize(), cell.lonIdx, cell.latIdx);
+                    if (cancelled) {
+                        return;
+                    }
+                    if (loaded.contains(key)) {
+                        continue;
+                    }
+                    final byte[] data = cell.file.readSegmentData(cell.lonIdx, cell.latIdx);
+                    synchronized (this) {
+                        if (!reserve(data.length)) {
+                            Log.d("prefetching routing data stopped, search does not consume prefetched data");
+                            cancel();
+                            return;
+                        }
+                        if (cancelled) {
+                            return;
+                        }
+                        if (!loaded.contains(key)) {
+                            segments.put(key, new Segment(data, takes));
+                            bytes += data.length;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // the routing thread reads the data again and reports errors
+                Log.d("prefetching routing data stopped: " + e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * makes room for the given number of bytes, evicting unused cells or waiting for the search to consume cells
+     *
+     * @return false if the search did not load any cell within the idle timeout
+     */
+    private synchronized boolean reserve(final int length) throws InterruptedException {
+        while (!cancelled && bytes > 0 && bytes + length > maxBytes) {
+            if (evictStale(false)) {
+                continue;
+            }
+            final long takesBefore = takes;
+            wait(IDLE_TIMEOUT_MS);
+            if (takes == takesBefore && !cancelled && !evictStale(false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * releases prefetched cells the search passed by without using them
+     *
+     * @param all release all of them, otherwise only the oldest one
+     * @return true if a cell was released
+     */
+    synchronized boolean evictStale(final boolean all) {
+        boolean evicted = false;
+        final Iterator<Segment> it = segments.values().iterator();
+        while (it.hasNext()) {
+            final Segment segment = it.next();
+            if (takes - segment.takesBefore < STALE_AFTER_TAKES) {
+                break;
+            }
+            it.remove();
+            bytes -= segment.data.length;
+            evicted = true;
+            if (!all) {
+                break;
+            }
+        }
+        return evicted;
+    }
+
+    /** @return the size of the prefetched data held in memory */
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    /** @return the prefetched data of the cell containing the given position or null */
+    byte[] take(final OsmFile file, final int ilon, final int ilat) {
+        final int cellSize = file.getCellSize();
+        final long key = key(cellSize, ilon / cellSize, ilat / cellSize);
+        synchronized (this) {
+            takes++;
+            notifyAll();
+            final Segment segment = segments.remove(key);
+            if (segment == null) {
+                // the search reads the cell itself, don't prefetch it anymore
+                loaded.add(key);
+                return null;
+            }
+            bytes -= segment.data.length;
+            return segment.data;
+        }
+    }
+
+    /** stops prefetching and releases all prefetched data */
+    void cancel() {
+        cancelled = true;
+        synchronized (this) {
+            segments.clear();
+            bytes = 0;
+            notifyAll();
+        }
+    }
+}
@@ -157,6 +157,11 @@ public final class ConnectorFactory {
         return CONNECTORS;
     }
 
+    @NonNull
+    public static Collection<ISearchByViewPort> getSearchByViewportConnectors() {
+        return searchByViewPortConns;
+    }
+
     @NonNull
     public static Collection<ISearchByNextPage> getSearchByNextPageConnectors() {
         return searchByNextPageConns;
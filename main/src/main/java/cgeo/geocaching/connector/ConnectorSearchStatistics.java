@@ -0,0 +1,116 @@
+package cgeo.geocaching.connector;
+
+import cgeo.geocaching.utils.LatencyHistogram;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Collects latency statistics of connector search requests (per connector and operation, for the lifetime of the process).
+ * Operations are kept apart as their latencies differ a lot (e.g. a small map tile vs. a full filter search).
+ *
+ * Statistics are used to decide when a hedged (duplicate) request is worth to be started for a slow connector,
+ * and are shown in system information.
+ */
+public final class ConnectorSearchStatistics {
+
+    /** minimum number of recorded requests before latency percentiles are used */
+    static final int MIN_SAMPLES_FOR_HEDGING = 10;
+    /** hedged requests are never started earlier than this */
+    static final long MIN_HEDGE_DELAY_MS = 1000;
+    /** percentile of request latency after which a hedged request is started */
+    private static final double HEDGE_PERCENTILE = 95;
+
+    private static final ConcurrentHashMap<String, Statistics> STATISTICS = new ConcurrentHashMap<>();
+
+    /** kind of search request statistics are collected for */
+    public enum Operation {
+        SEARCH_BY_FILTER,
+        SEARCH_BY_NEXT_PAGE,
+        LIVE_MAP_TILE
+    }
+
+    private static final class Statistics {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong hedges = new AtomicLong();
+
+        @NonNull
+        @Override
+        public String toString() {
+            return latencies + ", errors=" + errors.get() + ", timeouts=" + timeouts.get() + ", hedged=" + hedges.get();
+        }
+    }
+
+    private ConnectorSearchStatistics() {
+        // utility class
+    }
+
+    @NonNull
+    private static String getKey(@NonNull final IConnector connector, @NonNull final Operation operation) {
+        return connector.getName() + "/" + operation;
+    }
+
+    @NonNull
+    private static Statistics get(@NonNull final IConnector connector, @NonNull final Operation operation) {
+        return STATISTICS.computeIfAbsent(getKey(connector, operation), key -> new Statistics());
+    }
+
+    /** records duration of a successful request */
+    public static void recordLatency(@NonNull final IConnector connector, @NonNull final Operation operation, final long durationInNanos) {
+        get(connector, operation).latencies.record(durationInNanos / 1000);
+    }
+
+    /** records a failed request */
+    public static void recordError(@NonNull final IConnector connector, @NonNull final Operation operation) {
+        get(connector, operation).errors.incrementAndGet();
+    }
+
+    /** records a request which did not finish within its deadline */
+    public static void recordTimeout(@NonNull final IConnector connector, @NonNull final Operation operation) {
+        get(connector, operation).timeouts.incrementAndGet();
+    }
+
+    /** records start of a hedged request */
+    public static void recordHedge(@NonNull final IConnector connector, @NonNull final Operation operation) {
+        get(connector, operation).hedges.incrementAndGet();
+    }
+
+    /**
+     * Returns delay in milliseconds after which a hedged request should be started for given connector and operation,
+     * or 0 if there is not enough data yet to decide.
+     */
+    public static long getHedgeDelay(@NonNull final IConnector connector, @NonNull final Operation operation) {
+        final Statistics statistics = STATISTICS.get(getKey(connector, operation));
+        if (statistics == null || statistics.latencies.getCount() < MIN_SAMPLES_FOR_HEDGING) {
+            return 0;
+        }
+        return Math.max(MIN_HEDGE_DELAY_MS, statistics.latencies.getValueAtPercentile(HEDGE_PERCENTILE) / 1000);
+    }
+
+    /** returns a short summary of statistics for given connector (one line per operation), or null if no request was recorded yet */
+    @Nullable
+    public static String getSummary(@NonNull final IConnector connector) {
+        final List<String> lines = new ArrayList<>();
+        for (final Operation operation : Operation.values()) {
+            final Statistics statistics = STATISTICS.get(getKey(connector, operation));
+            if (statistics != null) {
+                lines.add(operation + ": " + statistics);
+            }
+        }
+        return lines.isEmpty() ? null : StringUtils.join(lines, "\n");
+    }
+
+    static void clear() {
+        STATISTICS.clear();
+    }
+
+}
@@ -0,0 +1,465 @@
+package cgeo.geocaching.connector;
+
+import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.connector.capability.ISearchByViewPort;
+import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.enumerations.StatusCode;
+import cgeo.geocaching.filters.core.GeocacheFilter;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.utils.ContextLogger;
+import cgeo.geocaching.utils.LeastRecentlyUsedMap;
+import cgeo.geocaching.utils.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.util.Consumer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Tile based loading of live map caches.
+ *
+ * The requested viewport is covered by tiles of a quadtree over the whole world. Results are cached per tile and connector
+ * for {@link #TILE_TTL_MS}, so only tiles not yet (or no longer) covered are requested when panning the map. Tiles are
+ * requested in parallel. If a tile hits the result limit of a connector (see {@link ISearchByViewPort#getViewportSearchLimit()}),
+ * it is subdivided into four child tiles which are requested as well. Viewports reaching beyond the antimeridian are covered
+ * by tiles on both sides of it.
+ *
+ * Each tile is requested like a regular viewport search (see {@link ConnectorFactory#searchByViewport(Viewport, GeocacheFilter)}),
+ * so results of each tile request are amended for the tile viewport.
+ *
+ * Connectors are requested independently of each other, so results of fast connectors can be shown (see
+ * {@link #searchByViewport(Viewport, GeocacheFilter, Consumer)}) while slower connectors are still loading.
+ */
+public class LiveMapTileCache {
+
+    /** time in milliseconds for which a tile result is considered valid */
+    static final long TILE_TTL_MS = 5 * 60 * 1000;
+    /** how often a tile hitting the connector limit is subdivided at most */
+    static final int MAX_SUBDIVISIONS = 2;
+    /** tiles of lower levels (larger than about 0.35 x 0.18 degrees) are not subdivided to limit number of requests on zoomed out maps */
+    static final int MIN_SUBDIVISION_LEVEL = 10;
+    private static final int MAX_CACHED_TILES = 500;
+    /** maximum time to wait for a single tile request. Tiles not answered in time are requested again on next load */
+    static final long TILE_DEADLINE_MS = 30000;
+
+    /** result of a tile based viewport search */
+    public static final class Result {
+        @NonNull
+        public final Set<Geocache> caches;
+        /** geocodes reported by connectors as to be filtered out */
+        @NonNull
+        public final Set<String> filteredGeocodes;
+        /** number of tile requests sent to connectors for this result */
+        public final int requestedTiles;
+
+        Result(@NonNull final Set<Geocache> caches, @NonNull final Set<String> filteredGeocodes, final int requestedTiles) {
+            this.caches = caches;
+            this.filteredGeocodes = filteredGeocodes;
+            this.requestedTiles = requestedTiles;
+        }
+    }
+
+    /**
+     * A tile of the quadtree. On level z the world is split into 2^z x 2^z tiles of equal latitude/longitude span.
+     */
+    static final class Tile {
+        static final int MIN_LEVEL = 2;
+        static final int MAX_LEVEL = 20;
+
+        final int level;
+        final int x;
+        final int y;
+
+        Tile(final int level, final int x, final int y) {
+            this.level = level;
+            this.x = x;
+            this.y = y;
+        }
+
+        static double getLongitudeSpan(final int level) {
+            return 360d / (1 << level);
+        }
+
+        static double getLatitudeSpan(final int level) {
+            return 180d / (1 << level);
+        }
+
+        /**
+         * returns the level whose tiles are at least as large as the given viewport
+         */
+        static int getLevelFor(@NonNull final Viewport viewport) {
+            final double lonLevel = Math.floor(log2(360d / Math.max(viewport.getLongitudeSpan(), 1e-6)));
+            final double latLevel = Math.floor(log2(180d / Math.max(viewport.getLatitudeSpan(), 1e-6)));
+            return (int) Math.max(MIN_LEVEL, Math.min(MAX_LEVEL, Math.min(lonLevel, latLevel)));
+        }
+
+        private static double log2(final double value) {
+            return Math.log(value) / Math.log(2);
+        }
+
+        /**
+         * returns all tiles of given level intersecting the given viewport
+         */
+        @NonNull
+        static List<Tile> getCovering(@NonNull final Viewport viewport, final int level) {
+            final Set<Tile> result = new LinkedHashSet<>();
+            for (final Viewport part : splitAtAntimeridian(viewport)) {
+                addCovering(result, part, level);
+            }
+            return new ArrayList<>(result);
+        }
+
+        private static void addCovering(final Set<Tile> result, final Viewport viewport, final int level) {
+            final int max = (1 << level) - 1;
+            final int xMin = clamp((int) Math.floor((viewport.getLongitudeMin() + 180d) / getLongitudeSpan(level)), max);
+            final int xMax = clamp((int) Math.floor((viewport.getLongitudeMax() + 180d) / getLongitudeSpan(level)), max);
+            final int yMin = clamp((int) Math.floor((viewport.getLatitudeMin() + 90d) / getLatitudeSpan(level)), max);
+            final int yMax = clamp((int) Math.floor((viewport.getLatitudeMax() + 90d) / getLatitudeSpan(level)), max);
+            for (int x = xMin; x <= xMax; x++) {
+                for (int y = yMin; y <= yMax; y++) {
+                    result.add(new Tile(level, x, y));
+                }
+            }
+        }
+
+        /**
+         * splits a viewport reaching beyond -180 or 180 degrees longitude (e.g. a resized viewport near the antimeridian)
+         * into parts within the valid longitude range
+         */
+        @NonNull
+        static List<Viewport> splitAtAntimeridian(@NonNull final Viewport viewport) {
+            final double latMin = viewport.getLatitudeMin();
+            final double latMax = viewport.getLatitudeMax();
+            if (viewport.getLongitudeSpan() >= 360d) {
+                return Collections.singletonList(new Viewport(new Geopoint(latMin, -180d), new Geopoint(latMax, 180d)));
+            }
+            if (viewport.getLongitudeMin() >= -180d && viewport.getLongitudeMax() <= 180d) {
+                return Collections.singletonList(viewport);
+            }
+            final double lonMin = normalizeLongitude(viewport.getLongitudeMin());
+            final double lonMax = lonMin + viewport.getLongitudeSpan();
+            if (lonMax <= 180d) {
+                return Collections.singletonList(new Viewport(new Geopoint(latMin, lonMin), new Geopoint(latMax, lonMax)));
+            }
+            return Arrays.asList(new Viewport(new Geopoint(latMin, lonMin), new Geopoint(latMax, 180d)),
+                    new Viewport(new Geopoint(latMin, -180d), new Geopoint(latMax, lonMax - 360d)));
+        }
+
+        /** maps a longitude to the range [-180, 180) */
+        private static double normalizeLongitude(final double longitude) {
+            final double shifted = (longitude + 180d) % 360d;
+            return (shifted < 0 ? shifted + 360d : shifted) - 180d;
+        }
+
+        private static int clamp(final int value, final int max) {
+            return Math.max(0, Math.min(max, value));
+        }
+
+        @NonNull
+        List<Tile> getChildren() {
+            final List<Tile> children = new ArrayList<>(4);
+            for (int dx = 0; dx < 2; dx++) {
+                for (int dy = 0; dy < 2; dy++) {
+                    children.add(new Tile(level + 1, 2 * x + dx, 2 * y + dy));
+                }
+            }
+            return children;
+        }
+
+        @NonNull
+        Viewport getViewport() {
+            final double lonMin = -180d + x * getLongitudeSpan(level);
+            final double latMin = -90d + y * getLatitudeSpan(level);
+            return new Viewport(new Geopoint(latMin, lonMin), new Geopoint(latMin + getLatitudeSpan(level), lonMin + getLongitudeSpan(level)));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Tile)) {
+                return false;
+            }
+            final Tile other = (Tile) o;
+            return level == other.level && x == other.x && y == other.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, x, y);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return level + "/" + x + "/" + y;
+        }
+    }
+
+    private static final class TileEntry {
+        final Set<String> geocodes;
+        final long timestamp;
+        /** true if connector limit was hit, results are then completed by the child tiles */
+        final boolean truncated;
+
+        TileEntry(final Set<String> geocodes, final long timestamp, final boolean truncated) {
+            this.geocodes = geocodes;
+            this.timestamp = timestamp;
+            this.truncated = truncated;
+        }
+    }
+
+    private static final class TileRequest {
+        final ISearchByViewPort connector;
+        final Tile tile;
+        final int subdivision;
+
+        TileRequest(final ISearchByViewPort connector, final Tile tile, final int subdivision) {
+            this.connector = connector;
+            this.tile = tile;
+            this.subdivision = subdivision;
+        }
+    }
+
+    private final LeastRecentlyUsedMap<String, TileEntry> tiles = new LeastRecentlyUsedMap.LruCache<>(MAX_CACHED_TILES);
+    private String filterConfig = null;
+
+    /**
+     * Searches all active viewport-searching connectors for caches in given viewport (plus a margin resulting from tile size)
+     *
+     * @param filter              live map filter. Cached tiles are discarded if filter changes.
+     * @param partialResultAction optional action called (on the calling thread) with intermediate results each time a
+     *                            connector has finished while others are still loading
+     */
+    @NonNull
+    @WorkerThread
+    public Result searchByViewport(@NonNull final Viewport viewport, @Nullable final GeocacheFilter filter, @Nullable final Consumer<Result> partialResultAction) {
+        try (ContextLogger cLog = new ContextLogger(Log.LogLevel.DEBUG, "LiveMapTileCache.searchByViewport")) {
+            checkFilter(filter);
+            final Collection<ISearchByViewPort> connectors = new ArrayList<>();
+            for (final ISearchByViewPort connector : ConnectorFactory.getSearchByViewportConnectors()) {
+                if (connector.isActive()) {
+                    connectors.add(connector);
+                }
+            }
+            final int level = Tile.getLevelFor(viewport);
+            final List<Tile> covering = Tile.getCovering(viewport, level);
+            cLog.add("vp:%s, level:%d, tiles:%d", viewport, level, covering.size());
+
+            final Set<String> filteredGeocodes = new HashSet<>();
+            int requestedTiles = fetchMissingTiles(connectors, covering, filter, filteredGeocodes, partialResultAction);
+
+            Set<String> geocodes = collectGeocodes(connectors, covering);
+            Set<Geocache> caches = DataStore.loadCaches(geocodes, LoadFlags.LOAD_CACHE_OR_DB);
+            if (caches.size() < geocodes.size()) {
+                // some caches of cached tiles were meanwhile dropped from memory cache -> refetch only the affected tiles once
+                final Set<String> missing = new HashSet<>(geocodes);
+                for (final Geocache cache : caches) {
+                    missing.remove(cache.getGeocode());
+                }
+                invalidateTilesContaining(connectors, covering, missing);
+                requestedTiles += fetchMissingTiles(connectors, covering, filter, filteredGeocodes, null);
+                geocodes = collectGeocodes(connectors, covering);
+                caches = DataStore.loadCaches(geocodes, LoadFlags.LOAD_CACHE_OR_DB);
+            }
+            cLog.add("requested:%d, caches:%d", requestedTiles, caches.size());
+            return new Result(caches, filteredGeocodes, requestedTiles);
+        }
+    }
+
+    public void clear() {
+        synchronized (tiles) {
+            tiles.clear();
+        }
+    }
+
+    private void checkFilter(@Nullable final GeocacheFilter filter) {
+        final String config = filter == null ? null : filter.toConfig();
+        synchronized (tiles) {
+            if (!Objects.equals(config, filterConfig)) {
+                tiles.clear();
+                filterConfig = config;
+            }
+        }
+    }
+
+    /**
+     * requests all tiles not validly cached, all connectors in parallel. Returns number of requested tiles
+     */
+    private int fetchMissingTiles(final Collection<ISearchByViewPort> connectors, final List<Tile> covering, @Nullable final GeocacheFilter filter,
+                                  final Set<String> filteredGeocodes, @Nullable final Consumer<Result> partialResultAction) {
+        final int[] requestCount = {0};
+        final int[] pending = {connectors.size()};
+        // the per-connector part blocks while waiting for its tile requests, thus it must not run on the (bounded) network scheduler
+        Observable.fromIterable(connectors)
+                .flatMapSingle(connector -> Single.fromCallable(() -> fetchMissingTiles(connector, covering, filter, filteredGeocodes)).subscribeOn(Schedulers.io()))
+                .blockingForEach(count -> {
+                    requestCount[0] += count;
+                    pending[0]--;
+                    if (count > 0 && pending[0] > 0 && partialResultAction != null) {
+                        final Set<String> filtered;
+                        synchronized (filteredGeocodes) {
+                            filtered = new HashSet<>(filteredGeocodes);
+                        }
+                        partialResultAction.accept(new Result(DataStore.loadCaches(collectGeocodes(connectors, covering), LoadFlags.LOAD_CACHE_OR_DB), filtered, requestCount[0]));
+                    }
+                });
+        return requestCount[0];
+    }
+
+    /**
+     * requests all tiles of a connector not validly cached in parallel, subdividing tiles which hit the connector limit.
+     * Returns number of requested tiles
+     */
+    private int fetchMissingTiles(final ISearchByViewPort connector, final List<Tile> covering, @Nullable final GeocacheFilter filter, final Set<String> filteredGeocodes) {
+        final long now = System.currentTimeMillis();
+        List<TileRequest> requests = new ArrayList<>();
+        synchronized (tiles) {
+            for (final Tile tile : covering) {
+                addMissingRequests(requests, connector, tile, 0, now);
+            }
+        }
+        int requestCount = 0;
+        while (!requests.isEmpty()) {
+            requestCount += requests.size();
+            // tile requests block while waiting for the connector request on the network scheduler, thus they run on the io scheduler
+            final List<TileRequest> truncated = Observable.fromIterable(requests)
+                    .flatMapMaybe(request -> Maybe.fromCallable(() -> fetchTile(request, filter, filteredGeocodes) ? request : null).subscribeOn(Schedulers.io()))
+                    .toList().blockingGet();
+            requests = new ArrayList<>();
+            final long childNow = System.currentTimeMillis();
+            synchronized (tiles) {
+                for (final TileRequest request : truncated) {
+                    if (canSubdivide(request.tile, request.subdivision)) {
+                        // child tiles still validly cached are not requested again
+                        for (final Tile child : request.tile.getChildren()) {
+                            addMissingRequests(requests, request.connector, child, request.subdivision + 1, childNow);
+                        }
+                    }
+                }
+            }
+        }
+        return requestCount;
+    }
+
+    private void addMissingRequests(final List<TileRequest> requests, final ISearchByViewPort connector, final Tile tile, final int subdivision, final long now) {
+        final TileEntry entry = tiles.get(getKey(connector, tile));
+        if (entry == null || now - entry.timestamp > TILE_TTL_MS) {
+            requests.add(new TileRequest(connector, tile, subdivision));
+        } else if (entry.truncated && canSubdivide(tile, subdivision)) {
+            for (final Tile child : tile.getChildren()) {
+                addMissingRequests(requests, connector, child, subdivision + 1, now);
+            }
+        }
+    }
+
+    /**
+     * requests a single tile and stores the result. Returns true if the result was truncated by the connector limit.
+     * Latency, errors and timeouts are recorded by {@link SearchResult#parallelCombineActive}.
+     */
+    private boolean fetchTile(final TileRequest request, @Nullable final GeocacheFilter filter, final Set<String> filteredGeocodes) {
+        final Viewport viewport = request.tile.getViewport();
+        // parallelCombineActive swallows exceptions of the connector, so track whether the connector has answered at all
+        final AtomicBoolean answered = new AtomicBoolean(false);
+        final SearchResult searchResult = SearchResult.parallelCombineActive(null, Collections.singletonList(request.connector), connector -> {
+            final SearchResult result = connector.searchByViewport(viewport);
+            answered.set(true);
+            return result;
+        }, ConnectorSearchStatistics.Operation.LIVE_MAP_TILE, TILE_DEADLINE_MS, false, null);
+        synchronized (filteredGeocodes) {
+            filteredGeocodes.addAll(searchResult.getFilteredGeocodes());
+        }
+        if (!answered.get() || searchResult.getError() != StatusCode.NO_ERROR) {
+            // don't cache erroneous or timed out results, tile will be requested again on next load
+            Log.w("LiveMapTileCache: tile " + request.tile + " of " + request.connector.getName() + " not loaded: " + searchResult.getError());
+            return false;
+        }
+        AmendmentUtils.amendCachesForViewport(searchResult, viewport, filter);
+        final int limit = request.connector.getViewportSearchLimit();
+        final boolean truncated = limit > 0 && searchResult.getCount() >= limit;
+        synchronized (tiles) {
+            tiles.put(getKey(request.connector, request.tile), new TileEntry(new HashSet<>(searchResult.getGeocodes()), System.currentTimeMillis(), truncated));
+        }
+        return truncated;
+    }
+
+    private Set<String> collectGeocodes(final Collection<ISearchByViewPort> connectors, final List<Tile> covering) {
+        final Set<String> geocodes = new HashSet<>();
+        synchronized (tiles) {
+            for (final ISearchByViewPort connector : connectors) {
+                for (final Tile tile : covering) {
+                    collectGeocodes(geocodes, connector, tile, 0);
+                }
+            }
+        }
+        return geocodes;
+    }
+
+    private void collectGeocodes(final Set<String> geocodes, final ISearchByViewPort connector, final Tile tile, final int subdivision) {
+        final TileEntry entry = tiles.get(getKey(connector, tile));
+        if (entry == null) {
+            return;
+        }
+        geocodes.addAll(entry.geocodes);
+        if (entry.truncated && canSubdivide(tile, subdivision)) {
+            for (final Tile child : tile.getChildren()) {
+                collectGeocodes(geocodes, connector, child, subdivision + 1);
+            }
+        }
+    }
+
+    private static boolean canSubdivide(final Tile tile, final int subdivision) {
+        return subdivision < MAX_SUBDIVISIONS && tile.level >= MIN_SUBDIVISION_LEVEL && tile.level < Tile.MAX_LEVEL;
+    }
+
+    /**
+     * removes the covering tiles containing any of the given geocodes, so only those are requested again.
+     * Subdivided tiles are kept (their child tiles are checked instead), only the given geocodes are dropped from them.
+     */
+    private void invalidateTilesContaining(final Collection<ISearchByViewPort> connectors, final List<Tile> covering, final Set<String> geocodes) {
+        synchronized (tiles) {
+            for (final ISearchByViewPort connector : connectors) {
+                for (final Tile tile : covering) {
+                    invalidateTilesContaining(connector, tile, 0, geocodes);
+                }
+            }
+        }
+    }
+
+    private void invalidateTilesContaining(final ISearchByViewPort connector, final Tile tile, final int subdivision, final Set<String> geocodes) {
+        final String key = getKey(connector, tile);
+        final TileEntry entry = tiles.get(key);
+        if (entry == null) {
+            return;
+        }
+        if (entry.truncated && canSubdivide(tile, subdivision)) {
+            entry.geocodes.removeAll(geocodes);
+            for (final Tile child : tile.getChildren()) {
+                invalidateTilesContaining(connector, child, subdivision + 1, geocodes);
+            }
+        } else if (!Collections.disjoint(entry.geocodes, geocodes)) {
+            tiles.remove(key);
+        }
+    }
+
+    private static String getKey(final IConnector connector, final Tile tile) {
+        return connector.getName() + ":" + tile;
+    }
+}
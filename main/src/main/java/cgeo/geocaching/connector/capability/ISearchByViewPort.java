@@ -9,4 +9,12 @@ import androidx.annotation.NonNull;
 public interface ISearchByViewPort extends IConnector {
     @NonNull
     SearchResult searchByViewport(@NonNull Viewport viewport);
+
+    /**
+     * maximum number of caches returned by a single {@link #searchByViewport(Viewport)} call, or 0 if there is no such limit.
+     * Used to detect truncated results.
+     */
+    default int getViewportSearchLimit() {
+        return 0;
+    }
 }
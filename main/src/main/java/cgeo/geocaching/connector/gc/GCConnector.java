@@ -320,6 +320,11 @@ public class GCConnector extends AbstractConnector implements ISearchByGeocode,
         return GCMap.searchByViewport(this, viewport);
     }
 
+    @Override
+    public int getViewportSearchLimit() {
+        return GCMap.VIEWPORT_SEARCH_LIMIT;
+    }
+
     @NonNull
     @Override
     public EnumSet<GeocacheFilterType> getFilterCapabilities() {
@@ -44,6 +44,8 @@ public class GCMap {
 
     private static final int SEARCH_LOAD_INITIAL = 200;
     private static final int SEARCH_LOAD_NEXTPAGE = 50;
+    /** maximum number of caches returned by a live map search */
+    public static final int VIEWPORT_SEARCH_LIMIT = 500;
 
     private GCMap() {
         // utility class
@@ -66,7 +68,7 @@ public class GCMap {
             }
 
             search.setBox(viewport);
-            search.setPage(500, 0);
+            search.setPage(VIEWPORT_SEARCH_LIMIT, 0);
 
             final SearchResult searchResult = GCWebAPI.searchCaches(con, search, false);
 
@@ -3,6 +3,7 @@ package cgeo.geocaching.downloader;
 import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.R;
 import cgeo.geocaching.brouter.BRouterConstants;
+import cgeo.geocaching.brouter.mapaccess.ElevationLookup;
 import cgeo.geocaching.brouter.mapaccess.PhysicalFile;
 import cgeo.geocaching.models.Download;
 import cgeo.geocaching.network.Network;
@@ -97,4 +98,10 @@ public class BRouterTileDownloader extends AbstractDownloader {
         }
         return (result == null);
     }
+
+    @Override
+    protected void onSuccessfulReceive(final Uri result) {
+        // tile files read by elevation lookup might have been replaced
+        ElevationLookup.getInstance().clear();
+    }
 }
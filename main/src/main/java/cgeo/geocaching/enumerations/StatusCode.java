@@ -31,7 +31,8 @@ public enum StatusCode {
     LOG_POST_ERROR_GK(R.string.err_log_post_failed_gk),
     NO_LOG_TEXT(R.string.warn_log_text_fill),
     NOT_LOGGED_IN(R.string.init_login_popup_failed),
-    LOGIMAGE_POST_ERROR(R.string.err_logimage_post_failed);
+    LOGIMAGE_POST_ERROR(R.string.err_logimage_post_failed),
+    CONNECTOR_TIMEOUT(R.string.err_connector_timeout);
 
     @StringRes
     public final int errorString;
@@ -44,7 +44,7 @@ public class GpxExport extends AbstractExport {
         if (activity == null) {
             // No activity given, so no user interaction possible.
             // Start export with default parameters.
-            new GpxExportTask(null, getProgressTitle(), fileName, getName()).execute(geocodes);
+            new GpxExportTask(null, getProgressTitle(), fileName, getName(), getCompression()).execute(geocodes);
 
         } else {
             // Show configuration dialog
@@ -79,20 +79,29 @@ public class GpxExport extends AbstractExport {
         builder.setView(layout);
 
         final TextView text = layout.findViewById(R.id.info);
-        text.setText(activity.getString(R.string.export_confirm_message, PersistableFolder.GPX.toUserDisplayableValue(), fileName));
-
         final CheckBox includeFoundStatus = layout.findViewById(R.id.include_found_status);
         includeFoundStatus.setChecked(Settings.getIncludeFoundStatus());
+        final CheckBox exportZip = layout.findViewById(R.id.export_zip);
+        exportZip.setChecked(Settings.getGpxExportZip());
+        exportZip.setOnCheckedChangeListener((button, checked) -> {
+            Settings.setGpxExportZip(checked);
+            text.setText(activity.getString(R.string.export_confirm_message, PersistableFolder.GPX.toUserDisplayableValue(), fileName + getCompression().fileSuffix));
+        });
+        text.setText(activity.getString(R.string.export_confirm_message, PersistableFolder.GPX.toUserDisplayableValue(), fileName + getCompression().fileSuffix));
 
         builder.setPositiveButton(R.string.export, (dialog, which) -> {
             Settings.setIncludeFoundStatus(includeFoundStatus.isChecked());
             dialog.dismiss();
-            new GpxExportTask(activity, getProgressTitle(), fileName, getName()).execute(geocodes);
+            new GpxExportTask(activity, getProgressTitle(), fileName, getName(), getCompression()).execute(geocodes);
         });
 
         return builder.create();
     }
 
+    private static GpxSerializer.Compression getCompression() {
+        return Settings.getGpxExportZip() ? GpxSerializer.Compression.ZIP : GpxSerializer.Compression.NONE;
+    }
+
     private static String[] getGeocodes(final List<Geocache> caches) {
         return Geocache.getGeocodes(caches).toArray(new String[caches.size()]);
     }
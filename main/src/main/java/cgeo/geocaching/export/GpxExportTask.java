@@ -13,20 +13,16 @@ import cgeo.geocaching.utils.UriUtils;
 import android.app.Activity;
 import android.net.Uri;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import org.apache.commons.io.IOUtils;
-
 public class GpxExportTask extends AsyncTaskWithProgress<String, Uri> {
     private final String filename;
     private final String name;
+    private final GpxSerializer.Compression compression;
 
     /**
      * Instantiates and configures the task for exporting gpx files.
@@ -34,9 +30,20 @@ public class GpxExportTask extends AsyncTaskWithProgress<String, Uri> {
      * @param activity optional: Show a progress bar and toasts
      */
     public GpxExportTask(final Activity activity, final String title, final String filename, final String name) {
+        this(activity, title, filename, name, GpxSerializer.Compression.NONE);
+    }
+
+    /**
+     * Instantiates and configures the task for exporting gpx files.
+     *
+     * @param activity    optional: Show a progress bar and toasts
+     * @param compression compression of the exported file, its suffix is appended to the file name
+     */
+    public GpxExportTask(final Activity activity, final String title, final String filename, final String name, final GpxSerializer.Compression compression) {
         super(activity, title);
         this.filename = filename;
         this.name = name;
+        this.compression = compression;
     }
 
     @Override
@@ -45,27 +52,23 @@ public class GpxExportTask extends AsyncTaskWithProgress<String, Uri> {
 
         setMessage(CgeoApplication.getInstance().getResources().getQuantityString(R.plurals.cache_counts, allGeocodes.size(), allGeocodes.size()));
 
-        final Uri uri = ContentStorage.get().create(PersistableFolder.GPX, filename);
+        final Uri uri = ContentStorage.get().create(PersistableFolder.GPX, filename + compression.fileSuffix);
         if (uri == null) {
             return null;
         }
 
-        BufferedWriter writer = null;
         try (OutputStream os = ContentStorage.get().openForWrite(uri)) {
             if (os == null) {
                 return null;
             }
 
-            writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
-            new GpxSerializer().writeGPX(allGeocodes, writer, this::publishProgress);
+            new GpxSerializer().writeGPX(allGeocodes, os, compression, filename, this::publishProgress);
         } catch (final IOException e) {
             Log.e("GpxExport.ExportTask export", e);
             // delete partial GPX file on error
             ContentStorage.get().delete(uri);
 
             return null;
-        } finally {
-            IOUtils.closeQuietly(writer);
         }
 
         return uri;
@@ -76,7 +79,7 @@ public class GpxExportTask extends AsyncTaskWithProgress<String, Uri> {
         final Activity activityLocal = activity;
         if (activityLocal != null) {
             if (uri != null) {
-                ShareUtils.shareOrDismissDialog(activityLocal, uri, "application/xml", R.string.export, name + ' ' + activityLocal.getString(R.string.export_exportedto) + ": " + UriUtils.toUserDisplayableString(uri));
+                ShareUtils.shareOrDismissDialog(activityLocal, uri, compression.mimeType, R.string.export, name + ' ' + activityLocal.getString(R.string.export_exportedto) + ": " + UriUtils.toUserDisplayableString(uri));
             } else {
                 ActivityMixin.showToast(activityLocal, activityLocal.getString(R.string.export_failed));
             }
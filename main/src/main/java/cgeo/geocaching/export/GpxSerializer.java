@@ -20,15 +20,27 @@ import cgeo.org.kxml2.io.KXmlSerializer;
 
 import androidx.annotation.NonNull;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -61,6 +73,41 @@ public final class GpxSerializer {
      */
     public static final int CACHES_PER_BATCH = 100;
 
+    /**
+     * Size of the output buffers. Exports are written in large chunks, which is considerably faster for content storage.
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Compression of exported GPX data. ZIP files can be imported by c:geo again.
+     */
+    public enum Compression {
+        NONE("", "application/xml"),
+        ZIP(".zip", "application/zip");
+
+        /** suffix appended to the name of the GPX file */
+        public final String fileSuffix;
+        public final String mimeType;
+
+        Compression(final String fileSuffix, final String mimeType) {
+            this.fileSuffix = fileSuffix;
+            this.mimeType = mimeType;
+        }
+    }
+
+    /**
+     * caches of a batch with their logs, loaded in the background while the previous batch is written
+     */
+    private static final class Batch {
+        private final Set<Geocache> caches;
+        private final Map<String, List<LogEntry>> logs;
+
+        private Batch(final Set<Geocache> caches, final Map<String, List<LogEntry>> logs) {
+            this.caches = caches;
+            this.logs = logs;
+        }
+    }
+
     /**
      * counter for exported caches, used for progress reporting
      */
@@ -74,10 +121,39 @@ public final class GpxSerializer {
 
     }
 
-    public void writeGPX(@NonNull final List<String> allGeocodesIn, final Writer writer, final ProgressListener progressListener) throws IOException {
-        // create a copy of the geocode list, as we need to modify it, but it might be immutable
-        final List<String> allGeocodes = new ArrayList<>(allGeocodesIn);
+    /**
+     * Writes the GPX of the given caches to a stream, optionally compressed. The stream is flushed but not closed.
+     *
+     * @param gpxFileName name of the GPX file inside a ZIP archive
+     */
+    public void writeGPX(@NonNull final List<String> allGeocodes, @NonNull final OutputStream os, @NonNull final Compression compression, @NonNull final String gpxFileName,
+                         final ProgressListener progressListener) throws IOException {
+        final OutputStream out;
+        switch (compression) {
+            case ZIP:
+                final ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(os, OUTPUT_BUFFER_SIZE));
+                zip.putNextEntry(new ZipEntry(gpxFileName));
+                out = zip;
+                break;
+            default:
+                out = os;
+                break;
+        }
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE);
+        writeGPX(allGeocodes, writer, progressListener);
+        writer.flush();
+        if (out instanceof ZipOutputStream) {
+            ((ZipOutputStream) out).closeEntry();
+            ((ZipOutputStream) out).finish();
+        }
+        out.flush();
+    }
 
+    /**
+     * Writes the GPX of the given caches. While a batch of caches is written, the next batch is loaded from the
+     * database in the background.
+     */
+    public void writeGPX(@NonNull final List<String> allGeocodes, final Writer writer, final ProgressListener progressListener) throws IOException {
         this.progressListener = progressListener;
         gpx.setOutput(writer);
         gpx.setFeature("http://xmlpull.org/v1/doc/features.html#indent-output", true);
@@ -96,19 +172,47 @@ public final class GpxSerializer {
 
         // Split the overall set of geocodes into small chunks. That is a compromise between memory efficiency (because
         // we don't load all caches fully into memory) and speed (because we don't query each cache separately).
-        while (!allGeocodes.isEmpty()) {
-            final List<String> batch = allGeocodes.subList(0, Math.min(CACHES_PER_BATCH, allGeocodes.size()));
-            exportBatch(gpx, batch);
-            batch.clear();
+        // At most two batches are in memory: the one being written and the one being loaded.
+        final List<List<String>> batches = new ArrayList<>();
+        for (int start = 0; start < allGeocodes.size(); start += CACHES_PER_BATCH) {
+            batches.add(new ArrayList<>(allGeocodes.subList(start, Math.min(start + CACHES_PER_BATCH, allGeocodes.size()))));
+        }
+        final ExecutorService loader = Executors.newSingleThreadExecutor();
+        try {
+            Future<Batch> nextBatch = batches.isEmpty() ? null : loader.submit(() -> loadBatch(batches.get(0)));
+            for (int i = 0; i < batches.size(); i++) {
+                final Batch batch = nextBatch.get();
+                final List<String> nextGeocodes = i + 1 < batches.size() ? batches.get(i + 1) : null;
+                nextBatch = nextGeocodes == null ? null : loader.submit(() -> loadBatch(nextGeocodes));
+                exportBatch(gpx, batch);
+            }
+        } catch (final ExecutionException e) {
+            throw new IOException("Cannot load caches for GPX export", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("GPX export interrupted");
+        } finally {
+            loader.shutdownNow();
         }
 
         gpx.endTag(NS_GPX, "gpx");
         gpx.endDocument();
     }
 
-    private void exportBatch(final XmlSerializer gpx, @NonNull final Collection<String> geocodesOfBatch) throws IOException {
+    @NonNull
+    private static Batch loadBatch(@NonNull final List<String> geocodesOfBatch) {
         final Set<Geocache> caches = DataStore.loadCaches(geocodesOfBatch, LoadFlags.LOAD_ALL_DB_ONLY);
+        final Map<String, List<LogEntry>> logs = new HashMap<>(caches.size());
         for (final Geocache cache : caches) {
+            if (cache != null) {
+                logs.put(cache.getGeocode(), cache.getLogs());
+            }
+        }
+        return new Batch(caches, logs);
+    }
+
+    private void exportBatch(final XmlSerializer gpx, @NonNull final Batch batch) throws IOException {
+        for (final Geocache cache : batch.caches) {
             if (cache == null) {
                 continue;
             }
@@ -153,7 +257,7 @@ public final class GpxSerializer {
 
             XmlUtils.simpleText(gpx, NS_GROUNDSPEAK, "encoded_hints", cache.getHint());
 
-            writeLogs(cache);
+            writeLogs(cache, batch.logs.get(cache.getGeocode()));
             writeTravelBugs(cache);
 
             gpx.endTag(NS_GROUNDSPEAK, "cache");
@@ -314,8 +418,7 @@ public final class GpxSerializer {
         gpx.endTag(NS_GPX, "wpt");
     }
 
-    private void writeLogs(@NonNull final Geocache cache) throws IOException {
-        final List<LogEntry> logs = cache.getLogs();
+    private void writeLogs(@NonNull final Geocache cache, @NonNull final List<LogEntry> logs) throws IOException {
         if (logs.isEmpty()) {
             return;
         }
@@ -2,8 +2,8 @@ package cgeo.geocaching.export;
 
 import cgeo.geocaching.R;
 import cgeo.geocaching.settings.Settings;
-import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.storage.PersistableFolder;
+import cgeo.geocaching.storage.TrailHistoryWriter;
 import cgeo.geocaching.ui.dialog.Dialogs;
 import cgeo.geocaching.utils.EnvironmentUtils;
 import cgeo.geocaching.utils.FileNameCreator;
@@ -41,7 +41,7 @@ public class TrailHistoryExport {
         builder.setPositiveButton(R.string.export, (dialog, which) -> {
             Settings.setClearTrailAfterExportStatus(clearAfterExport.isChecked());
             dialog.dismiss();
-            new TrailHistoryExportTask(activity, clearTrailHistory, filename).execute(DataStore.loadTrailHistoryAsArray());
+            new TrailHistoryExportTask(activity, clearTrailHistory, filename).execute(TrailHistoryWriter.loadAll());
         });
 
         builder.setNegativeButton(android.R.string.cancel, (dialog, which) -> dialog.dismiss());
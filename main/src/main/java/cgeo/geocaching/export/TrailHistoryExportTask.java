@@ -2,7 +2,7 @@ package cgeo.geocaching.export;
 
 import cgeo.geocaching.R;
 import cgeo.geocaching.activity.ActivityMixin;
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.PersistableFolder;
@@ -29,7 +29,7 @@ import java.util.TimeZone;
 import org.apache.commons.io.IOUtils;
 import org.xmlpull.v1.XmlSerializer;
 
-public class TrailHistoryExportTask extends AsyncTaskWithProgress<TrailHistoryElement, Uri> {
+public class TrailHistoryExportTask extends AsyncTaskWithProgress<Trail, Uri> {
 
     private static final String PREFIX_GPX = "";
     private static final String NS_GPX = "http://www.topografix.com/GPX/1/1";
@@ -48,7 +48,9 @@ public class TrailHistoryExportTask extends AsyncTaskWithProgress<TrailHistoryEl
     }
 
     @Override
-    protected Uri doInBackgroundInternal(final TrailHistoryElement[] trail) {
+    protected Uri doInBackgroundInternal(final Trail[] trails) {
+        final Trail trail = trails[0];
+        progress.setMaxProgressAndReset(trail.size());
 
         final Uri uri = ContentStorage.get().create(PersistableFolder.GPX, filename);
         if (uri == null) {
@@ -90,13 +92,13 @@ public class TrailHistoryExportTask extends AsyncTaskWithProgress<TrailHistoryEl
                 gpx.startTag(NS_GPX, "trk");
                 XmlUtils.simpleText(gpx, NS_GPX, "name", "c:geo history trail " + formatter.format(new Date()));
                 gpx.startTag(NS_GPX, "trkseg");
-                for (TrailHistoryElement trailHistoryElement : trail) {
+                for (int i = 0; i < trail.size(); i++) {
                     gpx.startTag(null, "trkpt");
                     // all decimal points have to be ".", thus use non-localizing methods
-                    gpx.attribute(null, "lat", String.valueOf(trailHistoryElement.getLatitude()));
-                    gpx.attribute(null, "lon", String.valueOf(trailHistoryElement.getLongitude()));
-                    XmlUtils.simpleText(gpx, null, "ele", String.format(Locale.US, "%.2f", trailHistoryElement.getAltitude()));
-                    XmlUtils.simpleText(gpx, null, "time", formatter.format(trailHistoryElement.getTimestamp()));
+                    gpx.attribute(null, "lat", String.valueOf(trail.getLatitude(i)));
+                    gpx.attribute(null, "lon", String.valueOf(trail.getLongitude(i)));
+                    XmlUtils.simpleText(gpx, null, "ele", String.format(Locale.US, "%.2f", trail.getAltitude(i)));
+                    XmlUtils.simpleText(gpx, null, "time", formatter.format(trail.getTimestamp(i)));
                     gpx.endTag(null, "trkpt");
                     countExported++;
                     publishProgress(countExported);
@@ -11,6 +11,7 @@ import cgeo.geocaching.utils.config.LegacyFilterConfig;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -67,8 +68,8 @@ public class LogEntryGeocacheFilter extends BaseGeocacheFilter {
             }
         }
 
-        // Check against offline stored log data
-        final List<LogEntry> logEntries = cache.getLogs();
+        // Check against offline stored log data (avoid loading logs if there are none)
+        final List<LogEntry> logEntries = cache.getLogSummary().logCount == 0 ? Collections.emptyList() : cache.getLogs();
         if (logEntries.isEmpty() && !cache.inDatabase()) {
             return inverse ? true : null; //if inverse=true then this might be a gc.com search
         }
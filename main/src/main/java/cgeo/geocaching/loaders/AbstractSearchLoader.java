@@ -3,12 +3,15 @@ package cgeo.geocaching.loaders;
 import cgeo.geocaching.CacheListActivity;
 import cgeo.geocaching.R;
 import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.connector.ConnectorSearchStatistics;
 import cgeo.geocaching.connector.IConnector;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.Log;
 
 import android.app.Activity;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.loader.content.AsyncTaskLoader;
 
 import java.lang.ref.WeakReference;
@@ -18,10 +21,13 @@ import io.reactivex.rxjava3.functions.Function;
 
 public abstract class AbstractSearchLoader extends AsyncTaskLoader<SearchResult> {
 
+    /** maximum time to wait for a single connector. Results of slower connectors are dropped */
+    protected static final long CONNECTOR_DEADLINE_MS = 60000;
 
     private final WeakReference<Activity> activityRef;
     private SearchResult search;
-    private boolean loading;
+    private volatile boolean loading;
+    private boolean deliveringPartialResult;
     private CacheListActivity.AfterLoadAction afterLoadAction = CacheListActivity.AfterLoadAction.NO_ACTION;
 
     private static class NoConnectorException extends RuntimeException {
@@ -33,25 +39,49 @@ public abstract class AbstractSearchLoader extends AsyncTaskLoader<SearchResult>
     }
 
     /**
-     * Run {@link SearchResult#parallelCombineActive(Collection, Function)} if there is at least one active connector
-     * in <tt>connectors</tt>, and throw <tt>NoConnectorException</tt> otherwise.
+     * Run {@link SearchResult#parallelCombineActive(SearchResult, Collection, Function, ConnectorSearchStatistics.Operation, long, boolean, androidx.core.util.Consumer)}
+     * if there is at least one active connector in <tt>connectors</tt>, and throw <tt>NoConnectorException</tt> otherwise.
+     * Partial results are delivered while slower connectors are still loading. Connectors not answering within
+     * {@link #CONNECTOR_DEADLINE_MS} get a {@link cgeo.geocaching.enumerations.StatusCode#CONNECTOR_TIMEOUT} error.
      *
      * @param connectors a collection of connectors
      * @param func       a function to apply to every connector
+     * @param hedged     whether slow connectors get a second request, see {@link SearchResult#parallelCombineActive}
      * @param <C>        the type of connectors
-     * @return the result of {@link SearchResult#parallelCombineActive(Collection, Function)} if there is at least one
-     * active connector
+     * @return the combined result of all active connectors answering within {@link #CONNECTOR_DEADLINE_MS}
      */
-    protected static <C extends IConnector> SearchResult nonEmptyCombineActive(final Collection<C> connectors,
-                                                                               final Function<C, SearchResult> func) {
+    protected <C extends IConnector> SearchResult nonEmptyCombineActive(final Collection<C> connectors,
+                                                                        final Function<C, SearchResult> func, final boolean hedged) {
         for (final IConnector connector : connectors) {
             if (connector.isActive()) {
-                return SearchResult.parallelCombineActive(connectors, func);
+                return SearchResult.parallelCombineActive(null, connectors, func, ConnectorSearchStatistics.Operation.SEARCH_BY_FILTER,
+                        CONNECTOR_DEADLINE_MS, hedged, this::deliverPartialResult);
             }
         }
         throw new NoConnectorException();
     }
 
+    /**
+     * Delivers an intermediate result while loading is still in progress. Receivers can check for partial results
+     * using {@link #isDeliveringPartialResult()}.
+     */
+    protected void deliverPartialResult(@NonNull final SearchResult partialResult) {
+        AndroidRxUtils.runOnUi(() -> {
+            if (!loading || !isStarted()) {
+                return;
+            }
+            deliveringPartialResult = true;
+            try {
+                deliverResult(partialResult);
+            } finally {
+                deliveringPartialResult = false;
+            }
+        });
+    }
+
+    public boolean isDeliveringPartialResult() {
+        return deliveringPartialResult;
+    }
 
     protected AbstractSearchLoader(final Activity activity) {
         super(activity);
@@ -31,7 +31,7 @@ public abstract class LiveFilterGeocacheListLoader extends AbstractSearchLoader
         final GeocacheSort sort = this.sort == null ? new GeocacheSort() : this.sort;
 
         final SearchResult result = nonEmptyCombineActive(ConnectorFactory.getSearchByFilterConnectors(getFilterType()),
-                connector -> connector.searchByFilter(useFilter, sort));
+                connector -> connector.searchByFilter(useFilter, sort), true);
         AmendmentUtils.amendCachesForFilter(result, useFilter);
         return result;
     }
@@ -2,6 +2,7 @@ package cgeo.geocaching.loaders;
 
 import cgeo.geocaching.SearchResult;
 import cgeo.geocaching.connector.ConnectorFactory;
+import cgeo.geocaching.connector.ConnectorSearchStatistics;
 
 import android.app.Activity;
 
@@ -15,8 +16,10 @@ public class NextPageGeocacheListLoader extends AbstractSearchLoader {
 
     @Override
     public SearchResult runSearch() {
+        // no hedged requests here, as paging state of connectors must not advance twice
         return SearchResult.parallelCombineActive(search, ConnectorFactory.getSearchByNextPageConnectors(),
-                connector -> connector.searchByNextPage(search.getConnectorContext(connector)));
+                connector -> connector.searchByNextPage(search.getConnectorContext(connector)), ConnectorSearchStatistics.Operation.SEARCH_BY_NEXT_PAGE,
+                CONNECTOR_DEADLINE_MS, false, this::deliverPartialResult);
     }
 
 }
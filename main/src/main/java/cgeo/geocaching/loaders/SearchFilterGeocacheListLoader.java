@@ -23,8 +23,9 @@ public class SearchFilterGeocacheListLoader extends AbstractSearchLoader {
 
     @Override
     public SearchResult runSearch() {
+        // no hedged requests: arbitrary filter searches may be expensive for the services
         final SearchResult result = nonEmptyCombineActive(ConnectorFactory.getSearchByFilterConnectors(),
-                connector -> connector.searchByFilter(filter, sort));
+                connector -> connector.searchByFilter(filter, sort), false);
         AmendmentUtils.amendCachesForFilter(result, filter);
         return result;
     }
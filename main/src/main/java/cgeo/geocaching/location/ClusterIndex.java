@@ -0,0 +1,261 @@
+package cgeo.geocaching.location;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical grid of map items for clustering markers at low zoom levels.
+ *
+ * For every zoom level up to {@link #MAX_ZOOM}, items are counted in grid cells of {@link #CELL_SIZE_PIXELS} screen
+ * pixels (on web mercator tiles of 256 pixels). Each cell of a zoom level consists of four cells of the next level.
+ * Counts and centers of all levels are updated on every add and remove, so a query only looks at the cells
+ * of the requested zoom level within the viewport and returns at most one cluster per cell.
+ */
+public class ClusterIndex<K> {
+
+    /** highest zoom level for which clusters are calculated */
+    public static final int MAX_ZOOM = 13;
+
+    /** size of one grid cell in pixels */
+    public static final int CELL_SIZE_PIXELS = 64;
+
+    /** cells per tile and axis = 256 / CELL_SIZE_PIXELS = 2 ^ CELL_BITS */
+    private static final int CELL_BITS = 2;
+
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    /** Items of one grid cell, either several items or a single one */
+    public static final class Cluster<K> {
+        public final int zoom;
+        /** number of the grid cell within its zoom level */
+        public final long cell;
+        public final int count;
+        /** center of all items in this cluster */
+        public final double latitude;
+        public final double longitude;
+        /** the item, if this cluster contains only one, null otherwise */
+        @Nullable public final K key;
+
+        Cluster(final int zoom, final long cell, final int count, final double latitude, final double longitude, @Nullable final K key) {
+            this.zoom = zoom;
+            this.cell = cell;
+            this.count = count;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.key = key;
+        }
+    }
+
+    private static final class Cell<K> {
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+        /** items of the cell, on level MAX_ZOOM only */
+        private Set<K> keys;
+    }
+
+    /** cells by cell number, for each zoom level */
+    private final List<Map<Long, Cell<K>>> levels = new ArrayList<>(MAX_ZOOM + 1);
+    private final Map<K, double[]> positions = new HashMap<>();
+
+    public ClusterIndex() {
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    /** adds an item or moves it to a new position */
+    public synchronized void add(@NonNull final K key, final double latitude, final double longitude) {
+        final double[] previous = positions.get(key);
+        if (previous != null) {
+            if (previous[0] == latitude && previous[1] == longitude) {
+                return;
+            }
+            remove(key);
+        }
+        positions.put(key, new double[] { latitude, longitude });
+        final double x = mercatorX(longitude);
+        final double y = mercatorY(latitude);
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            final int gridSize = gridSize(zoom);
+            final long cellNumber = cellNumber(gridIndex(x, gridSize), gridIndex(y, gridSize), gridSize);
+            Cell<K> cell = levels.get(zoom).get(cellNumber);
+            if (cell == null) {
+                cell = new Cell<>();
+                levels.get(zoom).put(cellNumber, cell);
+            }
+            cell.count++;
+            cell.latitudeSum += latitude;
+            cell.longitudeSum += longitude;
+            if (zoom == MAX_ZOOM) {
+                if (cell.keys == null) {
+                    cell.keys = new HashSet<>();
+                }
+                cell.keys.add(key);
+            }
+        }
+    }
+
+    /** @return true if the item was part of the index */
+    public synchronized boolean remove(@NonNull final K key) {
+        final double[] position = positions.remove(key);
+        if (position == null) {
+            return false;
+        }
+        final double x = mercatorX(position[1]);
+        final double y = mercatorY(position[0]);
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            final int gridSize = gridSize(zoom);
+            final long cellNumber = cellNumber(gridIndex(x, gridSize), gridIndex(y, gridSize), gridSize);
+            final Cell<K> cell = levels.get(zoom).get(cellNumber);
+            if (cell == null) {
+                continue;
+            }
+            cell.count--;
+            if (cell.count <= 0) {
+                levels.get(zoom).remove(cellNumber);
+                continue;
+            }
+            cell.latitudeSum -= position[0];
+            cell.longitudeSum -= position[1];
+            if (cell.keys != null) {
+                cell.keys.remove(key);
+            }
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(@NonNull final K key) {
+        return positions.containsKey(key);
+    }
+
+    /** @return a copy of the keys of all items */
+    @NonNull
+    public synchronized Set<K> keySet() {
+        return new HashSet<>(positions.keySet());
+    }
+
+    public synchronized int size() {
+        return positions.size();
+    }
+
+    public synchronized void clear() {
+        positions.clear();
+        for (Map<Long, Cell<K>> level : levels) {
+            level.clear();
+        }
+    }
+
+    /**
+     * @return clusters of the given zoom level (limited to {@link #MAX_ZOOM}) with at least one item within the given area.
+     * Clusters containing only one item carry its key. An area with longitudeMin greater than longitudeMax crosses the antimeridian.
+     */
+    @NonNull
+    public synchronized List<Cluster<K>> query(final double latitudeMin, final double longitudeMin, final double latitudeMax, final double longitudeMax, final int zoom) {
+        final int z = Math.max(0, Math.min(MAX_ZOOM, zoom));
+        final int gridSize = gridSize(z);
+        final int xMin = gridIndex(mercatorX(longitudeMin), gridSize);
+        final int xMax = gridIndex(mercatorX(longitudeMax), gridSize);
+        // mercator y grows to the south
+        final int yMin = gridIndex(mercatorY(latitudeMax), gridSize);
+        final int yMax = gridIndex(mercatorY(latitudeMin), gridSize);
+
+        final List<Cluster<K>> result = new ArrayList<>();
+        if (longitudeMin > longitudeMax) {
+            // split at the antimeridian
+            query(result, z, xMin, gridSize - 1, yMin, yMax);
+            query(result, z, 0, Math.min(xMax, xMin - 1), yMin, yMax);
+        } else {
+            query(result, z, xMin, xMax, yMin, yMax);
+        }
+        return result;
+    }
+
+    private void query(final List<Cluster<K>> result, final int zoom, final int xMin, final int xMax, final int yMin, final int yMax) {
+        if (xMin > xMax || yMin > yMax) {
+            return;
+        }
+        final int gridSize = gridSize(zoom);
+        final Map<Long, Cell<K>> level = levels.get(zoom);
+        if ((long) (xMax - xMin + 1) * (yMax - yMin + 1) > level.size()) {
+            // fewer filled cells than cells in the area
+            for (Map.Entry<Long, Cell<K>> entry : level.entrySet()) {
+                final int x = (int) (entry.getKey() / gridSize);
+                final int y = (int) (entry.getKey() % gridSize);
+                if (x >= xMin && x <= xMax && y >= yMin && y <= yMax) {
+                    result.add(toCluster(zoom, x, y, entry.getValue()));
+                }
+            }
+        } else {
+            for (int x = xMin; x <= xMax; x++) {
+                for (int y = yMin; y <= yMax; y++) {
+                    final Cell<K> cell = level.get(cellNumber(x, y, gridSize));
+                    if (cell != null) {
+                        result.add(toCluster(zoom, x, y, cell));
+                    }
+                }
+            }
+        }
+    }
+
+    private Cluster<K> toCluster(final int zoom, final int x, final int y, final Cell<K> cell) {
+        return new Cluster<>(zoom, cellNumber(x, y, gridSize(zoom)), cell.count, cell.latitudeSum / cell.count, cell.longitudeSum / cell.count,
+                cell.count == 1 ? findSingleKey(zoom, x, y) : null);
+    }
+
+    /** descends from a cell with exactly one item to the level holding the item's key */
+    @Nullable
+    private K findSingleKey(final int zoom, final int x, final int y) {
+        int cellX = x;
+        int cellY = y;
+        for (int z = zoom; z < MAX_ZOOM; z++) {
+            final int childGridSize = gridSize(z + 1);
+            boolean found = false;
+            for (int child = 0; child < 4 && !found; child++) {
+                final int childX = cellX * 2 + (child & 1);
+                final int childY = cellY * 2 + (child >> 1);
+                if (levels.get(z + 1).containsKey(cellNumber(childX, childY, childGridSize))) {
+                    cellX = childX;
+                    cellY = childY;
+                    found = true;
+                }
+            }
+            if (!found) {
+                return null;
+            }
+        }
+        final Cell<K> leaf = levels.get(MAX_ZOOM).get(cellNumber(cellX, cellY, gridSize(MAX_ZOOM)));
+        return leaf == null || leaf.keys == null || leaf.keys.isEmpty() ? null : leaf.keys.iterator().next();
+    }
+
+    private static int gridSize(final int zoom) {
+        return 1 << (zoom + CELL_BITS);
+    }
+
+    private static long cellNumber(final int x, final int y, final int gridSize) {
+        return (long) x * gridSize + y;
+    }
+
+    private static int gridIndex(final double mercator, final int gridSize) {
+        return Math.max(0, Math.min(gridSize - 1, (int) (mercator * gridSize)));
+    }
+
+    /** @return web mercator x in [0, 1] */
+    private static double mercatorX(final double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    /** @return web mercator y in [0, 1], 0 at the northern border */
+    private static double mercatorY(final double latitude) {
+        final double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+}
@@ -52,7 +52,32 @@ public class GeopointParser {
          * @return a wrapper with the parsed coordinates and the length of the match, or null if parsing failed
          */
         @Nullable
-        public abstract GeopointWrapper parse(@NonNull String text);
+        public final GeopointWrapper parse(@NonNull final String text) {
+            final MatcherWrapper matcher = new MatcherWrapper(getPattern(), text);
+            if (matcher.find()) {
+                final Geopoint geopoint = createGeopoint(matcher);
+                if (geopoint != null) {
+                    return new GeopointWrapper(geopoint, matcher.start(), matcher.end() - matcher.start(), text);
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns the pattern which detects coordinates of this format in a text.
+         */
+        @NonNull
+        public abstract Pattern getPattern();
+
+        /**
+         * Creates coordinates out of a match of {@link #getPattern()}.
+         *
+         * @param matcher the matcher positioned on a match
+         * @return the parsed coordinates, or null if the match does not represent valid coordinates
+         */
+        @Nullable
+        public abstract Geopoint createGeopoint(@NonNull MatcherWrapper matcher);
 
         /**
          * Parses latitude or longitude out of the given string.
@@ -139,30 +164,34 @@ public class GeopointParser {
         }
 
         /**
-         * @see AbstractParser#parse(String)
+         * @see AbstractParser#getPattern()
          */
         @Override
-        @Nullable
-        public final GeopointWrapper parse(@NonNull final String text) {
-            final MatcherWrapper matcher = new MatcherWrapper(latLonPattern, text);
-            if (matcher.find()) {
-                final int groupCount = matcher.groupCount();
-                final int partCount = groupCount / 2;
+        @NonNull
+        public final Pattern getPattern() {
+            return latLonPattern;
+        }
 
-                final Double lat = parseGroups(matcher, 1, partCount);
-                if (lat == null || !Geopoint.isValidLatitude(lat)) {
-                    return null;
-                }
+        /**
+         * @see AbstractParser#createGeopoint(MatcherWrapper)
+         */
+        @Override
+        @Nullable
+        public final Geopoint createGeopoint(@NonNull final MatcherWrapper matcher) {
+            final int groupCount = matcher.groupCount();
+            final int partCount = groupCount / 2;
 
-                final Double lon = parseGroups(matcher, partCount + 1, groupCount);
-                if (lon == null || !Geopoint.isValidLongitude(lon)) {
-                    return null;
-                }
+            final Double lat = parseGroups(matcher, 1, partCount);
+            if (lat == null || !Geopoint.isValidLatitude(lat)) {
+                return null;
+            }
 
-                return new GeopointWrapper(new Geopoint(lat, lon), matcher.start(), matcher.group().length(), text);
+            final Double lon = parseGroups(matcher, partCount + 1, groupCount);
+            if (lon == null || !Geopoint.isValidLongitude(lon)) {
+                return null;
             }
 
-            return null;
+            return new Geopoint(lat, lon);
         }
 
         /**
@@ -438,19 +467,24 @@ public class GeopointParser {
      */
     private static final class UTMParser extends AbstractParser {
         /**
-         * @see AbstractParser#parse(String)
+         * @see AbstractParser#getPattern()
+         */
+        @Override
+        @NonNull
+        public Pattern getPattern() {
+            return UTMPoint.PATTERN_UTM;
+        }
+
+        /**
+         * @see AbstractParser#createGeopoint(MatcherWrapper)
          */
         @Override
         @Nullable
-        public GeopointWrapper parse(@NonNull final String text) {
-            final MatcherWrapper matcher = new MatcherWrapper(UTMPoint.PATTERN_UTM, text);
-            if (matcher.find()) {
-                try {
-                    final UTMPoint utmPoint = new UTMPoint(text);
-                    return new GeopointWrapper(utmPoint.toLatLong(), matcher.start(), matcher.group().length(), text);
-                } catch (final Exception ignored) {
-                    // Ignore parse errors
-                }
+        public Geopoint createGeopoint(@NonNull final MatcherWrapper matcher) {
+            try {
+                return new UTMPoint(matcher.group()).toLatLong();
+            } catch (final Exception ignored) {
+                // Ignore parse errors
             }
             return null;
         }
@@ -584,6 +618,10 @@ public class GeopointParser {
     /**
      * Detects all coordinates in the given text.
      *
+     * Text is scanned in one forward sweep: for every parser and parser input a {@link ParserCursor} remembers
+     * the next match. After a coordinate was found, only those cursors are searched again whose match was consumed,
+     * all others are just checked for a new match at the current position.
+     *
      * @param initialText Text to parse for coordinates
      * @return a collection of parsed geopoints as well as their starting and ending position and the appropriate text
      * 'start' points at the first char of the coordinate text, 'end' points at the first char AFTER the coordinate text
@@ -591,37 +629,115 @@ public class GeopointParser {
     @NonNull
     public static Collection<GeopointWrapper> parseAll(@NonNull final String initialText) {
         final List<GeopointWrapper> waypoints = new LinkedList<>();
+        if (getLastPossibleStart(initialText) < 0) {
+            return waypoints;
+        }
+
+        //on equally good matches, prefer the input with unswapped separators
+        final String inputDot = removeSpaceAfterSeparators(initialText);
+        final String inputComma = swapDotAndComma(inputDot);
+        final List<ParserCursor> cursors = new ArrayList<>();
+        for (final AbstractParser parser : parsers) {
+            cursors.add(new ParserCursor(parser, inputDot));
+            if (!inputComma.equals(inputDot)) {
+                cursors.add(new ParserCursor(parser, inputComma));
+            }
+        }
 
-        String text = initialText;
+        //both inputs have same length and digit positions
+        final int lastPossibleStart = getLastPossibleStart(inputDot);
         int startIndex = 0;
-        GeopointWrapper best;
-        do {
-            best = null;
-            text = text.substring(startIndex);
-            final Set<String> inputs = getParseInputs(text);
-            for (final AbstractParser parser : parsers) {
-                for (final String input : inputs) {
-                    final GeopointWrapper geopointWrapper = parser.parse(input);
-                    if (geopointWrapper == null) {
-                        continue;
-                    }
-                    if (geopointWrapper.isBetterThan(best)) {
-                        best = geopointWrapper;
-                        text = input;
-                        startIndex = best.getEnd();
-                    }
+        while (startIndex <= lastPossibleStart) {
+            ParserCursor best = null;
+            for (final ParserCursor cursor : cursors) {
+                cursor.moveTo(startIndex);
+                if (cursor.geopoint != null && (best == null || cursor.matchStart < best.matchStart ||
+                        (cursor.matchStart == best.matchStart && cursor.matchEnd - cursor.matchStart > best.matchEnd - best.matchStart))) {
+                    best = cursor;
                 }
             }
 
-            if (best != null) {
-                waypoints.add(best);
+            if (best == null) {
+                break;
             }
-
-        } while (best != null && startIndex < text.length());
+            waypoints.add(new GeopointWrapper(best.geopoint, best.matchStart - startIndex, best.matchEnd - best.matchStart, best.input.substring(startIndex)));
+            startIndex = best.matchEnd;
+        }
 
         return waypoints;
     }
 
+    /**
+     * Returns the last position in given text where a coordinate may start or -1 if text can't contain a coordinate at all.
+     * Each supported format consists of at least two numbers, thus this is the position of the second-to-last digit.
+     */
+    private static int getLastPossibleStart(@NonNull final String text) {
+        boolean digitFound = false;
+        for (int i = text.length() - 1; i >= 0; i--) {
+            final char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digitFound) {
+                    return i;
+                }
+                digitFound = true;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remembers the first match of a parser's pattern in a parser input, starting at a given position.
+     *
+     * Searching from a later position yields the same match as long as this match is not before that position,
+     * unless there is a match starting directly at the new position (since word boundaries and line starts
+     * are evaluated differently at the beginning of a text). Thus a cursor needs to search again only if its
+     * match was passed over.
+     */
+    private static final class ParserCursor {
+        private final AbstractParser parser;
+        private final String input;
+        private final MatcherWrapper matcher;
+
+        private int position = -1;
+        private int matchStart = -1;
+        private int matchEnd = -1;
+        @Nullable
+        private Geopoint geopoint = null;
+
+        ParserCursor(@NonNull final AbstractParser parser, @NonNull final String input) {
+            this.parser = parser;
+            this.input = input;
+            this.matcher = new MatcherWrapper(parser.getPattern(), input);
+        }
+
+        /**
+         * Moves this cursor to a new (forward) position in text, updating the first match from this position on
+         */
+        void moveTo(final int newPosition) {
+            if (newPosition == position) {
+                return;
+            }
+            final boolean matchStillValid = position >= 0 && (matchStart < 0 || matchStart > newPosition);
+            position = newPosition;
+
+            boolean found = matcher.region(newPosition, input.length()).lookingAt();
+            if (!found && !matchStillValid) {
+                found = matcher.region(newPosition, input.length()).find();
+            }
+            if (found) {
+                setMatch(matcher.start(), matcher.end(), parser.createGeopoint(matcher));
+            } else if (!matchStillValid) {
+                setMatch(-1, -1, null);
+            }
+        }
+
+        private void setMatch(final int start, final int end, @Nullable final Geopoint geopoint) {
+            this.matchStart = start;
+            this.matchEnd = end;
+            this.geopoint = geopoint;
+        }
+    }
+
     /**
      * Parses latitude out of the given string.
      *
@@ -0,0 +1,209 @@
+package cgeo.geocaching.location;
+
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.models.IWaypoint;
+import cgeo.geocaching.models.Waypoint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Grid based index to find the closest cache or waypoint on a map, used for proximity notifications.
+ *
+ * Items are loaded lazily from the given supplier on the first lookup after {@link #invalidate()}, so maps only
+ * have to invalidate the index when their item sets change. Lookups are limited to a search radius and only look
+ * at items in grid cells overlapping this radius.
+ *
+ * {@link #checkClosest(Geopoint, int)} additionally skips lookups as long as the position did not move far
+ * enough to possibly get within the given distance of any item.
+ */
+public class ProximityIndex {
+
+    /** size of grid cells in microdegrees, roughly 1km in latitude */
+    private static final int CELL_SIZE_E6 = 10000;
+
+    /** lower bound for the length of one latitude degree in meters */
+    private static final double MIN_METERS_PER_DEGREE = 110574;
+
+    /** grid cells to scan at most per lookup, larger search areas (close to the poles) fall back to a linear scan */
+    private static final int MAX_CELLS_PER_LOOKUP = 400;
+
+    /** search radius of {@link #checkClosest(Geopoint, int)} as multiple of the requested distance */
+    private static final int CHECK_SEARCH_FACTOR = 3;
+
+    private final Supplier<Collection<? extends IWaypoint>> itemSupplier;
+    private volatile boolean invalidated = true;
+
+    private List<IWaypoint> items = new ArrayList<>();
+    private int[] latitudesE6 = new int[0];
+    private int[] longitudesE6 = new int[0];
+    private final Map<Long, int[]> cells = new HashMap<>();
+
+    private Geopoint lastCheckPosition = null;
+    private float safeDistanceInMeters = 0;
+
+    public ProximityIndex(@NonNull final Supplier<Collection<? extends IWaypoint>> itemSupplier) {
+        this.itemSupplier = itemSupplier;
+    }
+
+    /** marks the items of the index as outdated, they are reloaded on next lookup. May be called from any thread */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    /**
+     * Returns the item closest to position, ignoring items further away than maxDistanceInMeters.
+     *
+     * @return closest item or null if no item is within maxDistanceInMeters
+     */
+    @Nullable
+    public synchronized WaypointDistanceInfo getClosest(@NonNull final Geopoint position, final int maxDistanceInMeters) {
+        if (invalidated) {
+            rebuild();
+        }
+        if (items.isEmpty()) {
+            return null;
+        }
+
+        final double deltaLat = maxDistanceInMeters / MIN_METERS_PER_DEGREE;
+        final double maxAbsLat = Math.min(90, Math.abs(position.getLatitude()) + deltaLat);
+        final double deltaLon = deltaLat / Math.max(Math.cos(Math.toRadians(maxAbsLat)), 1e-6);
+
+        final int minLatE6 = (int) Math.floor((position.getLatitude() - deltaLat) * 1e6);
+        final int maxLatE6 = (int) Math.ceil((position.getLatitude() + deltaLat) * 1e6);
+        final int minLonE6 = (int) Math.floor((position.getLongitude() - deltaLon) * 1e6);
+        final int maxLonE6 = (int) Math.ceil((position.getLongitude() + deltaLon) * 1e6);
+
+        final int minCellLat = cell(minLatE6);
+        final int maxCellLat = cell(maxLatE6);
+        final int minCellLon = cell(minLonE6);
+        final int maxCellLon = cell(maxLonE6);
+
+        final Closest closest = new Closest(maxDistanceInMeters);
+        final boolean crossesDateLine = minLonE6 < -180000000 || maxLonE6 > 180000000;
+        if (crossesDateLine || (long) (maxCellLat - minCellLat + 1) * (maxCellLon - minCellLon + 1) > MAX_CELLS_PER_LOOKUP) {
+            for (int i = 0; i < items.size(); i++) {
+                closest.check(i, position);
+            }
+        } else {
+            for (int cellLat = minCellLat; cellLat <= maxCellLat; cellLat++) {
+                for (int cellLon = minCellLon; cellLon <= maxCellLon; cellLon++) {
+                    final int[] cellItems = cells.get(key(cellLat, cellLon));
+                    if (cellItems == null) {
+                        continue;
+                    }
+                    for (int i : cellItems) {
+                        if (latitudesE6[i] >= minLatE6 && latitudesE6[i] <= maxLatE6 && longitudesE6[i] >= minLonE6 && longitudesE6[i] <= maxLonE6) {
+                            closest.check(i, position);
+                        }
+                    }
+                }
+            }
+        }
+        return closest.index < 0 ? null : new WaypointDistanceInfo(getName(items.get(closest.index)), closest.distance);
+    }
+
+    /**
+     * Returns the closest item if it is within maxDistanceInMeters of position.
+     *
+     * Remembers the distance to the closest item, further calls return null without a lookup until the
+     * position has moved far enough to get within maxDistanceInMeters of any item (or the index got invalidated).
+     */
+    @Nullable
+    public synchronized WaypointDistanceInfo checkClosest(@NonNull final Geopoint position, final int maxDistanceInMeters) {
+        if (!invalidated && lastCheckPosition != null && 1000f * lastCheckPosition.distanceTo(position) < safeDistanceInMeters) {
+            return null;
+        }
+        final int searchDistance = CHECK_SEARCH_FACTOR * maxDistanceInMeters;
+        final WaypointDistanceInfo closest = getClosest(position, searchDistance);
+        final int closestDistance = closest == null ? searchDistance : closest.meters;
+        if (closestDistance > maxDistanceInMeters) {
+            lastCheckPosition = position;
+            safeDistanceInMeters = closestDistance - maxDistanceInMeters;
+            return null;
+        }
+        lastCheckPosition = null;
+        return closest;
+    }
+
+    private void rebuild() {
+        invalidated = false;
+        lastCheckPosition = null;
+        final List<IWaypoint> newItems = new ArrayList<>();
+        for (IWaypoint item : itemSupplier.get()) {
+            if (item != null && item.getCoords() != null) {
+                newItems.add(item);
+            }
+        }
+        items = newItems;
+        latitudesE6 = new int[newItems.size()];
+        longitudesE6 = new int[newItems.size()];
+        final Map<Long, List<Integer>> cellLists = new HashMap<>();
+        for (int i = 0; i < newItems.size(); i++) {
+            final Geopoint coords = newItems.get(i).getCoords();
+            latitudesE6[i] = coords.getLatitudeE6();
+            longitudesE6[i] = coords.getLongitudeE6();
+            final long key = key(cell(latitudesE6[i]), cell(longitudesE6[i]));
+            List<Integer> cellList = cellLists.get(key);
+            if (cellList == null) {
+                cellList = new ArrayList<>();
+                cellLists.put(key, cellList);
+            }
+            cellList.add(i);
+        }
+        cells.clear();
+        for (Map.Entry<Long, List<Integer>> entry : cellLists.entrySet()) {
+            final int[] cellItems = new int[entry.getValue().size()];
+            for (int i = 0; i < cellItems.length; i++) {
+                cellItems[i] = entry.getValue().get(i);
+            }
+            cells.put(entry.getKey(), cellItems);
+        }
+    }
+
+    private static int cell(final int coordE6) {
+        return (int) Math.floor(coordE6 / (double) CELL_SIZE_E6);
+    }
+
+    private static long key(final int cellLat, final int cellLon) {
+        return ((long) cellLat << 32) | (cellLon & 0xffffffffL);
+    }
+
+    /** name of an item as shown in proximity notifications */
+    @NonNull
+    public static String getName(@NonNull final IWaypoint item) {
+        if (item instanceof Geocache) {
+            return ((Geocache) item).getShortGeocode() + " " + item.getName();
+        }
+        if (item instanceof Waypoint) {
+            return item.getName() + " (" + item.getWaypointType().gpx + ")";
+        }
+        return item.getName();
+    }
+
+    private class Closest {
+        private int index = -1;
+        private int distance;
+
+        Closest(final int maxDistance) {
+            this.distance = maxDistance + 1;
+        }
+
+        void check(final int itemIndex, final Geopoint position) {
+            final int itemDistance = (int) (1000f * position.distanceTo(items.get(itemIndex).getCoords()));
+            // items exactly at the position are ignored
+            if (itemDistance > 0 && itemDistance < distance) {
+                index = itemIndex;
+                distance = itemDistance;
+            }
+        }
+    }
+
+}
@@ -180,6 +180,17 @@ public class ProximityNotification implements Parcelable {
         }
     }
 
+    /**
+     * Checks the distance to the closest item of the given index.
+     * Lookups are skipped while no item can be within notification range, see {@link ProximityIndex#checkClosest(Geopoint, int)}
+     */
+    public void checkDistance(final Geopoint position, final ProximityIndex index) {
+        final WaypointDistanceInfo info = index.checkClosest(position, PROXIMITY_NOTIFICATION_MAX_DISTANCE);
+        if (info != null) {
+            checkDistance(info);
+        }
+    }
+
     private int checkDistanceInternal(final int meters) {
         // no precise distances
         if (meters > PROXIMITY_NOTIFICATION_MAX_DISTANCE) {
@@ -0,0 +1,162 @@
+package cgeo.geocaching.log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Condensed information about the stored logs of a cache.
+ *
+ * Used to answer frequent questions (e.g. for map markers, cache list and filters) without loading
+ * the full list of logs. Summaries are maintained by DataStore whenever logs of a cache are stored.
+ *
+ * Information about own logs depends on the user name. It is thus only valid for the user name it was created for.
+ */
+public final class LogSummary {
+
+    /** number of latest log types to keep */
+    public static final int MAX_LATEST_LOG_TYPES = 8;
+
+    public static final LogSummary EMPTY = new Builder(null).build();
+
+    /** number of stored logs */
+    public final int logCount;
+    /** date of latest found log, or 0 if there is none */
+    public final long lastFoundDate;
+    /** whether any stored log is of type {@link LogType#ATTENDED} */
+    public final boolean hasAttendedLog;
+    @NonNull
+    private final Set<LogType> ownLogTypes;
+    @NonNull
+    private final List<LogType> latestLogTypes;
+    @Nullable
+    private final String userName;
+
+    private LogSummary(final Builder builder) {
+        this.logCount = builder.logCount;
+        this.lastFoundDate = builder.lastFoundDate;
+        this.hasAttendedLog = builder.hasAttendedLog;
+        this.ownLogTypes = builder.ownLogTypes;
+        this.latestLogTypes = Collections.unmodifiableList(builder.latestLogTypes);
+        this.userName = builder.userName;
+    }
+
+    public boolean hasOwnLog(@NonNull final LogType logType) {
+        return ownLogTypes.contains(logType);
+    }
+
+    /** types of latest (at most {@link #MAX_LATEST_LOG_TYPES}) logs, newest first */
+    @NonNull
+    public List<LogType> getLatestLogTypes() {
+        return latestLogTypes;
+    }
+
+    @Nullable
+    public String getUserName() {
+        return userName;
+    }
+
+    /** whether information about own logs in this summary is valid for given user name */
+    public boolean isValidFor(@Nullable final String userName) {
+        return logCount == 0 || StringUtils.equalsIgnoreCase(this.userName, userName);
+    }
+
+    /** serialization of own log types for database storage */
+    @NonNull
+    public String getOwnLogTypesAsString() {
+        return toIdString(ownLogTypes);
+    }
+
+    /** serialization of latest log types for database storage */
+    @NonNull
+    public String getLatestLogTypesAsString() {
+        return toIdString(latestLogTypes);
+    }
+
+    @NonNull
+    private static String toIdString(final Iterable<LogType> logTypes) {
+        final StringBuilder sb = new StringBuilder();
+        for (final LogType logType : logTypes) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(logType.id);
+        }
+        return sb.toString();
+    }
+
+    @NonNull
+    private static List<LogType> fromIdString(@Nullable final String ids) {
+        final List<LogType> result = new ArrayList<>();
+        for (final String id : StringUtils.split(StringUtils.defaultString(ids), ',')) {
+            try {
+                result.add(LogType.getById(Integer.parseInt(id)));
+            } catch (final NumberFormatException ignore) {
+                // skip invalid entries
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Restores a summary as stored in database
+     */
+    @NonNull
+    public static LogSummary fromStorage(@Nullable final String userName, final int logCount, final long lastFoundDate, final boolean hasAttendedLog,
+                                         @Nullable final String ownLogTypes, @Nullable final String latestLogTypes) {
+        final Builder builder = new Builder(userName);
+        builder.logCount = logCount;
+        builder.lastFoundDate = lastFoundDate;
+        builder.hasAttendedLog = hasAttendedLog;
+        builder.ownLogTypes.addAll(fromIdString(ownLogTypes));
+        builder.latestLogTypes.addAll(fromIdString(latestLogTypes));
+        return builder.build();
+    }
+
+    /**
+     * Creates a summary. Logs have to be added newest first (same order as logs are loaded from database)
+     */
+    public static final class Builder {
+        private int logCount = 0;
+        private long lastFoundDate = 0;
+        private boolean hasAttendedLog = false;
+        private final Set<LogType> ownLogTypes = EnumSet.noneOf(LogType.class);
+        private final List<LogType> latestLogTypes = new ArrayList<>();
+        @Nullable
+        private final String userName;
+
+        public Builder(@Nullable final String userName) {
+            this.userName = userName;
+        }
+
+        public Builder addLog(@NonNull final LogType logType, @Nullable final String author, final long date) {
+            logCount++;
+            if (lastFoundDate == 0 && logType.isFoundLog()) {
+                lastFoundDate = date;
+            }
+            if (logType == LogType.ATTENDED) {
+                hasAttendedLog = true;
+            }
+            if (userName != null && StringUtils.equalsIgnoreCase(author, userName)) {
+                ownLogTypes.add(logType);
+            }
+            if (latestLogTypes.size() < MAX_LATEST_LOG_TYPES) {
+                latestLogTypes.add(logType);
+            }
+            return this;
+        }
+
+        @NonNull
+        public LogSummary build() {
+            return new LogSummary(this);
+        }
+    }
+
+}
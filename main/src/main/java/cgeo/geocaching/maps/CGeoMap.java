@@ -15,9 +15,9 @@ import cgeo.geocaching.enumerations.LoadFlags.RemoveFlag;
 import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.filters.core.GeocacheFilterContext;
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.ProximityIndex;
 import cgeo.geocaching.location.ProximityNotification;
 import cgeo.geocaching.location.Viewport;
-import cgeo.geocaching.location.WaypointDistanceInfo;
 import cgeo.geocaching.log.LoggingUI;
 import cgeo.geocaching.maps.google.v2.GoogleGeoPoint;
 import cgeo.geocaching.maps.google.v2.GoogleMapProvider;
@@ -41,7 +41,7 @@ import cgeo.geocaching.models.IWaypoint;
 import cgeo.geocaching.models.IndividualRoute;
 import cgeo.geocaching.models.Route;
 import cgeo.geocaching.models.RouteItem;
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.models.geoitem.IGeoItemSupplier;
 import cgeo.geocaching.sensors.GeoData;
@@ -51,6 +51,7 @@ import cgeo.geocaching.service.CacheDownloaderService;
 import cgeo.geocaching.service.GeocacheChangedBroadcastReceiver;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.TrailHistoryWriter;
 import cgeo.geocaching.ui.ToggleItemType;
 import cgeo.geocaching.ui.ViewUtils;
 import cgeo.geocaching.ui.WeakReferenceHandler;
@@ -181,6 +182,8 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
      * List of waypoints in the viewport
      */
     private final LeastRecentlyUsedSet<Waypoint> waypoints = new LeastRecentlyUsedSet<>(MAX_CACHES);
+
+    private final ProximityIndex proximityIndex = new ProximityIndex(this::getProximityItems);
     private ProgressBar spinner;
 
     // views
@@ -404,7 +407,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
         return null;
     }
 
-    protected void initializeMap(final ArrayList<TrailHistoryElement> trailHistory) {
+    protected void initializeMap(final Trail trailHistory) {
 
         mapView.setMapSource();
         mapView.setBuiltInZoomControls(true);
@@ -496,7 +499,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
         final Bundle extras = activity.getIntent().getExtras();
         mapOptions = new MapOptions(activity, extras);
 
-        final ArrayList<TrailHistoryElement> trailHistory = null;
+        final Trail trailHistory = null;
 
         // Get fresh map information from the bundle if any
         if (savedInstanceState != null) {
@@ -698,6 +701,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     public void onPause() {
         resumeDisposables.clear();
         savePrefs();
+        PositionHistory.flush();
 
         mapView.destroyDrawingCache();
 
@@ -914,8 +918,8 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     }
 
     private void clearTrailHistory() {
-        DataStore.clearTrailHistory();
-        overlayPositionAndScale.setHistory(new ArrayList<>());
+        TrailHistoryWriter.clear();
+        overlayPositionAndScale.setHistory(new Trail());
         mapView.repaintRequired(overlayPositionAndScale instanceof GeneralOverlay ? ((GeneralOverlay) overlayPositionAndScale) : null);
         ActivityMixin.showToast(activity, res.getString(R.string.map_trailhistory_cleared));
     }
@@ -1111,7 +1115,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
                             map.overlayPositionAndScale.repaintRequired();
 
                             if (map.proximityNotification != null) {
-                                map.proximityNotification.checkDistance(map.getClosestDistanceInM(new Geopoint(currentLocation.getLatitude(), currentLocation.getLongitude())));
+                                map.proximityNotification.checkDistance(new Geopoint(currentLocation.getLatitude(), currentLocation.getLongitude()), map.proximityIndex);
                             }
                         } else if (needsRepaintForHeading) {
                             final float mapBearing = map.mapView.getBearing();
@@ -1402,6 +1406,8 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
         try {
             showProgressHandler.sendEmptyMessage(SHOW_PROGRESS);
 
+            proximityIndex.invalidate();
+
             // display caches
             final List<Geocache> cachesToDisplay = caches.getAsList();
             final List<Waypoint> waypointsToDisplay = new ArrayList<>(waypoints);
@@ -1683,26 +1689,11 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
         }
     }
 
-    public WaypointDistanceInfo getClosestDistanceInM(final Geopoint coord) {
-        int minDistance = 50000000;
-        String name = "";
-        // check caches
-        for (final Geocache item : caches) {
-            final int distance = (int) (1000 * coord.distanceTo(item.getCoords()));
-            if (distance > 0 && distance < minDistance) {
-                minDistance = distance;
-                name = item.getShortGeocode() + " " + item.getName();
-            }
-        }
-        // check waypoints
-        for (final Waypoint item : waypoints) {
-            final int distance = (int) (1000 * coord.distanceTo(item.getCoords()));
-            if (distance > 0 && distance < minDistance) {
-                minDistance = distance;
-                name = item.getName() + " (" + item.getWaypointType().gpx + ")";
-            }
-        }
-        return new WaypointDistanceInfo(name, minDistance);
+    /** caches and waypoints for proximity notifications */
+    private Collection<IWaypoint> getProximityItems() {
+        final List<IWaypoint> items = new ArrayList<>(caches.getAsList());
+        items.addAll(new ArrayList<>(waypoints));
+        return items;
     }
 
     public Collection<Geocache> getCaches() {
@@ -1,14 +1,12 @@
 package cgeo.geocaching.maps;
 
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 import cgeo.geocaching.sensors.GeoData;
 import cgeo.geocaching.settings.Settings;
-import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.TrailHistoryWriter;
 
 import android.location.Location;
 
-import java.util.ArrayList;
-
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
@@ -26,22 +24,17 @@ public class PositionHistory {
      */
     private static final int MAX_POSITIONS = Settings.getMaximumMapTrailLength();
 
-    private ArrayList<TrailHistoryElement> history = new ArrayList<>();
+    private Trail history;
 
     // load data from permanent storage
     public PositionHistory() {
-        history = DataStore.loadTrailHistory();
-    }
-
-    // save current coords to permanent storage
-    private void saveToStorage(final Location coordinates) {
-        Schedulers.io().scheduleDirect(() -> DataStore.saveTrailpoint(coordinates));
+        history = TrailHistoryWriter.load();
     }
 
     // clear position history (in memory and on permanent storage)
     public void reset() {
         Schedulers.io().scheduleDirect(() -> {
-            DataStore.clearTrailHistory();
+            TrailHistoryWriter.clear();
             history.clear();
         });
     }
@@ -59,35 +52,32 @@ public class PositionHistory {
         if (GeoData.isArtificialLocationProvider(coordinates.getProvider())) {
             return;
         }
-        if (history.isEmpty()) {
-            saveToStorage(coordinates);
-            history.add(new TrailHistoryElement(coordinates));
-            return;
-        }
-
-        final TrailHistoryElement historyRecent = history.get(history.size() - 1);
-        if (historyRecent.distanceTo(coordinates) <= MINIMUM_DISTANCE_METERS) {
+        if (!history.isEmpty() && history.distanceTo(history.size() - 1, coordinates) <= MINIMUM_DISTANCE_METERS) {
             return;
         }
 
-        saveToStorage(coordinates);
-        history.add(new TrailHistoryElement(coordinates));
+        final long timestamp = System.currentTimeMillis();
+        TrailHistoryWriter.add(coordinates.getLatitude(), coordinates.getLongitude(), coordinates.getAltitude(), timestamp);
+        history.add(coordinates.getLatitude(), coordinates.getLongitude(), coordinates.getAltitude(), timestamp);
 
         // avoid running out of memory
-        final int itemsToRemove = getHistory().size() - MAX_POSITIONS;
+        final int itemsToRemove = history.size() - MAX_POSITIONS;
         if (itemsToRemove > 0) {
-            for (int i = 0; i < itemsToRemove; i++) {
-                getHistory().remove(0);
-            }
+            history.removeFirst(itemsToRemove);
         }
     }
 
-    public ArrayList<TrailHistoryElement> getHistory() {
+    public Trail getHistory() {
         return history;
     }
 
-    public void setHistory(final ArrayList<TrailHistoryElement> history) {
+    public void setHistory(final Trail history) {
         this.history = history;
     }
 
+    /** writes recorded positions not yet stored to permanent storage, to be called when a map is paused */
+    public static void flush() {
+        TrailHistoryWriter.flushAsync();
+    }
+
 }
@@ -12,7 +12,7 @@ import cgeo.geocaching.maps.interfaces.PositionAndHistory;
 import cgeo.geocaching.maps.routing.Routing;
 import cgeo.geocaching.models.IndividualRoute;
 import cgeo.geocaching.models.RouteItem;
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 import cgeo.geocaching.models.geoitem.GeoGroup;
 import cgeo.geocaching.models.geoitem.IGeoItemSupplier;
 import cgeo.geocaching.settings.Settings;
@@ -198,12 +198,12 @@ public class GooglePositionAndHistory implements PositionAndHistory, Tracks.Upda
     }
 
     @Override
-    public ArrayList<TrailHistoryElement> getHistory() {
+    public Trail getHistory() {
         return history.getHistory();
     }
 
     @Override
-    public void setHistory(final ArrayList<TrailHistoryElement> history) {
+    public void setHistory(final Trail history) {
         if (history != this.history.getHistory()) {
             this.history.setHistory(history);
         }
@@ -359,39 +359,42 @@ public class GooglePositionAndHistory implements PositionAndHistory, Tracks.Upda
         historyObjs.removeAll();
         if (Settings.isMapTrail()) {
             try {
-                final ArrayList<TrailHistoryElement> paintHistory = new ArrayList<>(getHistory());
-                final int size = paintHistory.size();
-                if (size < 2) {
-                    return;
-                }
-                // always add current position to drawn history to have a closed connection, even if it's not yet recorded
-                paintHistory.add(new TrailHistoryElement(coordinates));
-
-                Location prev = paintHistory.get(0).getLocation();
-                int current = 1;
-                while (current < size) {
-                    final List<LatLng> points = new ArrayList<>(MAX_HISTORY_POINTS);
-                    points.add(new LatLng(prev.getLatitude(), prev.getLongitude()));
-
-                    boolean paint = false;
-                    while (!paint && current < size) {
-                        final Location now = paintHistory.get(current).getLocation();
-                        current++;
-                        if (now.distanceTo(prev) < LINE_MAXIMUM_DISTANCE_METERS) {
-                            points.add(new LatLng(now.getLatitude(), now.getLongitude()));
-                        } else {
-                            paint = true;
-                        }
-                        prev = now;
+                final Trail history = getHistory();
+                // draw under the lock of the trail instead of copying it on every update
+                synchronized (history) {
+                    if (history.size() < 2) {
+                        return;
                     }
-                    if (points.size() > 1) {
-                        // history line
-                        historyObjs.addPolyline(new PolylineOptions()
-                                .addAll(points)
-                                .color(MapLineUtils.getTrailColor())
-                                .width(MapLineUtils.getHistoryLineWidth(false))
-                                .zIndex(ZINDEX_HISTORY)
-                        );
+                    // always add current position to drawn history to have a closed connection, even if it's not yet recorded
+                    final int size = history.size() + 1;
+
+                    int prev = 0;
+                    int current = 1;
+                    while (current < size) {
+                        final List<LatLng> points = new ArrayList<>(MAX_HISTORY_POINTS);
+                        points.add(getLatLng(history, prev));
+
+                        boolean paint = false;
+                        while (!paint && current < size) {
+                            final int now = current;
+                            current++;
+                            final float distance = now < history.size() ? history.distanceBetween(now, prev) : history.distanceTo(prev, coordinates);
+                            if (distance < LINE_MAXIMUM_DISTANCE_METERS) {
+                                points.add(getLatLng(history, now));
+                            } else {
+                                paint = true;
+                            }
+                            prev = now;
+                        }
+                        if (points.size() > 1) {
+                            // history line
+                            historyObjs.addPolyline(new PolylineOptions()
+                                    .addAll(points)
+                                    .color(MapLineUtils.getTrailColor())
+                                    .width(MapLineUtils.getHistoryLineWidth(false))
+                                    .zIndex(ZINDEX_HISTORY)
+                            );
+                        }
                     }
                 }
             } catch (OutOfMemoryError ignore) {
@@ -401,6 +404,11 @@ public class GooglePositionAndHistory implements PositionAndHistory, Tracks.Upda
         }
     }
 
+    /** @return a point of the trail, the position after the last point is the current position */
+    private LatLng getLatLng(final Trail history, final int position) {
+        return position < history.size() ? new LatLng(history.getLatitude(position), history.getLongitude(position)) : new LatLng(coordinates.getLatitude(), coordinates.getLongitude());
+    }
+
     public synchronized void drawViewport(final Viewport viewport) {
         if (null == viewport) {
             return;
@@ -1,12 +1,10 @@
 package cgeo.geocaching.maps.interfaces;
 
 import cgeo.geocaching.models.IndividualRoute;
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 
 import android.location.Location;
 
-import java.util.ArrayList;
-
 import com.google.android.gms.maps.model.LatLng;
 
 public interface PositionAndHistory extends IndividualRoute.UpdateIndividualRoute {
@@ -26,9 +24,9 @@ public interface PositionAndHistory extends IndividualRoute.UpdateIndividualRout
 
     void resetLongTapLatLng();
 
-    ArrayList<TrailHistoryElement> getHistory();
+    Trail getHistory();
 
-    void setHistory(ArrayList<TrailHistoryElement> history);
+    void setHistory(Trail history);
 
     void repaintRequired();
 
@@ -28,6 +28,7 @@ import cgeo.geocaching.maps.MapProviderFactory;
 import cgeo.geocaching.maps.MapSettingsUtils;
 import cgeo.geocaching.maps.MapState;
 import cgeo.geocaching.maps.MapUtils;
+import cgeo.geocaching.maps.PositionHistory;
 import cgeo.geocaching.maps.RouteTrackUtils;
 import cgeo.geocaching.maps.Tracks;
 import cgeo.geocaching.maps.interfaces.MapSource;
@@ -53,7 +54,7 @@ import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.IndividualRoute;
 import cgeo.geocaching.models.Route;
 import cgeo.geocaching.models.RouteItem;
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.models.geoitem.IGeoItemSupplier;
 import cgeo.geocaching.sensors.GeoDirHandler;
@@ -175,7 +176,7 @@ public class NewMap extends AbstractNavigationBarMapActivity implements Observer
     private DistanceView distanceView;
     private View mapAttribution;
 
-    private final ArrayList<TrailHistoryElement> trailHistory = null;
+    private final Trail trailHistory = null;
 
     private String targetGeocode = null;
     private Geopoint lastNavTarget = null;
@@ -909,6 +910,7 @@ public class NewMap extends AbstractNavigationBarMapActivity implements Observer
         Log.d("NewMap: onPause");
 
         savePrefs();
+        PositionHistory.flush();
 
         pauseTileLayer();
         mapView.getModel().mapViewPosition.removeObserver(this);
@@ -1277,7 +1279,7 @@ public class NewMap extends AbstractNavigationBarMapActivity implements Observer
                             map.positionLayer.requestRedraw();
 
                             if (null != map.proximityNotification && (timeLastDistanceCheck == 0 || currentTimeMillis > (timeLastDistanceCheck + MIN_UPDATE_INTERVAL))) {
-                                map.proximityNotification.checkDistance(map.caches.getClosestDistanceInM(new Geopoint(currentLocation.getLatitude(), currentLocation.getLongitude())));
+                                map.proximityNotification.checkDistance(new Geopoint(currentLocation.getLatitude(), currentLocation.getLongitude()), map.caches.getProximityIndex());
                                 timeLastDistanceCheck = System.currentTimeMillis();
                             }
                         }
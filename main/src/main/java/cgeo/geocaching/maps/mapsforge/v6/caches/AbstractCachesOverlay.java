@@ -5,7 +5,6 @@ import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.filters.core.GeocacheFilterContext;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
-import cgeo.geocaching.location.WaypointDistanceInfo;
 import cgeo.geocaching.maps.mapsforge.v6.MapHandlers;
 import cgeo.geocaching.maps.mapsforge.v6.NewMap;
 import cgeo.geocaching.maps.mapsforge.v6.TapHandler;
@@ -19,7 +18,6 @@ import cgeo.geocaching.utils.MapMarkerUtils;
 import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
@@ -309,6 +307,7 @@ public abstract class AbstractCachesOverlay {
         }
 
         layerList.clear();
+        invalidateProximityIndex();
 
         Log.d(String.format(Locale.ENGLISH, "Layers for id %d cleared, remaining geoEntries: %d", overlayId, geoEntries.size()));
     }
@@ -341,6 +340,7 @@ public abstract class AbstractCachesOverlay {
                 }
             }
         }
+        invalidateProximityIndex();
 
         Log.d(String.format(Locale.ENGLISH, "Layers for id %d synced. Codes removed: %d, new codes: %d, geoEntries: %d", overlayId, removeCodes.size(), newCodes.size(), geoEntries.size()));
     }
@@ -366,6 +366,13 @@ public abstract class AbstractCachesOverlay {
         }
     }
 
+    private void invalidateProximityIndex() {
+        final CachesBundle bundle = this.bundleRef.get();
+        if (bundle != null) {
+            bundle.getProximityIndex().invalidate();
+        }
+    }
+
     private Layers getLayers() {
         final CachesBundle bundle = this.bundleRef.get();
         if (bundle == null) {
@@ -407,32 +414,4 @@ public abstract class AbstractCachesOverlay {
 
         return null;
     }
-
-    public WaypointDistanceInfo getClosestDistanceInM(final Geopoint coord) {
-        int minDistance = 50000000;
-        String name = "";
-        final Set<Geocache> caches = DataStore.loadCaches(getCacheGeocodes(), LoadFlags.LOAD_CACHE_OR_DB);
-        for (final Geocache cache : caches) {
-            final Geopoint cacheCoords = cache.getCoords();
-            if (cacheCoords != null) {
-                final int distance = (int) (1000f * cacheCoords.distanceTo(coord));
-                if (distance > 0 && distance < minDistance) {
-                    minDistance = distance;
-                    name = cache.getShortGeocode() + " " + cache.getName();
-                }
-                final List<Waypoint> waypoints = cache.getWaypoints();
-                for (final Waypoint waypoint : waypoints) {
-                    final Geopoint wpCoords = waypoint.getCoords();
-                    if (wpCoords != null) {
-                        final int wpDistance = (int) (1000f * wpCoords.distanceTo(coord));
-                        if (wpDistance > 0 && wpDistance < minDistance) {
-                            minDistance = wpDistance;
-                            name = waypoint.getName() + " (" + waypoint.getWaypointType().gpx + ")";
-                        }
-                    }
-                }
-            }
-        }
-        return new WaypointDistanceInfo(name, minDistance);
-    }
 }
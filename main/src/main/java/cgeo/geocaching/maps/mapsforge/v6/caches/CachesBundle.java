@@ -1,16 +1,20 @@
 package cgeo.geocaching.maps.mapsforge.v6.caches;
 
 import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.filters.core.GeocacheFilterContext;
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.ProximityIndex;
 import cgeo.geocaching.location.Viewport;
-import cgeo.geocaching.location.WaypointDistanceInfo;
 import cgeo.geocaching.maps.MapOptions;
 import cgeo.geocaching.maps.mapsforge.v6.MapHandlers;
 import cgeo.geocaching.maps.mapsforge.v6.MfMapView;
 import cgeo.geocaching.maps.mapsforge.v6.NewMap;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.models.IWaypoint;
 import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.CompactIconModeUtils;
 
 import androidx.annotation.NonNull;
@@ -52,6 +56,7 @@ public class CachesBundle {
     private LiveCachesOverlay liveOverlay;
     private final List<SeparatorLayer> separators = new ArrayList<>();
     private boolean mapModeSingle = false;
+    private final ProximityIndex proximityIndex = new ProximityIndex(this::getProximityItems);
 
     /**
      * Base initialization without any caches up-front
@@ -348,27 +353,25 @@ public class CachesBundle {
         }
     }
 
-    public WaypointDistanceInfo getClosestDistanceInM(final Geopoint coord) {
-        WaypointDistanceInfo info = new WaypointDistanceInfo("", 50000000);
-        WaypointDistanceInfo temp;
-        if (baseOverlay != null) {
-            temp = baseOverlay.getClosestDistanceInM(coord);
-            if (temp.meters > 0 && temp.meters < info.meters) {
-                info = temp;
-            }
-        }
-        if (storedOverlay != null) {
-            temp = storedOverlay.getClosestDistanceInM(coord);
-            if (temp.meters > 0 && temp.meters < info.meters) {
-                info = temp;
+    /** index of the caches shown on the map and their waypoints, for proximity notifications */
+    public ProximityIndex getProximityIndex() {
+        return proximityIndex;
+    }
+
+    private Collection<IWaypoint> getProximityItems() {
+        final Set<String> geocodes = new HashSet<>();
+        for (final AbstractCachesOverlay overlay : new AbstractCachesOverlay[] { baseOverlay, storedOverlay, liveOverlay }) {
+            if (overlay != null) {
+                geocodes.addAll(overlay.getCacheGeocodes());
             }
         }
-        if (liveOverlay != null) {
-            temp = liveOverlay.getClosestDistanceInM(coord);
-            if (temp.meters > 0 && temp.meters < info.meters) {
-                info = temp;
+        final List<IWaypoint> items = new ArrayList<>();
+        for (final Geocache cache : DataStore.loadCaches(geocodes, LoadFlags.LOAD_CACHE_OR_DB)) {
+            if (cache.getCoords() != null) {
+                items.add(cache);
+                items.addAll(cache.getWaypoints());
             }
         }
-        return info;
+        return items;
     }
 }
@@ -1,14 +1,12 @@
 package cgeo.geocaching.maps.mapsforge.v6.layers;
 
 import cgeo.geocaching.maps.PositionHistory;
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.utils.MapLineUtils;
 
 import android.location.Location;
 
-import java.util.ArrayList;
-
 import org.mapsforge.core.graphics.Canvas;
 import org.mapsforge.core.graphics.Paint;
 import org.mapsforge.core.graphics.Path;
@@ -30,7 +28,7 @@ public class HistoryLayer extends Layer {
     private Location coordinates;
     private Paint historyLine;
 
-    public HistoryLayer(final ArrayList<TrailHistoryElement> locationHistory) {
+    public HistoryLayer(final Trail locationHistory) {
         super();
         if (locationHistory != null) {
             positionHistory.setHistory(locationHistory);
@@ -51,49 +49,67 @@ public class HistoryLayer extends Layer {
 
     @Override
     public void draw(final BoundingBox boundingBox, final byte zoomLevel, final Canvas canvas, final Point topLeftPoint) {
-        if (coordinates == null) {
+        final Location currentPosition = coordinates;
+        if (currentPosition == null) {
             return;
         }
 
-        positionHistory.rememberTrailPosition(coordinates);
+        positionHistory.rememberTrailPosition(currentPosition);
 
         if (Settings.isMapTrail()) {
-            final ArrayList<TrailHistoryElement> paintHistory = new ArrayList<>(getHistory());
-            // always add current position to drawn history to have a closed connection, even if it's not yet recorded
-            paintHistory.add(new TrailHistoryElement(coordinates));
-            final int size = paintHistory.size();
-            if (size < 2) {
-                return;
-            }
+            final Trail history = getHistory();
+            // draw under the lock of the trail instead of copying it on every frame
+            synchronized (history) {
+                // always add current position to drawn history to have a closed connection, even if it's not yet recorded
+                final int size = history.size() + 1;
+                if (size < 2) {
+                    return;
+                }
 
-            final long mapSize = MercatorProjection.getMapSize(zoomLevel, this.displayModel.getTileSize());
-
-            Location prev = paintHistory.get(0).getLocation();
-            final Path path = AndroidGraphicFactory.INSTANCE.createPath();
-            int current = 1;
-            while (current < size) {
-                path.moveTo((float) (MercatorProjection.longitudeToPixelX(prev.getLongitude(), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(prev.getLatitude(), mapSize) - topLeftPoint.y));
-
-                boolean paint = false;
-                while (!paint && current < size) {
-                    final Location now = paintHistory.get(current).getLocation();
-                    current++;
-                    if (now.distanceTo(prev) < LINE_MAXIMUM_DISTANCE_METERS) {
-                        path.lineTo((float) (MercatorProjection.longitudeToPixelX(now.getLongitude(), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(now.getLatitude(), mapSize) - topLeftPoint.y));
-                    } else {
-                        paint = true;
+                final long mapSize = MercatorProjection.getMapSize(zoomLevel, this.displayModel.getTileSize());
+
+                int prev = 0;
+                final Path path = AndroidGraphicFactory.INSTANCE.createPath();
+                int current = 1;
+                while (current < size) {
+                    path.moveTo((float) (MercatorProjection.longitudeToPixelX(getLongitude(history, prev, currentPosition), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(getLatitude(history, prev, currentPosition), mapSize) - topLeftPoint.y));
+
+                    boolean paint = false;
+                    while (!paint && current < size) {
+                        final int now = current;
+                        current++;
+                        if (distanceBetween(history, now, prev, currentPosition) < LINE_MAXIMUM_DISTANCE_METERS) {
+                            path.lineTo((float) (MercatorProjection.longitudeToPixelX(getLongitude(history, now, currentPosition), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(getLatitude(history, now, currentPosition), mapSize) - topLeftPoint.y));
+                        } else {
+                            paint = true;
+                        }
+                        prev = now;
+                    }
+                    if (!path.isEmpty()) {
+                        canvas.drawPath(path, historyLine);
+                        path.clear();
                     }
-                    prev = now;
-                }
-                if (!path.isEmpty()) {
-                    canvas.drawPath(path, historyLine);
-                    path.clear();
                 }
             }
         }
     }
 
-    public ArrayList<TrailHistoryElement> getHistory() {
+    /** @return latitude of a trail point, the position after the last point is the current position */
+    private static double getLatitude(final Trail history, final int position, final Location current) {
+        return position < history.size() ? history.getLatitude(position) : current.getLatitude();
+    }
+
+    /** @return longitude of a trail point, the position after the last point is the current position */
+    private static double getLongitude(final Trail history, final int position, final Location current) {
+        return position < history.size() ? history.getLongitude(position) : current.getLongitude();
+    }
+
+    /** @return distance between a trail point or the current position (after the last point) and a previous trail point */
+    private static float distanceBetween(final Trail history, final int position, final int prev, final Location current) {
+        return position < history.size() ? history.distanceBetween(position, prev) : history.distanceTo(prev, current);
+    }
+
+    public Trail getHistory() {
         return positionHistory.getHistory();
     }
 
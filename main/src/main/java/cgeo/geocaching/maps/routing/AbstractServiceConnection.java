@@ -41,4 +41,15 @@ class AbstractServiceConnection implements ServiceConnection {
         return null;
     }
 
+    /** whether this service can return tracks via {@link #getPackedTrackFromParams(Bundle)} */
+    public boolean supportsPackedTracks() {
+        return false;
+    }
+
+    /** returns a {@link cgeo.geocaching.brouter.PackedTrack} bundle, see {@link #supportsPackedTracks()} */
+    @Nullable
+    public Bundle getPackedTrackFromParams(final Bundle params) {
+        return null;
+    }
+
 }
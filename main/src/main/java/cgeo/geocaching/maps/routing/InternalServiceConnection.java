@@ -34,4 +34,22 @@ public class InternalServiceConnection extends AbstractServiceConnection {
         }
     }
 
+    @Override
+    public boolean supportsPackedTracks() {
+        return true;
+    }
+
+    @Override
+    public Bundle getPackedTrackFromParams(final Bundle params) {
+        if (!isConnected()) {
+            return null;
+        }
+
+        try {
+            return ((IInternalRoutingService) routingService).getPackedTrackFromParams(params);
+        } catch (final RemoteException | NullPointerException e) {
+            return null;
+        }
+    }
+
 }
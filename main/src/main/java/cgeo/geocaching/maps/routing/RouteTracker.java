@@ -0,0 +1,177 @@
+package cgeo.geocaching.maps.routing;
+
+import cgeo.geocaching.location.Geopoint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Keeps a calculated route and matches positions onto it, so a route only needs to be recalculated
+ * when the user actually leaves it.
+ *
+ * Points are projected to a local plane (in meters) around the start of the route. Segments are grouped
+ * into blocks of {@link #BLOCK_SIZE} with a common bounding box, so blocks too far away can be skipped
+ * when looking for the nearest segment.
+ */
+final class RouteTracker {
+
+    private static final int BLOCK_SIZE = 32;
+    private static final double METERS_PER_DEGREE_LATITUDE = 110574;
+    private static final double METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR = 111320;
+
+    @NonNull private final Geopoint[] track;
+    @NonNull private final Geopoint destination;
+    private final double[] x;
+    private final double[] y;
+    private final double[] blockBounds; // minX, minY, maxX, maxY per block
+    private final double latitudeOrigin;
+    private final double longitudeOrigin;
+    private final double metersPerDegreeLongitude;
+
+    /** index of the segment the last position was matched to. Matching never goes back beyond this segment */
+    private int currentSegment = 0;
+
+    /** result of matching a position onto the route */
+    static final class Match {
+        /** index of the segment (from track point segment to segment + 1) the position was matched to */
+        final int segment;
+        /** distance of the position to the route in meters */
+        final double distance;
+
+        Match(final int segment, final double distance) {
+            this.segment = segment;
+            this.distance = distance;
+        }
+    }
+
+    RouteTracker(@NonNull final Geopoint[] track, @NonNull final Geopoint destination) {
+        this.track = track;
+        this.destination = destination;
+        latitudeOrigin = track[0].getLatitude();
+        longitudeOrigin = track[0].getLongitude();
+        metersPerDegreeLongitude = METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR * Math.cos(Math.toRadians(latitudeOrigin));
+
+        x = new double[track.length];
+        y = new double[track.length];
+        for (int i = 0; i < track.length; i++) {
+            x[i] = projectX(track[i]);
+            y[i] = projectY(track[i]);
+        }
+
+        final int segments = Math.max(0, track.length - 1);
+        final int blocks = (segments + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        blockBounds = new double[blocks * 4];
+        for (int block = 0; block < blocks; block++) {
+            final int first = block * BLOCK_SIZE;
+            final int last = Math.min(segments, first + BLOCK_SIZE); // last point of last segment in block
+            double minX = Double.MAX_VALUE;
+            double minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxY = -Double.MAX_VALUE;
+            for (int i = first; i <= last; i++) {
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            blockBounds[block * 4] = minX;
+            blockBounds[block * 4 + 1] = minY;
+            blockBounds[block * 4 + 2] = maxX;
+            blockBounds[block * 4 + 3] = maxY;
+        }
+    }
+
+    @NonNull
+    Geopoint getDestination() {
+        return destination;
+    }
+
+    /**
+     * Finds the nearest segment of the route (not before the segment matched last time) for given position.
+     * Returns null if route has no segments.
+     */
+    @Nullable
+    Match match(@NonNull final Geopoint position) {
+        final int segments = track.length - 1;
+        if (segments < 1) {
+            return null;
+        }
+        final double px = projectX(position);
+        final double py = projectY(position);
+
+        int bestSegment = -1;
+        double bestDistanceSquared = Double.MAX_VALUE;
+        for (int block = currentSegment / BLOCK_SIZE; block * BLOCK_SIZE < segments; block++) {
+            if (distanceSquaredToBlock(block, px, py) >= bestDistanceSquared) {
+                continue;
+            }
+            final int end = Math.min(segments, (block + 1) * BLOCK_SIZE);
+            for (int segment = Math.max(currentSegment, block * BLOCK_SIZE); segment < end; segment++) {
+                final double distanceSquared = distanceSquaredToSegment(segment, px, py);
+                if (distanceSquared < bestDistanceSquared) {
+                    bestDistanceSquared = distanceSquared;
+                    bestSegment = segment;
+                }
+            }
+        }
+        return new Match(bestSegment, Math.sqrt(bestDistanceSquared));
+    }
+
+    /**
+     * Accepts a match as new current position on the route and returns the remaining route,
+     * starting at given position
+     */
+    @NonNull
+    Geopoint[] advance(@NonNull final Geopoint position, @NonNull final Match match) {
+        currentSegment = match.segment;
+        return trimmed(position, match.segment);
+    }
+
+    /**
+     * Returns the remaining route from the segment matched last time on, starting at given position,
+     * without accepting the position as new position on the route (e.g. while it is off the route)
+     */
+    @NonNull
+    Geopoint[] remaining(@NonNull final Geopoint position) {
+        return trimmed(position, currentSegment);
+    }
+
+    @NonNull
+    private Geopoint[] trimmed(@NonNull final Geopoint position, final int segment) {
+        final int remaining = track.length - segment - 1;
+        final Geopoint[] result = new Geopoint[remaining + 1];
+        result[0] = position;
+        System.arraycopy(track, segment + 1, result, 1, remaining);
+        return result;
+    }
+
+    private double projectX(@NonNull final Geopoint point) {
+        return (point.getLongitude() - longitudeOrigin) * metersPerDegreeLongitude;
+    }
+
+    private double projectY(@NonNull final Geopoint point) {
+        return (point.getLatitude() - latitudeOrigin) * METERS_PER_DEGREE_LATITUDE;
+    }
+
+    private double distanceSquaredToBlock(final int block, final double px, final double py) {
+        final double dx = Math.max(0, Math.max(blockBounds[block * 4] - px, px - blockBounds[block * 4 + 2]));
+        final double dy = Math.max(0, Math.max(blockBounds[block * 4 + 1] - py, py - blockBounds[block * 4 + 3]));
+        return dx * dx + dy * dy;
+    }
+
+    private double distanceSquaredToSegment(final int segment, final double px, final double py) {
+        final double ax = x[segment];
+        final double ay = y[segment];
+        final double dx = x[segment + 1] - ax;
+        final double dy = y[segment + 1] - ay;
+        final double lengthSquared = dx * dx + dy * dy;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        }
+        final double cx = ax + t * dx - px;
+        final double cy = ay + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+
+}
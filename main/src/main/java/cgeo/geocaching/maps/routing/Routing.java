@@ -3,7 +3,9 @@ package cgeo.geocaching.maps.routing;
 import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.R;
 import cgeo.geocaching.activity.ActivityMixin;
+import cgeo.geocaching.brouter.PackedTrack;
 import cgeo.geocaching.brouter.core.RoutingEngine;
+import cgeo.geocaching.brouter.mapaccess.ElevationLookup;
 import cgeo.geocaching.downloader.DownloadConfirmationActivity;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.settings.Settings;
@@ -22,12 +24,14 @@ import android.util.Xml;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.DefaultLifecycleObserver;
 import androidx.lifecycle.LifecycleOwner;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import org.xml.sax.Attributes;
@@ -40,11 +44,14 @@ public final class Routing {
     private static final double UPDATE_MIN_DISTANCE_KILOMETERS = 0.005;
     private static final double MIN_ROUTING_DISTANCE_KILOMETERS = 0.04;
     private static final int UPDATE_MIN_DELAY_SECONDS = 3;
+    /** current route is followed as long as user is not further away from it */
+    private static final double OFF_ROUTE_DISTANCE_METERS = 25;
     private static AbstractServiceConnection routingServiceConnection;
     private static Geopoint lastDirectionUpdatePoint;
-    @Nullable private static Geopoint[] lastRoutingPoints = null;
-    private static Geopoint lastDestination;
     private static long timeLastUpdate;
+    @Nullable private static RouteTracker routeTracker = null;
+    @Nullable private static Geopoint lastPosition = null;
+    @Nullable private static Integer lastHeading = null;
     private static int connectCount = 0;
 
     private static final Map<String, Runnable> REGISTERED_CALLBACKS = new HashMap<>();
@@ -141,6 +148,9 @@ public final class Routing {
      * In some cases (e.g., destination is too close or too far, path could not be found),
      * a straight line will be returned.
      *
+     * As long as the user follows the last calculated route, the remaining part of it is returned.
+     * A new route is only calculated when the user has left the route.
+     *
      * @param start       the starting point
      * @param destination the destination point
      * @return a track with at least two points including the start and destination points
@@ -151,12 +161,6 @@ public final class Routing {
             return defaultTrack(start, destination);
         }
 
-        // avoid updating to frequently
-        final long timeNow = System.currentTimeMillis();
-        if ((timeNow - timeLastUpdate) < 1000 * UPDATE_MIN_DELAY_SECONDS) {
-            return ensureTrack(lastRoutingPoints, start, destination);
-        }
-
         // Disable routing for huge distances
         final int maxThresholdKm = Settings.getBrouterThreshold();
         final float targetDistance = start.distanceTo(destination);
@@ -169,22 +173,90 @@ public final class Routing {
             return defaultTrack(start, destination);
         }
 
+        final Integer heading = updateHeading(start);
+
+        // follow current route as long as user stays on it
+        final RouteTracker tracker = routeTracker;
+        final boolean hasRoute = tracker != null && destination.equals(tracker.getDestination());
+        if (hasRoute) {
+            final RouteTracker.Match match = tracker.match(start);
+            if (match != null && match.distance <= OFF_ROUTE_DISTANCE_METERS) {
+                return tracker.advance(start, match);
+            }
+        }
+
+        // avoid updating to frequently: show the part of the route not yet passed, or a straight line if there is none
+        final long timeNow = System.currentTimeMillis();
+        if ((timeNow - timeLastUpdate) < 1000 * UPDATE_MIN_DELAY_SECONDS) {
+            return hasRoute ? tracker.remaining(start) : defaultTrack(start, destination);
+        }
+
         // Use cached route if current position has not changed more than 5m and we had a route
         // TODO: Maybe adjust this to current zoomlevel
-        if (lastDirectionUpdatePoint != null && destination == lastDestination && start.distanceTo(lastDirectionUpdatePoint) < UPDATE_MIN_DISTANCE_KILOMETERS && lastRoutingPoints != null) {
-            return lastRoutingPoints;
+        if (hasRoute && lastDirectionUpdatePoint != null && start.distanceTo(lastDirectionUpdatePoint) < UPDATE_MIN_DISTANCE_KILOMETERS) {
+            return tracker.remaining(start);
         }
 
-        // now really calculate a new route
-        lastDestination = destination;
-        lastRoutingPoints = calculateRouting(start, destination, null);
+        // now really calculate a new route. When leaving the route, the routing engine uses the previous route
+        // as reference track (partial recalculation), which is supported by passing the current heading
+        final Geopoint[] track = calculateRouting(start, destination, null, hasRoute ? heading : null);
+        routeTracker = track == null || track.length < 2 ? null : new RouteTracker(track, destination);
         lastDirectionUpdatePoint = start;
         timeLastUpdate = timeNow;
-        return ensureTrack(lastRoutingPoints, start, destination);
+        return ensureTrack(track, start, destination);
     }
 
+    /**
+     * Remembers position (if moved far enough) and returns heading (in degrees) of the last movement, or null if unknown
+     */
+    @Nullable
+    private static Integer updateHeading(@NonNull final Geopoint position) {
+        final Geopoint previous = lastPosition;
+        if (previous == null || previous.distanceTo(position) >= UPDATE_MIN_DISTANCE_KILOMETERS) {
+            lastHeading = previous == null ? null : Math.round(previous.bearingTo(position));
+            lastPosition = position;
+        }
+        return lastHeading;
+    }
+
+    /**
+     * Returns elevation of given position, based on elevation data of routing tiles.
+     */
     public static float getElevation(final Geopoint current) {
-        if (routingServiceConnection == null || current == null || !routingServiceConnection.isConnected()) {
+        if (current == null) {
+            return NO_ELEVATION_AVAILABLE;
+        }
+        final float elevation = ElevationLookup.getInstance().getElevation(current.getLatitude(), current.getLongitude());
+        if (!Float.isNaN(elevation) || Settings.useInternalRouting()) {
+            return elevation;
+        }
+        // routing tiles of external routing app are not accessible directly
+        return getElevationFromRoutingService(current);
+    }
+
+    /**
+     * Returns elevations for all given positions (e.g. points of a track), based on elevation data of routing tiles.
+     * Positions without elevation data get {@link #NO_ELEVATION_AVAILABLE}.
+     */
+    @NonNull
+    @WorkerThread
+    public static ArrayList<Float> getElevations(@NonNull final List<Geopoint> points) {
+        final double[] latitudes = new double[points.size()];
+        final double[] longitudes = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            latitudes[i] = points.get(i).getLatitude();
+            longitudes[i] = points.get(i).getLongitude();
+        }
+        final float[] elevations = ElevationLookup.getInstance().getElevations(latitudes, longitudes);
+        final ArrayList<Float> result = new ArrayList<>(elevations.length);
+        for (final float elevation : elevations) {
+            result.add(elevation);
+        }
+        return result;
+    }
+
+    private static float getElevationFromRoutingService(@NonNull final Geopoint current) {
+        if (routingServiceConnection == null || !routingServiceConnection.isConnected()) {
             return NO_ELEVATION_AVAILABLE;
         }
         final Bundle params = new Bundle();
@@ -253,7 +325,7 @@ public final class Routing {
         }
 
         // now calculate a new route
-        final Geopoint[] track = calculateRouting(start, destination, elevation);
+        final Geopoint[] track = calculateRouting(start, destination, elevation, null);
         return ensureTrack(track, start, destination);
     }
 
@@ -268,26 +340,55 @@ public final class Routing {
     }
 
     @Nullable
-    @SuppressWarnings({"PMD.NPathComplexity"}) // splitting up would not improve readability
-    private static Geopoint[] calculateRouting(final Geopoint start, final Geopoint dest, @Nullable final ArrayList<Float> elevation) {
+    private static Geopoint[] calculateRouting(final Geopoint start, final Geopoint dest, @Nullable final ArrayList<Float> elevation, @Nullable final Integer heading) {
         final Bundle params = new Bundle();
-        params.putString("trackFormat", "gpx");
         params.putDoubleArray("lats", new double[]{start.getLatitude(), dest.getLatitude()});
         params.putDoubleArray("lons", new double[]{start.getLongitude(), dest.getLongitude()});
         params.putString("v", Settings.getRoutingMode().parameterValue);
         params.putString(PROFILE_PARAMTERKEY, Settings.getRoutingProfile()); // profile filename, used only by internal routing engine
+        if (heading != null && Settings.useInternalRouting()) {
+            params.putInt("direction", heading); // start direction, used by partial recalculation of previous route only
+        }
 
-        final String gpx = routingServiceConnection == null ? null : routingServiceConnection.getTrackFromParams(params);
+        final AbstractServiceConnection connection = routingServiceConnection;
+        if (connection != null && connection.supportsPackedTracks()) {
+            // internal routing: get track as plain arrays, no need to create and parse a GPX track
+            final Bundle result = connection.getPackedTrackFromParams(params);
+            if (result == null) {
+                Log.i("brouter returned no data");
+                return null;
+            }
+            final String error = PackedTrack.getError(result);
+            if (error != null) {
+                handleRoutingError(error);
+                return null;
+            }
+            final PackedTrack track = PackedTrack.fromBundle(result);
+            return track == null ? null : toTrack(track, dest, elevation);
+        }
+
+        params.putString("trackFormat", "gpx");
+        final String gpx = connection == null ? null : connection.getTrackFromParams(params);
 
         if (gpx == null) {
             Log.i("brouter returned no data");
             return null;
         }
 
+        // missing routing data or other error
+        if (!gpx.startsWith("<?xml")) {
+            handleRoutingError(gpx);
+            return null;
+        }
+
+        return parseGpxTrack(gpx, dest, elevation);
+    }
+
+    private static void handleRoutingError(@NonNull final String message) {
         // missing routing data?
-        if (gpx.startsWith("datafile ") && gpx.endsWith(" not found")) {
+        if (message.startsWith("datafile ") && message.endsWith(" not found")) {
             synchronized (requestedTileFiles) {
-                String filename = gpx.substring(9);
+                String filename = message.substring(9);
                 final int pos = filename.indexOf(" ");
                 if (pos != -1) {
                     filename = filename.substring(0, pos);
@@ -316,13 +417,27 @@ public final class Routing {
             }
         }
 
-        // other error
-        if (!gpx.startsWith("<?xml")) {
-            Log.w("brouter returned an error message: " + gpx);
-            return null;
-        }
+        Log.w("brouter returned an error message: " + message);
+    }
 
-        return parseGpxTrack(gpx, dest, elevation);
+    @NonNull
+    private static Geopoint[] toTrack(@NonNull final PackedTrack track, final Geopoint destination, @Nullable final ArrayList<Float> elevation) {
+        final int size = track.size();
+        final Geopoint[] result = new Geopoint[destination != null ? size + 1 : size];
+        for (int i = 0; i < size; i++) {
+            result[i] = Geopoint.forE6(track.latitudesE6[i], track.longitudesE6[i]);
+            if (elevation != null) {
+                elevation.add(track.elevations[i] == PackedTrack.NO_ELEVATION ? Float.NaN : (float) track.elevations[i]);
+            }
+        }
+        // artificial straight line from track to target
+        if (destination != null) {
+            result[size] = destination;
+            if (elevation != null) {
+                elevation.add(Float.NaN);
+            }
+        }
+        return result;
     }
 
     @Nullable
@@ -372,6 +487,7 @@ public final class Routing {
 
     public static void invalidateRouting() {
         lastDirectionUpdatePoint = null;
+        routeTracker = null;
         timeLastUpdate = 0;
     }
 
@@ -3,6 +3,7 @@ package cgeo.geocaching.models;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.utils.TextParser;
 import cgeo.geocaching.utils.formulas.DegreeFormula;
+import cgeo.geocaching.utils.formulas.FormulaRangeSolver;
 import cgeo.geocaching.utils.formulas.Value;
 import cgeo.geocaching.utils.functions.Func1;
 import static cgeo.geocaching.models.CalculatedCoordinateType.PLAIN;
@@ -13,6 +14,7 @@ import android.os.Parcelable;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -26,6 +28,10 @@ public class CalculatedCoordinate implements Parcelable {
 
     private static final DegreeFormula EMPTY_FORMULA = DegreeFormula.compile("", false);
 
+    /** lower bounds for distance estimations: length of one latitude degree at the equator and polar radius of earth (in km) */
+    private static final double MIN_KM_PER_LATITUDE_DEGREE = 110.574;
+    private static final double MIN_EARTH_RADIUS_KM = 6356.752;
+
     private CalculatedCoordinateType type = PLAIN;
     private DegreeFormula latitudePattern = EMPTY_FORMULA;
     private DegreeFormula longitudePattern = EMPTY_FORMULA;
@@ -157,6 +163,61 @@ public class CalculatedCoordinate implements Parcelable {
         return longitudePattern.evaluate(varMap);
     }
 
+    /**
+     * Creates constraints for {@link FormulaRangeSolver} which only accept coordinates within maxDistance (in km) of center.
+     * Latitude and longitude are checked on their own (using a lower bound for the distance), this allows to prune
+     * ranges before all variables are known.
+     */
+    @NonNull
+    public List<FormulaRangeSolver.Constraint> createDistanceConstraints(@NonNull final Geopoint center, final float maxDistance) {
+        final FormulaRangeSolver.Constraint latConstraint = new FormulaRangeSolver.Constraint() {
+            @Override
+            public Set<String> getNeededVars() {
+                return latitudePattern.getNeededVars();
+            }
+
+            @Override
+            public boolean test(final Func1<String, Value> vars) {
+                final Double lat = latitudePattern.evaluateToDouble(vars);
+                return lat != null && Math.abs(lat - center.getLatitude()) * MIN_KM_PER_LATITUDE_DEGREE <= maxDistance;
+            }
+        };
+        final FormulaRangeSolver.Constraint lonConstraint = new FormulaRangeSolver.Constraint() {
+            @Override
+            public Set<String> getNeededVars() {
+                return longitudePattern.getNeededVars();
+            }
+
+            @Override
+            public boolean test(final Func1<String, Value> vars) {
+                final Double lon = longitudePattern.evaluateToDouble(vars);
+                if (lon == null) {
+                    return false;
+                }
+                final double lonDiff = Math.abs(((lon - center.getLongitude()) % 360 + 540) % 360 - 180);
+                if (lonDiff >= 90) {
+                    return true;
+                }
+                //shortest distance from center to the meridian of lon
+                final double minDistance = Math.asin(Math.cos(Math.toRadians(center.getLatitude())) * Math.sin(Math.toRadians(lonDiff))) * MIN_EARTH_RADIUS_KM;
+                return minDistance <= maxDistance;
+            }
+        };
+        final FormulaRangeSolver.Constraint distanceConstraint = new FormulaRangeSolver.Constraint() {
+            @Override
+            public Set<String> getNeededVars() {
+                return CalculatedCoordinate.this.getNeededVars();
+            }
+
+            @Override
+            public boolean test(final Func1<String, Value> vars) {
+                final Geopoint gp = calculateGeopoint(vars);
+                return gp != null && center.distanceTo(gp) <= maxDistance;
+            }
+        };
+        return Arrays.asList(latConstraint, lonConstraint, distanceConstraint);
+    }
+
     @Override
     public String toString() {
         return toConfig();
@@ -29,6 +29,7 @@ import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.log.LogCacheActivity;
 import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.log.LogSummary;
 import cgeo.geocaching.log.LogTemplateProvider;
 import cgeo.geocaching.log.LogTemplateProvider.LogContext;
 import cgeo.geocaching.log.LogType;
@@ -533,17 +534,8 @@ public class Geocache implements IWaypoint {
             return false;
         }
 
-        boolean willAttend = false;
-        final List<LogEntry> logs = getLogs();
-        for (final LogEntry logEntry : logs) {
-            final LogType logType = logEntry.logType;
-            if (logType == LogType.ATTENDED) {
-                return false;
-            } else if (logType == LogType.WILL_ATTEND && logEntry.isOwn()) {
-                willAttend = true;
-            }
-        }
-        return willAttend;
+        final LogSummary logSummary = getLogSummary();
+        return !logSummary.hasAttendedLog && logSummary.hasOwnLog(LogType.WILL_ATTEND);
     }
 
     public void logVisit(@NonNull final Activity fromActivity) {
@@ -964,11 +956,9 @@ public class Geocache implements IWaypoint {
     @Nullable
     public Date getLastFound() {
         if (lastFound == null && inDatabase()) {
-            for (LogEntry logEntry : getLogs()) {
-                if (logEntry.logType.isFoundLog()) {
-                    lastFound = new Date(logEntry.date);
-                    break;
-                }
+            final long lastFoundDate = getLogSummary().lastFoundDate;
+            if (lastFoundDate != 0) {
+                lastFound = new Date(lastFoundDate);
             }
         }
         if (lastFound != null) {
@@ -1375,6 +1365,15 @@ public class Geocache implements IWaypoint {
         //return inDatabase() ? DataStore.loadLogs(geocode) : Collections.emptyList();
     }
 
+    /**
+     * Summary of the stored logs (e.g. last found date, own log types, latest log types). Prefer this over
+     * {@link #getLogs()} if no log details are needed, as it does not load the full logs from the database.
+     */
+    @NonNull
+    public LogSummary getLogSummary() {
+        return DataStore.loadLogSummary(geocode);
+    }
+
     /**
      * @return only the logs of friends
      */
@@ -2290,12 +2289,7 @@ public class Geocache implements IWaypoint {
      * the cache, so the result might be wrong.
      */
     public boolean hasOwnLog(@NonNull final LogType logType) {
-        for (final LogEntry logEntry : getLogs()) {
-            if (logEntry.logType == logType && logEntry.isOwn()) {
-                return true;
-            }
-        }
-        return false;
+        return getLogSummary().hasOwnLog(logType);
     }
 
     @DrawableRes
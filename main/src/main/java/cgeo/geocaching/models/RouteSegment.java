@@ -83,6 +83,9 @@ public class RouteSegment implements Parcelable {
     }
 
     public void setElevation(final ArrayList<Float> elevation) {
+        if (this.elevation == null) {
+            this.elevation = new ArrayList<>();
+        }
         this.elevation.clear();
         this.elevation.addAll(elevation);
     }
@@ -0,0 +1,157 @@
+package cgeo.geocaching.models;
+
+import android.location.Location;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Points of a recorded trail (position history), stored column-wise in primitive arrays.
+ *
+ * Points are kept in a ring, so removing the oldest points (to limit the trail length) does not move the other ones.
+ * Compared to a list of Location objects this needs about a tenth of the memory and no allocations per point.
+ * All methods are synchronized, as trails are recorded and drawn on different threads.
+ */
+public final class Trail {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] altitudes;
+    private long[] timestamps;
+    /** physical index of the oldest point */
+    private int start = 0;
+    private int size = 0;
+    private final float[] distanceResult = new float[1];
+
+    public Trail() {
+        this(MIN_CAPACITY);
+    }
+
+    public Trail(final int capacity) {
+        allocate(Math.max(MIN_CAPACITY, capacity));
+    }
+
+    private void allocate(final int capacity) {
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        altitudes = new double[capacity];
+        timestamps = new long[capacity];
+    }
+
+    private int index(final int position) {
+        final int index = start + position;
+        return index < latitudes.length ? index : index - latitudes.length;
+    }
+
+    /**
+     * @param timestamp UTC time in milliseconds
+     */
+    public synchronized void add(final double latitude, final double longitude, final double altitude, final long timestamp) {
+        if (size == latitudes.length) {
+            grow();
+        }
+        final int index = index(size);
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        altitudes[index] = altitude;
+        timestamps[index] = timestamp;
+        size++;
+    }
+
+    private void grow() {
+        final double[] oldLatitudes = latitudes;
+        final double[] oldLongitudes = longitudes;
+        final double[] oldAltitudes = altitudes;
+        final long[] oldTimestamps = timestamps;
+        allocate(oldLatitudes.length * 2);
+        // unwrap the ring, oldest point first
+        final int firstPart = Math.min(size, oldLatitudes.length - start);
+        System.arraycopy(oldLatitudes, start, latitudes, 0, firstPart);
+        System.arraycopy(oldLongitudes, start, longitudes, 0, firstPart);
+        System.arraycopy(oldAltitudes, start, altitudes, 0, firstPart);
+        System.arraycopy(oldTimestamps, start, timestamps, 0, firstPart);
+        System.arraycopy(oldLatitudes, 0, latitudes, firstPart, size - firstPart);
+        System.arraycopy(oldLongitudes, 0, longitudes, firstPart, size - firstPart);
+        System.arraycopy(oldAltitudes, 0, altitudes, firstPart, size - firstPart);
+        System.arraycopy(oldTimestamps, 0, timestamps, firstPart, size - firstPart);
+        start = 0;
+    }
+
+    /** appends all points of the given trail */
+    public void addAll(@NonNull final Trail other) {
+        synchronized (other) {
+            for (int i = 0; i < other.size; i++) {
+                final int index = other.index(i);
+                add(other.latitudes[index], other.longitudes[index], other.altitudes[index], other.timestamps[index]);
+            }
+        }
+    }
+
+    /** removes the given number of oldest points */
+    public synchronized void removeFirst(final int count) {
+        final int removed = Math.min(count, size);
+        start = index(removed);
+        size -= removed;
+        if (size == 0) {
+            start = 0;
+        }
+    }
+
+    public synchronized void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized double getLatitude(final int position) {
+        return latitudes[index(position)];
+    }
+
+    public synchronized double getLongitude(final int position) {
+        return longitudes[index(position)];
+    }
+
+    public synchronized double getAltitude(final int position) {
+        return altitudes[index(position)];
+    }
+
+    /** @return UTC time of the point in milliseconds */
+    public synchronized long getTimestamp(final int position) {
+        return timestamps[index(position)];
+    }
+
+    /** @return distance in meters between two points of the trail */
+    public synchronized float distanceBetween(final int position1, final int position2) {
+        final int index1 = index(position1);
+        final int index2 = index(position2);
+        Location.distanceBetween(latitudes[index1], longitudes[index1], latitudes[index2], longitudes[index2], distanceResult);
+        return distanceResult[0];
+    }
+
+    /** @return distance in meters between a point of the trail and the given location */
+    public synchronized float distanceTo(final int position, @NonNull final Location location) {
+        final int index = index(position);
+        Location.distanceBetween(latitudes[index], longitudes[index], location.getLatitude(), location.getLongitude(), distanceResult);
+        return distanceResult[0];
+    }
+
+    /** @return an independent copy of this trail, e.g. for drawing it while recording continues */
+    @NonNull
+    public synchronized Trail copy() {
+        final Trail copy = new Trail(size);
+        for (int i = 0; i < size; i++) {
+            final int index = index(i);
+            copy.add(latitudes[index], longitudes[index], altitudes[index], timestamps[index]);
+        }
+        return copy;
+    }
+
+}
@@ -119,6 +119,69 @@ public class GeoIcon implements Parcelable {
         }
     }
 
+    /**
+     * A bitmap provider for map markers, with a key identifying the marker variant (e.g. the hash of a CacheMarker).
+     * Map layers share one rendered bitmap for all icons with the same key and bitmap.
+     */
+    public static class MarkerBitmapProvider extends SimpleBitmapProvider {
+
+        private final int markerKey;
+
+        public MarkerBitmapProvider(final int markerKey, final Bitmap bitmap) {
+            super(bitmap);
+            this.markerKey = markerKey;
+        }
+
+        public int getMarkerKey() {
+            return markerKey;
+        }
+
+        // Parcelable stuff
+
+        public MarkerBitmapProvider(final Parcel in) {
+            super(in);
+            this.markerKey = in.readInt();
+        }
+
+        @Override
+        public void writeToParcel(final Parcel dest, final int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeInt(markerKey);
+        }
+
+        public static final Creator<MarkerBitmapProvider> CREATOR = new Creator<MarkerBitmapProvider>() {
+            @Override
+            public MarkerBitmapProvider createFromParcel(final Parcel in) {
+                return new MarkerBitmapProvider(in);
+            }
+
+            @Override
+            public MarkerBitmapProvider[] newArray(final int size) {
+                return new MarkerBitmapProvider[size];
+            }
+        };
+
+        // equals/hashCode stuff
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof MarkerBitmapProvider)) {
+                return false;
+            }
+            return markerKey == ((MarkerBitmapProvider) o).markerKey && super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return markerKey;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+            return "marker:" + markerKey + ", " + super.toString();
+        }
+    }
+
     /** A provider for text bitmaps */
     public static class TextBitmapProvider implements BitmapProvider {
 
@@ -245,6 +308,14 @@ public class GeoIcon implements Parcelable {
         return bitmapProvider == null ? null : bitmapProvider.getBitmap();
     }
 
+    /**
+     * Key of the marker variant shown by this icon, or 0 if the icon has no such key.
+     * Icons with the same key and bitmap show the same image, so map layers may share rendered bitmaps between them.
+     */
+    public int getMarkerKey() {
+        return bitmapProvider instanceof MarkerBitmapProvider ? ((MarkerBitmapProvider) bitmapProvider).getMarkerKey() : 0;
+    }
+
     @Nullable
     public Bitmap getRotatedBitmap() {
         final Bitmap bm = bitmapProvider == null ? null : bitmapProvider.getRotatedBitmap(getRotation());
@@ -357,6 +428,11 @@ public class GeoIcon implements Parcelable {
             return setBitmapProvider(new SimpleBitmapProvider(bitmap));
         }
 
+        /** sets the bitmap of a map marker variant, see {@link GeoIcon#getMarkerKey()} */
+        public Builder setMarkerBitmap(final int markerKey, @Nullable final Bitmap bitmap) {
+            return setBitmapProvider(new MarkerBitmapProvider(markerKey, bitmap));
+        }
+
         public Builder setText(@Nullable final String text) {
             return setBitmapProvider(new TextBitmapProvider(text));
         }
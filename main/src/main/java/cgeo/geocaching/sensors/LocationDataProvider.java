@@ -19,6 +19,7 @@ import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.subjects.BehaviorSubject;
 
 /**
  * Provides access to Location data (GPS and direction).
@@ -28,6 +29,9 @@ import io.reactivex.rxjava3.functions.Function;
  * * Google Play Location provider such as FusedLocationProvider (if Google Play Service is available)
  * * Location via Android Low-Level APIs (LocationManager from Service Context.LOCATION_SERVICE)
  * * Differentiation between LowPower-optimized and precision-optimized location data
+ *
+ * For testing and benchmarking, a recorded trace can replace all live location and direction data,
+ * see {@link #startReplay(Observable)}.
  */
 public class LocationDataProvider {
 
@@ -39,6 +43,10 @@ public class LocationDataProvider {
     private volatile DirectionData currentDirection = DirectionData.EMPTY;
     private final boolean hasCompassCapabilities;
 
+    /** marker for "no replay active", the live observables are used */
+    private static final Observable<GeoData> NO_REPLAY = Observable.never();
+    private final BehaviorSubject<Observable<GeoData>> replaySource = BehaviorSubject.createDefault(NO_REPLAY);
+
     private static class InstanceHolder {
         static final LocationDataProvider INSTANCE = new LocationDataProvider();
     }
@@ -87,6 +95,14 @@ public class LocationDataProvider {
             geoDataObservable = RxUtils.rememberLast(GeoDataProvider.create(application).doOnNext(rememberGeodataAction), null);
             geoDataObservableLowPower = geoDataObservable;
         }
+        final boolean samePowerMode = geoDataObservableLowPower == geoDataObservable;
+        geoDataObservable = withReplay(geoDataObservable);
+        geoDataObservableLowPower = samePowerMode ? geoDataObservable : withReplay(geoDataObservableLowPower);
+    }
+
+    /** switches subscribers of the live observable to the replay while a replay is active (and back afterwards) */
+    private Observable<GeoData> withReplay(final Observable<GeoData> live) {
+        return replaySource.switchMap(replay -> replay == NO_REPLAY ? live : replay);
     }
 
     private static final Function<GeoData, DirectionData> GPS_TO_DIRECTION = geoData -> DirectionData.createFor(AngleUtils.reverseDirectionNow(geoData.getBearing()));
@@ -137,7 +153,32 @@ public class LocationDataProvider {
             return useGps || !Settings.isUseCompass();
         }).map(GPS_TO_DIRECTION);
 
-        directionDataObservable = RxUtils.rememberLast(Observable.merge(magneticDirectionObservable, directionFromGpsObservable).doOnNext(onNextrememberDirectionAction), DirectionData.EMPTY);
+        // a replayed trace has no sensor data, the direction is always taken from the trace
+        final Observable<DirectionData> liveDirectionObservable = Observable.merge(magneticDirectionObservable, directionFromGpsObservable);
+        final Observable<DirectionData> directionWithReplayObservable = replaySource.switchMap(replay -> replay == NO_REPLAY ? liveDirectionObservable : replay.map(GPS_TO_DIRECTION));
+        directionDataObservable = RxUtils.rememberLast(directionWithReplayObservable.doOnNext(onNextrememberDirectionAction), DirectionData.EMPTY);
+    }
+
+    /**
+     * Replaces the live location (and direction) data by the given observable, typically created by
+     * {@link TraceReplayProvider#create(ReplayTrace, double, boolean)}, until {@link #stopReplay()} is called.
+     * Live location providers are released while the replay is active.
+     */
+    public void startReplay(@NonNull final Observable<GeoData> replay) {
+        Log.i("LocationDataProvider: starting location replay");
+        replaySource.onNext(replay.doOnNext(rememberGeodataAction).replay(1).refCount());
+    }
+
+    /** switches back to live location data */
+    public void stopReplay() {
+        if (isReplaying()) {
+            Log.i("LocationDataProvider: stopping location replay");
+            replaySource.onNext(NO_REPLAY);
+        }
+    }
+
+    public boolean isReplaying() {
+        return replaySource.getValue() != NO_REPLAY;
     }
 
     public Observable<GeoData> geoDataObservable(final boolean lowPower) {
@@ -0,0 +1,374 @@
+package cgeo.geocaching.sensors;
+
+import cgeo.geocaching.location.Geopoint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Recorded location trace (GPX track or NMEA log) to be replayed by {@link TraceReplayProvider}.
+ *
+ * Parsing is plain Java (no Android classes), so traces can also be used in unit tests and benchmarks.
+ * Speed and bearing missing in the recording are derived from consecutive fixes.
+ */
+public final class ReplayTrace {
+
+    private static final double KNOTS_TO_METERS_PER_SECOND = 1852.0 / 3600.0;
+    /** accuracy in meters of one unit of horizontal dilution of precision, a common approximation */
+    private static final float METERS_PER_HDOP = 5f;
+    /** accuracy used if the recording contains none */
+    private static final float DEFAULT_ACCURACY = 5f;
+
+    private static final Pattern ISO_TIME = Pattern.compile("(\\d{4})-(\\d{2})-(\\d{2})T(\\d{2}):(\\d{2}):(\\d{2})(\\.\\d+)?(Z|[+-]\\d{2}:?\\d{2})?");
+
+    /** single position of a trace */
+    public static final class Fix {
+        public final double latitude;
+        public final double longitude;
+        /** altitude in meters, NaN if unknown */
+        public final double altitude;
+        /** UTC time in milliseconds, 0 if unknown */
+        public final long time;
+        /** speed in m/s, NaN if unknown */
+        public final float speed;
+        /** bearing in degrees, NaN if unknown */
+        public final float bearing;
+        /** accuracy in meters, NaN if unknown */
+        public final float accuracy;
+
+        public Fix(final double latitude, final double longitude, final double altitude, final long time, final float speed, final float bearing, final float accuracy) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.altitude = altitude;
+            this.time = time;
+            this.speed = speed;
+            this.bearing = bearing;
+            this.accuracy = accuracy;
+        }
+
+        @NonNull
+        public Geopoint getCoords() {
+            return new Geopoint(latitude, longitude);
+        }
+    }
+
+    @NonNull private final List<Fix> fixes;
+
+    private ReplayTrace(@NonNull final List<Fix> fixes) {
+        this.fixes = Collections.unmodifiableList(fixes);
+    }
+
+    /** creates a trace from the given fixes, deriving missing speeds, bearings and accuracies */
+    @NonNull
+    public static ReplayTrace of(@NonNull final List<Fix> fixes) {
+        final List<Fix> completed = new ArrayList<>(fixes.size());
+        for (int i = 0; i < fixes.size(); i++) {
+            final Fix fix = fixes.get(i);
+            float speed = fix.speed;
+            float bearing = fix.bearing;
+            if ((Float.isNaN(speed) || Float.isNaN(bearing)) && fixes.size() > 1) {
+                final Fix from = fixes.get(i == 0 ? 0 : i - 1);
+                final Fix to = fixes.get(i == 0 ? 1 : i);
+                final Geopoint fromCoords = from.getCoords();
+                final Geopoint toCoords = to.getCoords();
+                if (Float.isNaN(speed) && to.time > from.time) {
+                    speed = 1000f * fromCoords.distanceTo(toCoords) * 1000f / (to.time - from.time);
+                }
+                if (Float.isNaN(bearing) && !fromCoords.equals(toCoords)) {
+                    bearing = fromCoords.bearingTo(toCoords);
+                }
+            }
+            completed.add(new Fix(fix.latitude, fix.longitude, fix.altitude, fix.time, speed, bearing, Float.isNaN(fix.accuracy) ? DEFAULT_ACCURACY : fix.accuracy));
+        }
+        return new ReplayTrace(completed);
+    }
+
+    /**
+     * Parses a GPX file (track, route or waypoint points) or NMEA log, detected by the content.
+     *
+     * @throws IOException if the stream cannot be read or contains no positions
+     */
+    @NonNull
+    public static ReplayTrace parse(@NonNull final InputStream stream) throws IOException {
+        final BufferedInputStream input = new BufferedInputStream(stream);
+        input.mark(64);
+        final byte[] start = new byte[64];
+        final int length = input.read(start);
+        input.reset();
+        final boolean isXml = length > 0 && new String(start, 0, length, StandardCharsets.UTF_8).replace("\uFEFF", "").trim().startsWith("<");
+        final List<Fix> fixes = isXml ? parseGpx(input) : parseNmea(input);
+        if (fixes.isEmpty()) {
+            throw new IOException("No positions found in trace");
+        }
+        return of(fixes);
+    }
+
+    @NonNull
+    public List<Fix> getFixes() {
+        return fixes;
+    }
+
+    public int size() {
+        return fixes.size();
+    }
+
+    /** @return duration of the recording in milliseconds, 0 if the recording has no times */
+    public long getDuration() {
+        return fixes.get(fixes.size() - 1).time - fixes.get(0).time;
+    }
+
+    @NonNull
+    private static List<Fix> parseGpx(@NonNull final InputStream input) throws IOException {
+        final GpxHandler handler = new GpxHandler();
+        try {
+            final SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.newSAXParser().parse(input, handler);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Cannot parse GPX trace", e);
+        }
+        return handler.fixes;
+    }
+
+    /** collects trkpt, rtept and wpt elements independent of the GPX version */
+    private static final class GpxHandler extends DefaultHandler {
+        private final List<Fix> fixes = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private boolean inPoint = false;
+        private double latitude;
+        private double longitude;
+        private double altitude;
+        private long time;
+        private float speed;
+        private float bearing;
+        private float accuracy;
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+            text.setLength(0);
+            if (isPoint(localName)) {
+                final String lat = attributes.getValue("lat");
+                final String lon = attributes.getValue("lon");
+                if (lat == null || lon == null) {
+                    return;
+                }
+                inPoint = true;
+                latitude = Double.parseDouble(lat);
+                longitude = Double.parseDouble(lon);
+                altitude = Double.NaN;
+                time = 0;
+                speed = Float.NaN;
+                bearing = Float.NaN;
+                accuracy = Float.NaN;
+            }
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            if (!inPoint) {
+                return;
+            }
+            if (isPoint(localName)) {
+                inPoint = false;
+                fixes.add(new Fix(latitude, longitude, altitude, time, speed, bearing, accuracy));
+                return;
+            }
+            final String value = text.toString().trim();
+            try {
+                switch (localName) {
+                    case "ele":
+                        altitude = Double.parseDouble(value);
+                        break;
+                    case "time":
+                        time = parseIsoTime(value);
+                        break;
+                    case "speed":
+                        speed = Float.parseFloat(value);
+                        break;
+                    case "course":
+                        bearing = Float.parseFloat(value);
+                        break;
+                    case "hdop":
+                        accuracy = Float.parseFloat(value) * METERS_PER_HDOP;
+                        break;
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException ignored) {
+                // keep the value unknown
+            }
+        }
+
+        private static boolean isPoint(final String localName) {
+            return "trkpt".equals(localName) || "rtept".equals(localName) || "wpt".equals(localName);
+        }
+    }
+
+    /** parses an ISO 8601 UTC time as used in GPX files, returns 0 if the time cannot be parsed */
+    static long parseIsoTime(@NonNull final String value) {
+        final Matcher matcher = ISO_TIME.matcher(value);
+        if (!matcher.matches()) {
+            return 0;
+        }
+        final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) - 1, Integer.parseInt(matcher.group(3)),
+                Integer.parseInt(matcher.group(4)), Integer.parseInt(matcher.group(5)), Integer.parseInt(matcher.group(6)));
+        long time = calendar.getTimeInMillis();
+        if (matcher.group(7) != null) {
+            time += Math.round(Double.parseDouble(matcher.group(7)) * 1000);
+        }
+        final String zone = matcher.group(8);
+        if (zone != null && !"Z".equals(zone)) {
+            final int sign = zone.charAt(0) == '-' ? -1 : 1;
+            final String digits = zone.substring(1).replace(":", "");
+            final int offsetMinutes = Integer.parseInt(digits.substring(0, 2)) * 60 + Integer.parseInt(digits.substring(2));
+            time -= sign * offsetMinutes * 60_000L;
+        }
+        return time;
+    }
+
+    /**
+     * Parses RMC (position, speed, course, date) and GGA (altitude, HDOP) sentences of any talker.
+     * GGA data is merged into the RMC fix of the same time, GGA sentences without a matching RMC are used on their own.
+     */
+    @NonNull
+    private static List<Fix> parseNmea(@NonNull final InputStream input) throws IOException {
+        final List<Fix> fixes = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII));
+        long date = 0;
+        String pendingTime = null;
+        Fix pending = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            final String[] fields = splitSentence(line.trim());
+            if (fields == null || fields[0].length() < 5) {
+                continue;
+            }
+            final String type = fields[0].substring(2);
+            try {
+                if ("RMC".equals(type) && fields.length > 9 && "A".equals(fields[2])) {
+                    date = parseNmeaDate(fields[9]);
+                    final Fix rmc = new Fix(parseNmeaCoordinate(fields[3], fields[4]), parseNmeaCoordinate(fields[5], fields[6]), Double.NaN,
+                            date + parseNmeaTime(fields[1]), parseFloat(fields[7], (float) KNOTS_TO_METERS_PER_SECOND), parseFloat(fields[8], 1f), Float.NaN);
+                    if (pending != null && fields[1].equals(pendingTime)) {
+                        fixes.add(new Fix(rmc.latitude, rmc.longitude, pending.altitude, rmc.time, rmc.speed, rmc.bearing, pending.accuracy));
+                        pending = null;
+                    } else {
+                        addPending(fixes, pending);
+                        pending = rmc;
+                        pendingTime = fields[1];
+                    }
+                } else if ("GGA".equals(type) && fields.length > 9 && !"0".equals(fields[6]) && StringUtils.isNotEmpty(fields[2])) {
+                    final double altitude = StringUtils.isEmpty(fields[9]) ? Double.NaN : Double.parseDouble(fields[9]);
+                    final float accuracy = parseFloat(fields[8], METERS_PER_HDOP);
+                    if (pending != null && fields[1].equals(pendingTime)) {
+                        fixes.add(new Fix(pending.latitude, pending.longitude, altitude, pending.time, pending.speed, pending.bearing, accuracy));
+                        pending = null;
+                    } else {
+                        addPending(fixes, pending);
+                        pending = new Fix(parseNmeaCoordinate(fields[2], fields[3]), parseNmeaCoordinate(fields[4], fields[5]), altitude,
+                                date + parseNmeaTime(fields[1]), Float.NaN, Float.NaN, accuracy);
+                        pendingTime = fields[1];
+                    }
+                }
+            } catch (NumberFormatException | IndexOutOfBoundsException ignored) {
+                // skip malformed sentences
+            }
+        }
+        addPending(fixes, pending);
+        return fixes;
+    }
+
+    private static void addPending(@NonNull final List<Fix> fixes, @Nullable final Fix pending) {
+        if (pending != null) {
+            fixes.add(pending);
+        }
+    }
+
+    /** @return the fields of a NMEA sentence without checksum, or null if the line is no valid sentence */
+    @Nullable
+    private static String[] splitSentence(@NonNull final String line) {
+        if (!line.startsWith("$")) {
+            return null;
+        }
+        final int checksumStart = line.indexOf('*');
+        final String body = line.substring(1, checksumStart < 0 ? line.length() : checksumStart);
+        if (checksumStart >= 0) {
+            int checksum = 0;
+            for (int i = 0; i < body.length(); i++) {
+                checksum ^= body.charAt(i);
+            }
+            try {
+                if (checksum != Integer.parseInt(line.substring(checksumStart + 1).trim(), 16)) {
+                    return null;
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return body.split(",", -1);
+    }
+
+    /** converts ddmm.mmmm / dddmm.mmmm with hemisphere to degrees */
+    private static double parseNmeaCoordinate(@NonNull final String value, @NonNull final String hemisphere) {
+        final double raw = Double.parseDouble(value);
+        final double degrees = Math.floor(raw / 100);
+        final double result = degrees + (raw - degrees * 100) / 60;
+        return "S".equals(hemisphere) || "W".equals(hemisphere) ? -result : result;
+    }
+
+    /** @return milliseconds of the day of hhmmss.sss */
+    private static long parseNmeaTime(@NonNull final String value) {
+        if (value.length() < 6) {
+            return 0;
+        }
+        return Integer.parseInt(value.substring(0, 2)) * 3_600_000L + Integer.parseInt(value.substring(2, 4)) * 60_000L
+                + Math.round(Double.parseDouble(value.substring(4)) * 1000);
+    }
+
+    /** @return UTC milliseconds of ddmmyy */
+    private static long parseNmeaDate(@NonNull final String value) {
+        if (value.length() != 6) {
+            return 0;
+        }
+        final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        final int year = Integer.parseInt(value.substring(4, 6));
+        // two digit years, GPS receivers with NMEA output exist since the eighties
+        calendar.set(year < 80 ? 2000 + year : 1900 + year, Integer.parseInt(value.substring(2, 4)) - 1, Integer.parseInt(value.substring(0, 2)));
+        return calendar.getTimeInMillis();
+    }
+
+    private static float parseFloat(@NonNull final String value, final float factor) {
+        return StringUtils.isEmpty(value) ? Float.NaN : Float.parseFloat(value) * factor;
+    }
+
+}
@@ -0,0 +1,106 @@
+package cgeo.geocaching.sensors;
+
+import cgeo.geocaching.storage.ContentStorage;
+import cgeo.geocaching.utils.AndroidRxUtils;
+import cgeo.geocaching.utils.Log;
+
+import android.location.Location;
+import android.location.LocationManager;
+import android.net.Uri;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.core.Observable;
+
+/**
+ * Provides location data by replaying a recorded {@link ReplayTrace} instead of using the device sensors.
+ *
+ * Fixes are emitted with the time intervals of the recording divided by the speed factor, so traces can be
+ * replayed in real time as well as with much higher fix rates. Replayed fixes carry the current time and
+ * the GPS provider, so consumers treat them like live fixes. Use {@link LocationDataProvider#startReplay(Observable)}
+ * to feed a replay into the location pipeline.
+ */
+public class TraceReplayProvider {
+
+    /** interval between fixes of recordings without times */
+    private static final long DEFAULT_INTERVAL_MS = 1000;
+    /** longer gaps in a recording (e.g. a paused track) are shortened to this */
+    private static final long MAX_INTERVAL_MS = 10000;
+
+    private TraceReplayProvider() {
+        // Utility class, not to be instantiated
+    }
+
+    /**
+     * @param speedFactor replay speed relative to the recording, e.g. 1 for real time or 10 for ten times faster
+     * @param loop        start over again after the last fix instead of completing
+     */
+    @NonNull
+    public static Observable<GeoData> create(@NonNull final ReplayTrace trace, final double speedFactor, final boolean loop) {
+        if (speedFactor <= 0) {
+            throw new IllegalArgumentException("speed factor must be positive: " + speedFactor);
+        }
+        final Observable<GeoData> replay = Observable.range(0, trace.size()).concatMap(index -> {
+            final long delay = Math.round(getInterval(trace, index) / speedFactor);
+            final Observable<Integer> fix = Observable.just(index);
+            return delay > 0 ? fix.delay(delay, TimeUnit.MILLISECONDS, AndroidRxUtils.computationScheduler) : fix;
+        }).map(index -> toGeoData(trace.getFixes().get(index)));
+        return loop ? replay.repeat() : replay;
+    }
+
+    /** reads a trace from a GPX or NMEA file, returns null if the file cannot be read. Blocks on IO. */
+    @Nullable
+    public static ReplayTrace load(@NonNull final Uri uri) {
+        try (InputStream stream = ContentStorage.get().openForRead(uri)) {
+            if (stream == null) {
+                return null;
+            }
+            final ReplayTrace trace = ReplayTrace.parse(stream);
+            Log.i("TraceReplayProvider: loaded " + trace.size() + " fixes from " + uri);
+            return trace;
+        } catch (IOException e) {
+            Log.w("TraceReplayProvider: cannot read trace " + uri, e);
+            return null;
+        }
+    }
+
+    /** @return recorded interval in milliseconds between the given fix and its predecessor */
+    private static long getInterval(@NonNull final ReplayTrace trace, final int index) {
+        if (index == 0) {
+            return 0;
+        }
+        final long previous = trace.getFixes().get(index - 1).time;
+        final long current = trace.getFixes().get(index).time;
+        if (previous == 0 || current == 0) {
+            return DEFAULT_INTERVAL_MS;
+        }
+        return Math.max(0, Math.min(MAX_INTERVAL_MS, current - previous));
+    }
+
+    @NonNull
+    private static GeoData toGeoData(@NonNull final ReplayTrace.Fix fix) {
+        final Location location = new Location(LocationManager.GPS_PROVIDER);
+        location.setLatitude(fix.latitude);
+        location.setLongitude(fix.longitude);
+        if (!Double.isNaN(fix.altitude)) {
+            location.setAltitude(fix.altitude);
+        }
+        if (!Float.isNaN(fix.speed)) {
+            location.setSpeed(fix.speed);
+        }
+        if (!Float.isNaN(fix.bearing)) {
+            location.setBearing(fix.bearing);
+        }
+        location.setAccuracy(fix.accuracy);
+        location.setTime(System.currentTimeMillis());
+        location.setElapsedRealtimeNanos(SystemClock.elapsedRealtimeNanos());
+        return new GeoData(location);
+    }
+
+}
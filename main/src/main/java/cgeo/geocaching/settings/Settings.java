@@ -250,10 +250,63 @@ public class Settings {
     private static final SharedPreferences sharedPrefs = NO_APPLICATION_MODE ? null : PreferenceManager
             .getDefaultSharedPreferences(CgeoApplication.getInstance().getBaseContext());
 
+    /** settings read in hot paths, replaced as a whole on changes */
+    private static volatile Snapshot snapshot;
+
+    /** keeps the snapshot up to date, shared preferences only hold weak references to their listeners */
+    private static final SharedPreferences.OnSharedPreferenceChangeListener SNAPSHOT_UPDATER = (prefs, key) -> updateSnapshot(key);
+
     static {
         migrateSettings();
         Log.setDebug(getBoolean(R.string.pref_debug, false));
+        snapshot = new Snapshot();
+        if (sharedPrefs != null) {
+            sharedPrefs.registerOnSharedPreferenceChangeListener(SNAPSHOT_UPDATER);
+        }
+    }
+
+    /**
+     * Immutable snapshot of the settings read for each cache object, marker or list item.
+     *
+     * Keys are resolved once, reading a value is a plain field access instead of a key lookup in the resources and a
+     * query of the synchronized shared preferences.
+     */
+    private static final class Snapshot {
+
+        private static final Set<String> KEYS = new HashSet<>(Arrays.asList(
+                getKey(R.string.pref_dtMarkerOnCacheIcon),
+                getKey(R.string.pref_global_wp_extraction_disable),
+                getKey(R.string.pref_bigSmileysOnMap),
+                getKey(R.string.pref_visitedWaypointsSemiTransparent),
+                getKey(R.string.pref_mapScaleOnly),
+                getKey(R.string.pref_livelist),
+                getKey(R.string.pref_username)));
+
+        private final boolean dtMarkerEnabled = getBoolean(R.string.pref_dtMarkerOnCacheIcon, false);
+        private final boolean globalWpExtractionDisabled = getBoolean(R.string.pref_global_wp_extraction_disable, false);
+        private final boolean bigSmileysEnabled = getBoolean(R.string.pref_bigSmileysOnMap, false);
+        private final boolean visitedWaypointsSemiTransparent = getBoolean(R.string.pref_visitedWaypointsSemiTransparent, false);
+        private final boolean iconScaleEverywhere = !getBoolean(R.string.pref_mapScaleOnly, true);
+        private final boolean liveList = getBoolean(R.string.pref_livelist, true);
+        private final String userName = StringUtils.trim(getString(R.string.pref_username, StringUtils.EMPTY));
+    }
+
+    /**
+     * Recreates the snapshot if the changed preference is part of it, null key means all preferences were cleared.
+     * Called directly by all setters, as listeners are notified asynchronously on the main thread only.
+     */
+    private static void updateSnapshot(@Nullable final String prefKey) {
+        if (prefKey == null || Snapshot.KEYS.contains(prefKey)) {
+            snapshot = new Snapshot();
+        }
+    }
 
+    /**
+     * Rebuilds the snapshot after preferences were changed in bulk without the setters of this class
+     * (e.g. restoring a backup or clearing them, which does not notify listeners before API 30)
+     */
+    public static void refreshSnapshot() {
+        updateSnapshot(null);
     }
 
     protected Settings() {
@@ -555,6 +608,7 @@ public class Settings {
         final SharedPreferences.Editor edit = sharedPrefs.edit();
         edit.putString(prefKey, value);
         edit.apply();
+        updateSnapshot(prefKey);
     }
 
     private static void putStringList(final int prefKeyId, final Iterable<?> elements) {
@@ -565,9 +619,12 @@ public class Settings {
         if (sharedPrefs == null) {
             return;
         }
+        final String prefKey = getKey(prefKeyId);
         final SharedPreferences.Editor edit = sharedPrefs.edit();
-        edit.putBoolean(getKey(prefKeyId), value);
+        edit.putBoolean(prefKey, value);
         edit.apply();
+        // listeners are notified asynchronously on the main thread, but the new value has to be visible immediately
+        updateSnapshot(prefKey);
     }
 
     private static void putInt(final int prefKeyId, final int value) {
@@ -581,24 +638,29 @@ public class Settings {
         final SharedPreferences.Editor edit = sharedPrefs.edit();
         edit.putInt(prefKey, value);
         edit.apply();
+        updateSnapshot(prefKey);
     }
 
     private static void putLong(final int prefKeyId, final long value) {
         if (sharedPrefs == null) {
             return;
         }
+        final String prefKey = getKey(prefKeyId);
         final SharedPreferences.Editor edit = sharedPrefs.edit();
-        edit.putLong(getKey(prefKeyId), value);
+        edit.putLong(prefKey, value);
         edit.apply();
+        updateSnapshot(prefKey);
     }
 
     private static void putFloat(final int prefKeyId, final float value) {
         if (sharedPrefs == null) {
             return;
         }
+        final String prefKey = getKey(prefKeyId);
         final SharedPreferences.Editor edit = sharedPrefs.edit();
-        edit.putFloat(getKey(prefKeyId), value);
+        edit.putFloat(prefKey, value);
         edit.apply();
+        updateSnapshot(prefKey);
     }
 
     private static void remove(final int prefKeyId) {
@@ -612,6 +674,7 @@ public class Settings {
         final SharedPreferences.Editor edit = sharedPrefs.edit();
         edit.remove(key);
         edit.apply();
+        updateSnapshot(key);
     }
 
     private static boolean contains(final int prefKeyId) {
@@ -668,7 +731,7 @@ public class Settings {
     }
 
     public static String getUserName() {
-        return StringUtils.trim(getString(R.string.pref_username, StringUtils.EMPTY));
+        return snapshot.userName;
     }
 
     public static boolean isGCConnectorActive() {
@@ -991,7 +1054,7 @@ public class Settings {
     }
 
     public static boolean isLiveList() {
-        return getBoolean(R.string.pref_livelist, true);
+        return snapshot.liveList;
     }
 
     public static boolean isTrackableAutoVisit() {
@@ -1029,6 +1092,11 @@ public class Settings {
         putBoolean(R.string.pref_maplive, live);
     }
 
+    /** @return true if nearby markers are grouped into clusters at low zoom levels (unified map only) */
+    public static boolean isMapClusteringEnabled() {
+        return getBoolean(R.string.pref_mapClustering, true);
+    }
+
     public static boolean isMapTrail() {
         return getBoolean(R.string.pref_maptrail, false);
     }
@@ -1371,7 +1439,7 @@ public class Settings {
     }
 
     public static boolean getVisitedWaypointsSemiTransparent() {
-        return getBoolean(R.string.pref_visitedWaypointsSemiTransparent, false);
+        return snapshot.visitedWaypointsSemiTransparent;
     }
 
     /**
@@ -1450,7 +1518,7 @@ public class Settings {
     }
 
     public static boolean isBigSmileysEnabled() {
-        return getBoolean(R.string.pref_bigSmileysOnMap, false);
+        return snapshot.bigSmileysEnabled;
     }
 
     public static boolean showElevation() {
@@ -1530,7 +1598,7 @@ public class Settings {
     }
 
     public static boolean isGlobalWpExtractionDisabled() {
-        return getBoolean(R.string.pref_global_wp_extraction_disable, false);
+        return snapshot.globalWpExtractionDisabled;
     }
 
     public static boolean isPersonalCacheNoteMergeDisabled() {
@@ -1594,6 +1662,14 @@ public class Settings {
         putBoolean(R.string.pref_cleartrailafterexportstatus, clearTrailAfterExportStatus);
     }
 
+    public static boolean getGpxExportZip() {
+        return getBoolean(R.string.pref_gpxexportzip, false);
+    }
+
+    public static void setGpxExportZip(final boolean gpxExportZip) {
+        putBoolean(R.string.pref_gpxexportzip, gpxExportZip);
+    }
+
     /**
      * Get Trackable inventory sort method based on the last Trackable inventory sort method.
      *
@@ -2339,7 +2415,7 @@ public class Settings {
     }
 
     public static boolean isDTMarkerEnabled() {
-        return getBoolean(R.string.pref_dtMarkerOnCacheIcon, false);
+        return snapshot.dtMarkerEnabled;
     }
 
     public static int getAttributeFilterSources() {
@@ -2381,7 +2457,7 @@ public class Settings {
     }
 
     public static boolean getIconScaleEverywhere() {
-        return !getBoolean(R.string.pref_mapScaleOnly, true);
+        return snapshot.iconScaleEverywhere;
     }
 
     public static double getMapShadingScale() {
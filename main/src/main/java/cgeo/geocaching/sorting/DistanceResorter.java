@@ -0,0 +1,136 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Re-sorts a list of caches by distance after a position update.
+ *
+ * Lists sorted by distance are typically still nearly sorted after a (small) position change. This class calculates all distances
+ * into a primitive array and then restores the order using an insertion sort, which needs close to linear time on such input.
+ * If the list turns out to be far from sorted, it falls back to a regular (stable) sort.
+ *
+ * Sort order is the same as for {@link GlobalGPSDistanceComparator}: ascending by distance, caches without distance last.
+ *
+ * Instances do not modify the given caches or list, thus calculation may be done on a background thread working on a list copy.
+ */
+public final class DistanceResorter {
+
+    /**
+     * maximum number of element moves (per list element) done by insertion sort before falling back to a regular sort
+     */
+    private static final int MAX_MOVES_PER_ELEMENT = 8;
+
+    private DistanceResorter() {
+        // utility class
+    }
+
+    /**
+     * result of a resort calculation
+     */
+    public static final class Result {
+        /**
+         * caches in new sort order
+         */
+        @NonNull
+        public final List<Geocache> caches;
+        /**
+         * distance of caches in km (same order as {@link #caches}). Value is NaN for caches without distance.
+         */
+        @NonNull
+        public final float[] distances;
+        /**
+         * true if sort order differs from the order of the original list
+         */
+        public final boolean orderChanged;
+
+        private Result(@NonNull final List<Geocache> caches, @NonNull final float[] distances, final boolean orderChanged) {
+            this.caches = caches;
+            this.distances = distances;
+            this.orderChanged = orderChanged;
+        }
+    }
+
+    /**
+     * Calculates new distances and sort order for given list of caches.
+     *
+     * @param caches   caches in current order. List is not modified.
+     * @param position position to calculate distances to
+     */
+    @NonNull
+    public static Result resort(@NonNull final List<Geocache> caches, @NonNull final Geopoint position) {
+        final int size = caches.size();
+        final float[] distances = new float[size];
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            final Geocache cache = caches.get(i);
+            if (cache.getCoords() != null) {
+                distances[i] = position.distanceTo(cache.getCoords());
+            } else {
+                final Float distance = cache.getDistance();
+                distances[i] = distance == null ? Float.NaN : distance;
+            }
+            order[i] = i;
+        }
+
+        //Float.compare() sorts NaN last which matches handling of caches without distance
+        final long moves = insertionSort(order, distances, (long) size * MAX_MOVES_PER_ELEMENT);
+        final boolean orderChanged = moves < 0 ? fallbackSort(order, distances) : moves > 0;
+
+        final List<Geocache> sortedCaches = new ArrayList<>(size);
+        final float[] sortedDistances = new float[size];
+        for (int i = 0; i < size; i++) {
+            sortedCaches.add(caches.get(order[i]));
+            sortedDistances[i] = distances[order[i]];
+        }
+        return new Result(sortedCaches, sortedDistances, orderChanged);
+    }
+
+    /**
+     * Sorts index array 'order' by 'keys' (stable). Returns number of element moves done (0 = order unchanged).
+     * If more than 'maxMoves' element moves are necessary, sorting is aborted, 'order' is reset to identity and -1 is returned.
+     */
+    private static long insertionSort(final int[] order, final float[] keys, final long maxMoves) {
+        long moves = 0;
+        for (int i = 1; i < order.length; i++) {
+            final int idx = order[i];
+            final float key = keys[idx];
+            int j = i - 1;
+            while (j >= 0 && Float.compare(keys[order[j]], key) > 0) {
+                order[j + 1] = order[j];
+                j--;
+                if (++moves > maxMoves) {
+                    for (int k = 0; k < order.length; k++) {
+                        order[k] = k;
+                    }
+                    return -1;
+                }
+            }
+            order[j + 1] = idx;
+        }
+        return moves;
+    }
+
+    /**
+     * stable sort of index array 'order' by 'keys', used if input is far from being sorted. Returns true if order was changed.
+     */
+    private static boolean fallbackSort(final int[] order, final float[] keys) {
+        final Integer[] boxedOrder = new Integer[order.length];
+        for (int i = 0; i < order.length; i++) {
+            boxedOrder[i] = order[i];
+        }
+        Arrays.sort(boxedOrder, (i1, i2) -> Float.compare(keys[i1], keys[i2]));
+        boolean changed = false;
+        for (int i = 0; i < order.length; i++) {
+            changed |= order[i] != boxedOrder[i];
+            order[i] = boxedOrder[i];
+        }
+        return changed;
+    }
+}
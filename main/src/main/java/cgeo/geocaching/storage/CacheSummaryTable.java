@@ -0,0 +1,378 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.enumerations.CacheSize;
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.list.StoredList;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact in-memory summary of all caches stored in the database, with one primitive array per property.
+ *
+ * Holds only the few properties needed to locate, count and classify caches (coordinates, type, size, D/T,
+ * status flags, emoji and list membership), so viewport and list lookups need neither a database query
+ * nor full {@link Geocache} objects. The table is kept in sync by {@link DataStore} on every change.
+ *
+ * Rows are identified by an index which is only valid until the next modification. All methods are thread-safe.
+ */
+public final class CacheSummaryTable {
+
+    public static final int FLAG_DISABLED = 1;
+    public static final int FLAG_ARCHIVED = 1 << 1;
+    public static final int FLAG_FOUND = 1 << 2;
+    public static final int FLAG_DNF = 1 << 3;
+    public static final int FLAG_PREMIUM = 1 << 4;
+    public static final int FLAG_USER_MODIFIED_COORDS = 1 << 5;
+    public static final int FLAG_FAVORITE = 1 << 6;
+    public static final int FLAG_FINAL_DEFINED = 1 << 7;
+    public static final int FLAG_ON_WATCHLIST = 1 << 8;
+
+    /** coordinate value of caches without coordinates */
+    private static final int NO_COORDS = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final CacheType[] CACHE_TYPES = CacheType.values();
+    private static final CacheSize[] CACHE_SIZES = CacheSize.values();
+
+    private final Map<String, Integer> rowByGeocode = new HashMap<>();
+    private int rows = 0;
+    private String[] geocodes = new String[INITIAL_CAPACITY];
+    private int[] latitudesE6 = new int[INITIAL_CAPACITY];
+    private int[] longitudesE6 = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] sizes = new byte[INITIAL_CAPACITY];
+    /** difficulty and terrain multiplied by 10 */
+    private byte[] difficulties = new byte[INITIAL_CAPACITY];
+    private byte[] terrains = new byte[INITIAL_CAPACITY];
+    private int[] flags = new int[INITIAL_CAPACITY];
+    private int[] emojis = new int[INITIAL_CAPACITY];
+
+    /** list membership as bit set per row, {@link #listWords} longs per row. Bits are assigned to list ids on demand */
+    private long[] listBits = new long[INITIAL_CAPACITY];
+    private int listWords = 1;
+    private final Map<Integer, Integer> bitByListId = new HashMap<>();
+
+    /** adds or replaces the summary of a cache */
+    public synchronized void put(@NonNull final String geocode, @Nullable final Geopoint coords, @Nullable final CacheType type, @Nullable final CacheSize size,
+                                 final float difficulty, final float terrain, final int flags, final int emoji, @NonNull final Collection<Integer> lists) {
+        Integer row = rowByGeocode.get(geocode);
+        if (row == null) {
+            ensureCapacity(rows + 1);
+            row = rows++;
+            rowByGeocode.put(geocode, row);
+            geocodes[row] = geocode;
+        }
+        latitudesE6[row] = coords == null ? NO_COORDS : coords.getLatitudeE6();
+        longitudesE6[row] = coords == null ? NO_COORDS : coords.getLongitudeE6();
+        types[row] = (byte) (type == null ? CacheType.UNKNOWN : type).ordinal();
+        sizes[row] = (byte) (size == null ? CacheSize.UNKNOWN : size).ordinal();
+        difficulties[row] = (byte) Math.round(difficulty * 10);
+        terrains[row] = (byte) Math.round(terrain * 10);
+        this.flags[row] = flags;
+        emojis[row] = emoji;
+        setLists(row, lists);
+    }
+
+    /**
+     * adds or replaces the summary of a cache from its current state
+     *
+     * @param mergeLists true to keep list memberships of the existing summary in addition to the lists of the cache
+     */
+    public synchronized void put(@NonNull final Geocache cache, final boolean mergeLists) {
+        final Set<Integer> lists = new HashSet<>(cache.getLists());
+        if (mergeLists) {
+            lists.addAll(getLists(cache.getGeocode()));
+        }
+        put(cache.getGeocode(), cache.getCoords(), cache.getType(), cache.getSize(), cache.getDifficulty(), cache.getTerrain(), getFlags(cache), cache.getAssignedEmoji(), lists);
+    }
+
+    /** updates list memberships of a cache, if the cache is part of the table */
+    public synchronized void setLists(@NonNull final String geocode, @NonNull final Collection<Integer> lists) {
+        final Integer row = rowByGeocode.get(geocode);
+        if (row != null) {
+            setLists(row, lists);
+        }
+    }
+
+    /** adds list memberships to a cache, if the cache is part of the table */
+    public synchronized void addLists(@NonNull final String geocode, @NonNull final Collection<Integer> lists) {
+        final Integer row = rowByGeocode.get(geocode);
+        if (row != null) {
+            for (final Integer listId : lists) {
+                setListBit(row, getBit(listId));
+            }
+        }
+    }
+
+    /** updates emoji of a cache, if the cache is part of the table */
+    public synchronized void setEmoji(@NonNull final String geocode, final int emoji) {
+        final Integer row = rowByGeocode.get(geocode);
+        if (row != null) {
+            emojis[row] = emoji;
+        }
+    }
+
+    /** moves all caches of a list to another list (e.g. when a list is deleted) */
+    public synchronized void moveAll(final int fromListId, final int toListId) {
+        final Integer fromBit = bitByListId.get(fromListId);
+        if (fromBit == null || fromListId == toListId) {
+            return;
+        }
+        // assign target bit while source bit is still in use, so it cannot be handed out again
+        final int toBit = getBit(toListId);
+        bitByListId.remove(fromListId);
+        for (int row = 0; row < rows; row++) {
+            if (hasListBit(row, fromBit)) {
+                clearListBit(row, fromBit);
+                setListBit(row, toBit);
+            }
+        }
+    }
+
+    public synchronized void remove(@NonNull final Collection<String> geocodesToRemove) {
+        for (final String geocode : geocodesToRemove) {
+            final Integer row = rowByGeocode.remove(geocode);
+            if (row == null) {
+                continue;
+            }
+            // move last row into the gap to keep columns dense
+            final int last = --rows;
+            if (row != last) {
+                geocodes[row] = geocodes[last];
+                latitudesE6[row] = latitudesE6[last];
+                longitudesE6[row] = longitudesE6[last];
+                types[row] = types[last];
+                sizes[row] = sizes[last];
+                difficulties[row] = difficulties[last];
+                terrains[row] = terrains[last];
+                flags[row] = flags[last];
+                emojis[row] = emojis[last];
+                System.arraycopy(listBits, last * listWords, listBits, row * listWords, listWords);
+                rowByGeocode.put(geocodes[row], row);
+            }
+            geocodes[last] = null;
+        }
+    }
+
+    public synchronized int size() {
+        return rows;
+    }
+
+    public synchronized boolean contains(@NonNull final String geocode) {
+        return rowByGeocode.containsKey(geocode);
+    }
+
+    @Nullable
+    public synchronized CacheType getType(@NonNull final String geocode) {
+        final Integer row = rowByGeocode.get(geocode);
+        return row == null ? null : CACHE_TYPES[types[row]];
+    }
+
+    @Nullable
+    public synchronized CacheSize getSize(@NonNull final String geocode) {
+        final Integer row = rowByGeocode.get(geocode);
+        return row == null ? null : CACHE_SIZES[sizes[row]];
+    }
+
+    /** returns difficulty of a cache, -1 if not available */
+    public synchronized float getDifficulty(@NonNull final String geocode) {
+        final Integer row = rowByGeocode.get(geocode);
+        return row == null ? -1 : difficulties[row] / 10f;
+    }
+
+    /** returns terrain of a cache, -1 if not available */
+    public synchronized float getTerrain(@NonNull final String geocode) {
+        final Integer row = rowByGeocode.get(geocode);
+        return row == null ? -1 : terrains[row] / 10f;
+    }
+
+    /** returns status flags ({@code FLAG_*}) of a cache, 0 if the cache is unknown */
+    public synchronized int getFlags(@NonNull final String geocode) {
+        final Integer row = rowByGeocode.get(geocode);
+        return row == null ? 0 : flags[row];
+    }
+
+    public synchronized int getEmoji(@NonNull final String geocode) {
+        final Integer row = rowByGeocode.get(geocode);
+        return row == null ? 0 : emojis[row];
+    }
+
+    @Nullable
+    public synchronized Geopoint getCoords(@NonNull final String geocode) {
+        final Integer row = rowByGeocode.get(geocode);
+        return row == null || latitudesE6[row] == NO_COORDS ? null : new Geopoint(latitudesE6[row] / 1e6, longitudesE6[row] / 1e6);
+    }
+
+    @NonNull
+    public synchronized Set<Integer> getLists(@NonNull final String geocode) {
+        final Set<Integer> result = new HashSet<>();
+        final Integer row = rowByGeocode.get(geocode);
+        if (row != null) {
+            for (final Map.Entry<Integer, Integer> entry : bitByListId.entrySet()) {
+                if (hasListBit(row, entry.getValue())) {
+                    result.add(entry.getKey());
+                }
+            }
+        }
+        return result;
+    }
+
+    /** returns number of caches on given list */
+    public synchronized int countOnList(final int listId) {
+        final Integer bit = bitByListId.get(listId);
+        if (bit == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (hasListBit(row, bit)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns geocodes of caches located in the given viewport.
+     *
+     * @param storedOnly only return caches which are on at least one list (not counting the temporary list)
+     * @param limit      maximum number of geocodes to return
+     */
+    @NonNull
+    public synchronized Set<String> getInViewport(@NonNull final Viewport viewport, final boolean storedOnly, final int limit) {
+        final int latMin = (int) Math.floor(viewport.getLatitudeMin() * 1e6);
+        final int latMax = (int) Math.ceil(viewport.getLatitudeMax() * 1e6);
+        final int lonMin = (int) Math.floor(viewport.getLongitudeMin() * 1e6);
+        final int lonMax = (int) Math.ceil(viewport.getLongitudeMax() * 1e6);
+        final long[] storedMask = storedOnly ? getStoredListMask() : null;
+        final Set<String> result = new HashSet<>();
+        for (int row = 0; row < rows && result.size() < limit; row++) {
+            final int lat = latitudesE6[row];
+            if (lat == NO_COORDS || lat < latMin || lat > latMax) {
+                continue;
+            }
+            final int lon = longitudesE6[row];
+            if (lon < lonMin || lon > lonMax || (storedMask != null && !isOnAnyList(row, storedMask))) {
+                continue;
+            }
+            result.add(geocodes[row]);
+        }
+        return result;
+    }
+
+    public static int getFlags(@NonNull final Geocache cache) {
+        int result = 0;
+        result |= cache.isDisabled() ? FLAG_DISABLED : 0;
+        result |= cache.isArchived() ? FLAG_ARCHIVED : 0;
+        result |= cache.isFound() ? FLAG_FOUND : 0;
+        result |= cache.isDNF() ? FLAG_DNF : 0;
+        result |= cache.isPremiumMembersOnly() ? FLAG_PREMIUM : 0;
+        result |= cache.hasUserModifiedCoords() ? FLAG_USER_MODIFIED_COORDS : 0;
+        result |= cache.isFavorite() ? FLAG_FAVORITE : 0;
+        result |= cache.hasFinalDefined() ? FLAG_FINAL_DEFINED : 0;
+        result |= cache.isOnWatchlist() ? FLAG_ON_WATCHLIST : 0;
+        return result;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= geocodes.length) {
+            return;
+        }
+        final int newCapacity = Math.max(capacity, geocodes.length + (geocodes.length >> 1));
+        geocodes = Arrays.copyOf(geocodes, newCapacity);
+        latitudesE6 = Arrays.copyOf(latitudesE6, newCapacity);
+        longitudesE6 = Arrays.copyOf(longitudesE6, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        sizes = Arrays.copyOf(sizes, newCapacity);
+        difficulties = Arrays.copyOf(difficulties, newCapacity);
+        terrains = Arrays.copyOf(terrains, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        emojis = Arrays.copyOf(emojis, newCapacity);
+        listBits = Arrays.copyOf(listBits, newCapacity * listWords);
+    }
+
+    private int getBit(final int listId) {
+        final Integer existing = bitByListId.get(listId);
+        if (existing != null) {
+            return existing;
+        }
+        // reuse bits of lists which have been removed
+        final boolean[] used = new boolean[listWords * 64];
+        for (final Integer bit : bitByListId.values()) {
+            used[bit] = true;
+        }
+        int bit = 0;
+        while (bit < used.length && used[bit]) {
+            bit++;
+        }
+        if (bit == used.length) {
+            growListWords(listWords + 1);
+        }
+        bitByListId.put(listId, bit);
+        for (int row = 0; row < rows; row++) {
+            clearListBit(row, bit);
+        }
+        return bit;
+    }
+
+    private void growListWords(final int newListWords) {
+        final long[] newListBits = new long[geocodes.length * newListWords];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(listBits, row * listWords, newListBits, row * newListWords, listWords);
+        }
+        listBits = newListBits;
+        listWords = newListWords;
+    }
+
+    private void setLists(final int row, @NonNull final Collection<Integer> lists) {
+        Arrays.fill(listBits, row * listWords, (row + 1) * listWords, 0L);
+        for (final Integer listId : lists) {
+            setListBit(row, getBit(listId));
+        }
+    }
+
+    private boolean hasListBit(final int row, final int bit) {
+        return (listBits[row * listWords + (bit >> 6)] & (1L << (bit & 63))) != 0;
+    }
+
+    private void setListBit(final int row, final int bit) {
+        listBits[row * listWords + (bit >> 6)] |= 1L << (bit & 63);
+    }
+
+    private void clearListBit(final int row, final int bit) {
+        listBits[row * listWords + (bit >> 6)] &= ~(1L << (bit & 63));
+    }
+
+    /** returns bits of all real lists (ids from {@link StoredList#STANDARD_LIST_ID} on), excluding the temporary list */
+    @NonNull
+    private long[] getStoredListMask() {
+        final long[] mask = new long[listWords];
+        for (final Map.Entry<Integer, Integer> entry : bitByListId.entrySet()) {
+            if (entry.getKey() >= StoredList.STANDARD_LIST_ID) {
+                final int bit = entry.getValue();
+                mask[bit >> 6] |= 1L << (bit & 63);
+            }
+        }
+        return mask;
+    }
+
+    private boolean isOnAnyList(final int row, @NonNull final long[] mask) {
+        for (int word = 0; word < listWords; word++) {
+            if ((listBits[row * listWords + word] & mask[word]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
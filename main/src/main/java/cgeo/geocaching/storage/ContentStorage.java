@@ -51,6 +51,8 @@ import static org.apache.commons.io.IOUtils.closeQuietly;
  */
 public class ContentStorage {
 
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private final Context context;
     private final DocumentContentAccessor documentAccessor;
     private final FileContentAccessor fileAccessor;
@@ -462,7 +464,7 @@ public class ContentStorage {
                 success = false;
                 return null;
             }
-            IOUtils.copy(in, out);
+            IOUtils.copyLarge(in, out, new byte[COPY_BUFFER_SIZE]);
         } catch (Exception ie) {
             success = false;
             failureEx = ie;
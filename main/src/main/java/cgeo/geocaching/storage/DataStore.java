@@ -23,6 +23,7 @@ import cgeo.geocaching.location.DistanceUnit;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.log.LogSummary;
 import cgeo.geocaching.log.LogType;
 import cgeo.geocaching.log.LogTypeTrackable;
 import cgeo.geocaching.log.OfflineLogEntry;
@@ -34,7 +35,7 @@ import cgeo.geocaching.models.Route;
 import cgeo.geocaching.models.RouteItem;
 import cgeo.geocaching.models.RouteSegment;
 import cgeo.geocaching.models.Trackable;
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.models.bettercacher.Category;
 import cgeo.geocaching.models.bettercacher.Tier;
@@ -53,6 +54,7 @@ import cgeo.geocaching.utils.EmojiUtils;
 import cgeo.geocaching.utils.FileNameCreator;
 import cgeo.geocaching.utils.FileUtils;
 import cgeo.geocaching.utils.ImageUtils;
+import cgeo.geocaching.utils.LeastRecentlyUsedMap;
 import cgeo.geocaching.utils.LifecycleAwareBroadcastReceiver;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.TextUtils;
@@ -79,16 +81,20 @@ import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.database.sqlite.SQLiteStatement;
-import android.location.Location;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
+import androidx.core.util.Consumer;
 import androidx.core.util.Supplier;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -239,9 +245,24 @@ public class DataStore {
      * holds the column indexes of the cache table to avoid lookups
      */
     private static final CacheCache cacheCache = new CacheCache();
+    /**
+     * holds recently used log summaries (see {@link #loadLogSummary(String)})
+     */
+    private static final LeastRecentlyUsedMap<String, LogSummary> logSummaryCache = new LeastRecentlyUsedMap.LruCache<>(5000);
+    /**
+     * summary of all caches in database, loaded on first use (see {@link #getCacheSummaries()}).
+     * Guarded by {@link #cacheSummariesLock}
+     */
+    private static CacheSummaryTable cacheSummaries = null;
+    /** changes to cache summaries while they are being loaded, null if not loading. Guarded by {@link #cacheSummariesLock} */
+    private static List<Consumer<CacheSummaryTable>> cacheSummariesPendingUpdates = null;
+    private static boolean cacheSummariesInvalidatedWhileLoading = false;
+    private static final Object cacheSummariesLock = new Object();
+    /** serializes loading of cache summaries. Never held while waiting for {@link #cacheSummariesLock} from a transaction */
+    private static final Object cacheSummariesLoadLock = new Object();
     private static volatile SQLiteDatabase database = null;
     private static final ReentrantReadWriteLock databaseLock = new ReentrantReadWriteLock();
-    private static final int dbVersion = 103;
+    private static final int dbVersion = 105;
     public static final int customListIdOffset = 10;
 
     /**
@@ -280,7 +301,9 @@ public class DataStore {
             100, // add column "tier" and table for cache categories. Initially used for bettercacher.org data
             101, // add service_image_id to saved log images
             102,  // add projection attributes to waypoints
-            103   // add more projection attributes to waypoints
+            103,  // add more projection attributes to waypoints
+            104,  // add table cg_logsummary (derived data, validated against cg_logs on load)
+            105   // add content_hash to cg_logs (logs without hash are rewritten on next save)
     ));
 
     @NonNull private static final String dbTableCaches = "cg_caches";
@@ -316,6 +339,7 @@ public class DataStore {
         @NonNull public static final String dbFieldLogCount_Type = "type";
         @NonNull public static final String dbFieldLogCount_Count = "count";
     @NonNull private static final String dbTableLogImages = "cg_logImages";
+    @NonNull private static final String dbTableLogSummary = "cg_logsummary";
     @NonNull public static final String dbTableLogsOffline = "cg_logs_offline";
         @NonNull public static final String dbFieldLogsOffline_log = "log";
     @NonNull private static final String dbTableLogsOfflineImages = "cg_logs_offline_images";
@@ -471,7 +495,8 @@ public class DataStore {
             + dbFieldLogs_log + " TEXT, "
             + "date LONG, "
             + "found INTEGER NOT NULL DEFAULT 0, "
-            + "friend INTEGER "
+            + "friend INTEGER, "
+            + "content_hash TEXT" // added with db version 105
             + "); ";
 
     private static final String dbCreateLogCount = ""
@@ -482,6 +507,18 @@ public class DataStore {
             + dbFieldLogCount_Type + " INTEGER NOT NULL DEFAULT 4, "
             + dbFieldLogCount_Count + " INTEGER NOT NULL DEFAULT 0 "
             + "); ";
+    private static final String dbCreateLogSummary = ""
+            + "CREATE TABLE IF NOT EXISTS " + dbTableLogSummary + " ("
+            + dbField_Geocode + " TEXT PRIMARY KEY NOT NULL, "
+            + "updated LONG NOT NULL, " // date of save
+            + "user_name TEXT, " // user name used to determine own logs
+            + "log_count INTEGER NOT NULL DEFAULT 0, "
+            + "max_log_id INTEGER NOT NULL DEFAULT 0, " // together with log_count used to detect outdated summaries
+            + "last_found LONG NOT NULL DEFAULT 0, "
+            + "attended INTEGER NOT NULL DEFAULT 0, "
+            + "own_types TEXT, "
+            + "latest_types TEXT"
+            + "); ";
     private static final String dbCreateLogImages = ""
             + "CREATE TABLE IF NOT EXISTS " + dbTableLogImages + " ("
             + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
@@ -977,6 +1014,10 @@ public class DataStore {
         }
 
         cacheCache.removeAllFromCache();
+        synchronized (logSummaryCache) {
+            logSummaryCache.clear();
+        }
+        invalidateCacheSummaries();
         PreparedStatement.clearPreparedStatements();
         database.close();
         database = null;
@@ -1151,6 +1192,7 @@ public class DataStore {
             db.execSQL(dbCreateSpoilers);
             db.execSQL(dbCreateLogs);
             db.execSQL(dbCreateLogCount);
+            db.execSQL(dbCreateLogSummary);
             db.execSQL(dbCreateLogImages);
             db.execSQL(dbCreateLogsOffline);
             db.execSQL(dbCreateLogsOfflineImages);
@@ -1869,6 +1911,24 @@ public class DataStore {
                         }
                     }
 
+                    // Adds table for log summaries
+                    if (oldVersion < 104) {
+                        try {
+                            db.execSQL(dbCreateLogSummary);
+                        } catch (final SQLException e) {
+                            onUpgradeError(e, 104);
+                        }
+                    }
+
+                    // Adds content hash to logs
+                    if (oldVersion < 105) {
+                        try {
+                            createColumnIfNotExists(db, dbTableLogs, "content_hash TEXT");
+                        } catch (final SQLException e) {
+                            onUpgradeError(e, 105);
+                        }
+                    }
+
                 }
 
                 //at the very end of onUpgrade: rewrite downgradeable versions in database
@@ -1966,6 +2026,7 @@ public class DataStore {
             db.execSQL("DROP TABLE IF EXISTS " + dbTableSpoilers);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogs);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogCount);
+            db.execSQL("DROP TABLE IF EXISTS " + dbTableLogSummary);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogImages);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogsOffline);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogsOfflineImages);
@@ -2305,6 +2366,7 @@ public class DataStore {
 
                 database.update(dbTableCaches, values, "geocode = ?", new String[]{cache.getGeocode()});
                 database.setTransactionSuccessful();
+                updateCacheSummaries(summaries -> summaries.put(cache, true));
             } catch (final Exception e) {
                 Log.e("SaveResetCoords", e);
             } finally {
@@ -2410,6 +2472,7 @@ public class DataStore {
             final int rows = database.update(dbTableCaches, values, "geocode = ?", new String[]{cache.getGeocode()});
             if (rows == 1) {
                 database.setTransactionSuccessful();
+                updateCacheSummaries(summaries -> summaries.put(cache, true));
                 return true;
             }
         } catch (final Exception e) {
@@ -2505,6 +2568,8 @@ public class DataStore {
                     database.insert(dbTableCaches, null, values);
                 }
                 database.setTransactionSuccessful();
+                // lists are only added when storing a cache, never removed
+                updateCacheSummaries(summaries -> summaries.put(cache, true));
                 return true;
             } catch (final Exception e) {
                 Log.e("SaveCache", e);
@@ -2581,11 +2646,11 @@ public class DataStore {
     }
 
     /**
-     * Persists the given {@code location} into the database.
+     * Persists the given trail points into the database, in one transaction. Use {@link TrailHistoryWriter} to record trail points.
      *
-     * @param location a location to save
+     * @param points trail points to save
      */
-    public static void saveTrailpoint(final Location location) {
+    static void saveTrailpoints(final Trail points) {
         withAccessLock(() -> {
 
             init();
@@ -2593,11 +2658,13 @@ public class DataStore {
             database.beginTransaction();
             try {
                 final SQLiteStatement insertTrailpoint = PreparedStatement.INSERT_TRAILPOINT.getStatement();
-                insertTrailpoint.bindDouble(1, location.getLatitude());
-                insertTrailpoint.bindDouble(2, location.getLongitude());
-                insertTrailpoint.bindDouble(3, location.getAltitude());
-                insertTrailpoint.bindLong(4, System.currentTimeMillis());
-                insertTrailpoint.executeInsert();
+                for (int i = 0; i < points.size(); i++) {
+                    insertTrailpoint.bindDouble(1, points.getLatitude(i));
+                    insertTrailpoint.bindDouble(2, points.getLongitude(i));
+                    insertTrailpoint.bindDouble(3, points.getAltitude(i));
+                    insertTrailpoint.bindLong(4, points.getTimestamp(i));
+                    insertTrailpoint.executeInsert();
+                }
                 database.setTransactionSuccessful();
             } catch (final Exception e) {
                 Log.e("Updating trailHistory db failed", e);
@@ -2788,70 +2855,248 @@ public class DataStore {
         });
     }
 
+    /** the part of a stored log needed to compare it with a log to be saved */
+    private static final class StoredLog {
+        final long id;
+        final String serviceLogId;
+        final String contentHash;
+        final LogType logType;
+        final String author;
+        final long date;
+
+        StoredLog(final long id, final String serviceLogId, final String contentHash, final LogType logType, final String author, final long date) {
+            this.id = id;
+            this.serviceLogId = serviceLogId;
+            this.contentHash = contentHash;
+            this.logType = logType;
+            this.author = author;
+            this.date = date;
+        }
+    }
+
+    /**
+     * Saves the given logs of a cache or trackable by comparing them with the stored ones in one read of their ids and content hashes.
+     * Logs are matched by their service log id, and only new, changed and deleted logs (together with their images) are written.
+     *
+     * @param removeAllExistingLogs if true, the given logs are the complete set of logs, and all other stored logs are deleted.
+     *                              Otherwise only stored logs with same author, day and type as a given log are replaced.
+     */
     private static void saveLogsWithoutTransaction(final String geocode, final Iterable<LogEntry> logs, final boolean removeAllExistingLogs) {
         try (ContextLogger cLog = new ContextLogger("DataStore.saveLogsWithoutTransaction(%s)", geocode)) {
-            if (!logs.iterator().hasNext()) {
+            final List<LogEntry> newLogs = new ArrayList<>();
+            for (final LogEntry log : logs) {
+                newLogs.add(log);
+            }
+            if (newLogs.isEmpty()) {
                 return;
             }
-            // TODO delete logimages referring these logs
-            if (removeAllExistingLogs) {
-                database.delete(dbTableLogs, "geocode = ?", new String[]{geocode});
-            } else {
-                // instead of deleting all existing logs for this cache, try to merge
-                // by deleting only those from same author, same date, same logtype
-                final SQLiteStatement deleteLog = PreparedStatement.CLEAN_LOG.getStatement();
-                for (final LogEntry log : logs) {
-                    final ImmutablePair<Long, Long> dateRange = CalendarUtils.getStartAndEndOfDay(log.date);
-
-                    deleteLog.bindString(1, geocode);
-                    deleteLog.bindLong(2, dateRange.left);
-                    deleteLog.bindLong(3, dateRange.right);
-                    deleteLog.bindLong(4, log.logType.id);
-                    deleteLog.bindString(5, log.author);
-                    deleteLog.executeUpdateDelete();
+
+            final List<StoredLog> storedLogs = queryStoredLogs(geocode);
+            final Map<String, StoredLog> storedByServiceLogId = new HashMap<>();
+            for (final StoredLog stored : storedLogs) {
+                if (stored.serviceLogId != null) {
+                    storedByServiceLogId.put(stored.serviceLogId, stored);
                 }
             }
 
-            final SQLiteStatement insertLog = PreparedStatement.INSERT_LOG.getStatement();
             final long timestamp = System.currentTimeMillis();
-            int logCnt = 0;
+            final Set<Long> keptLogIds = new HashSet<>();
+            int insertCnt = 0;
+            int updateCnt = 0;
             int imgCnt = 0;
-            for (final LogEntry log : logs) {
-                logCnt++;
-                insertLog.bindString(1, geocode);
-                insertLog.bindLong(2, timestamp);
-                if (log.serviceLogId == null) {
-                    insertLog.bindNull(3);
-                } else {
-                    insertLog.bindString(3, log.serviceLogId);
+            for (final LogEntry log : newLogs) {
+                final StoredLog stored = log.serviceLogId == null ? null : storedByServiceLogId.remove(log.serviceLogId);
+                final String contentHash = getLogContentHash(log);
+                if (stored == null) {
+                    imgCnt += insertLogWithoutTransaction(geocode, log, contentHash, timestamp);
+                    insertCnt++;
+                    continue;
                 }
-                insertLog.bindLong(4, log.logType.id);
-                insertLog.bindString(5, log.author);
-                insertLog.bindString(6, log.authorGuid);
-                insertLog.bindString(7, log.log);
-                insertLog.bindLong(8, log.date);
-                insertLog.bindLong(9, log.found);
-                insertLog.bindLong(10, log.friend ? 1 : 0);
-                final long logId = insertLog.executeInsert();
-                if (log.hasLogImages()) {
-                    final SQLiteStatement insertImage = PreparedStatement.INSERT_LOG_IMAGE.getStatement();
-                    for (final Image img : log.logImages) {
-                        imgCnt++;
-                        insertImage.bindLong(1, logId);
-                        insertImage.bindString(2, StringUtils.defaultIfBlank(img.title, ""));
-                        insertImage.bindString(3, img.getUrl());
-                        insertImage.bindString(4, StringUtils.defaultIfBlank(img.getDescription(), ""));
-                        if (img.serviceImageId == null) {
-                            insertImage.bindNull(5);
-                        } else {
-                            insertImage.bindString(5, img.serviceImageId);
-                        }
-                        insertImage.executeInsert();
-                    }
+                keptLogIds.add(stored.id);
+                if (!contentHash.equals(stored.contentHash)) {
+                    imgCnt += updateLogWithoutTransaction(stored.id, log, contentHash, timestamp);
+                    updateCnt++;
+                }
+            }
+
+            int deleteCnt = 0;
+            for (final StoredLog stored : storedLogs) {
+                if (!keptLogIds.contains(stored.id) && (removeAllExistingLogs || isReplacedBy(stored, newLogs))) {
+                    deleteLogWithoutTransaction(stored.id);
+                    deleteCnt++;
                 }
             }
-            cLog.add("logs:%d, imgs:%d", logCnt, imgCnt);
+
+            updateLogSummaryWithoutTransaction(geocode);
+            cLog.add("logs:%d, new:%d, changed:%d, deleted:%d, imgs:%d", newLogs.size(), insertCnt, updateCnt, deleteCnt, imgCnt);
+        }
+    }
+
+    /** @return number of saved images */
+    private static int insertLogWithoutTransaction(final String geocode, final LogEntry log, final String contentHash, final long timestamp) {
+        final SQLiteStatement insertLog = PreparedStatement.INSERT_LOG.getStatement();
+        insertLog.bindString(1, geocode);
+        insertLog.bindLong(2, timestamp);
+        if (log.serviceLogId == null) {
+            insertLog.bindNull(3);
+        } else {
+            insertLog.bindString(3, log.serviceLogId);
+        }
+        insertLog.bindLong(4, log.logType.id);
+        insertLog.bindString(5, log.author);
+        insertLog.bindString(6, log.authorGuid);
+        insertLog.bindString(7, log.log);
+        insertLog.bindLong(8, log.date);
+        insertLog.bindLong(9, log.found);
+        insertLog.bindLong(10, log.friend ? 1 : 0);
+        insertLog.bindString(11, contentHash);
+        return insertLogImagesWithoutTransaction(insertLog.executeInsert(), log);
+    }
+
+    /** @return number of saved images */
+    private static int updateLogWithoutTransaction(final long logId, final LogEntry log, final String contentHash, final long timestamp) {
+        final SQLiteStatement updateLog = PreparedStatement.UPDATE_LOG.getStatement();
+        updateLog.bindLong(1, timestamp);
+        updateLog.bindLong(2, log.logType.id);
+        updateLog.bindString(3, log.author);
+        updateLog.bindString(4, log.authorGuid);
+        updateLog.bindString(5, log.log);
+        updateLog.bindLong(6, log.date);
+        updateLog.bindLong(7, log.found);
+        updateLog.bindLong(8, log.friend ? 1 : 0);
+        updateLog.bindString(9, contentHash);
+        updateLog.bindLong(10, logId);
+        updateLog.executeUpdateDelete();
+
+        final SQLiteStatement deleteImages = PreparedStatement.REMOVE_LOG_IMAGES.getStatement();
+        deleteImages.bindLong(1, logId);
+        deleteImages.executeUpdateDelete();
+        return insertLogImagesWithoutTransaction(logId, log);
+    }
+
+    private static void deleteLogWithoutTransaction(final long logId) {
+        final SQLiteStatement deleteImages = PreparedStatement.REMOVE_LOG_IMAGES.getStatement();
+        deleteImages.bindLong(1, logId);
+        deleteImages.executeUpdateDelete();
+
+        final SQLiteStatement deleteLog = PreparedStatement.REMOVE_LOG.getStatement();
+        deleteLog.bindLong(1, logId);
+        deleteLog.executeUpdateDelete();
+    }
+
+    private static int insertLogImagesWithoutTransaction(final long logId, final LogEntry log) {
+        if (!log.hasLogImages()) {
+            return 0;
+        }
+        final SQLiteStatement insertImage = PreparedStatement.INSERT_LOG_IMAGE.getStatement();
+        for (final Image img : log.logImages) {
+            insertImage.bindLong(1, logId);
+            insertImage.bindString(2, StringUtils.defaultIfBlank(img.title, ""));
+            insertImage.bindString(3, img.getUrl());
+            insertImage.bindString(4, StringUtils.defaultIfBlank(img.getDescription(), ""));
+            if (img.serviceImageId == null) {
+                insertImage.bindNull(5);
+            } else {
+                insertImage.bindString(5, img.serviceImageId);
+            }
+            insertImage.executeInsert();
+        }
+        return log.logImages.size();
+    }
+
+    /** reads id, service log id, content hash and the fields needed for {@link #isReplacedBy(StoredLog, List)} of the stored logs of a geocode */
+    @NonNull
+    private static List<StoredLog> queryStoredLogs(final String geocode) {
+        final List<StoredLog> logs = new ArrayList<>();
+        try (Cursor cursor = database.rawQuery("SELECT _id, service_log_id, content_hash, type, author, date FROM " + dbTableLogs + " WHERE geocode = ?", new String[]{geocode})) {
+            while (cursor.moveToNext()) {
+                logs.add(new StoredLog(cursor.getLong(0), cursor.getString(1), cursor.getString(2), LogType.getById(cursor.getInt(3)), cursor.getString(4), cursor.getLong(5)));
+            }
         }
+        return logs;
+    }
+
+    /** @return a hash over everything which is saved for the given log (besides geocode and service log id), including its images */
+    @NonNull
+    private static String getLogContentHash(final LogEntry log) {
+        final StringBuilder content = new StringBuilder()
+                .append(log.logType.id).append('\0').append(log.author).append('\0').append(log.authorGuid).append('\0').append(log.log)
+                .append('\0').append(log.date).append('\0').append(log.found).append('\0').append(log.friend);
+        for (final Image image : log.logImages) {
+            content.append('\0').append(image.getUrl()).append('\0').append(StringUtils.defaultIfBlank(image.title, ""))
+                    .append('\0').append(StringUtils.defaultIfBlank(image.getDescription(), "")).append('\0').append(image.serviceImageId);
+        }
+        try {
+            return new BigInteger(1, MessageDigest.getInstance("SHA-1").digest(content.toString().getBytes(StandardCharsets.UTF_8))).toString(16);
+        } catch (final NoSuchAlgorithmException e) {
+            Log.e("DataStore.getLogContentHash", e);
+            return String.valueOf(content.toString().hashCode());
+        }
+    }
+
+    /** @return true if one of the given logs has same author, day and log type as the stored log */
+    private static boolean isReplacedBy(final StoredLog stored, final List<LogEntry> logs) {
+        for (final LogEntry log : logs) {
+            if (log.logType == stored.logType && log.author.equals(stored.author)) {
+                final ImmutablePair<Long, Long> dateRange = CalendarUtils.getStartAndEndOfDay(log.date);
+                if (stored.date >= dateRange.left && stored.date <= dateRange.right) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * calculates the log summary of a cache from its stored logs, without writing anything
+     */
+    @NonNull
+    private static LogSummary calculateLogSummary(final String geocode, @Nullable final String userName) {
+        final LogSummary.Builder builder = new LogSummary.Builder(userName);
+        final Cursor cursor = database.rawQuery("SELECT type, author, date FROM " + dbTableLogs + " WHERE geocode = ? ORDER BY date DESC, _id ASC", new String[]{geocode});
+        try {
+            while (cursor.moveToNext()) {
+                builder.addLog(LogType.getById(cursor.getInt(0)), cursor.getString(1), cursor.getLong(2));
+            }
+        } finally {
+            cursor.close();
+        }
+        return builder.build();
+    }
+
+    /**
+     * recalculates the log summary of a cache after its logs were saved. The summary is persisted for stored caches
+     * only, summaries of other caches and trackables are calculated on demand in {@link #loadLogSummary(String)}.
+     */
+    private static void updateLogSummaryWithoutTransaction(final String geocode) {
+        // memory cache is filled on next load, as the surrounding transaction might still fail
+        synchronized (logSummaryCache) {
+            logSummaryCache.remove(geocode);
+        }
+        if (DatabaseUtils.queryNumEntries(database, dbTableCachesLists, "geocode = ? AND list_id >= " + StoredList.STANDARD_LIST_ID, new String[]{geocode}) == 0) {
+            database.delete(dbTableLogSummary, "geocode = ?", new String[]{geocode});
+            return;
+        }
+
+        final String userName = Settings.getUserName();
+        final LogSummary summary = calculateLogSummary(geocode, userName);
+        final long maxLogId = DatabaseUtils.longForQuery(database, "SELECT IFNULL(MAX(_id), 0) FROM " + dbTableLogs + " WHERE geocode = ?", new String[]{geocode});
+
+        final SQLiteStatement insertSummary = PreparedStatement.INSERT_LOG_SUMMARY.getStatement();
+        insertSummary.bindString(1, geocode);
+        insertSummary.bindLong(2, System.currentTimeMillis());
+        if (userName == null) {
+            insertSummary.bindNull(3);
+        } else {
+            insertSummary.bindString(3, userName);
+        }
+        insertSummary.bindLong(4, summary.logCount);
+        insertSummary.bindLong(5, maxLogId);
+        insertSummary.bindLong(6, summary.lastFoundDate);
+        insertSummary.bindLong(7, summary.hasAttendedLog ? 1 : 0);
+        insertSummary.bindString(8, summary.getOwnLogTypesAsString());
+        insertSummary.bindString(9, summary.getLatestLogTypesAsString());
+        insertSummary.executeInsert();
     }
 
     private static void saveLogCountsWithoutTransaction(final Geocache cache) {
@@ -3532,46 +3777,45 @@ public class DataStore {
      * Loads the trail history from the database, limited to allowed MAX_TRAILHISTORY_LENGTH
      * Trail is returned in chronological order, oldest entry first.
      *
-     * @return A list of previously trail points or an empty list.
+     * Use {@link TrailHistoryWriter#load()} to include points not yet written.
+     *
+     * @return previously recorded trail points, possibly empty
      */
     @NonNull
-    public static ArrayList<TrailHistoryElement> loadTrailHistory() {
-        return withAccessLock(() -> {
+    static Trail loadTrailHistory() {
+        return loadTrailHistory(DbHelper.MAX_TRAILHISTORY_LENGTH);
+    }
 
-            final ArrayList<TrailHistoryElement> temp = queryToColl(dbTableTrailHistory,
-                    new String[]{"_id", "latitude", "longitude", "altitude", "timestamp"},
-                    "latitude IS NOT NULL AND longitude IS NOT NULL",
-                    null,
-                    "_id DESC",
-                    String.valueOf(DbHelper.MAX_TRAILHISTORY_LENGTH),
-                    new ArrayList<>(),
-                    cursor -> new TrailHistoryElement(cursor.getDouble(1), cursor.getDouble(2), cursor.getDouble(3), cursor.getLong(4))
-            );
-            Collections.reverse(temp);
-            return temp;
-        });
+    /**
+     * Loads the complete trail history from the database, oldest entry first.
+     * Use {@link TrailHistoryWriter#loadAll()} to include points not yet written.
+     */
+    @NonNull
+    static Trail loadCompleteTrailHistory() {
+        return loadTrailHistory(Integer.MAX_VALUE);
     }
 
-    public static TrailHistoryElement[] loadTrailHistoryAsArray() {
+    @NonNull
+    private static Trail loadTrailHistory(final int maxPoints) {
         return withAccessLock(() -> {
 
             init();
-            final Cursor cursor = database.query(dbTableTrailHistory, new String[]{"_id", "latitude", "longitude", "altitude", "timestamp"}, "latitude IS NOT NULL AND longitude IS NOT NULL", null, null, null, "_id ASC", null);
-            final TrailHistoryElement[] result = new TrailHistoryElement[cursor.getCount()];
-            int iPosition = 0;
-            try {
+            // select the latest points, but read them in chronological order
+            try (Cursor cursor = database.rawQuery("SELECT latitude, longitude, altitude, timestamp FROM (SELECT _id, latitude, longitude, altitude, timestamp FROM " + dbTableTrailHistory
+                    + " WHERE latitude IS NOT NULL AND longitude IS NOT NULL ORDER BY _id DESC LIMIT " + maxPoints + ") ORDER BY _id ASC", null)) {
+                final Trail trail = new Trail(cursor.getCount());
                 while (cursor.moveToNext()) {
-                    result[iPosition] = new TrailHistoryElement(cursor.getDouble(1), cursor.getDouble(2), cursor.getDouble(3), cursor.getLong(4));
-                    iPosition++;
+                    trail.add(cursor.getDouble(0), cursor.getDouble(1), cursor.getDouble(2), cursor.getLong(3));
                 }
-            } finally {
-                cursor.close();
+                return trail;
             }
-            return result;
         });
     }
 
-    public static boolean clearTrailHistory() {
+    /**
+     * Removes all trail points from the database. Use {@link TrailHistoryWriter#clear()} to also remove points not yet written.
+     */
+    static boolean clearTrailHistory() {
         return withAccessLock(() -> {
 
             init();
@@ -3732,6 +3976,49 @@ public class DataStore {
     }
 
 
+    /** reads stored logs (including their images) of a geocode, newest first */
+    @NonNull
+    private static List<LogEntry> queryLogs(final String geocode, final int maxLogs) {
+        final List<LogEntry> logs = new ArrayList<>();
+        final Cursor cursor = database.rawQuery(
+                //                     0           1               2     3       4            5    6     7      8                                       9                10      11     12   13           14
+                "SELECT cg_logs._id AS cg_logs_id, service_log_id, type, author, author_guid, log, date, found, friend, " + dbTableLogImages + "._id as cg_logImages_id, log_id, title, url, description, service_image_id"
+                        + " FROM " + dbTableLogs + " LEFT OUTER JOIN " + dbTableLogImages
+                        + " ON ( cg_logs._id = log_id ) WHERE geocode = ?  ORDER BY date DESC, cg_logs._id ASC, cg_logImages_id ASC", new String[]{geocode});
+
+        LogEntry.Builder log = null;
+        while (cursor.moveToNext() && logs.size() < maxLogs) {
+            if (log == null || log.getId() != cursor.getInt(0)) {
+                // Start of a new log entry group (we may have several entries if the log has several images).
+                if (log != null) {
+                    logs.add(log.build());
+                }
+                log = new LogEntry.Builder()
+                        .setId(cursor.getInt(0))
+                        .setServiceLogId(cursor.getString(1))
+                        .setLogType(LogType.getById(cursor.getInt(2)))
+                        .setAuthor(cursor.getString(3))
+                        .setAuthorGuid(cursor.getString(4))
+                        .setLog(cursor.getString(5))
+                        .setDate(cursor.getLong(6))
+                        .setFound(cursor.getInt(7))
+                        .setFriend(cursor.getInt(8) == 1);
+                if (!cursor.isNull(9)) {
+                    log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).setServiceImageId(cursor.getString(14)).build());
+                }
+            } else {
+                // We cannot get several lines for the same log entry if it does not contain an image.
+                log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).setServiceImageId(cursor.getString(14)).build());
+            }
+        }
+        if (log != null) {
+            logs.add(log.build());
+        }
+
+        cursor.close();
+        return logs;
+    }
+
     /**
      * @return an immutable, non null list of logs
      */
@@ -3740,57 +4027,63 @@ public class DataStore {
         return withAccessLock(() -> {
 
             try (ContextLogger cLog = new ContextLogger("DataStore.loadLogs(%s)", geocode)) {
-                final List<LogEntry> logs = new ArrayList<>();
-
                 if (StringUtils.isBlank(geocode)) {
-                    return logs;
+                    return Collections.emptyList();
                 }
 
                 init();
 
-                final Cursor cursor = database.rawQuery(
-                        //                     0           1               2     3       4            5    6     7      8                                       9                10      11     12   13           14
-                        "SELECT cg_logs._id AS cg_logs_id, service_log_id, type, author, author_guid, log, date, found, friend, " + dbTableLogImages + "._id as cg_logImages_id, log_id, title, url, description, service_image_id"
-                                + " FROM " + dbTableLogs + " LEFT OUTER JOIN " + dbTableLogImages
-                                + " ON ( cg_logs._id = log_id ) WHERE geocode = ?  ORDER BY date DESC, cg_logs._id ASC", new String[]{geocode});
-
-                LogEntry.Builder log = null;
-                int cnt = 0;
-                while (cursor.moveToNext() && logs.size() < 100) {
-                    cnt++;
-                    if (log == null || log.getId() != cursor.getInt(0)) {
-                        // Start of a new log entry group (we may have several entries if the log has several images).
-                        if (log != null) {
-                            logs.add(log.build());
-                        }
-                        log = new LogEntry.Builder()
-                                .setId(cursor.getInt(0))
-                                .setServiceLogId(cursor.getString(1))
-                                .setLogType(LogType.getById(cursor.getInt(2)))
-                                .setAuthor(cursor.getString(3))
-                                .setAuthorGuid(cursor.getString(4))
-                                .setLog(cursor.getString(5))
-                                .setDate(cursor.getLong(6))
-                                .setFound(cursor.getInt(7))
-                                .setFriend(cursor.getInt(8) == 1);
-                        if (!cursor.isNull(9)) {
-                            log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).setServiceImageId(cursor.getString(14)).build());
-                        }
-                    } else {
-                        // We cannot get several lines for the same log entry if it does not contain an image.
-                        log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).setServiceImageId(cursor.getString(14)).build());
-                    }
-                }
-                if (log != null) {
-                    logs.add(log.build());
-                }
+                final List<LogEntry> logs = queryLogs(geocode, 100);
+                cLog.add("#:%d", logs.size());
 
-                cursor.close();
+                return Collections.unmodifiableList(logs);
+            }
+        });
+    }
 
-                cLog.add("l:%d,#:%d", cnt, logs.size());
+    /**
+     * Loads the summary of stored logs of a cache. This is much cheaper than {@link #loadLogs(String)} and should be preferred
+     * whenever only summary information is needed (e.g. for map markers, cache list or filters).
+     */
+    @NonNull
+    public static LogSummary loadLogSummary(final String geocode) {
+        if (StringUtils.isBlank(geocode)) {
+            return LogSummary.EMPTY;
+        }
+        final String userName = Settings.getUserName();
+        synchronized (logSummaryCache) {
+            final LogSummary cached = logSummaryCache.get(geocode);
+            if (cached != null && cached.isValidFor(userName)) {
+                return cached;
+            }
+        }
 
-                return Collections.unmodifiableList(logs);
+        return withAccessLock(() -> {
+
+            init();
+
+            LogSummary summary = null;
+            final Cursor cursor = database.rawQuery("SELECT s.user_name, s.log_count, s.last_found, s.attended, s.own_types, s.latest_types"
+                    + " FROM " + dbTableLogSummary + " s WHERE s.geocode = ?"
+                    + " AND s.log_count = (SELECT COUNT(*) FROM " + dbTableLogs + " l WHERE l.geocode = s.geocode)"
+                    + " AND s.max_log_id = (SELECT IFNULL(MAX(l._id), 0) FROM " + dbTableLogs + " l WHERE l.geocode = s.geocode)", new String[]{geocode});
+            try {
+                if (cursor.moveToFirst()) {
+                    summary = LogSummary.fromStorage(cursor.getString(0), cursor.getInt(1), cursor.getLong(2), cursor.getInt(3) == 1, cursor.getString(4), cursor.getString(5));
+                }
+            } finally {
+                cursor.close();
+            }
+
+            if (summary == null || !summary.isValidFor(userName)) {
+                // summary is missing (e.g. cache not stored or logs stored with previous version) or outdated.
+                // Calculated in memory only, this might be called on the UI thread and outside of any transaction
+                summary = calculateLogSummary(geocode, userName);
+            }
+            synchronized (logSummaryCache) {
+                logSummaryCache.put(geocode, summary);
             }
+            return summary;
         });
     }
 
@@ -4142,25 +4435,12 @@ public class DataStore {
                 geocodes.addAll(cacheCache.getInViewport(viewport));
             }
 
-            // viewport limitation
-            final StringBuilder selection = buildCoordinateWhere(dbTableCaches, viewport);
-
-            // offline caches only
-            if (stored) {
-                selection.append(" AND geocode IN (SELECT geocode FROM " + dbTableCachesLists + " WHERE list_id >= " + StoredList.STANDARD_LIST_ID + ")");
-            }
-
             cLog.add("gc" + cLog.toStringLimited(geocodes, 10));
 
             try {
-                final SearchResult sr = new SearchResult(queryToColl(dbTableCaches,
-                        new String[]{"geocode"},
-                        selection.toString(),
-                        null,
-                        null,
-                        "500",
-                        geocodes,
-                        GET_STRING_0));
+                // database caches are looked up in the in-memory summary instead of querying the database
+                geocodes.addAll(getCacheSummaries().getInViewport(viewport.resize(1.5), stored, 500));
+                final SearchResult sr = new SearchResult(geocodes);
                 cLog.addReturnValue(sr.getCount());
                 return sr;
 
@@ -4172,6 +4452,111 @@ public class DataStore {
         }
     }
 
+    /**
+     * Returns the summary of all caches stored in the database. The summary is loaded on first use and kept
+     * in sync with the database afterwards.
+     */
+    @NonNull
+    public static CacheSummaryTable getCacheSummaries() {
+        return withAccessLock(() -> {
+            synchronized (cacheSummariesLoadLock) {
+                synchronized (cacheSummariesLock) {
+                    if (cacheSummaries != null) {
+                        return cacheSummaries;
+                    }
+                    cacheSummariesPendingUpdates = new ArrayList<>();
+                    cacheSummariesInvalidatedWhileLoading = false;
+                }
+                // the query must not run while holding cacheSummariesLock, as writers wait for it inside of transactions.
+                // Changes made meanwhile are replayed afterwards (all changes are idempotent)
+                CacheSummaryTable summaries = null;
+                try {
+                    summaries = loadCacheSummaries();
+                } finally {
+                    synchronized (cacheSummariesLock) {
+                        if (summaries != null) {
+                            for (final Consumer<CacheSummaryTable> update : cacheSummariesPendingUpdates) {
+                                update.accept(summaries);
+                            }
+                            if (!cacheSummariesInvalidatedWhileLoading) {
+                                cacheSummaries = summaries;
+                            }
+                        }
+                        cacheSummariesPendingUpdates = null;
+                    }
+                }
+                return summaries;
+            }
+        });
+    }
+
+    @NonNull
+    private static CacheSummaryTable loadCacheSummaries() {
+        try (ContextLogger cLog = new ContextLogger("DataStore.loadCacheSummaries()")) {
+            init();
+            final CacheSummaryTable summaries = new CacheSummaryTable();
+            try (Cursor cursor = database.rawQuery("SELECT geocode, " + dbField_latitude + ", " + dbField_longitude + ", " + dbFieldCaches_type + ", size, difficulty, terrain, "
+                    + dbFieldCaches_disabled + ", " + dbFieldCaches_archived + ", " + dbFieldCaches_members + ", " + dbFieldCaches_found + ", " + dbFieldCaches_favourite + ", "
+                    + dbFieldCaches_onWatchList + ", " + dbFieldCaches_coordsChanged + ", finalDefined, emoji, "
+                    + "(SELECT GROUP_CONCAT(" + dbFieldCachesLists_list_id + ") FROM " + dbTableCachesLists + " WHERE " + dbTableCachesLists + ".geocode = " + dbTableCaches + ".geocode)"
+                    + " FROM " + dbTableCaches, null)) {
+                final List<Integer> lists = new ArrayList<>();
+                while (cursor.moveToNext()) {
+                    final String geocode = cursor.getString(0);
+                    final boolean supportsDT = ConnectorFactory.getConnector(geocode).supportsDifficultyTerrain();
+                    final boolean archived = cursor.getInt(8) == 1;
+                    int flags = 0;
+                    flags |= !archived && cursor.getInt(7) == 1 ? CacheSummaryTable.FLAG_DISABLED : 0;
+                    flags |= archived ? CacheSummaryTable.FLAG_ARCHIVED : 0;
+                    flags |= cursor.getInt(9) == 1 ? CacheSummaryTable.FLAG_PREMIUM : 0;
+                    flags |= cursor.getInt(10) == 1 ? CacheSummaryTable.FLAG_FOUND : 0;
+                    flags |= cursor.getInt(10) == -1 ? CacheSummaryTable.FLAG_DNF : 0;
+                    flags |= cursor.getInt(11) == 1 ? CacheSummaryTable.FLAG_FAVORITE : 0;
+                    flags |= cursor.getInt(12) == 1 ? CacheSummaryTable.FLAG_ON_WATCHLIST : 0;
+                    flags |= cursor.getInt(13) > 0 ? CacheSummaryTable.FLAG_USER_MODIFIED_COORDS : 0;
+                    flags |= cursor.getInt(14) > 0 ? CacheSummaryTable.FLAG_FINAL_DEFINED : 0;
+                    lists.clear();
+                    if (!cursor.isNull(16)) {
+                        for (final String listId : StringUtils.split(cursor.getString(16), ',')) {
+                            lists.add(Integer.parseInt(listId));
+                        }
+                    }
+                    summaries.put(geocode, getCoords(cursor, 1, 2), CacheType.getById(cursor.getString(3)), CacheSize.getById(cursor.getString(4)),
+                            supportsDT ? cursor.getFloat(5) : -1, supportsDT ? cursor.getFloat(6) : -1, flags, cursor.getInt(15), lists);
+                }
+            }
+            cLog.addReturnValue(summaries.size());
+            return summaries;
+        }
+    }
+
+    /** applies a change to the cache summaries, if they are loaded already. Must be called after the database change */
+    private static void updateCacheSummaries(@NonNull final Consumer<CacheSummaryTable> update) {
+        synchronized (cacheSummariesLock) {
+            if (cacheSummaries != null) {
+                update.accept(cacheSummaries);
+            } else if (cacheSummariesPendingUpdates != null) {
+                cacheSummariesPendingUpdates.add(update);
+            }
+        }
+    }
+
+    private static void updateCacheSummaryLists(@NonNull final Collection<Geocache> caches) {
+        updateCacheSummaries(summaries -> {
+            for (final Geocache cache : caches) {
+                summaries.setLists(cache.getGeocode(), cache.getLists());
+            }
+        });
+    }
+
+    /** drops cache summaries, they are reloaded on next use */
+    private static void invalidateCacheSummaries() {
+        synchronized (cacheSummariesLock) {
+            cacheSummaries = null;
+            cacheSummariesInvalidatedWhileLoading = cacheSummariesPendingUpdates != null;
+        }
+    }
+
     /**
      * Remove caches which are not on any list in the background. Once it has been executed once it will not do anything.
      * This must be called from the UI thread to ensure synchronization of an internal variable.
@@ -4264,6 +4649,9 @@ public class DataStore {
         Log.d("Database clean: removing non-existing caches from logcount");
         database.delete(dbTableLogCount, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
 
+        Log.d("Database clean: removing non-existing caches from logsummary");
+        database.delete(dbTableLogSummary, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
+
         DBLogOfflineUtils.cleanOrphanedRecords(database);
 
         Log.d("Database clean: removing non-existing caches from logs");
@@ -4272,6 +4660,11 @@ public class DataStore {
         Log.d("Database clean: removing non-existing logs from logimages");
         database.delete(dbTableLogImages, "log_id NOT IN (SELECT _id FROM " + dbTableLogs + ")", null);
 
+        // summaries of removed logs must not be served from memory any longer
+        synchronized (logSummaryCache) {
+            logSummaryCache.clear();
+        }
+
         Log.d("Database clean: remove non-existing extension values");
         final DBExtensionType[] extensionValues = DBExtensionType.values();
         if (extensionValues.length > 0) {
@@ -4282,6 +4675,9 @@ public class DataStore {
             database.delete(dbTableExtension, "_type NOT IN (" + type + ")", null);
         }
         database.delete(dbTableExtension, "_type=" + DBEXTENSION_INVALID.id, null);
+
+        // list memberships may have changed
+        invalidateCacheSummaries();
     }
 
     private static void deleteOrphanedUDC() {
@@ -4423,6 +4819,7 @@ public class DataStore {
                     database.delete(dbTableLogImages, "log_id IN (SELECT _id FROM " + dbTableLogs + " WHERE " + baseWhereClause + ")", null);
                     database.delete(dbTableLogs, baseWhereClause, null);
                     database.delete(dbTableLogCount, baseWhereClause, null);
+                    database.delete(dbTableLogSummary, baseWhereClause, null);
                     DBLogOfflineUtils.remove(database, baseWhereClause, null);
                     String wayPointClause = baseWhereClause;
                     if (!removeFlags.contains(RemoveFlag.OWN_WAYPOINTS_ONLY_FOR_TESTING)) {
@@ -4436,6 +4833,12 @@ public class DataStore {
                 } finally {
                     database.endTransaction();
                 }
+                synchronized (logSummaryCache) {
+                    for (final String geocode : geocodes) {
+                        logSummaryCache.remove(geocode);
+                    }
+                }
+                updateCacheSummaries(summaries -> summaries.remove(geocodes));
 
                 // Delete cache directories
                 for (final String geocode : geocodes) {
@@ -4673,6 +5076,9 @@ public class DataStore {
                 }
 
                 database.setTransactionSuccessful();
+                if (status) {
+                    updateCacheSummaries(summaries -> summaries.moveAll(listId, StoredList.STANDARD_LIST_ID));
+                }
             } finally {
                 database.endTransaction();
             }
@@ -4776,6 +5182,7 @@ public class DataStore {
                     cache.getLists().add(newListId);
                 }
                 database.setTransactionSuccessful();
+                updateCacheSummaryLists(caches);
             } finally {
                 database.endTransaction();
             }
@@ -4798,6 +5205,7 @@ public class DataStore {
                     cache.getLists().remove(oldListId);
                 }
                 database.setTransactionSuccessful();
+                updateCacheSummaryLists(caches);
             } finally {
                 database.endTransaction();
             }
@@ -4832,6 +5240,7 @@ public class DataStore {
                     cache.getLists().add(listId);
                 }
                 database.setTransactionSuccessful();
+                updateCacheSummaryLists(caches);
             } finally {
                 database.endTransaction();
             }
@@ -4872,6 +5281,7 @@ public class DataStore {
                     }
                 }
                 database.setTransactionSuccessful();
+                updateCacheSummaryLists(caches);
             } finally {
                 database.endTransaction();
             }
@@ -4904,6 +5314,11 @@ public class DataStore {
 
                 }
                 database.setTransactionSuccessful();
+                updateCacheSummaries(summaries -> {
+                    for (final Map.Entry<String, Set<Integer>> entry : cachesLists.entrySet()) {
+                        summaries.addLists(entry.getKey(), entry.getValue());
+                    }
+                });
             } finally {
                 database.endTransaction();
             }
@@ -4928,6 +5343,11 @@ public class DataStore {
                     cache.setAssignedEmoji(newCacheIcon);
                 }
                 database.setTransactionSuccessful();
+                updateCacheSummaries(summaries -> {
+                    for (final Geocache cache : caches) {
+                        summaries.setEmoji(cache.getGeocode(), newCacheIcon);
+                    }
+                });
             } finally {
                 database.endTransaction();
             }
@@ -4958,6 +5378,11 @@ public class DataStore {
                     cache.setAssignedEmoji(newCacheIcon == null ? 0 : newCacheIcon);
                 }
                 database.setTransactionSuccessful();
+                updateCacheSummaries(summaries -> {
+                    for (final Geocache cache : caches) {
+                        summaries.setEmoji(cache.getGeocode(), cache.getAssignedEmoji());
+                    }
+                });
             } finally {
                 database.endTransaction();
             }
@@ -5150,13 +5575,16 @@ public class DataStore {
         UPDATE_VISIT_DATE("UPDATE " + dbTableCaches + " SET visiteddate = ? WHERE geocode = ?"),
         INSERT_LOG_IMAGE("INSERT INTO " + dbTableLogImages + " (log_id, title, url, description, service_image_id) VALUES (?, ?, ?, ?, ?)"),
         INSERT_LOG_COUNTS("INSERT INTO " + dbTableLogCount + " (geocode, updated, type, count) VALUES (?, ?, ?, ?)"),
+        INSERT_LOG_SUMMARY("INSERT OR REPLACE INTO " + dbTableLogSummary + " (geocode, updated, user_name, log_count, max_log_id, last_found, attended, own_types, latest_types) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
         INSERT_SPOILER("INSERT INTO " + dbTableSpoilers + " (geocode, updated, url, title, description) VALUES (?, ?, ?, ?, ?)"),
         REMOVE_SPOILERS("DELETE FROM " + dbTableSpoilers + " WHERE geocode = ?"),
         OFFLINE_LOG_ID_OF_GEOCODE("SELECT _id FROM " + dbTableLogsOffline + " WHERE geocode = ?"),
         COUNT_CACHES_ON_STANDARD_LIST("SELECT COUNT(geocode) FROM " + dbTableCachesLists + " WHERE list_id = " + StoredList.STANDARD_LIST_ID),
         COUNT_ALL_CACHES("SELECT COUNT(DISTINCT(geocode)) FROM " + dbTableCachesLists + " WHERE list_id >= " + StoredList.STANDARD_LIST_ID),
-        INSERT_LOG("INSERT INTO " + dbTableLogs + " (geocode, updated, service_log_id, type, author, author_guid, log, date, found, friend) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
-        CLEAN_LOG("DELETE FROM " + dbTableLogs + " WHERE geocode = ? AND date >= ? AND date <= ? AND type = ? AND author = ?"),
+        INSERT_LOG("INSERT INTO " + dbTableLogs + " (geocode, updated, service_log_id, type, author, author_guid, log, date, found, friend, content_hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        UPDATE_LOG("UPDATE " + dbTableLogs + " SET updated = ?, type = ?, author = ?, author_guid = ?, log = ?, date = ?, found = ?, friend = ?, content_hash = ? WHERE _id = ?"),
+        REMOVE_LOG("DELETE FROM " + dbTableLogs + " WHERE _id = ?"),
+        REMOVE_LOG_IMAGES("DELETE FROM " + dbTableLogImages + " WHERE log_id = ?"),
         INSERT_ATTRIBUTE("INSERT INTO " + dbTableAttributes + " (geocode, updated, attribute) VALUES (?, ?, ?)"),
         INSERT_CATEGORY("INSERT INTO " + dbTableCategories + " (geocode, category) VALUES (?, ?)"),
         ADD_TO_LIST("INSERT OR REPLACE INTO " + dbTableCachesLists + " (list_id, geocode) VALUES (?, ?)"),
@@ -5244,6 +5672,7 @@ public class DataStore {
                 clearLogsOffline(caches);
 
                 database.setTransactionSuccessful();
+                updateCacheSummaryLists(caches);
             } finally {
                 database.endTransaction();
             }
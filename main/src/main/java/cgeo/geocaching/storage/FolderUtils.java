@@ -31,6 +31,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -41,6 +42,11 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -64,6 +70,13 @@ public class FolderUtils {
     private static final int COPY_FLAG_DIR_BEFORE = 1;
     private static final int COPY_FLAG_DIR_NEEDED_FOR_TARGET = 2;
 
+    /** buffer size used for a single file copy */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    /** maximum number of files copied in parallel */
+    private static final int COPY_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    /** suffix of temporary files used while synchronizing, leftovers are removed on next sync like any file not in source */
+    private static final String TEMP_FILE_SUFFIX = "._cgeoSyncTemp";
+
     private final ContentStorage pls = ContentStorage.get();
 
     private static final FolderUtils INSTANCE = new FolderUtils();
@@ -251,6 +264,9 @@ public class FolderUtils {
      * Files in target which are not also in source will be deleted on sync.
      *
      * Only files are synchronized. Necessary (sub)folder in target are created on need but not explicitely maintained.
+     * Files in need of copying are copied in parallel using a bounded worker pool. A changed file is first copied to a
+     * temporary file which then replaces the target file, so target files are never lost if copying fails.
+     * Status listener is informed about copied bytes and throughput (see {@link FolderProcessStatus}).
      *
      * This implementation does NOT support overlapping source and target folders. If such parameters
      * are given, then behaviour is undefined.
@@ -263,84 +279,112 @@ public class FolderUtils {
      */
     public FolderProcessResult synchronizeFolder(final Folder source, final File target, final Predicate<ContentStorage.FileInformation> sourceFilter, final AtomicBoolean cancelFlag, final Consumer<FolderProcessStatus> statusListener) {
 
-        sendCopyStatus(statusListener, null, 0, 0, null);
+        try (ContextLogger cLog = new ContextLogger("FolderUtils.synchronizeFolder: %s -> %s", source, target)) {
 
-        final FolderInfo sourceFolderInfo = getFolderInfo(source, -1);
-        final ImmutablePair<Integer, Integer> sourceInfo = new ImmutablePair<>(sourceFolderInfo.fileCount, sourceFolderInfo.dirCount);
-        sendCopyStatus(statusListener, null, 0, 0, sourceInfo);
+            final CopyProgress progress = new CopyProgress(statusListener);
+            progress.send(null);
 
-        final List<ImmutablePair<ContentStorage.FileInformation, String>> sourceList = getAllFiles(source, sourceFilter);
-        final List<ImmutablePair<ContentStorage.FileInformation, String>> targetList = getAllFiles(Folder.fromFile(target));
+            //walk source only once: each directory listing may be an expensive query (e.g. for SAF folders)
+            final List<ImmutablePair<ContentStorage.FileInformation, String>> sourceList = getAllFiles(source, sourceFilter);
+            final int sourceFileCount = (int) CollectionStream.of(sourceList).filter(e -> !e.left.isDirectory).count();
+            final ImmutablePair<Integer, Integer> sourceInfo = new ImmutablePair<>(sourceFileCount, sourceList.size() - sourceFileCount);
+            progress.sourceInfo = sourceInfo;
+            progress.send(null);
 
-        final Set<String> targetFilesToDelete = CollectionStream.of(targetList)
-                .filter(e -> !e.left.isDirectory && !e.right.endsWith("/" + FOLDER_SYNC_INFO_FILENAME))
-                .map(e -> e.right).toSet();
-        final Set<String> targetSyncPropsToUpdate = new HashSet<>();
+            final List<ImmutablePair<ContentStorage.FileInformation, String>> targetList = getAllFiles(Folder.fromFile(target));
 
-        final Map<String, Properties> targetSyncProps = getTargetFolderSyncProperties(target, targetList);
+            final Set<String> targetFilesToDelete = CollectionStream.of(targetList)
+                    .filter(e -> !e.left.isDirectory && !e.right.endsWith("/" + FOLDER_SYNC_INFO_FILENAME))
+                    .map(e -> e.right).toSet();
+            final Set<String> targetSyncPropsToUpdate = new HashSet<>();
 
-        //Array stores values for: filesProcessed, filesModified, dirsProcessed, dirsModified
-        final int[] processStates = new int[]{0, 0, 0, 0};
-        final ContentStorage.FileInformation failedFile = synchronizeFolderProcessAllFiles(target, cancelFlag, statusListener, sourceInfo, sourceList, targetFilesToDelete, targetSyncPropsToUpdate, targetSyncProps, processStates);
-        if (failedFile != null) {
-            return createFolderProcessResult(ProcessResult.FAILURE, failedFile, processStates[1], processStates[3], sourceInfo);
-        }
+            final Map<String, Properties> targetSyncProps = getTargetFolderSyncProperties(target, targetList);
 
-        //create/update directory sync files
-        try {
-            synchronizeFolderUpdateSyncFiles(target, cancelFlag, targetSyncPropsToUpdate, targetSyncProps);
-        } catch (IOException ioe) {
-            return createFolderProcessResult(ProcessResult.FAILURE, null, processStates[1], processStates[3], sourceInfo);
-        }
+            final ContentStorage.FileInformation failedFile = synchronizeFolderProcessAllFiles(target, cancelFlag, progress, sourceList, targetFilesToDelete, targetSyncPropsToUpdate, targetSyncProps);
+            cLog.add("#f:%d(%d), #d:%d(%d), %s", progress.filesProcessed, progress.filesModified, progress.dirsProcessed, progress.dirsModified, Formatter.formatBytes(progress.bytesProcessed));
+            if (failedFile != null) {
+                return createFolderProcessResult(ProcessResult.FAILURE, failedFile, progress.filesModified, progress.dirsModified, sourceInfo);
+            }
 
-        if (isCancelled(cancelFlag)) {
-            return createFolderProcessResult(ProcessResult.ABORTED, null, 0, 0, sourceInfo);
-        }
+            //create/update directory sync files
+            try {
+                synchronizeFolderUpdateSyncFiles(target, cancelFlag, targetSyncPropsToUpdate, targetSyncProps);
+            } catch (IOException ioe) {
+                return createFolderProcessResult(ProcessResult.FAILURE, null, progress.filesModified, progress.dirsModified, sourceInfo);
+            }
 
-        //delete leftover target files (no longer synced)
-        boolean deleteSuccess = true;
-        for (String targetFileToDelete : targetFilesToDelete) {
-            deleteSuccess &= new File(target, targetFileToDelete).delete();
-            processStates[1]++;
-        }
-        sendCopyStatus(statusListener, null, processStates[0], processStates[2], sourceInfo);
+            if (isCancelled(cancelFlag)) {
+                return createFolderProcessResult(ProcessResult.ABORTED, null, 0, 0, sourceInfo);
+            }
 
-        return createFolderProcessResult(deleteSuccess ? ProcessResult.OK : ProcessResult.FAILURE, null, processStates[1], processStates[3], sourceInfo);
+            //delete leftover target files (no longer synced)
+            boolean deleteSuccess = true;
+            for (String targetFileToDelete : targetFilesToDelete) {
+                deleteSuccess &= new File(target, targetFileToDelete).delete();
+                progress.filesModified++;
+            }
+            progress.send(null);
+
+            return createFolderProcessResult(deleteSuccess ? ProcessResult.OK : ProcessResult.FAILURE, null, progress.filesModified, progress.dirsModified, sourceInfo);
+        }
     }
 
+    /**
+     * Processes all source entries in three steps:
+     * 1. (sequential) create missing target dirs and find out which files actually need a copy
+     * 2. (parallel) copy those files using a bounded worker pool, replacing existing target files only after a successful copy
+     * 3. (sequential) update sync properties for all successfully copied files
+     *
+     * Returns info on first failed file or null if all files were processed successfully
+     */
     @Nullable
     private ContentStorage.FileInformation synchronizeFolderProcessAllFiles(
-            final File target, final AtomicBoolean cancelFlag,
-            final Consumer<FolderProcessStatus> statusListener, final ImmutablePair<Integer, Integer> sourceInfo,
+            final File target, final AtomicBoolean cancelFlag, final CopyProgress progress,
             final List<ImmutablePair<ContentStorage.FileInformation, String>> sourceList, final Set<String> targetFilesToDelete,
-            final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps, final int[] processStates) {
+            final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps) {
 
+        final List<ImmutablePair<ContentStorage.FileInformation, String>> filesToCopy = new ArrayList<>();
         for (ImmutablePair<ContentStorage.FileInformation, String> sourceFile : sourceList) {
-            sendCopyStatus(statusListener, sourceFile.left, processStates[0], processStates[2], sourceInfo);
             if (isCancelled(cancelFlag)) {
-                break;
+                return null;
             }
             if (sourceFile.left.isDirectory) {
+                progress.send(sourceFile.left);
                 final File dir = new File(target, sourceFile.right);
                 if (!dir.isDirectory()) {
                     dir.mkdirs();
-                    processStates[3]++;
+                    progress.dirsModified++;
                 }
-                processStates[2]++;
+                progress.dirsProcessed++;
             } else {
                 targetFilesToDelete.remove(sourceFile.right);
-
-                final Boolean fileSyncResult = synchronizeSingleFileInternal(sourceFile, target, targetSyncPropsToUpdate, targetSyncProps);
-                if (fileSyncResult == null) {
-                    return sourceFile.left;
-                }
-                if (fileSyncResult) {
-                    processStates[1]++;
+                final File targetFile = new File(target, sourceFile.right);
+                if (!targetFile.exists() || !getFileSyncToken(sourceFile.left).equals(getSyncProperties(targetSyncProps, getParentPath(sourceFile.right)).getProperty(sourceFile.left.name))) {
+                    filesToCopy.add(sourceFile);
+                } else {
+                    progress.filesProcessed++;
                 }
-                processStates[0]++;
             }
         }
-        return null;
+
+        final ExecutorService executor = createCopyExecutor();
+        final ContentStorage.FileInformation failedFile;
+        try {
+            failedFile = copyFilesParallel(executor, filesToCopy, f -> f.left, cancelFlag, progress,
+                    sourceFile -> copyToFile(sourceFile.left.uri, new File(target, sourceFile.right)));
+        } finally {
+            executor.shutdown();
+        }
+
+        for (ImmutablePair<ContentStorage.FileInformation, String> copiedFile : filesToCopy) {
+            final File targetFile = new File(target, copiedFile.right);
+            if (copiedFile.left != failedFile && targetFile.exists()) {
+                final String dirPath = getParentPath(copiedFile.right);
+                getSyncProperties(targetSyncProps, dirPath).setProperty(copiedFile.left.name, getFileSyncToken(copiedFile.left));
+                targetSyncPropsToUpdate.add(dirPath);
+            }
+        }
+        return failedFile;
     }
 
     private void synchronizeFolderUpdateSyncFiles(final File target, final AtomicBoolean cancelFlag, final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps) throws IOException {
@@ -359,32 +403,126 @@ public class FolderUtils {
         }
     }
 
-    /**
-     * returns null in case of failre, true if file needed copy (and was copied), false if file didn't need copy)
-     */
-    private Boolean synchronizeSingleFileInternal(final ImmutablePair<ContentStorage.FileInformation, String> sourceFile, final File targetRootDir,
-                                                  final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps) {
-        final String dirPath = getParentPath(sourceFile.right);
+    private static Properties getSyncProperties(final Map<String, Properties> targetSyncProps, final String dirPath) {
         Properties dirProps = targetSyncProps.get(dirPath);
         if (dirProps == null) {
             dirProps = new Properties();
             targetSyncProps.put(dirPath, dirProps);
         }
-        final File targetFile = new File(targetRootDir, sourceFile.right);
-        final boolean needsSync = !targetFile.exists() || !getFileSyncToken(sourceFile.left).equals(dirProps.getProperty(sourceFile.left.name));
+        return dirProps;
+    }
 
-        if (needsSync) {
-            if (targetFile.exists() && !targetFile.delete()) {
-                return null;
+    /**
+     * copies a single Uri to a target file using a large buffer. Returns number of bytes copied or -1 on failure
+     *
+     * Content is copied to a temporary file first which replaces the target file only after successful copying.
+     * An existing target file thus stays untouched on failure.
+     */
+    private long copyToFile(final Uri source, final File targetFile) {
+        final File tempFile = new File(targetFile.getParentFile(), targetFile.getName() + TEMP_FILE_SUFFIX);
+        InputStream in = null;
+        OutputStream out = null;
+        try {
+            in = pls.openForRead(source);
+            if (in == null) {
+                return -1;
             }
-            final Uri targetUri = ContentStorage.get().copy(sourceFile.left.uri, Folder.fromFile(targetFile.getParentFile()), FileNameCreator.forName(targetFile.getName()), false);
-            if (targetUri == null) {
-                return null;
+            out = new FileOutputStream(tempFile);
+            final long bytes = IOUtils.copyLarge(in, out, new byte[COPY_BUFFER_SIZE]);
+            out.close();
+            out = null;
+            if (!tempFile.renameTo(targetFile)) {
+                Log.w("FolderUtils: failed to replace " + targetFile);
+                tempFile.delete();
+                return -1;
             }
-            dirProps.setProperty(sourceFile.left.name, getFileSyncToken(sourceFile.left));
-            targetSyncPropsToUpdate.add(dirPath);
+            return bytes;
+        } catch (IOException ioe) {
+            Log.w("FolderUtils: failed to copy " + source + " to " + targetFile, ioe);
+            IOUtils.closeQuietly(out);
+            out = null;
+            tempFile.delete();
+            return -1;
+        } finally {
+            IOUtils.closeQuietly(in, out);
+        }
+    }
+
+    /** creates the worker pool for one copy operation, to be shut down by the caller when the operation is done */
+    private static ExecutorService createCopyExecutor() {
+        return Executors.newFixedThreadPool(COPY_THREADS);
+    }
+
+    /**
+     * Copies given files using given worker pool.
+     *
+     * Only the copy actions run on the worker threads. Progress is updated and sent to the status listener from the
+     * calling thread only, once for each finished file in order of completion, so reported counts are monotonic.
+     * After cancellation, no new copy actions are started and no more status is sent, but files still being
+     * copied are waited for and counted.
+     *
+     * @param fileInfo   extracts source file information from a list entry
+     * @param copyAction action to copy a single file. Shall return number of bytes copied or a negative value in case of failure
+     * @return first file which failed to copy or null if all copy actions were successful
+     */
+    @Nullable
+    private <T> ContentStorage.FileInformation copyFilesParallel(final ExecutorService executor, final List<T> files, final Func1<T, ContentStorage.FileInformation> fileInfo,
+                                                                final AtomicBoolean cancelFlag, final CopyProgress progress, final Func1<T, Long> copyAction) {
+        if (files.isEmpty()) {
+            return null;
+        }
+
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final CompletionService<ImmutablePair<T, Long>> completionService = new ExecutorCompletionService<>(executor);
+        for (T file : files) {
+            completionService.submit(() -> {
+                if (failed.get() || isCancelled(cancelFlag)) {
+                    return null;
+                }
+                long bytes;
+                try {
+                    bytes = copyAction.call(file);
+                } catch (RuntimeException re) {
+                    Log.w("FolderUtils: failed to copy " + fileInfo.call(file), re);
+                    bytes = -1;
+                }
+                if (bytes < 0) {
+                    failed.set(true);
+                }
+                return new ImmutablePair<>(file, bytes);
+            });
+        }
+
+        ContentStorage.FileInformation failedFile = null;
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                final ImmutablePair<T, Long> copied = completionService.take().get();
+                if (copied == null) {
+                    // skipped due to failure or cancellation
+                    continue;
+                }
+                if (copied.right < 0) {
+                    if (failedFile == null) {
+                        failedFile = fileInfo.call(copied.left);
+                    }
+                    continue;
+                }
+                if (!isCancelled(cancelFlag)) {
+                    progress.send(fileInfo.call(copied.left));
+                }
+                progress.fileCopied(copied.right);
+            }
+            return failedFile;
+        } catch (ExecutionException e) {
+            // copy actions catch their exceptions, should not happen
+            Log.w("FolderUtils: parallel copy failed", e);
+            failed.set(true);
+            return failedFile == null ? fileInfo.call(files.get(0)) : failedFile;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            failed.set(true);
+            return failedFile == null ? fileInfo.call(files.get(0)) : failedFile;
         }
-        return needsSync;
     }
 
     private Map<String, Properties> getTargetFolderSyncProperties(final File target, final List<ImmutablePair<ContentStorage.FileInformation, String>> targetList) {
@@ -449,13 +587,62 @@ public class FolderUtils {
         public final int dirsProcessed;
         public final int filesInSource;
         public final int dirsInSource;
+        /** number of bytes copied so far */
+        public final long bytesProcessed;
+        /** current throughput in bytes per second, or -1 if not (yet) known */
+        public final long bytesPerSecond;
 
         public FolderProcessStatus(final ContentStorage.FileInformation currentFile, final int filesProcessed, final int dirsProcessed, final int filesInSource, final int dirsInSource) {
+            this(currentFile, filesProcessed, dirsProcessed, filesInSource, dirsInSource, 0, -1);
+        }
+
+        public FolderProcessStatus(final ContentStorage.FileInformation currentFile, final int filesProcessed, final int dirsProcessed, final int filesInSource, final int dirsInSource,
+                                   final long bytesProcessed, final long bytesPerSecond) {
             this.currentFile = currentFile;
             this.filesProcessed = filesProcessed;
             this.dirsProcessed = dirsProcessed;
             this.filesInSource = filesInSource;
             this.dirsInSource = dirsInSource;
+            this.bytesProcessed = bytesProcessed;
+            this.bytesPerSecond = bytesPerSecond;
+        }
+    }
+
+    /**
+     * helper class to collect state of a running copy process and to send it to a status listener.
+     * Only used from the thread running the process, copy threads don't access it (see {@link #copyFilesParallel})
+     */
+    private static class CopyProgress {
+
+        private final Consumer<FolderProcessStatus> statusListener;
+        private final long startTime = System.currentTimeMillis();
+        private long bytesProcessed = 0;
+
+        private ImmutablePair<Integer, Integer> sourceInfo;
+        private int filesProcessed = 0;
+        private int filesModified = 0;
+        private int dirsProcessed = 0;
+        private int dirsModified = 0;
+
+        CopyProgress(final Consumer<FolderProcessStatus> statusListener) {
+            this.statusListener = statusListener;
+        }
+
+        void fileCopied(final long bytes) {
+            bytesProcessed += bytes;
+            filesProcessed++;
+            filesModified++;
+        }
+
+        void send(final ContentStorage.FileInformation currentFile) {
+            if (statusListener == null) {
+                return;
+            }
+            final long bytes = bytesProcessed;
+            final long duration = System.currentTimeMillis() - startTime;
+            statusListener.accept(new FolderProcessStatus(currentFile, filesProcessed, dirsProcessed,
+                    sourceInfo == null ? -1 : sourceInfo.left, sourceInfo == null ? -1 : sourceInfo.right,
+                    bytes, duration <= 0 || bytes == 0 ? -1 : bytes * 1000 / duration));
         }
     }
 
@@ -586,9 +773,6 @@ public class FolderUtils {
             // -- second Pass: do Copy/move
             final ImmutableTriple<ContentStorage.FileInformation, Integer, Integer> copyResult = copyAllSecondPassCopyMove(fileList, move, statusListener, cancelFlag, sourceCopyCount);
 
-            //final status call
-            sendCopyStatus(statusListener, null, copyResult.middle, copyResult.right, sourceCopyCount);
-
             cLog.add("p2:#%s#%s", copyResult.middle, copyResult.right);
 
             return createFolderProcessResult(
@@ -665,42 +849,75 @@ public class FolderUtils {
             final List<ImmutableTriple<ContentStorage.FileInformation, Folder, Integer>> fileList, final boolean move, final Consumer<FolderProcessStatus> statusListener, final AtomicBoolean cancelFlag, final ImmutablePair<Integer, Integer> sourceCopyCount) {
 
         // -- second pass: make all necessary file copies and create necessary target subfolders
-        int dirsCopied = 0;
-        int filesCopied = 0;
+        // consecutive files (e.g. files in same folder) are copied in parallel. Dirs are processed in between in given order
+        final CopyProgress progress = new CopyProgress(statusListener);
+        progress.sourceInfo = sourceCopyCount;
+
+        final List<ImmutableTriple<ContentStorage.FileInformation, Folder, Integer>> fileBatch = new ArrayList<>();
+        final ExecutorService executor = createCopyExecutor();
+        ContentStorage.FileInformation failedFile = null;
+        try {
+            failedFile = copyAllSecondPassProcessList(fileList, fileBatch, executor, move, progress, cancelFlag);
+        } finally {
+            executor.shutdown();
+        }
+        //final status call
+        progress.send(null);
+        return new ImmutableTriple<>(failedFile, progress.filesProcessed, progress.dirsProcessed);
+    }
 
+    @Nullable
+    private ContentStorage.FileInformation copyAllSecondPassProcessList(final List<ImmutableTriple<ContentStorage.FileInformation, Folder, Integer>> fileList,
+                                                                        final List<ImmutableTriple<ContentStorage.FileInformation, Folder, Integer>> fileBatch,
+                                                                        final ExecutorService executor, final boolean move, final CopyProgress progress, final AtomicBoolean cancelFlag) {
         ContentStorage.FileInformation failedFile = null;
         for (ImmutableTriple<ContentStorage.FileInformation, Folder, Integer> file : fileList) {
             if (isCancelled(cancelFlag)) {
                 break;
             }
-            if (file.left.isDirectory) {
-                if ((file.right & COPY_FLAG_DIR_BEFORE) > 0) {
-                    sendCopyStatus(statusListener, file.left, filesCopied, dirsCopied, sourceCopyCount);
-                    if (pls.ensureFolder(file.middle, true)) {
-                        dirsCopied++;
-                    } else {
-                        failedFile = file.left;
-                    }
-                }
-                if (move & file.right == 0 && !pls.delete(file.left.uri)) {
-                    failedFile = file.left;
-                }
-            } else {
-                sendCopyStatus(statusListener, file.left, filesCopied, dirsCopied, sourceCopyCount);
-                if (pls.copy(file.left.uri, file.middle, FileNameCreator.forName(file.left.name), false) != null) {
-                    filesCopied++;
-                    if (move && !pls.delete(file.left.uri)) {
-                        failedFile = file.left;
-                    }
+            if (!file.left.isDirectory) {
+                fileBatch.add(file);
+                continue;
+            }
+            failedFile = copyAllFileBatch(executor, fileBatch, move, progress, cancelFlag);
+            if (failedFile != null || isCancelled(cancelFlag)) {
+                break;
+            }
+            if ((file.right & COPY_FLAG_DIR_BEFORE) > 0) {
+                progress.send(file.left);
+                if (pls.ensureFolder(file.middle, true)) {
+                    progress.dirsProcessed++;
                 } else {
                     failedFile = file.left;
                 }
             }
+            if (move & file.right == 0 && !pls.delete(file.left.uri)) {
+                failedFile = file.left;
+            }
             if (failedFile != null) {
                 break;
             }
         }
-        return new ImmutableTriple<>(failedFile, filesCopied, dirsCopied);
+        if (failedFile == null) {
+            failedFile = copyAllFileBatch(executor, fileBatch, move, progress, cancelFlag);
+        }
+        return failedFile;
+    }
+
+    @Nullable
+    private ContentStorage.FileInformation copyAllFileBatch(final ExecutorService executor, final List<ImmutableTriple<ContentStorage.FileInformation, Folder, Integer>> fileBatch,
+                                                            final boolean move, final CopyProgress progress, final AtomicBoolean cancelFlag) {
+        final ContentStorage.FileInformation failedFile = copyFilesParallel(executor, fileBatch, f -> f.left, cancelFlag, progress, file -> {
+            if (pls.copy(file.left.uri, file.middle, FileNameCreator.forName(file.left.name), false) == null) {
+                return -1L;
+            }
+            if (move && !pls.delete(file.left.uri)) {
+                return -1L;
+            }
+            return file.left.size;
+        });
+        fileBatch.clear();
+        return failedFile;
     }
 
     private boolean isCancelled(final AtomicBoolean cancelFlag) {
@@ -915,7 +1132,13 @@ public class FolderUtils {
 
                 final String statusString = activity.getString(R.string.folder_process_status_done, filesCopied, filesTotal, foldersCopied, foldersTotal);
                 final String progressString = activity.getString(R.string.folder_process_status_currentfile, ci.currentFile == null || ci.currentFile.name == null ? "" : ci.currentFile.name);
-                publishProgress(statusString + "\n" + progressString);
+                if (ci.bytesProcessed <= 0) {
+                    publishProgress(statusString + "\n" + progressString);
+                    return;
+                }
+                final String bytesString = activity.getString(R.string.folder_process_status_bytes, Formatter.formatBytes(ci.bytesProcessed),
+                        ci.bytesPerSecond < 0 ? "-" : Formatter.formatBytes(ci.bytesPerSecond));
+                publishProgress(statusString + "\n" + progressString + "\n" + bytesString);
             });
         }
 
@@ -0,0 +1,126 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.models.Trail;
+import cgeo.geocaching.settings.Settings;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Writes recorded trail points to the database in groups
+ *
+ * Points are collected in memory and written in one transaction once {@link #FLUSH_POINTS} points are collected or
+ * {@link #FLUSH_DELAY_SECONDS} seconds after the first collected point, instead of one transaction per point.
+ * Maps flush pending points when they are paused. Reading or clearing the trail history has to be done through
+ * this class, so that pending points are taken into account. Reading does not write pending points, so it does not
+ * wait for a write to the database.
+ */
+public final class TrailHistoryWriter {
+
+    private static final int FLUSH_POINTS = 30;
+    private static final long FLUSH_DELAY_SECONDS = 30;
+
+    /** points not yet written, guarded by itself */
+    private static final Trail PENDING = new Trail();
+    /** points currently being written, guarded by {@link #PENDING} */
+    private static Trail writing = null;
+    /** held while points are written or the history is cleared, keeps the order of writes */
+    private static final Object WRITE_LOCK = new Object();
+
+    private TrailHistoryWriter() {
+        // utility class
+    }
+
+    /** adds a point to the trail history, it is written to the database later */
+    public static void add(final double latitude, final double longitude, final double altitude, final long timestamp) {
+        final int pending;
+        synchronized (PENDING) {
+            PENDING.add(latitude, longitude, altitude, timestamp);
+            pending = PENDING.size();
+        }
+        if (pending == 1) {
+            Schedulers.io().scheduleDirect(TrailHistoryWriter::flush, FLUSH_DELAY_SECONDS, TimeUnit.SECONDS);
+        } else if (pending == FLUSH_POINTS) {
+            flushAsync();
+        }
+    }
+
+    /** writes pending points in the background, e.g. when a map is paused */
+    public static void flushAsync() {
+        Schedulers.io().scheduleDirect(TrailHistoryWriter::flush);
+    }
+
+    /** writes pending points. Blocks on the database. */
+    public static void flush() {
+        synchronized (WRITE_LOCK) {
+            final Trail points;
+            synchronized (PENDING) {
+                if (PENDING.isEmpty()) {
+                    return;
+                }
+                points = PENDING.copy();
+                PENDING.clear();
+                writing = points;
+            }
+            try {
+                DataStore.saveTrailpoints(points);
+            } finally {
+                synchronized (PENDING) {
+                    writing = null;
+                }
+            }
+        }
+    }
+
+    /** @return the latest points of the trail history, limited to the maximum trail length. Reads the database. */
+    public static Trail load() {
+        final Trail unwritten = getUnwritten();
+        final Trail history = addUnwritten(DataStore.loadTrailHistory(), unwritten);
+        final int itemsToRemove = history.size() - Settings.getMaximumMapTrailLength();
+        if (itemsToRemove > 0) {
+            history.removeFirst(itemsToRemove);
+        }
+        return history;
+    }
+
+    /** @return all points of the trail history. Reads the database. */
+    public static Trail loadAll() {
+        final Trail unwritten = getUnwritten();
+        return addUnwritten(DataStore.loadCompleteTrailHistory(), unwritten);
+    }
+
+    /** @return the points being written and the pending ones. Has to be called before the stored points are read */
+    private static Trail getUnwritten() {
+        final Trail unwritten = new Trail();
+        synchronized (PENDING) {
+            if (writing != null) {
+                unwritten.addAll(writing);
+            }
+            unwritten.addAll(PENDING);
+        }
+        return unwritten;
+    }
+
+    /** adds the unwritten points newer than the stored ones, points written meanwhile are already contained in the stored ones */
+    private static Trail addUnwritten(final Trail stored, final Trail unwritten) {
+        final long lastStored = stored.isEmpty() ? Long.MIN_VALUE : stored.getTimestamp(stored.size() - 1);
+        for (int i = 0; i < unwritten.size(); i++) {
+            if (unwritten.getTimestamp(i) > lastStored) {
+                stored.add(unwritten.getLatitude(i), unwritten.getLongitude(i), unwritten.getAltitude(i), unwritten.getTimestamp(i));
+            }
+        }
+        return stored;
+    }
+
+    /** removes all points of the trail history, including pending ones. Blocks on the database. */
+    public static void clear() {
+        synchronized (WRITE_LOCK) {
+            synchronized (PENDING) {
+                PENDING.clear();
+            }
+            DataStore.clearTrailHistory();
+        }
+    }
+
+}
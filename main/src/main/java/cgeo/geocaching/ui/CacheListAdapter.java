@@ -14,10 +14,12 @@ import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.sensors.GeoData;
 import cgeo.geocaching.sensors.LocationDataProvider;
 import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.sorting.DistanceResorter;
 import cgeo.geocaching.sorting.GeocacheSort;
 import cgeo.geocaching.sorting.GeocacheSortContext;
 import cgeo.geocaching.sorting.GlobalGPSDistanceComparator;
 import cgeo.geocaching.ui.dialog.Dialogs;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.AngleUtils;
 import cgeo.geocaching.utils.Formatter;
 import cgeo.geocaching.utils.Log;
@@ -64,6 +66,7 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
     private Geopoint coords;
     private float azimuth = 0;
     private long lastGlobalGPSUpdate = 0L;
+    private boolean resortRunning = false;
     private boolean selectMode = false;
     private GeocacheFilter currentGeocacheFilter = null;
     private List<Geocache> originalList = null;
@@ -345,7 +348,7 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
 
     public void setActualCoordinates(@NonNull final Geopoint coords) {
         this.coords = coords;
-        checkUpdateGlobalGPS(false);
+        final boolean globalGpsUpdated = checkUpdateGlobalGPS(false);
 
         for (final DistanceView distance : distances) {
             distance.update(coords);
@@ -353,22 +356,87 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
         for (final CompassMiniView compass : compasses) {
             compass.updateCurrentCoords(coords);
         }
-        if (isSortedByDistance()) {
+        if (globalGpsUpdated && isSortedByDistance()) {
+            resortByDistance();
+        }
+    }
+
+    /**
+     * Resorts a list sorted by distance after a position update. Calculation is done in background on a copy of the list,
+     * list view is only rebound if sort order actually changed.
+     */
+    private void resortByDistance() {
+        if (CollectionUtils.isEmpty(list) || sortContext.getSort().isInverse()) {
             forceSort();
+            return;
+        }
+        if (resortRunning) {
+            return;
         }
+        resortRunning = true;
+        final List<Geocache> snapshot = new ArrayList<>(list);
+        final Geopoint position = coords;
+        AndroidRxUtils.andThenOnUi(AndroidRxUtils.computationScheduler, () -> {
+            try {
+                return DistanceResorter.resort(snapshot, position);
+            } catch (final RuntimeException re) {
+                Log.w("CacheListAdapter: resorting by distance failed", re);
+                return null;
+            }
+        }, result -> {
+            resortRunning = false;
+            if (result != null && isSortedByDistance() && isUnchanged(snapshot)) {
+                applyResort(result);
+            }
+        });
     }
 
-    private void checkUpdateGlobalGPS(final boolean force) {
-        if (!force && (System.currentTimeMillis() - lastGlobalGPSUpdate) <= PAUSE_BETWEEN_GLOBAL_GPS_UPDATE) {
+    private boolean isUnchanged(final List<Geocache> snapshot) {
+        if (snapshot.size() != list.size()) {
+            return false;
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.get(i) != list.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void applyResort(final DistanceResorter.Result result) {
+        for (int i = 0; i < result.caches.size(); i++) {
+            final Geocache cache = result.caches.get(i);
+            if (cache.getCoords() != null) {
+                cache.setDistance(result.distances[i]);
+            }
+        }
+        if (!result.orderChanged) {
             return;
         }
+        for (int i = 0; i < result.caches.size(); i++) {
+            list.set(i, result.caches.get(i));
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * @return true if global GPS position was updated
+     */
+    private boolean checkUpdateGlobalGPS(final boolean force) {
+        if (!force && (System.currentTimeMillis() - lastGlobalGPSUpdate) <= PAUSE_BETWEEN_GLOBAL_GPS_UPDATE) {
+            return false;
+        }
         if (coords == null) {
-            return;
+            return false;
         }
         GlobalGPSDistanceComparator.updateGlobalGps(coords);
 
-        notifyDataSetChanged();
+        // lists sorted by distance are rebound by resortByDistance() only if necessary
+        if (force || !isSortedByDistance()) {
+            notifyDataSetChanged();
+        }
         lastGlobalGPSUpdate = System.currentTimeMillis();
+        return true;
     }
 
     private boolean isSortedByDistance() {
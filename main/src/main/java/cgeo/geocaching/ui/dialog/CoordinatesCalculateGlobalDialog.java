@@ -2,9 +2,11 @@ package cgeo.geocaching.ui.dialog;
 
 import cgeo.geocaching.R;
 import cgeo.geocaching.activity.ActivityMixin;
+import cgeo.geocaching.activity.Progress;
 import cgeo.geocaching.databinding.CoordinatescalculateglobalDialogBinding;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.WaypointType;
+import cgeo.geocaching.location.DistanceUnit;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.maps.DefaultMap;
 import cgeo.geocaching.models.CacheVariableList;
@@ -21,12 +23,16 @@ import cgeo.geocaching.ui.TextParam;
 import cgeo.geocaching.ui.TextSpinner;
 import cgeo.geocaching.ui.VariableListView;
 import cgeo.geocaching.ui.ViewUtils;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.ClipboardUtils;
 import cgeo.geocaching.utils.CollectionStream;
 import cgeo.geocaching.utils.LocalizationUtils;
+import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.TextUtils;
 import cgeo.geocaching.utils.formulas.DegreeFormula;
+import cgeo.geocaching.utils.formulas.FormulaRangeSolver;
 import cgeo.geocaching.utils.formulas.FormulaUtils;
+import cgeo.geocaching.utils.formulas.Value;
 import cgeo.geocaching.utils.formulas.VariableList;
 import cgeo.geocaching.utils.formulas.VariableMap;
 import static cgeo.geocaching.models.CalculatedCoordinateType.PLAIN;
@@ -35,6 +41,7 @@ import android.app.Activity;
 import android.app.Dialog;
 import android.graphics.Color;
 import android.os.Bundle;
+import android.text.InputType;
 import android.text.style.ForegroundColorSpan;
 import android.util.Pair;
 import android.view.LayoutInflater;
@@ -43,6 +50,7 @@ import android.view.ViewGroup;
 import android.view.Window;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.widget.Toolbar;
 import androidx.fragment.app.DialogFragment;
 import androidx.fragment.app.FragmentManager;
@@ -51,11 +59,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 
@@ -77,6 +88,8 @@ public class CoordinatesCalculateGlobalDialog extends DialogFragment {
 
     private final TextSpinner<CalculatedCoordinateType> displayType = new TextSpinner<>();
 
+    private Disposable solverDisposable = Disposable.disposed();
+
     private CoordinateInputData createFromDialog() {
         final CoordinateInputData cid = new CoordinateInputData();
         cid.setGeocode(geocode);
@@ -359,6 +372,12 @@ public class CoordinatesCalculateGlobalDialog extends DialogFragment {
         return TextUtils.setSpan("✓", new ForegroundColorSpan(Color.GREEN));
     }
 
+    @Override
+    public void onDestroy() {
+        solverDisposable.dispose();
+        super.onDestroy();
+    }
+
     @Override
     public void onStart() {
         super.onStart();
@@ -371,27 +390,101 @@ public class CoordinatesCalculateGlobalDialog extends DialogFragment {
 
     private void generateRangeCoordinates() {
 
-        final List<String> varsToConsider = new ArrayList<>(varList.getDependentVariables(calcCoord.getNeededVars()));
-        final Iterator<String> it = varsToConsider.iterator();
-        while (it.hasNext()) {
-            final VariableMap.VariableState state = varList.getState(it.next());
-            if (state == null || state.getFormula() == null || state.getFormula().getRangeIndexSize() == 1) {
-                it.remove();
-            }
-        }
-        TextUtils.sortListLocaleAware(varsToConsider);
-        if (varsToConsider.isEmpty()) {
+        final CalculatedCoordinate coord = new CalculatedCoordinate();
+        coord.setFrom(calcCoord);
+        if (!hasRangeVariables(coord)) {
             ActivityMixin.showShortToast(this.getActivity(), R.string.calccoord_generate_error_novarwithrange);
             return;
         }
+        if (StringUtils.isBlank(geocode)) {
+            solveRangeCoordinates(coord, null, 0);
+            return;
+        }
+        //cache may have to be loaded from database
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> {
+            final Geocache cache = DataStore.loadCache(geocode, LoadFlags.LOAD_CACHE_OR_DB);
+            return cache == null ? null : cache.getCoords();
+        }, center -> {
+            if (!isAdded()) {
+                return;
+            }
+            if (center == null) {
+                solveRangeCoordinates(coord, null, 0);
+            } else {
+                askMaxDistance(coord, center);
+            }
+        });
+    }
 
-        final List<Pair<String, Geopoint>> gps = new ArrayList<>();
-        generateRangeCoordinatesRecursive(varsToConsider, 0, null, gps);
+    private void askMaxDistance(final CalculatedCoordinate coord, @NonNull final Geopoint center) {
+        final DistanceUnit unit = DistanceUnit.getDefaultUnit(true);
+        SimpleDialog.of(this.getActivity()).setTitle(TextParam.id(R.string.calccoord_generate_title))
+                .setMessage(TextParam.id(R.string.calccoord_generate_maxdistance))
+                .input(new SimpleDialog.InputOptions()
+                        .setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_DECIMAL)
+                        .setSuffix(unit.getId()), text -> {
+                    final float maxDistance = StringUtils.isBlank(text) ? 0 : unit.parseToKilometers(text, 0);
+                    solveRangeCoordinates(coord, maxDistance > 0 ? center : null, maxDistance);
+                });
+    }
 
-        if (gps.isEmpty()) {
+    private boolean hasRangeVariables(final CalculatedCoordinate coord) {
+        for (String var : varList.getDependentVariables(coord.getNeededVars())) {
+            final VariableMap.VariableState state = varList.getState(var);
+            if (state != null && state.getFormula() != null && state.getFormula().getRangeIndexSize() > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** enumerates all range combinations in the background, found coordinates are counted in a progress dialog which allows to stop early */
+    private void solveRangeCoordinates(final CalculatedCoordinate coord, @Nullable final Geopoint center, final float maxDistance) {
+        final List<FormulaRangeSolver.Constraint> constraints = center == null ? Collections.emptyList() : coord.createDistanceConstraints(center, maxDistance);
+        final FormulaRangeSolver<Geopoint> solver = new FormulaRangeSolver<>(v -> {
+            final VariableMap.VariableState state = varList.getState(v);
+            return state == null ? null : state.getFormula();
+        }, coord.getNeededVars(), coord::calculateGeopoint, constraints, FormulaRangeSolver.DEFAULT_MAX_RESULTS);
+
+        final List<FormulaRangeSolver.Candidate<Geopoint>> candidates = new ArrayList<>();
+        final Progress progress = new Progress();
+        progress.setOnCancelListener((d, w) -> solver.cancel());
+        progress.show(getActivity(), getString(R.string.calccoord_generate_title), getString(R.string.calccoord_generate_progress, solver.getCombinationCount(), 0), true, null);
+
+        solverDisposable.dispose();
+        solverDisposable = Observable.<FormulaRangeSolver.Candidate<Geopoint>>create(emitter -> {
+            emitter.setCancellable(solver::cancel);
+            solver.solve(emitter::onNext);
+            emitter.onComplete();
+        }).subscribeOn(Schedulers.io())
+                .observeOn(AndroidRxUtils.mainThreadScheduler)
+                .doFinally(progress::dismiss)
+                .subscribe(c -> {
+                    candidates.add(c);
+                    progress.setMessage(getString(R.string.calccoord_generate_progress, solver.getCombinationCount(), candidates.size()));
+                }, e -> Log.e("Error generating range coordinates", e), () -> {
+                    if (candidates.size() >= FormulaRangeSolver.DEFAULT_MAX_RESULTS) {
+                        ActivityMixin.showShortToast(this.getActivity(), getString(R.string.calccoord_generate_error_toomany, FormulaRangeSolver.DEFAULT_MAX_RESULTS));
+                    }
+                    showRangeCoordinates(candidates);
+                });
+    }
+
+    private void showRangeCoordinates(final List<FormulaRangeSolver.Candidate<Geopoint>> candidates) {
+        if (candidates.isEmpty()) {
             ActivityMixin.showShortToast(this.getActivity(), R.string.calccoord_generate_error_novalidgeopoints);
             return;
         }
+        //candidates are found in parallel, restore the order of the ranges
+        Collections.sort(candidates, (c1, c2) -> Long.compare(c1.getIndex(), c2.getIndex()));
+        final List<Pair<String, Geopoint>> gps = new ArrayList<>();
+        for (FormulaRangeSolver.Candidate<Geopoint> c : candidates) {
+            final StringBuilder label = new StringBuilder();
+            for (Map.Entry<String, Value> entry : c.getRangeValues().entrySet()) {
+                label.append(label.length() == 0 ? "" : ", ").append(entry.getKey()).append('=').append(entry.getValue());
+            }
+            gps.add(new Pair<>(label.toString(), c.getResult()));
+        }
 
         final SimpleDialog.ItemSelectModel<Pair<String, Geopoint>> model = new SimpleDialog.ItemSelectModel<>();
         model
@@ -438,21 +531,4 @@ public class CoordinatesCalculateGlobalDialog extends DialogFragment {
             ActivityMixin.showShortToast(this.getActivity(), getString(R.string.waypoint_added));
         }
     }
-
-    private void generateRangeCoordinatesRecursive(final List<String> vars, final int idx, final String praefix, final List<Pair<String, Geopoint>> result) {
-        if (idx < vars.size()) {
-            final String var = vars.get(idx);
-            final VariableMap.VariableState state = varList.getState(var);
-            for (int i = 0; i < Objects.requireNonNull(Objects.requireNonNull(state).getFormula()).getRangeIndexSize(); i++) {
-                varList.setRangeIndex(var, i);
-                generateRangeCoordinatesRecursive(vars, idx + 1, (praefix == null ? "" : praefix + ", ") + var + "=" + varList.getValue(var), result);
-            }
-            varList.setRangeIndex(var, 0);
-        } else {
-            final Geopoint gp = calcCoord.calculateGeopoint(varList::getValue);
-            if (gp != null) {
-                result.add(new Pair<>(praefix, gp));
-            }
-        }
-    }
 }
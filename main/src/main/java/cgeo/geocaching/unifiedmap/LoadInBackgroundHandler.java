@@ -1,14 +1,13 @@
 package cgeo.geocaching.unifiedmap;
 
 import cgeo.geocaching.SearchResult;
-import cgeo.geocaching.connector.ConnectorFactory;
+import cgeo.geocaching.connector.LiveMapTileCache;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.MapUtils;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.Log;
-import static cgeo.geocaching.location.Viewport.containingGCliveCaches;
 
 import android.os.Handler;
 import android.os.Looper;
@@ -39,7 +38,9 @@ class LoadInBackgroundHandler {
         private final WeakReference<LoadInBackgroundHandler> handlerRef;
         private int previousZoom = -100;
         private Viewport previousViewport;
-        private SearchResult lastSearchResult = null;
+        private int postedZoom = -100;
+        private Viewport postedViewport;
+        private final LiveMapTileCache liveMapTileCache = new LiveMapTileCache();
 
         LoadTimerAction(final LoadInBackgroundHandler handler) {
             handlerRef = new WeakReference<>(handler);
@@ -64,6 +65,13 @@ class LoadInBackgroundHandler {
                 }
                 final int currentZoom = map.getCurrentZoom();
 
+                // publish every change of the visible area (e.g. for marker clustering), independent of reloading
+                if (currentZoom != postedZoom || !currentViewport.equals(postedViewport)) {
+                    postedZoom = currentZoom;
+                    postedViewport = currentViewport;
+                    new ViewModelProvider(activity).get(UnifiedMapViewModel.class).viewport.postValue(new UnifiedMapViewModel.ViewportInfo(currentViewport, currentZoom));
+                }
+
                 // check if map moved or zoomed
                 final boolean moved = previousViewport == null || currentZoom != previousZoom || mapMoved(previousViewport, currentViewport);
                 if (moved) {
@@ -100,23 +108,12 @@ class LoadInBackgroundHandler {
                 }
 
                 if (Boolean.TRUE.equals(viewModel.transientIsLiveEnabled.getValue())) {
-                    // retrieving live caches (if enabled)
-                    final boolean useLastSearchResult = null != lastSearchResult && null != previousViewport && previousViewport.includes(viewport);
-                    final Viewport newViewport = viewport.resize(3.0);
-                    final SearchResult searchResult = useLastSearchResult ? lastSearchResult : ConnectorFactory.searchByViewport(newViewport, activity.getFilterContext().get());
-
-                    final Set<Geocache> result = searchResult.getCachesFromSearchResult(LoadFlags.LOAD_CACHE_OR_DB);
-                    MapUtils.filter(result, activity.getFilterContext());
-                    final Set<String> filteredCodes = searchResult.getFilteredGeocodes();
-                    Log.d("Filtering out " + filteredCodes.size() + " caches: " + filteredCodes);
-                    DataStore.removeCaches(filteredCodes, EnumSet.of(LoadFlags.RemoveFlag.CACHE));
-                    activity.addSearchResultByGeocaches(result);
-
-                    lastSearchResult = searchResult;
-                    if (null == previousViewport || !useLastSearchResult || (!result.isEmpty() && lastSearchResult.getCount() > 400)) {
-                        previousViewport = containingGCliveCaches(result);
-                    }
-                    Log.d("searchByViewport: cached=" + useLastSearchResult + ", results=" + lastSearchResult.getCount() + ", viewport=" + previousViewport);
+                    // retrieving live caches (if enabled), only tiles not covered by previous searches are requested
+                    // results of fast connectors are shown while slower ones are still loading
+                    final LiveMapTileCache.Result liveResult = liveMapTileCache.searchByViewport(viewport.resize(1.5), activity.getFilterContext().get(),
+                            partialResult -> addLiveResult(activity, partialResult));
+                    addLiveResult(activity, liveResult);
+                    Log.d("searchByViewport: requested tiles=" + liveResult.requestedTiles + ", results=" + liveResult.caches.size() + ", viewport=" + viewport);
                 }
 
                 activity.loadWaypoints(activity, viewModel, viewport);
@@ -128,6 +125,15 @@ class LoadInBackgroundHandler {
             }
         }
 
+        private static void addLiveResult(final UnifiedMapActivity activity, final LiveMapTileCache.Result liveResult) {
+            final Set<Geocache> result = liveResult.caches;
+            MapUtils.filter(result, activity.getFilterContext());
+            final Set<String> filteredCodes = liveResult.filteredGeocodes;
+            Log.d("Filtering out " + filteredCodes.size() + " caches: " + filteredCodes);
+            DataStore.removeCaches(filteredCodes, EnumSet.of(LoadFlags.RemoveFlag.CACHE));
+            activity.addSearchResultByGeocaches(result);
+        }
+
     }
 
     static boolean mapMoved(final Viewport referenceViewport, final Viewport newViewport) {
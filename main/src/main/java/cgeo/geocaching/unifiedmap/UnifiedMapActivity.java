@@ -17,8 +17,8 @@ import cgeo.geocaching.list.AbstractList;
 import cgeo.geocaching.list.PseudoList;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.ProximityIndex;
 import cgeo.geocaching.location.Viewport;
-import cgeo.geocaching.location.WaypointDistanceInfo;
 import cgeo.geocaching.maps.MapMode;
 import cgeo.geocaching.maps.MapOptions;
 import cgeo.geocaching.maps.MapSettingsUtils;
@@ -34,6 +34,7 @@ import cgeo.geocaching.models.MapSelectableItem;
 import cgeo.geocaching.models.Route;
 import cgeo.geocaching.models.RouteItem;
 import cgeo.geocaching.models.Waypoint;
+import cgeo.geocaching.models.geoitem.GeoItem;
 import cgeo.geocaching.sensors.GeoDirHandler;
 import cgeo.geocaching.sensors.LocationDataProvider;
 import cgeo.geocaching.service.CacheDownloaderService;
@@ -71,7 +72,6 @@ import cgeo.geocaching.utils.HideActionBarUtils;
 import cgeo.geocaching.utils.HistoryTrackUtils;
 import cgeo.geocaching.utils.LifecycleAwareBroadcastReceiver;
 import cgeo.geocaching.utils.Log;
-import cgeo.geocaching.utils.functions.Func1;
 import cgeo.geocaching.wherigo.WherigoDialogManager;
 import cgeo.geocaching.wherigo.WherigoGame;
 import cgeo.geocaching.wherigo.WherigoThingDialogProvider;
@@ -151,6 +151,7 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
     private ElevationChart elevationChartUtils = null;
     private String lastElevationChartRoute = null; // null=none, empty=individual route, other=track
     private boolean waypointsFilteredDueToLimit = false;
+    private final ProximityIndex proximityIndex = new ProximityIndex(this::getProximityItems);
     private int lastCacheCount = -1;
 
     private UnifiedMapType mapType = null;
@@ -257,6 +258,8 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
 
         viewModel.mapCenter.observe(this, center -> refreshListChooser());
         viewModel.caches.observeForNotification(this, this::refreshListChooser);
+        viewModel.caches.observeForNotification(this, proximityIndex::invalidate);
+        viewModel.waypoints.observe(this, waypoints -> proximityIndex.invalidate());
 
         MapUtils.showMapOneTimeMessages(this, compatibilityMapMode);
 
@@ -623,7 +626,7 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
             mapFragment.setCenter(new Geopoint(locationWrapper.location));
 
             if (viewModel.proximityNotification.getValue() != null) {
-                viewModel.proximityNotification.getValue().checkDistance(getClosestDistanceInM(new Geopoint(locationWrapper.location.getLatitude(), locationWrapper.location.getLongitude()), viewModel));
+                viewModel.proximityNotification.getValue().checkDistance(new Geopoint(locationWrapper.location.getLatitude(), locationWrapper.location.getLongitude()), proximityIndex);
             }
         }
     }
@@ -914,6 +917,16 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
 
         for (String key : clickableItemsLayer.getTouched(Geopoint.forE6(latitudeE6, longitudeE6))) {
 
+            if (key.startsWith(UnifiedMapViewModel.CLUSTER_KEY_PREFIX) && !isLongTap) {
+                // zoom into a cluster of markers instead of listing its elements
+                final GeoItem cluster = clickableItemsLayer.get(key);
+                if (cluster != null && cluster.getCenter() != null) {
+                    mapFragment.setCenter(cluster.getCenter());
+                    mapFragment.setZoom(mapFragment.getCurrentZoom() + 2);
+                    return;
+                }
+            }
+
             if (key.startsWith(UnifiedMapViewModel.CACHE_KEY_PREFIX)) {
                 final String geocode = key.substring(UnifiedMapViewModel.CACHE_KEY_PREFIX.length());
 
@@ -1079,28 +1092,12 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
 
     // ========================================================================
     // distance checks for proximity notifications
-    private static WaypointDistanceInfo getClosestDistanceInM(final Geopoint coord, final UnifiedMapViewModel viewModel) {
-        WaypointDistanceInfo result;
-        // work on a copy to avoid race conditions
-        result = getClosestDistanceInM(coord, viewModel.caches.getListCopy(), Integer.MAX_VALUE, item -> ((Geocache) item).getShortGeocode() + " " + ((Geocache) item).getName());
-        result = getClosestDistanceInM(coord, new ArrayList<>(viewModel.waypoints.getValue()), result.meters, item -> ((Waypoint) item).getName() + " (" + ((Waypoint) item).getWaypointType().gpx + ")");
-        return result;
-    }
 
-    private static WaypointDistanceInfo getClosestDistanceInM(final Geopoint center, final List<? extends IWaypoint> items, final int minDistanceOld, final Func1<IWaypoint, String> getName) {
-        int minDistance = minDistanceOld;
-        String name = "";
-        for (IWaypoint item : items) {
-            final Geopoint coords = item.getCoords();
-            if (coords != null) {
-                final int distance = (int) (1000f * coords.distanceTo(center));
-                if (distance > 0 && distance < minDistance) {
-                    minDistance = distance;
-                    name = getName.call(item);
-                }
-            }
-        }
-        return new WaypointDistanceInfo(name, minDistance);
+    /** caches and waypoints for proximity notifications, works on copies to avoid race conditions */
+    private Collection<IWaypoint> getProximityItems() {
+        final List<IWaypoint> items = new ArrayList<>(viewModel.caches.getListCopy());
+        items.addAll(new ArrayList<>(viewModel.waypoints.getValue()));
+        return items;
     }
 
     // ========================================================================
@@ -1146,6 +1143,7 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
             saveCenterAndZoom();
             lastMapStateFromOnPause = getCurrentMapState();
         }
+        PositionHistory.flush();
         if (!Settings.isFeatureEnabledDefaultTrue(R.string.pref_useDelayedMapFragment)) {
             destroyMapFragment();
         }
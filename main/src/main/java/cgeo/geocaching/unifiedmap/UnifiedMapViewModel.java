@@ -2,6 +2,7 @@ package cgeo.geocaching.unifiedmap;
 
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.ProximityNotification;
+import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.PositionHistory;
 import cgeo.geocaching.maps.RouteTrackUtils;
 import cgeo.geocaching.maps.Tracks;
@@ -34,6 +35,7 @@ public class UnifiedMapViewModel extends ViewModel implements IndividualRoute.Up
     public static final String CACHE_STAR_KEY_PREFIX = "CACHE_STAR_";
     public static final String WAYPOINT_KEY_PREFIX = "WP_";
     public static final String COORDSPOINT_KEY_PREFIX = "COORDS_";
+    public static final String CLUSTER_KEY_PREFIX = "CLUSTER_";
 
     // ViewModels will survive config changes, no savedInstanceState is needed
     // Don't hold an activity references inside the ViewModel!
@@ -67,6 +69,8 @@ public class UnifiedMapViewModel extends ViewModel implements IndividualRoute.Up
     public final MutableLiveData<PositionHistory> positionHistory = new MutableLiveData<>(new PositionHistory());
     public final MutableLiveData<Boolean> followMyLocation = new MutableLiveData<>(Settings.getFollowMyLocation());
     public final MutableLiveData<Geopoint> mapCenter = new MutableLiveData<>();
+    /** visible area and zoom level, updated by the background loader whenever the map was moved or zoomed */
+    public final MutableLiveData<ViewportInfo> viewport = new MutableLiveData<>();
     public final MutableLiveData<Boolean> transientIsLiveEnabled = new MutableLiveData<>(false);
 
     public void setTrack(final String key, final IGeoItemSupplier route, final int unused1, final int unused2) {
@@ -125,6 +129,16 @@ public class UnifiedMapViewModel extends ViewModel implements IndividualRoute.Up
         }
     }
 
+    public static class ViewportInfo {
+        public final Viewport viewport;
+        public final int zoom;
+
+        public ViewportInfo(final Viewport viewport, final int zoom) {
+            this.viewport = viewport;
+            this.zoom = zoom;
+        }
+    }
+
     // cache/waypoint sheet opened?
     public static class SheetInfo implements Parcelable {
         public final String geocode;
@@ -475,6 +475,11 @@ public class GeoItemLayer<K> {
         }
     }
 
+    /** whether the current map provider draws markers from the shared {@link MarkerAtlas} */
+    public synchronized boolean usesMarkerAtlas() {
+        return providerLayer != null && providerLayer.usesMarkerAtlas();
+    }
+
     /** Gets the overall viewport for all objects in this layer (visible or invisible) */
     public synchronized Viewport getViewport() {
         final Viewport.ContainingViewportBuilder vpBuilder = new Viewport.ContainingViewportBuilder();
@@ -21,6 +21,8 @@ import java.util.List;
 
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.Projection;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.Circle;
 import com.google.android.gms.maps.model.CircleOptions;
 import com.google.android.gms.maps.model.LatLng;
@@ -42,6 +44,9 @@ public class GoogleV2GeoItemLayer implements IProviderGeoItemLayer<Pair<Object,
     private Resources resources;
     private int defaultZLevel;
 
+    /** markers of the same variant share one bitmap descriptor */
+    private final MarkerVariantCache<BitmapDescriptor> markerDescriptors = new MarkerVariantCache<>();
+
     public GoogleV2GeoItemLayer(final GoogleMap map, final Resources resources) {
         this.map = map;
         this.resources = resources;
@@ -71,6 +76,7 @@ public class GoogleV2GeoItemLayer implements IProviderGeoItemLayer<Pair<Object,
 
         this.map = null;
         this.resources = null;
+        markerDescriptors.clear();
     }
 
     @Override
@@ -126,8 +132,12 @@ public class GoogleV2GeoItemLayer implements IProviderGeoItemLayer<Pair<Object,
         Object marker = null;
         final GeoIcon icon = item.getIcon();
         if (icon != null && item.getCenter() != null && icon.getBitmap() != null) {
+            BitmapDescriptor descriptor = markerDescriptors.get(icon, BitmapDescriptorFactory::fromBitmap);
+            if (descriptor == null) {
+                descriptor = BitmapDescriptorCache.toBitmapDescriptor(new BitmapDrawable(resources, icon.getBitmap()));
+            }
             marker = map.addMarker(new MarkerOptions()
-                .icon(BitmapDescriptorCache.toBitmapDescriptor(new BitmapDrawable(resources, icon.getBitmap())))
+                .icon(descriptor)
                 .rotation(icon.getRotation())
                 .flat(icon.isFlat())
                 .position(GP_CONVERTER.to(item.getCenter()))
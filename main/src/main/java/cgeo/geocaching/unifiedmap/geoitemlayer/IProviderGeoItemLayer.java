@@ -69,6 +69,11 @@ public interface IProviderGeoItemLayer<C> {
         AndroidRxUtils.runOnUi(runnable);
     }
 
+    /** whether this layer draws markers with a marker key from the shared {@link MarkerAtlas} */
+    default boolean usesMarkerAtlas() {
+        return false;
+    }
+
     default boolean continueMapChangeExecutions(final long startTime, final  int queueLength) {
         return System.currentTimeMillis() - startTime < 40;
     }
@@ -45,6 +45,9 @@ public class MapsforgeV6GeoItemLayer extends Layer implements IProviderGeoItemLa
     public final List<Layer> layers = new ArrayList<>();
     public final Lock layerLock = new ReentrantLock();
 
+    /** markers of the same variant share one bitmap */
+    private final MarkerVariantCache<org.mapsforge.core.graphics.Bitmap> markerBitmaps = new MarkerVariantCache<>();
+
     public MapsforgeV6GeoItemLayer(final LayerManager layerManager, final MapViewProjection projection) {
         this.layerManager = layerManager;
         this.projection = projection;
@@ -63,6 +66,7 @@ public class MapsforgeV6GeoItemLayer extends Layer implements IProviderGeoItemLa
             this.layerManager.getLayers().remove(this);
         }
         this.layerManager = null;
+        markerBitmaps.clear();
     }
 
     @Override
@@ -140,7 +144,7 @@ public class MapsforgeV6GeoItemLayer extends Layer implements IProviderGeoItemLa
         requestRedraw();
     }
 
-    private static Marker createMarker(final Geopoint point, final GeoIcon icon) {
+    private Marker createMarker(final Geopoint point, final GeoIcon icon) {
         if (point == null || icon == null || icon.getBitmap() == null) {
             return null;
         }
@@ -148,14 +152,22 @@ public class MapsforgeV6GeoItemLayer extends Layer implements IProviderGeoItemLa
         if (bitmap == null) {
             return null;
         }
+        org.mapsforge.core.graphics.Bitmap markerBitmap = icon.getRotation() == 0 ? markerBitmaps.get(icon, MapsforgeV6GeoItemLayer::toMarkerBitmap) : null;
+        if (markerBitmap == null) {
+            markerBitmap = toMarkerBitmap(bitmap);
+        }
 
         return new Marker(
                 latLong(point),
-                AndroidGraphicFactory.convertToBitmap(new BitmapDrawable(CgeoApplication.getInstance().getResources(), bitmap)),
+                markerBitmap,
                 (int) ((-icon.getXAnchor() + 0.5f) * bitmap.getWidth()),
                 (int) ((-icon.getYAnchor() + 0.5f) * bitmap.getHeight()));
     }
 
+    private static org.mapsforge.core.graphics.Bitmap toMarkerBitmap(final Bitmap bitmap) {
+        return AndroidGraphicFactory.convertToBitmap(new BitmapDrawable(CgeoApplication.getInstance().getResources(), bitmap));
+    }
+
     private static Paint createPaint(@ColorInt final int color) {
         final Paint p = AndroidGraphicFactory.INSTANCE.createPaint();
         p.setColor(color);
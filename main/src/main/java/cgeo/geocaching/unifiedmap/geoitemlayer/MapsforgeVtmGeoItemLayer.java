@@ -13,10 +13,18 @@ import cgeo.geocaching.utils.GroupedList;
 
 import android.graphics.BitmapFactory;
 import android.util.Pair;
+import android.util.SparseArray;
 
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -37,6 +45,9 @@ import org.oscim.layers.vector.geometries.LineDrawable;
 import org.oscim.layers.vector.geometries.PolygonDrawable;
 import org.oscim.layers.vector.geometries.Style;
 import org.oscim.map.Map;
+import org.oscim.renderer.atlas.TextureAtlas;
+import org.oscim.renderer.atlas.TextureRegion;
+import org.oscim.renderer.bucket.TextureItem;
 import org.oscim.utils.geom.GeomBuilder;
 
 public class MapsforgeVtmGeoItemLayer implements IProviderGeoItemLayer<Pair<Drawable, MarkerInterface>> {
@@ -55,6 +66,22 @@ public class MapsforgeVtmGeoItemLayer implements IProviderGeoItemLayer<Pair<Draw
 
     private MarkerSymbol defaultMarkerSymbol;
 
+    /** markers of the same variant share one symbol, drawn from a texture of the shared {@link MarkerAtlas} */
+    private final MarkerVariantCache<MarkerSymbol> markerSymbols = new MarkerVariantCache<>();
+    /** latest texture per atlas page */
+    private final SparseArray<Pair<MarkerAtlas.PageSnapshot, TextureItem>> atlasTextures = new SparseArray<>();
+    /** atlas texture of each cached marker symbol */
+    private final java.util.Map<MarkerSymbol, TextureItem> symbolTextures = new HashMap<>();
+    /** atlas texture of each marker on the map */
+    private final java.util.Map<MarkerInterface, TextureItem> markerTextures = new HashMap<>();
+    /** number of markers using an atlas texture. Superseded textures are disposed as soon as no marker uses them anymore */
+    private final java.util.Map<TextureItem, Integer> textureUsage = new HashMap<>();
+    /**
+     * markers (with their icon and z level) whose variant is not on the current texture of its atlas page yet. They are
+     * put on the map at the end of the batch, so a batch creates at most one new texture per page instead of one per variant
+     */
+    private final java.util.Map<MarkerItem, Pair<GeoIcon, Integer>> pendingMarkers = new LinkedHashMap<>();
+
     private int defaultZLevel = 0;
 
     public MapsforgeVtmGeoItemLayer(final Map map, final GroupedList<Layer> mapLayers) {
@@ -172,20 +199,159 @@ public class MapsforgeVtmGeoItemLayer implements IProviderGeoItemLayer<Pair<Draw
 
         MarkerItem marker = null;
         if (item.getIcon() != null) {
-            final ItemizedLayer markerLayer = getMarkerLayer(zLevel, true);
             final GeoIcon icon = item.getIcon();
             marker = new MarkerItem("", "", GP_CONVERTER.to(item.getCenter()));
-            marker.setMarker(new MarkerSymbol(new AndroidBitmap(icon.getBitmap()),
-                    icon.getXAnchor(), icon.getYAnchor(), !icon.isFlat()));
-            marker.setRotation(item.getIcon().getRotation());
-            markerLayer.addItem(marker);
-            markerLayer.update();
+            marker.setRotation(icon.getRotation());
+            if (needsNewAtlasTexture(icon)) {
+                synchronized (this) {
+                    pendingMarkers.put(marker, new Pair<>(icon, zLevel));
+                }
+            } else {
+                final ItemizedLayer markerLayer = getMarkerLayer(zLevel, true);
+                setMarkerSymbol(marker, icon);
+                markerLayer.addItem(marker);
+                markerLayer.update();
+            }
         }
 
 
         return new Pair<>(drawable, marker);
     }
 
+    private void setMarkerSymbol(final MarkerItem marker, final GeoIcon icon) {
+        MarkerSymbol symbol = markerSymbols.get(icon, bitmap -> createAtlasMarkerSymbol(icon));
+        if (symbol == null) {
+            symbol = new MarkerSymbol(new AndroidBitmap(icon.getBitmap()), icon.getXAnchor(), icon.getYAnchor(), !icon.isFlat());
+        } else {
+            useAtlasTexture(marker, symbol);
+        }
+        marker.setMarker(symbol);
+    }
+
+    /** whether the icon's marker variant is in the atlas, but not on the current texture of its page */
+    private boolean needsNewAtlasTexture(final GeoIcon icon) {
+        if (icon.getMarkerKey() == 0 || icon.getBitmap() == null) {
+            return false;
+        }
+        final MarkerAtlas.Region region = MarkerAtlas.get().add(icon.getMarkerKey(), icon.getBitmap());
+        if (region == null) {
+            return false;
+        }
+        synchronized (this) {
+            final Pair<MarkerAtlas.PageSnapshot, TextureItem> current = atlasTextures.get(region.page);
+            return current == null || !current.first.contains(region);
+        }
+    }
+
+    /** puts markers deferred during the batch on the map, sharing one new texture per atlas page */
+    private void addPendingMarkers() {
+        final List<java.util.Map.Entry<MarkerItem, Pair<GeoIcon, Integer>>> pending;
+        synchronized (this) {
+            if (pendingMarkers.isEmpty()) {
+                return;
+            }
+            pending = new ArrayList<>(pendingMarkers.entrySet());
+            pendingMarkers.clear();
+        }
+        final Set<ItemizedLayer> changedLayers = new HashSet<>();
+        for (java.util.Map.Entry<MarkerItem, Pair<GeoIcon, Integer>> entry : pending) {
+            final ItemizedLayer markerLayer = getMarkerLayer(entry.getValue().second, true);
+            setMarkerSymbol(entry.getKey(), entry.getValue().first);
+            markerLayer.addItem(entry.getKey());
+            changedLayers.add(markerLayer);
+        }
+        for (ItemizedLayer markerLayer : changedLayers) {
+            markerLayer.update();
+        }
+    }
+
+    @Nullable
+    private MarkerSymbol createAtlasMarkerSymbol(final GeoIcon icon) {
+        final MarkerAtlas.Region region = MarkerAtlas.get().add(icon.getMarkerKey(), icon.getBitmap());
+        if (region == null) {
+            return null;
+        }
+        final TextureItem texture = getAtlasTexture(region);
+        if (texture == null) {
+            return null;
+        }
+        final MarkerSymbol symbol = new MarkerSymbol(new TextureRegion(texture, new TextureAtlas.Rect(region.x, region.y, region.width, region.height)),
+                icon.getXAnchor(), icon.getYAnchor(), !icon.isFlat());
+        synchronized (this) {
+            symbolTextures.put(symbol, texture);
+        }
+        return symbol;
+    }
+
+    /**
+     * Texture of the atlas page containing the given region. If markers were added to the page since its last texture
+     * was created, a new one is created from a snapshot of the page and the old one is superseded.
+     */
+    @Nullable
+    private synchronized TextureItem getAtlasTexture(final MarkerAtlas.Region region) {
+        final Pair<MarkerAtlas.PageSnapshot, TextureItem> current = atlasTextures.get(region.page);
+        if (current != null && current.first.contains(region)) {
+            return current.second;
+        }
+        final MarkerAtlas.PageSnapshot snapshot = MarkerAtlas.get().snapshot(region.page);
+        if (!snapshot.contains(region)) {
+            // atlas was cleared in between
+            return null;
+        }
+        final TextureItem texture = new TextureItem(new AndroidBitmap(snapshot.bitmap));
+        atlasTextures.put(region.page, new Pair<>(snapshot, texture));
+        if (current != null) {
+            supersede(current.second);
+        }
+        return texture;
+    }
+
+    /**
+     * Symbols of a superseded texture are dropped from the cache, so new markers use the latest texture of the page.
+     * The texture itself is disposed once the last marker using it is removed.
+     */
+    private synchronized void supersede(final TextureItem texture) {
+        markerSymbols.removeIf(symbol -> symbolTextures.get(symbol) == texture);
+        symbolTextures.values().removeAll(Collections.singleton(texture));
+        if (!textureUsage.containsKey(texture)) {
+            texture.dispose();
+        }
+    }
+
+    private synchronized boolean isCurrentAtlasTexture(final TextureItem texture) {
+        for (int i = 0; i < atlasTextures.size(); i++) {
+            if (atlasTextures.valueAt(i).second == texture) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void useAtlasTexture(final MarkerInterface marker, final MarkerSymbol symbol) {
+        final TextureItem texture = symbolTextures.get(symbol);
+        if (texture != null) {
+            markerTextures.put(marker, texture);
+            final Integer usage = textureUsage.get(texture);
+            textureUsage.put(texture, usage == null ? 1 : usage + 1);
+        }
+    }
+
+    private synchronized void releaseAtlasTexture(final MarkerInterface marker) {
+        final TextureItem texture = markerTextures.remove(marker);
+        if (texture == null) {
+            return;
+        }
+        final int usage = textureUsage.get(texture) - 1;
+        if (usage > 0) {
+            textureUsage.put(texture, usage);
+            return;
+        }
+        textureUsage.remove(texture);
+        if (!isCurrentAtlasTexture(texture)) {
+            texture.dispose();
+        }
+    }
+
     private static void addRingToGeoBuilder(final GeomBuilder gb, final List<Geopoint> ring) {
         for (Geopoint pt : ring) {
             final GeoPoint gpt = GP_CONVERTER.to(pt);
@@ -210,16 +376,29 @@ public class MapsforgeVtmGeoItemLayer implements IProviderGeoItemLayer<Pair<Draw
             }
         }
         if (context.second != null) {
+            synchronized (this) {
+                if (pendingMarkers.remove(context.second) != null) {
+                    // not on the map yet
+                    return;
+                }
+            }
             final ItemizedLayer markerLayer = getMarkerLayer(zLevel, false);
             if (markerLayer != null) {
                 markerLayer.removeItem(context.second);
                 markerLayer.update();
             }
+            releaseAtlasTexture(context.second);
         }
     }
 
+    @Override
+    public boolean usesMarkerAtlas() {
+        return true;
+    }
+
     @Override
     public void onMapChangeBatchEnd(final long processedCount) {
+        addPendingMarkers();
         //make sure map is redrawn. See e.g. #14787
         if (map != null && processedCount > 0) {
             map.updateMap(true);
@@ -238,6 +417,22 @@ public class MapsforgeVtmGeoItemLayer implements IProviderGeoItemLayer<Pair<Draw
         markerLayerMap.clear();
         vectorLayerMap.clear();
         defaultMarkerSymbol = null;
+
+        markerSymbols.clear();
+        synchronized (this) {
+            final Set<TextureItem> textures = new HashSet<>(textureUsage.keySet());
+            for (int i = 0; i < atlasTextures.size(); i++) {
+                textures.add(atlasTextures.valueAt(i).second);
+            }
+            for (TextureItem texture : textures) {
+                texture.dispose();
+            }
+            atlasTextures.clear();
+            pendingMarkers.clear();
+            symbolTextures.clear();
+            markerTextures.clear();
+            textureUsage.clear();
+        }
     }
 
     @Override
@@ -0,0 +1,151 @@
+package cgeo.geocaching.unifiedmap.geoitemlayer;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared texture atlas for map markers.
+ *
+ * Each distinct marker variant (identified by its marker key, see {@link cgeo.geocaching.models.geoitem.GeoIcon#getMarkerKey()})
+ * is rasterized once into one of a few large atlas pages. Map layers which are able to draw parts of a texture
+ * (like VTM) draw all markers from these pages, so memory and draw calls scale with the number of marker variants
+ * instead of the number of shown caches.
+ *
+ * Pages only grow: a region once assigned never changes, thus renderers may keep using older copies of a page
+ * for the regions it contained at that time (see {@link PageSnapshot}).
+ */
+public final class MarkerAtlas {
+
+    public static final int PAGE_SIZE = 1024;
+    private static final int PADDING = 2;
+
+    private static final MarkerAtlas INSTANCE = new MarkerAtlas();
+
+    /** Place of a marker variant within the atlas */
+    public static final class Region {
+        public final int page;
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+        /** texture coordinates of the region within its page, in the range [0, 1] */
+        public final float u1;
+        public final float v1;
+        public final float u2;
+        public final float v2;
+        /** number of regions added to the page before this one */
+        final int serial;
+        /** the bitmap rasterized into this region. Not kept alive by the atlas, its pixels are copied into the page */
+        final WeakReference<Bitmap> source;
+        /** the page this region was rasterized into, pages are replaced on {@link #clear()} */
+        final Bitmap pageBitmap;
+
+        private Region(final MarkerAtlasPacker.Slot slot, final int serial, final Bitmap source, final Bitmap pageBitmap) {
+            this.page = slot.page;
+            this.x = slot.x;
+            this.y = slot.y;
+            this.width = source.getWidth();
+            this.height = source.getHeight();
+            this.u1 = (float) x / PAGE_SIZE;
+            this.v1 = (float) y / PAGE_SIZE;
+            this.u2 = (float) (x + width) / PAGE_SIZE;
+            this.v2 = (float) (y + height) / PAGE_SIZE;
+            this.serial = serial;
+            this.source = new WeakReference<>(source);
+            this.pageBitmap = pageBitmap;
+        }
+    }
+
+    /** Copy of a page, containing the first {@code regionCount} regions added to it */
+    public static final class PageSnapshot {
+        public final Bitmap bitmap;
+        public final int regionCount;
+        private final Bitmap pageBitmap;
+
+        private PageSnapshot(final Bitmap pageBitmap, final int regionCount) {
+            this.bitmap = pageBitmap.copy(Bitmap.Config.ARGB_8888, false);
+            this.regionCount = regionCount;
+            this.pageBitmap = pageBitmap;
+        }
+
+        /** @return true if the given region is contained in this snapshot */
+        public boolean contains(@NonNull final Region region) {
+            return region.pageBitmap == pageBitmap && region.serial < regionCount;
+        }
+    }
+
+    private final SparseArray<Region> regions = new SparseArray<>();
+    private final List<Bitmap> pages = new ArrayList<>();
+    private final List<Integer> pageRegionCounts = new ArrayList<>();
+    private MarkerAtlasPacker packer = new MarkerAtlasPacker(PAGE_SIZE, PADDING);
+
+    @VisibleForTesting
+    MarkerAtlas() {
+        // singleton, use get()
+    }
+
+    public static MarkerAtlas get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Rasterizes the given marker bitmap into the atlas, if not already done.
+     *
+     * @return region of the marker, or null if the bitmap is too large for the atlas
+     */
+    @Nullable
+    public synchronized Region add(final int markerKey, @NonNull final Bitmap bitmap) {
+        final Region existing = regions.get(markerKey);
+        if (existing != null && existing.source.get() == bitmap) {
+            return existing;
+        }
+        final MarkerAtlasPacker.Slot slot = packer.allocate(bitmap.getWidth(), bitmap.getHeight());
+        if (slot == null) {
+            return null;
+        }
+        while (pages.size() <= slot.page) {
+            pages.add(Bitmap.createBitmap(PAGE_SIZE, PAGE_SIZE, Bitmap.Config.ARGB_8888));
+            pageRegionCounts.add(0);
+        }
+        final Bitmap page = pages.get(slot.page);
+        new Canvas(page).drawBitmap(bitmap, slot.x, slot.y, null);
+        final int serial = pageRegionCounts.get(slot.page);
+        pageRegionCounts.set(slot.page, serial + 1);
+        final Region region = new Region(slot, serial, bitmap, page);
+        regions.put(markerKey, region);
+        return region;
+    }
+
+    /** @return region of the marker variant, or null if the given bitmap was not added to the atlas (yet) */
+    @Nullable
+    public synchronized Region get(final int markerKey, @Nullable final Bitmap bitmap) {
+        final Region region = regions.get(markerKey);
+        return region != null && region.source.get() == bitmap ? region : null;
+    }
+
+    /** @return a copy of the given page including all regions added to it so far */
+    @NonNull
+    public synchronized PageSnapshot snapshot(final int page) {
+        return new PageSnapshot(pages.get(page), pageRegionCounts.get(page));
+    }
+
+    /**
+     * Removes all marker variants, e.g. after the marker scaling was changed. Snapshots taken before stay valid.
+     */
+    public synchronized void clear() {
+        regions.clear();
+        pages.clear();
+        pageRegionCounts.clear();
+        packer = new MarkerAtlasPacker(PAGE_SIZE, PADDING);
+    }
+
+}
@@ -0,0 +1,71 @@
+package cgeo.geocaching.unifiedmap.geoitemlayer;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Places rectangles of different sizes on square pages of fixed size, row by row ("shelf packing").
+ * Space is never reused, as marker variants are only added to an atlas. Not thread-safe.
+ */
+class MarkerAtlasPacker {
+
+    /** place of a rectangle within the pages */
+    static class Slot {
+        public final int page;
+        public final int x;
+        public final int y;
+
+        Slot(final int page, final int x, final int y) {
+            this.page = page;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private final int pageSize;
+    private final int padding;
+
+    private int pageCount = 0;
+    private int shelfX = 0;
+    private int shelfY = 0;
+    private int shelfHeight = 0;
+
+    /**
+     * @param padding free pixels kept between rectangles, so that texture filtering does not mix neighbouring markers
+     */
+    MarkerAtlasPacker(final int pageSize, final int padding) {
+        this.pageSize = pageSize;
+        this.padding = padding;
+    }
+
+    /** @return place for a rectangle of the given size, null if it does not fit on a page at all */
+    @Nullable
+    Slot allocate(final int width, final int height) {
+        if (width <= 0 || height <= 0 || width > pageSize || height > pageSize) {
+            return null;
+        }
+        if (pageCount == 0) {
+            pageCount = 1;
+        }
+        if (shelfX + width > pageSize) {
+            // start a new shelf below the current one
+            shelfY += shelfHeight + padding;
+            shelfX = 0;
+            shelfHeight = 0;
+        }
+        if (shelfY + height > pageSize) {
+            pageCount++;
+            shelfX = 0;
+            shelfY = 0;
+            shelfHeight = 0;
+        }
+        final Slot slot = new Slot(pageCount - 1, shelfX, shelfY);
+        shelfX += width + padding;
+        shelfHeight = Math.max(shelfHeight, height);
+        return slot;
+    }
+
+    int getPageCount() {
+        return pageCount;
+    }
+
+}
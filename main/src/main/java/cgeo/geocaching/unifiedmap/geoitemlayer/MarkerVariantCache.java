@@ -0,0 +1,66 @@
+package cgeo.geocaching.unifiedmap.geoitemlayer;
+
+import cgeo.geocaching.models.geoitem.GeoIcon;
+import cgeo.geocaching.utils.functions.Func1;
+
+import android.graphics.Bitmap;
+import android.util.Pair;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.core.util.Predicate;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Cache for map specific marker objects (bitmaps, symbols, descriptors), one per marker variant.
+ * Icons are matched by their marker key and bitmap (see {@link GeoIcon#getMarkerKey()}), so all icons of a variant
+ * share one object instead of each creating its own copy. Source bitmaps are only referenced weakly.
+ */
+class MarkerVariantCache<T> {
+
+    private final SparseArray<Pair<WeakReference<Bitmap>, T>> cache = new SparseArray<>();
+
+    /**
+     * @return the object for the icon's marker variant, created on first use. Null if the icon has no marker key
+     * or the creator returned null; such icons have to be handled individually.
+     */
+    @Nullable
+    public synchronized T get(@NonNull final GeoIcon icon, @NonNull final Func1<Bitmap, T> creator) {
+        final int key = icon.getMarkerKey();
+        final Bitmap bitmap = icon.getBitmap();
+        if (key == 0 || bitmap == null) {
+            return null;
+        }
+        final Pair<WeakReference<Bitmap>, T> cached = cache.get(key);
+        if (cached != null && cached.first.get() == bitmap) {
+            return cached.second;
+        }
+        final T value = creator.call(bitmap);
+        if (value != null) {
+            cache.put(key, new Pair<>(new WeakReference<>(bitmap), value));
+        }
+        return value;
+    }
+
+    /** removes all cached objects matching the given condition, they are created again on next use */
+    public synchronized void removeIf(@NonNull final Predicate<T> condition) {
+        for (int i = cache.size() - 1; i >= 0; i--) {
+            if (condition.test(cache.valueAt(i).second)) {
+                cache.removeAt(i);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+}
@@ -6,12 +6,14 @@ import cgeo.geocaching.R;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Units;
 import cgeo.geocaching.maps.RouteTrackUtils;
+import cgeo.geocaching.maps.routing.Routing;
 import cgeo.geocaching.models.Route;
 import cgeo.geocaching.models.RouteSegment;
 import cgeo.geocaching.models.geoitem.GeoIcon;
 import cgeo.geocaching.models.geoitem.GeoItem;
 import cgeo.geocaching.models.geoitem.GeoPrimitive;
 import cgeo.geocaching.unifiedmap.geoitemlayer.GeoItemLayer;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.ImageUtils;
 import cgeo.geocaching.utils.LifecycleAwareBroadcastReceiver;
 import static cgeo.geocaching.unifiedmap.LayerHelper.ZINDEX_ELEVATIONCHARTMARKERPOSITION;
@@ -40,6 +42,7 @@ import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.highlight.Highlight;
 import com.github.mikephil.charting.listener.OnChartValueSelectedListener;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 public class ElevationChart {
 
@@ -114,6 +117,7 @@ public class ElevationChart {
         }
 
         // set/update data
+        lookupMissingElevation(route, routeTrackUtils);
         synchronized (entries) {
             collectData(route);
             formatChart(res);
@@ -123,6 +127,37 @@ public class ElevationChart {
         }
     }
 
+    /** looks up elevation data for route segments without elevation (e.g. from tracks) in background, then updates chart */
+    private void lookupMissingElevation(final Route route, final RouteTrackUtils routeTrackUtils) {
+        if (route == null || route.getSegments() == null) {
+            return;
+        }
+        final List<RouteSegment> segmentsWithoutElevation = new ArrayList<>();
+        for (RouteSegment segment : route.getSegments()) {
+            if (segment.getElevation() == null || segment.getElevation().size() != segment.getSize()) {
+                segmentsWithoutElevation.add(segment);
+            }
+        }
+        if (segmentsWithoutElevation.isEmpty()) {
+            return;
+        }
+        // build new elevation lists in background, but only assign them on UI thread, where the chart reads them
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> {
+            final List<ArrayList<Float>> elevations = new ArrayList<>();
+            for (RouteSegment segment : segmentsWithoutElevation) {
+                elevations.add(Routing.getElevations(segment.getPoints()));
+            }
+            return elevations;
+        }, elevations -> {
+            for (int i = 0; i < segmentsWithoutElevation.size(); i++) {
+                segmentsWithoutElevation.get(i).setElevation(elevations.get(i));
+            }
+            if (chartBlock.getVisibility() == View.VISIBLE) {
+                showElevationChart(route, routeTrackUtils);
+            }
+        });
+    }
+
     /** collect entries for line chart from route */
     private void collectData(final Route route) {
         float distance = 0.0f;
@@ -1,6 +1,9 @@
 package cgeo.geocaching.unifiedmap.layers;
 
 import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.location.ClusterIndex;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.CacheMarker;
 import cgeo.geocaching.maps.MapStarUtils;
 import cgeo.geocaching.models.Geocache;
@@ -8,18 +11,24 @@ import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.models.geoitem.GeoIcon;
 import cgeo.geocaching.models.geoitem.GeoItem;
 import cgeo.geocaching.models.geoitem.GeoPrimitive;
+import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.unifiedmap.LayerHelper;
 import cgeo.geocaching.unifiedmap.UnifiedMapViewModel;
 import cgeo.geocaching.unifiedmap.geoitemlayer.GeoItemLayer;
+import cgeo.geocaching.unifiedmap.geoitemlayer.MarkerAtlas;
 import cgeo.geocaching.utils.CollectionDiff;
 import cgeo.geocaching.utils.CompactIconModeUtils;
 import cgeo.geocaching.utils.MapMarkerUtils;
 
+import android.content.res.Resources;
+
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,15 +39,27 @@ public class GeoItemsLayer {
     private final CollectionDiff<String, String, String> lastDisplayedCacheStars = new CollectionDiff<>(k -> k);
     private boolean lastForceCompactIconMode = false;
 
-
+    private final GeoItemLayer<String> layer;
+    private final Resources res;
+    private final UnifiedMapViewModel viewModel;
+    /** positions of all cache and waypoint markers on the layer, by layer key */
+    private final ClusterIndex<String> clusterIndex = new ClusterIndex<>();
+    private boolean lastClustering = false;
+    /** keys of the markers shown by the last refresh while clustering */
+    private Set<String> lastShownKeys = new HashSet<>();
+    /** clusters on the layer, by layer key */
+    private Map<String, ClusterIndex.Cluster<String>> lastClusters = new HashMap<>();
 
     public GeoItemsLayer(final AppCompatActivity activity, final GeoItemLayer<String> layer) {
-        final UnifiedMapViewModel viewModel = new ViewModelProvider(activity).get(UnifiedMapViewModel.class);
+        this.layer = layer;
+        this.res = activity.getResources();
+        this.viewModel = new ViewModelProvider(activity).get(UnifiedMapViewModel.class);
 
 
         viewModel.caches.observeForRead(activity, caches -> { // this is always executed on UI thread, thus doesn't need to be thread save
 
             final Map<String, Integer> currentlyDisplayedGeocaches = new HashMap<>();
+            final Map<Geocache, CacheMarker> changedGeocaches = new HashMap<>();
 
             final boolean forceCompactIconMode = CompactIconModeUtils.forceCompactIconMode();
             if (lastForceCompactIconMode != forceCompactIconMode) {
@@ -51,25 +72,36 @@ public class GeoItemsLayer {
                 currentlyDisplayedGeocaches.put(cache.getGeocode(), cm.hashCode());
 
                 if (!lastDisplayedGeocaches.containsKey(cache.getGeocode()) || !lastDisplayedGeocaches.get(cache.getGeocode()).equals(cm.hashCode())) {
-
-                    layer.put(UnifiedMapViewModel.CACHE_KEY_PREFIX + cache.getGeocode(), GeoPrimitive.createMarker(cache.getCoords(),
-                        GeoIcon.builder()
-                            .setBitmap(cm.getBitmap())
-                            .setHotspot(forceCompactIconMode ? GeoIcon.Hotspot.CENTER : GeoIcon.Hotspot.BOTTOM_CENTER)
-                            .build()
-                    ).buildUpon().setZLevel(LayerHelper.ZINDEX_GEOCACHE).build());
+                    changedGeocaches.put(cache, cm);
                 }
             }
 
+            prerasterize(changedGeocaches.values());
+            final Map<String, GeoItem> changedMarkers = new HashMap<>();
+            for (Map.Entry<Geocache, CacheMarker> changed : changedGeocaches.entrySet()) {
+                final Geocache cache = changed.getKey();
+                final CacheMarker cm = changed.getValue();
+                final String key = UnifiedMapViewModel.CACHE_KEY_PREFIX + cache.getGeocode();
+                changedMarkers.put(key, GeoPrimitive.createMarker(cache.getCoords(),
+                    GeoIcon.builder()
+                        .setMarkerBitmap(cm.hashCode(), cm.getBitmap())
+                        .setHotspot(forceCompactIconMode ? GeoIcon.Hotspot.CENTER : GeoIcon.Hotspot.BOTTOM_CENTER)
+                        .build()
+                ).buildUpon().setZLevel(LayerHelper.ZINDEX_GEOCACHE).build());
+                index(key, cache.getCoords());
+            }
+
             for (String geocode : currentlyDisplayedGeocaches.keySet()) {
                 lastDisplayedGeocaches.remove(geocode);
             }
 
             for (String geocode : lastDisplayedGeocaches.keySet()) {
                 layer.remove(UnifiedMapViewModel.CACHE_KEY_PREFIX + geocode);
+                clusterIndex.remove(UnifiedMapViewModel.CACHE_KEY_PREFIX + geocode);
             }
 
             lastDisplayedGeocaches = currentlyDisplayedGeocaches;
+            refresh(changedMarkers);
 
         });
 
@@ -90,33 +122,163 @@ public class GeoItemsLayer {
         viewModel.waypoints.observe(activity, waypoints -> { // this is always executed on UI thread, thus doesn't need to be thread save
 
             final Map<String, Integer> currentlyDisplayedWaypoints = new HashMap<>();
+            final Map<Waypoint, CacheMarker> changedWaypoints = new HashMap<>();
 
             for (Waypoint waypoint : (Set<Waypoint>) waypoints.clone()) { // Creates a clone to avoid ConcurrentModificationExceptions
                 final CacheMarker cm = lastForceCompactIconMode ? MapMarkerUtils.getWaypointDotMarker(activity.getResources(), waypoint) : MapMarkerUtils.getWaypointMarker(activity.getResources(), waypoint, true, true);
                 currentlyDisplayedWaypoints.put(waypoint.getFullGpxId(), cm.hashCode());
 
                 if (!lastDisplayedWaypoints.containsKey(waypoint.getFullGpxId()) || !lastDisplayedWaypoints.get(waypoint.getFullGpxId()).equals(cm.hashCode())) {
-
-                    layer.put(UnifiedMapViewModel.WAYPOINT_KEY_PREFIX + waypoint.getFullGpxId(), GeoPrimitive.createMarker(waypoint.getCoords(),
-                            GeoIcon.builder()
-                                    .setBitmap(cm.getBitmap())
-                                    .setHotspot(lastForceCompactIconMode ? GeoIcon.Hotspot.CENTER : GeoIcon.Hotspot.BOTTOM_CENTER)
-                                    .build()
-                    ).buildUpon().setZLevel(LayerHelper.ZINDEX_WAYPOINT).build());
+                    changedWaypoints.put(waypoint, cm);
                 }
             }
 
+            prerasterize(changedWaypoints.values());
+            final Map<String, GeoItem> changedMarkers = new HashMap<>();
+            for (Map.Entry<Waypoint, CacheMarker> changed : changedWaypoints.entrySet()) {
+                final Waypoint waypoint = changed.getKey();
+                final CacheMarker cm = changed.getValue();
+                final String key = UnifiedMapViewModel.WAYPOINT_KEY_PREFIX + waypoint.getFullGpxId();
+                changedMarkers.put(key, GeoPrimitive.createMarker(waypoint.getCoords(),
+                        GeoIcon.builder()
+                                .setMarkerBitmap(cm.hashCode(), cm.getBitmap())
+                                .setHotspot(lastForceCompactIconMode ? GeoIcon.Hotspot.CENTER : GeoIcon.Hotspot.BOTTOM_CENTER)
+                                .build()
+                ).buildUpon().setZLevel(LayerHelper.ZINDEX_WAYPOINT).build());
+                index(key, waypoint.getCoords());
+            }
+
             for (String fullGpxId : currentlyDisplayedWaypoints.keySet()) {
                 lastDisplayedWaypoints.remove(fullGpxId);
             }
 
             for (String fullGpxId : lastDisplayedWaypoints.keySet()) {
                 layer.remove(UnifiedMapViewModel.WAYPOINT_KEY_PREFIX + fullGpxId);
+                clusterIndex.remove(UnifiedMapViewModel.WAYPOINT_KEY_PREFIX + fullGpxId);
             }
 
             lastDisplayedWaypoints = currentlyDisplayedWaypoints;
+            refresh(changedMarkers);
         });
 
+        // clusters depend on the visible area
+        viewModel.viewport.observe(activity, viewport -> refresh(new HashMap<>()));
+
+    }
+
+    private void index(final String key, final Geopoint coords) {
+        if (coords == null) {
+            clusterIndex.remove(key);
+        } else {
+            clusterIndex.add(key, coords.getLatitude(), coords.getLongitude());
+        }
+    }
+
+    /**
+     * Puts the changed markers onto the layer and updates the marker clusters.
+     *
+     * While clustering (see {@link Settings#isMapClusteringEnabled()}), the visible area is divided into grid cells
+     * of {@link ClusterIndex#CELL_SIZE_PIXELS} and each cell is drawn as one primitive only: either the single marker
+     * it contains or a cluster marker showing the number of items. All other markers stay on the layer, but hidden.
+     * Only markers and clusters whose state changed since the last refresh are touched on the layer.
+     */
+    private void refresh(final Map<String, GeoItem> changedMarkers) {
+        final UnifiedMapViewModel.ViewportInfo viewportInfo = viewModel.viewport.getValue();
+        final boolean clustering = viewportInfo != null && viewportInfo.zoom <= ClusterIndex.MAX_ZOOM && Settings.isMapClusteringEnabled();
+        if (!clustering && !lastClustering) {
+            for (Map.Entry<String, GeoItem> changed : changedMarkers.entrySet()) {
+                layer.put(changed.getKey(), changed.getValue());
+            }
+            return;
+        }
+
+        final Set<String> shownKeys = new HashSet<>();
+        final Map<String, ClusterIndex.Cluster<String>> clusters = new HashMap<>();
+        if (clustering) {
+            final Viewport area = viewportInfo.viewport.resize(1.2);
+            for (ClusterIndex.Cluster<String> cluster : clusterIndex.query(area.getLatitudeMin(), area.getLongitudeMin(), area.getLatitudeMax(), area.getLongitudeMax(), viewportInfo.zoom)) {
+                if (cluster.key != null) {
+                    shownKeys.add(cluster.key);
+                } else {
+                    clusters.put(UnifiedMapViewModel.CLUSTER_KEY_PREFIX + cluster.zoom + "_" + cluster.cell, cluster);
+                }
+            }
+        }
+
+        for (Map.Entry<String, GeoItem> changed : changedMarkers.entrySet()) {
+            layer.put(changed.getKey(), changed.getValue(), !clustering || shownKeys.contains(changed.getKey()));
+        }
+        if (!lastClustering) {
+            // clustering starts, all markers were shown
+            for (String key : clusterIndex.keySet()) {
+                if (!shownKeys.contains(key) && !changedMarkers.containsKey(key)) {
+                    layer.hide(key);
+                }
+            }
+        } else if (clustering) {
+            for (String key : lastShownKeys) {
+                if (!shownKeys.contains(key) && !changedMarkers.containsKey(key)) {
+                    layer.hide(key);
+                }
+            }
+            for (String key : shownKeys) {
+                if (!lastShownKeys.contains(key) && !changedMarkers.containsKey(key)) {
+                    layer.show(key);
+                }
+            }
+        } else {
+            // clustering ends, show all markers hidden so far
+            for (String key : clusterIndex.keySet()) {
+                if (!lastShownKeys.contains(key) && !changedMarkers.containsKey(key)) {
+                    layer.show(key);
+                }
+            }
+        }
+        refreshClusters(clusters);
+        lastShownKeys = shownKeys;
+        lastClustering = clustering;
+    }
+
+    /** removes clusters no longer existing and puts new or changed ones, unchanged clusters stay on the layer as they are */
+    private void refreshClusters(final Map<String, ClusterIndex.Cluster<String>> clusters) {
+        for (String key : lastClusters.keySet()) {
+            if (!clusters.containsKey(key)) {
+                layer.remove(key);
+            }
+        }
+        for (Map.Entry<String, ClusterIndex.Cluster<String>> entry : clusters.entrySet()) {
+            final ClusterIndex.Cluster<String> cluster = entry.getValue();
+            final ClusterIndex.Cluster<String> last = lastClusters.get(entry.getKey());
+            if (last != null && last.count == cluster.count && last.latitude == cluster.latitude && last.longitude == cluster.longitude) {
+                continue;
+            }
+            final CacheMarker cm = MapMarkerUtils.getClusterMarker(res, cluster.count);
+            if (layer.usesMarkerAtlas()) {
+                MarkerAtlas.get().add(cm.hashCode(), cm.getBitmap());
+            }
+            layer.put(entry.getKey(), GeoPrimitive.createMarker(new Geopoint(cluster.latitude, cluster.longitude),
+                    GeoIcon.builder()
+                            .setMarkerBitmap(cm.hashCode(), cm.getBitmap())
+                            .setHotspot(GeoIcon.Hotspot.CENTER)
+                            .build()
+            ).buildUpon().setZLevel(LayerHelper.ZINDEX_GEOCACHE).build());
+        }
+        lastClusters = clusters;
+    }
+
+    /**
+     * Adds all marker variants of a change to the marker atlas before the markers are handed to the map layer,
+     * so that the map layer finds them on few atlas textures instead of one texture per marker.
+     * Nothing to do for map providers not using the atlas.
+     */
+    private void prerasterize(final Collection<CacheMarker> markers) {
+        if (!layer.usesMarkerAtlas()) {
+            return;
+        }
+        final MarkerAtlas atlas = MarkerAtlas.get();
+        for (CacheMarker cm : markers) {
+            atlas.add(cm.hashCode(), cm.getBitmap());
+        }
     }
 
 }
@@ -2,7 +2,7 @@ package cgeo.geocaching.unifiedmap.layers;
 
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.maps.PositionHistory;
-import cgeo.geocaching.models.TrailHistoryElement;
+import cgeo.geocaching.models.Trail;
 import cgeo.geocaching.models.geoitem.GeoGroup;
 import cgeo.geocaching.models.geoitem.GeoPrimitive;
 import cgeo.geocaching.models.geoitem.GeoStyle;
@@ -70,18 +70,20 @@ public class PositionHistoryLayer {
             return;
         }
 
-        final ArrayList<TrailHistoryElement> historyElements = history.getHistory();
+        final Trail trail = history.getHistory();
         final GeoGroup.Builder geoGroup = GeoGroup.builder();
 
         ArrayList<Geopoint> segmentPoints = new ArrayList<>();
 
-        segmentPoints.add(new Geopoint(historyElements.get(0).getLocation()));
-        for (int i = 1; i < historyElements.size(); i++) {
-            if (historyElements.get(i).getLocation().distanceTo(historyElements.get(i - 1).getLocation()) > LINE_MAXIMUM_DISTANCE_METERS) {
-                geoGroup.addItems(GeoPrimitive.createPolyline(segmentPoints, lineStyle));
-                segmentPoints = new ArrayList<>();
+        // read the points under the lock of the trail instead of copying it on every location update
+        synchronized (trail) {
+            for (int i = 0; i < trail.size(); i++) {
+                if (i > 0 && trail.distanceBetween(i, i - 1) > LINE_MAXIMUM_DISTANCE_METERS) {
+                    geoGroup.addItems(GeoPrimitive.createPolyline(segmentPoints, lineStyle));
+                    segmentPoints = new ArrayList<>();
+                }
+                segmentPoints.add(new Geopoint(trail.getLatitude(i), trail.getLongitude(i)));
             }
-            segmentPoints.add(new Geopoint(historyElements.get(i).getLocation()));
         }
         // always add current position
         if (currentLoc != null) {
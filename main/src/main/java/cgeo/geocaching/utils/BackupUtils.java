@@ -460,6 +460,7 @@ public class BackupUtils {
             if (!editor.commit()) {
                 throw new XmlPullParserException("could not commit changed preferences");
             }
+            Settings.refreshSnapshot();
             return true;
         } catch (NullPointerException | IOException | XmlPullParserException | NumberFormatException e) {
             final String error = e.getMessage();
@@ -16,6 +16,8 @@ import java.util.Locale;
  * but can be used in other situations as well.
  *
  * All logging is done on level given in constructor, default is VERBOSE level.
+ *
+ * If {@link PerformanceTracer} is enabled, each instance is additionally recorded as a span (independent of log level).
  */
 public class ContextLogger implements Closeable {
 
@@ -26,6 +28,8 @@ public class ContextLogger implements Closeable {
         DATETIME_FORMAT.setTimeZone(Calendar.getInstance().getTimeZone());
     }
 
+    private static final String CONTEXT_PREFIX = "[CtxLog]";
+
     private final long startTime;
     private final StringBuilder message = new StringBuilder();
     private Throwable exception = null;
@@ -35,6 +39,7 @@ public class ContextLogger implements Closeable {
     private final boolean forceLog;
     private final Log.LogLevel logLevel;
     private boolean hasLogged = false;
+    private final PerformanceTracer.SpanHandle traceSpan;
 
     public ContextLogger(final String context, final Object... params) {
         this(Log.LogLevel.VERBOSE, context, params);
@@ -51,11 +56,12 @@ public class ContextLogger implements Closeable {
     private ContextLogger(final Log.LogLevel logLevel, final boolean forceInfo, final String context, final Object... params) {
 
         this.startTime = System.currentTimeMillis();
+        this.traceSpan = PerformanceTracer.isEnabled() ? PerformanceTracer.start(PerformanceTracer.toOperationName(context)) : null;
         this.logLevel = logLevel;
         this.forceLog = forceInfo;
         this.doLog = Log.isEnabled(logLevel) || forceLog;
         if (this.doLog) {
-            this.contextString = "[CtxLog]" + String.format(context, params) + ":";
+            this.contextString = CONTEXT_PREFIX + String.format(context, params) + ":";
             if (this.forceLog) {
                 Log.iForce(contextString + "START");
             } else {
@@ -105,6 +111,7 @@ public class ContextLogger implements Closeable {
     }
 
     public void endLog() {
+        endTrace();
         if (doLog) {
             hasLogged = true;
             final String logMsg = this.contextString + "END (" + (System.currentTimeMillis() - startTime) + "ms)" + message +
@@ -125,6 +132,12 @@ public class ContextLogger implements Closeable {
         }
     }
 
+    private void endTrace() {
+        if (traceSpan != null) {
+            traceSpan.end(contextString == null ? null : contextString.substring(CONTEXT_PREFIX.length(), contextString.length() - 1));
+        }
+    }
+
     @Override
     public void close() {
         if (!hasLogged) {
@@ -47,6 +47,20 @@ public class DebugUtils {
         }, 1000);
     }
 
+    public static void createPerformanceTrace(@NonNull final Activity context) {
+        if (!PerformanceTracer.isEnabled()) {
+            ActivityMixin.showToast(context, R.string.init_performance_trace_disabled);
+            return;
+        }
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), PerformanceTracer::exportChromeTrace, traceFileUri -> {
+            if (traceFileUri == null) {
+                ActivityMixin.showToast(context, R.string.init_performance_trace_error);
+                return;
+            }
+            ShareUtils.shareOrDismissDialog(context, traceFileUri, "application/json", R.string.init_performance_trace, context.getString(R.string.init_performance_trace_exported, UriUtils.toUserDisplayableString(traceFileUri)));
+        });
+    }
+
     public static void askUserToReportProblem(@NonNull final Activity context, @Nullable final String errorMsg) {
         final StringBuilder message = new StringBuilder();
         if (errorMsg != null) {
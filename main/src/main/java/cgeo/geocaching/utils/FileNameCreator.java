@@ -16,6 +16,7 @@ public class FileNameCreator {
     public static final FileNameCreator LOGFILE = new FileNameCreator("logcat", "txt");
     public static final FileNameCreator LOGFILE_SELF_WRITTEN = new FileNameCreator("cgeo-log-%s", "txt");
     public static final FileNameCreator MEMORY_DUMP = new FileNameCreator("cgeo_dump", "hprof");
+    public static final FileNameCreator PERFORMANCE_TRACE = new FileNameCreator("cgeo-trace", "json");
     public static final FileNameCreator GPX_EXPORT = new FileNameCreator("export", "gpx");
     public static final FileNameCreator INDIVIDUAL_ROUTE_NOSUFFIX = new FileNameCreator("route", null);
     public static final FileNameCreator INDIVIDUAL_TRACK_NOSUFFIX = new FileNameCreator("track", null);
@@ -6,7 +6,7 @@ import cgeo.geocaching.enumerations.CacheListInfoItem;
 import cgeo.geocaching.enumerations.CacheSize;
 import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.list.AbstractList;
-import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.log.LogType;
 import cgeo.geocaching.models.GCList;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.Waypoint;
@@ -267,7 +267,7 @@ public final class Formatter {
                     infos.add(new SpannableString(formatDateYYYYMM(hiddenDate.getTime())));
                 }
             } else if (item == CacheListInfoItem.VALUES.RECENT_LOGS.id) {
-                final List<LogEntry> logs = cache.getLogs();
+                final List<LogType> logs = cache.getLogSummary().getLatestLogTypes();
                 if (logs.size() > 0) {
                     int count = 0;
                     // mitigation to make displaying ImageSpans work even in wrapping lines, see #14163
@@ -276,9 +276,9 @@ public final class Formatter {
                     for (int i = 0; i < Math.min(logs.size(), 8); i++) {
                         final ImageSpan is;
                         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                            is = new ImageSpan(getContext(), logs.get(i).logType.getLogOverlay(), ImageSpan.ALIGN_CENTER);
+                            is = new ImageSpan(getContext(), logs.get(i).getLogOverlay(), ImageSpan.ALIGN_CENTER);
                         } else {
-                            is = new ImageSpan(getContext(), logs.get(i).logType.getLogOverlay());
+                            is = new ImageSpan(getContext(), logs.get(i).getLogOverlay());
                         }
                         s.setSpan(is, i * 2, i * 2 + 1, 0);
                         count++;
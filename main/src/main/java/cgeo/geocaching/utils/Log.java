@@ -49,6 +49,10 @@ public final class Log {
      */
     public static final String PROP_THROW_ON_ERROR_LOG = "logging.throwonerror";
     public static final String PROP_LOG_TRANSACTION_SIZES = "logging.transactionsizes";
+    /**
+     * Whether to record performance traces (see {@link PerformanceTracer}). Value should be true or false
+     */
+    public static final String PROP_TRACING = "logging.tracing";
     /**
      * Logfile to log to
      */
@@ -67,6 +71,8 @@ public final class Log {
     private static boolean logThrowExceptionOnError = false;
     private static boolean logTransactionSizes = false;
     private static boolean effectiveLogTransactionSizes = false;
+    private static boolean logTracing = false;
+    private static boolean effectiveLogTracing = false;
     private static LogLevel minLogAddCallerInfo = LogLevel.NONE;
     private static LogLevel effectiveMinLogAddCallerInfo = LogLevel.NONE;
     private static int addCallerInfoMaxDepth = 8;
@@ -142,6 +148,7 @@ public final class Log {
             }
             logThrowExceptionOnError = "true".equalsIgnoreCase(logProps.getProperty(PROP_THROW_ON_ERROR_LOG));
             logTransactionSizes = "true".equalsIgnoreCase(logProps.getProperty(PROP_LOG_TRANSACTION_SIZES));
+            logTracing = "true".equalsIgnoreCase(logProps.getProperty(PROP_TRACING));
             if (logProps.containsKey(PROP_LOGFILE)) {
                 final String logfileNamePraefix = logProps.getProperty(PROP_LOGFILE).trim();
                 if (StringUtils.isNotBlank(logfileNamePraefix)) {
@@ -182,13 +189,15 @@ public final class Log {
         effectiveThrowExceptionOnError = logThrowExceptionOnError;
         effectiveLogTransactionSizes = logTransactionSizes || isDebug;
         TransactionSizeLogger.get().setEnabled(effectiveLogTransactionSizes);
+        effectiveLogTracing = logTracing || isDebug;
+        PerformanceTracer.setEnabled(effectiveLogTracing);
 
         android.util.Log.i(TAG, "[Log] Logging set: " + getLogSettingsForDisplay());
     }
 
     public static String getLogSettingsForDisplay() {
         return "debug=" + isDebug() + ", minLevel=" + effectiveMinLogLevel + ", minAddCallerInfo=" + effectiveMinLogAddCallerInfo +
-                ", addCallerInfoMaxDepth=" + addCallerInfoMaxDepth + ", throwOnError=" + logThrowExceptionOnError + ", transactionSizes=" + effectiveLogTransactionSizes;
+                ", addCallerInfoMaxDepth=" + addCallerInfoMaxDepth + ", throwOnError=" + logThrowExceptionOnError + ", transactionSizes=" + effectiveLogTransactionSizes + ", tracing=" + effectiveLogTracing;
 
     }
 
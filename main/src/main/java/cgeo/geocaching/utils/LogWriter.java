@@ -10,11 +10,46 @@ import java.io.PrintWriter;
 
 public class LogWriter {
     private PrintWriter logWriter = null;
+    private Uri logWriterFile = null;
+
+    private final FileNameCreator fileNameCreator;
+    /** plain writers write content unchanged (without separators and timestamps) and independent of debug mode */
+    private final boolean plain;
 
     public LogWriter(final String prefix) {
+        this(FileNameCreator.LOGFILE, false);
+    }
+
+    private LogWriter(final FileNameCreator fileNameCreator, final boolean plain) {
+        this.fileNameCreator = fileNameCreator;
+        this.plain = plain;
         checkLogfile();
     }
 
+    /**
+     * creates a writer for a plain file (e.g. exported data) in the log folder, independent of debug mode
+     */
+    public static LogWriter createPlain(final FileNameCreator fileNameCreator) {
+        return new LogWriter(fileNameCreator, true);
+    }
+
+    /**
+     * returns uri of the file written to, or null if file could not be created
+     */
+    public Uri getUri() {
+        return logWriterFile;
+    }
+
+    /**
+     * writes given content unchanged
+     */
+    public void write(final String content) {
+        checkLogfile();
+        if (null != logWriter) {
+            logWriter.print(content);
+        }
+    }
+
     public void log(final String info) {
         checkLogfile();
         if (null != logWriter) {
@@ -51,23 +86,27 @@ public class LogWriter {
 
     public void close() {
         if (null != logWriter) {
-            log("end of logging");
-            logWriter.println("--------------------------------------------------------------------");
+            if (!plain) {
+                log("end of logging");
+                logWriter.println("--------------------------------------------------------------------");
+            }
             logWriter.close();
             logWriter = null;
         }
     }
 
     private void checkLogfile() {
-        if (null == logWriter && Log.isDebug()) {
+        if (null == logWriter && (plain || Log.isDebug())) {
             try {
-                final Uri logWriterFile = ContentStorage.get().create(PersistableFolder.LOGFILES, FileNameCreator.LOGFILE, false);
+                logWriterFile = ContentStorage.get().create(PersistableFolder.LOGFILES, fileNameCreator, false);
                 if (logWriterFile == null) {
                     Log.w("Could not create LogWriter-File");
                     return;
                 }
                 logWriter = new PrintWriter(new OutputStreamWriter(ContentStorage.get().openForWrite(logWriterFile)));
-                log("begin logging to file " + logWriterFile);
+                if (!plain) {
+                    log("begin logging to file " + logWriterFile);
+                }
             } catch (Exception e) {
                 Log.w("Problem while creating LogWrilter", e);
                 // ignore any error
@@ -17,6 +17,7 @@ import cgeo.geocaching.service.CacheDownloaderService;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.ui.ViewUtils;
+import cgeo.geocaching.unifiedmap.geoitemlayer.MarkerAtlas;
 import cgeo.geocaching.utils.builders.InsetBuilder;
 import cgeo.geocaching.utils.builders.InsetsBuilder;
 import static cgeo.geocaching.utils.DisplayUtils.SIZE_CACHE_MARKER_DP;
@@ -24,6 +25,11 @@ import static cgeo.geocaching.utils.DisplayUtils.SIZE_LIST_MARKER_DP;
 import static cgeo.geocaching.utils.EmojiUtils.NUMBER_START;
 
 import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
@@ -72,6 +78,7 @@ public final class MapMarkerUtils {
     public static synchronized void resetAllCaches() {
         overlaysCache.clear();
         emojiPaintMap.clear();
+        MarkerAtlas.get().clear();
         scalingFactorCacheIcons = Settings.getInt(R.string.pref_mapCacheScaling, 100) / 100.0f;
         scalingFactorWpIcons = Settings.getInt(R.string.pref_mapWpScaling, 100) / 100.0f;
     }
@@ -83,6 +90,7 @@ public final class MapMarkerUtils {
         synchronized (overlaysCache) {
             overlaysCache.clear();
         }
+        MarkerAtlas.get().clear();
     }
 
     /**
@@ -437,6 +445,54 @@ public final class MapMarkerUtils {
         return buildLayerDrawable(insetsBuilder, 3, 3);
     }
 
+    /**
+     * Obtain the marker for a cluster of map items (see {@link cgeo.geocaching.location.ClusterIndex}).
+     * Markers are shared between all clusters showing the same count.
+     *
+     * @param res   the resources to use
+     * @param count number of items in the cluster
+     * @return a round marker labeled with the item count
+     */
+    @NonNull
+    public static CacheMarker getClusterMarker(final Resources res, final int count) {
+        final String label = count > 999 ? "999+" : String.valueOf(count);
+        final int hashcode = new HashCodeBuilder()
+                .append("cluster")
+                .append(label)
+                .toHashCode();
+
+        synchronized (overlaysCache) {
+            CacheMarker marker = overlaysCache.get(hashcode);
+            if (marker == null) {
+                marker = new CacheMarker(hashcode, createClusterMarker(res, label));
+                overlaysCache.put(hashcode, marker);
+            }
+            return marker;
+        }
+    }
+
+    @NonNull
+    private static BitmapDrawable createClusterMarker(final Resources res, final String label) {
+        // grow with the number of digits, starting at the size of a dot marker
+        final int size = ViewUtils.dpToPixel(24 + 4 * (label.length() - 1));
+        final float border = ViewUtils.dpToPixelFloat(2);
+        final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+        paint.setColor(Color.WHITE);
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
+        paint.setColor(ResourcesCompat.getColor(res, R.color.colorAccent, null));
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f - border, paint);
+
+        paint.setColor(Color.WHITE);
+        paint.setTypeface(Typeface.DEFAULT_BOLD);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setTextSize(ViewUtils.dpToPixelFloat(label.length() > 3 ? 10 : 12));
+        canvas.drawText(label, size / 2f, (size - paint.ascent() - paint.descent()) / 2f, paint);
+        return new BitmapDrawable(res, bitmap);
+    }
+
     /**
      * Obtain the drawable for a given waypoint.
      * Return a drawable from the cache, if a similar drawable was already generated.
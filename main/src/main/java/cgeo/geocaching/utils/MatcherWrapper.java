@@ -30,6 +30,21 @@ public class MatcherWrapper {
         return matcher.find(start);
     }
 
+    /**
+     * see {@link Matcher#lookingAt()}
+     */
+    public boolean lookingAt() {
+        return matcher.lookingAt();
+    }
+
+    /**
+     * see {@link Matcher#region(int, int)}
+     */
+    public MatcherWrapper region(final int start, final int end) {
+        matcher.region(start, end);
+        return this;
+    }
+
     /**
      * see {@link Matcher#group(int)}
      */
@@ -76,6 +91,13 @@ public class MatcherWrapper {
         return matcher.start();
     }
 
+    /**
+     * see {@link Matcher#end()}
+     */
+    public int end() {
+        return matcher.end();
+    }
+
     /**
      * see {@link Matcher#start(int)}
      */
@@ -0,0 +1,253 @@
+package cgeo.geocaching.utils;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Records timing spans (e.g. of {@link ContextLogger} instances) for later analysis without attaching a profiler.
+ *
+ * Spans are stored in a lock-free ring buffer holding the latest {@link #RING_BUFFER_SIZE} spans. Additionally a
+ * {@link LatencyHistogram} is maintained per operation. Recorded data can be exported as Chrome trace JSON file
+ * (viewable e.g. in chrome://tracing or Perfetto) into the log folder.
+ *
+ * Tracing is enabled together with debug logging or via log property {@link Log#PROP_TRACING}.
+ */
+public final class PerformanceTracer {
+
+    private static final int RING_BUFFER_SIZE = 4096;
+    private static final int RING_BUFFER_MASK = RING_BUFFER_SIZE - 1;
+
+    private static final long EPOCH_NANOS = System.nanoTime();
+
+    private static volatile boolean enabled = false;
+
+    private static final AtomicReferenceArray<Span> SPANS = new AtomicReferenceArray<>(RING_BUFFER_SIZE);
+    private static final AtomicLong NEXT_SPAN_INDEX = new AtomicLong(0);
+    private static final ConcurrentHashMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<int[]> DEPTH = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    /** a recorded timing span */
+    public static final class Span {
+        public final String operation;
+        @Nullable
+        public final String details;
+        public final long threadId;
+        public final String threadName;
+        /** start time in nanoseconds relative to tracer start */
+        public final long startNanos;
+        public final long durationNanos;
+        /** nesting depth of this span within its thread (0 = top level) */
+        public final int depth;
+
+        Span(final String operation, @Nullable final String details, final Thread thread, final long startNanos, final long durationNanos, final int depth) {
+            this.operation = operation;
+            this.details = details;
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.depth = depth;
+        }
+    }
+
+    /** handle for a running span, returned by {@link #start(String)} */
+    public static final class SpanHandle {
+        private final String operation;
+        private final Thread thread;
+        private final long startNanos;
+        private final int depth;
+        private boolean ended = false;
+
+        private SpanHandle(final String operation, final Thread thread, final long startNanos, final int depth) {
+            this.operation = operation;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.depth = depth;
+        }
+
+        /** ends this span. Further calls are ignored. */
+        public void end(@Nullable final String details) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            final long duration = System.nanoTime() - startNanos;
+            if (thread == Thread.currentThread()) {
+                DEPTH.get()[0] = depth;
+            }
+            record(new Span(operation, details, thread, startNanos - EPOCH_NANOS, duration, depth));
+        }
+    }
+
+    private PerformanceTracer() {
+        //utility class
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(final boolean enabled) {
+        PerformanceTracer.enabled = enabled;
+    }
+
+    /**
+     * Starts a new span for given operation. Returns null if tracing is disabled.
+     */
+    @Nullable
+    public static SpanHandle start(@NonNull final String operation) {
+        if (!enabled) {
+            return null;
+        }
+        final int[] depth = DEPTH.get();
+        final SpanHandle handle = new SpanHandle(operation, Thread.currentThread(), System.nanoTime(), depth[0]);
+        depth[0]++;
+        return handle;
+    }
+
+    /**
+     * Extracts a stable operation name from a (format) context string, e.g. "DataStore.loadLogs(%s)" -> "DataStore.loadLogs".
+     * This makes sure that calls with different parameters are aggregated in the same histogram.
+     */
+    @NonNull
+    public static String toOperationName(@Nullable final String context) {
+        if (context == null) {
+            return "";
+        }
+        for (int i = 0; i < context.length(); i++) {
+            final char c = context.charAt(i);
+            if (c == '(' || c == ':' || c == ',' || c == ' ' || c == '%') {
+                return context.substring(0, i);
+            }
+        }
+        return context;
+    }
+
+    private static void record(final Span span) {
+        SPANS.set((int) (NEXT_SPAN_INDEX.getAndIncrement() & RING_BUFFER_MASK), span);
+        LatencyHistogram histogram = HISTOGRAMS.get(span.operation);
+        if (histogram == null) {
+            final LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = HISTOGRAMS.putIfAbsent(span.operation, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+        histogram.record(span.durationNanos / 1000);
+    }
+
+    /** returns the currently buffered spans, ordered by start time */
+    @NonNull
+    public static List<Span> getSpans() {
+        final List<Span> result = new ArrayList<>(RING_BUFFER_SIZE);
+        for (int i = 0; i < RING_BUFFER_SIZE; i++) {
+            final Span span = SPANS.get(i);
+            if (span != null) {
+                result.add(span);
+            }
+        }
+        Collections.sort(result, (s1, s2) -> Long.compare(s1.startNanos, s2.startNanos));
+        return result;
+    }
+
+    /** returns a snapshot of all histograms, sorted by operation name */
+    @NonNull
+    public static Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(HISTOGRAMS);
+    }
+
+    public static void clear() {
+        for (int i = 0; i < RING_BUFFER_SIZE; i++) {
+            SPANS.set(i, null);
+        }
+        HISTOGRAMS.clear();
+    }
+
+    @NonNull
+    public static String getHistogramSummary() {
+        final StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates Chrome trace JSON (Trace Event Format) for currently buffered spans. Histogram summaries are added as "otherData".
+     */
+    @NonNull
+    public static String toChromeTraceJson() {
+        final ObjectNode root = JsonUtils.createObjectNode();
+        final ArrayNode events = root.putArray("traceEvents");
+        final Map<Long, String> threadNames = new HashMap<>();
+        for (Span span : getSpans()) {
+            threadNames.put(span.threadId, span.threadName);
+            final ObjectNode event = events.addObject();
+            event.put("name", span.operation);
+            event.put("cat", "cgeo");
+            event.put("ph", "X");
+            event.put("ts", span.startNanos / 1000);
+            event.put("dur", span.durationNanos / 1000);
+            event.put("pid", 1);
+            event.put("tid", span.threadId);
+            final ObjectNode args = event.putObject("args");
+            args.put("depth", span.depth);
+            if (span.details != null) {
+                args.put("details", span.details);
+            }
+        }
+        for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+            final ObjectNode event = events.addObject();
+            event.put("name", "thread_name");
+            event.put("ph", "M");
+            event.put("pid", 1);
+            event.put("tid", thread.getKey());
+            event.putObject("args").put("name", thread.getValue());
+        }
+        root.put("displayTimeUnit", "ms");
+        final ObjectNode otherData = root.putObject("otherData");
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            otherData.put(entry.getKey(), entry.getValue().toString());
+        }
+        return JsonUtils.nodeToString(root);
+    }
+
+    /**
+     * Writes currently buffered spans as Chrome trace JSON into the log folder. Returns uri of created file or null on failure.
+     */
+    @Nullable
+    public static Uri exportChromeTrace() {
+        try (ContextLogger cLog = new ContextLogger(Log.LogLevel.DEBUG, "PerformanceTracer.exportChromeTrace")) {
+            final LogWriter writer = LogWriter.createPlain(FileNameCreator.PERFORMANCE_TRACE);
+            if (writer.getUri() == null) {
+                return null;
+            }
+            writer.write(toChromeTraceJson());
+            writer.close();
+            Log.iForce("[PerformanceTracer] latency histograms:\n" + getHistogramSummary());
+            cLog.add("written to %s", writer.getUri());
+            return writer.getUri();
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package cgeo.geocaching.utils;
 
 import cgeo.geocaching.R;
 import cgeo.geocaching.connector.ConnectorFactory;
+import cgeo.geocaching.connector.ConnectorSearchStatistics;
 import cgeo.geocaching.connector.IConnector;
 import cgeo.geocaching.connector.capability.ILogin;
 import cgeo.geocaching.connector.gc.GCConnector;
@@ -276,6 +277,10 @@ public final class SystemInformation {
                         connectors.append(" / ").append(Settings.getGCMemberStatus());
                     }
                 }
+                final String searchStatistics = ConnectorSearchStatistics.getSummary(connector);
+                if (searchStatistics != null) {
+                    connectors.append("\n     search requests:\n       ").append(searchStatistics.replace("\n", "\n       "));
+                }
             }
         }
         body.append("\n- Geocaching sites enabled:").append(connectorCount > 0 ? connectors : " None");
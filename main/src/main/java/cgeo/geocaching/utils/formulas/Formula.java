@@ -430,6 +430,14 @@ public final class Formula {
         }
     }
 
+    /**
+     * Evaluates without collecting the details for user-displayable error messages.
+     * Use for mass evaluation where errors are expected, e.g. when trying all values of ranges.
+     */
+    Value evaluateWithoutErrorDetails(final Func1<String, Value> vars, final int rangeIdx) throws FormulaException {
+        return compiledExpression.eval(vars == null ? x -> null : vars, rangeIdx);
+    }
+
     public String evaluateToString(final Func1<String, Value> vars) {
         return evaluateToCharSequence(vars).toString();
     }
@@ -0,0 +1,452 @@
+package cgeo.geocaching.utils.formulas;
+
+import cgeo.geocaching.utils.functions.Func1;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Brute-force solver for variables with ranges (e.g. <code>A=[:0-9]</code>).
+ *
+ * Enumerates all combinations of the range values of the ranged variables a result depends on.
+ * All formulas are compiled once, per combination only the variables depending on a changed range
+ * are reevaluated. Enumeration is split into fork/join tasks and runs in parallel.
+ *
+ * {@link Constraint}s are checked as soon as all ranged variables they depend on are assigned,
+ * this allows to skip whole branches of the cross product (e.g. all combinations for a latitude
+ * which is too far away). Matching candidates are handed over to a consumer while solving is still running.
+ *
+ * A solver is meant for one {@link #solve(Consumer)} run, once cancelled it stays cancelled.
+ */
+public class FormulaRangeSolver<T> {
+
+    /** maximum number of results delivered by default */
+    public static final int DEFAULT_MAX_RESULTS = 1000;
+
+    /** minimum number of combinations for which splitting into parallel tasks is worth the overhead */
+    private static final long SEQUENTIAL_THRESHOLD = 256;
+
+    private static ForkJoinPool pool;
+
+    /** Check on a partial or full variable assignment */
+    public interface Constraint {
+
+        /** variables needed to evaluate this constraint */
+        Set<String> getNeededVars();
+
+        /** returns false if no candidate can satisfy this constraint for the given variable values */
+        boolean test(Func1<String, Value> vars);
+    }
+
+    /** One solution: values of the ranged variables and the calculated result */
+    public static class Candidate<T> {
+
+        private final long index;
+        private final Map<String, Value> rangeValues;
+        private final T result;
+
+        private Candidate(final long index, final Map<String, Value> rangeValues, final T result) {
+            this.index = index;
+            this.rangeValues = rangeValues;
+            this.result = result;
+        }
+
+        /** position of this candidate in the cross product of the ranged variables (sorted by name), allows to sort candidates found in parallel */
+        public long getIndex() {
+            return index;
+        }
+
+        /** values of the ranged variables, sorted by variable name */
+        @NonNull
+        public Map<String, Value> getRangeValues() {
+            return rangeValues;
+        }
+
+        @NonNull
+        public T getResult() {
+            return result;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return rangeValues + "->" + result;
+        }
+    }
+
+    private final Func1<Func1<String, Value>, T> resultFunction;
+    private final int maxResults;
+
+    private final String[] vars;
+    private final Map<String, Integer> varIndex = new HashMap<>();
+    private final Formula[] formulas;
+    private final Value[] constantValues;
+    private final boolean constantConstraintsMet;
+
+    /** var index of each dimension, in enumeration order */
+    private final int[] dims;
+    private final int[] dimSizes;
+    /** number of combinations below each level */
+    private final long[] subtreeSizes;
+    /** vars to (re)evaluate per level, in dependency order */
+    private final int[][] levelVars;
+    private final Constraint[][] levelConstraints;
+    /** dimensions sorted by var name for the candidate output */
+    private final int[] outputDims;
+    private final int[] outputSizes;
+
+    private volatile boolean cancelled = false;
+
+    /**
+     * Creates a solver
+     *
+     * @param formulas       provides the compiled formula per variable, returns null for unknown variables
+     * @param neededVars     variables the result depends on
+     * @param resultFunction calculates the result of a full assignment, null means no valid result
+     * @param constraints    constraints to prune the search space, may be empty
+     * @param maxResults     solving stops after that number of results
+     */
+    public FormulaRangeSolver(@NonNull final Func1<String, Formula> formulas, @NonNull final Collection<String> neededVars,
+                              @NonNull final Func1<Func1<String, Value>, T> resultFunction, @NonNull final List<Constraint> constraints, final int maxResults) {
+        this.resultFunction = resultFunction;
+        this.maxResults = maxResults;
+
+        //collect all variables in dependency order (needed vars come first)
+        final List<String> varList = new ArrayList<>();
+        final Map<String, Formula> formulaMap = new HashMap<>();
+        final Set<String> cyclic = new HashSet<>();
+        final Set<String> allNeeded = new HashSet<>(neededVars);
+        for (Constraint c : constraints) {
+            allNeeded.addAll(c.getNeededVars());
+        }
+        for (String v : sorted(allNeeded)) {
+            collectVars(v, formulas, formulaMap, varList, new HashSet<>(), cyclic);
+        }
+        vars = varList.toArray(new String[0]);
+        this.formulas = new Formula[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            varIndex.put(vars[i], i);
+            this.formulas[i] = cyclic.contains(vars[i]) ? null : formulaMap.get(vars[i]);
+        }
+
+        //ranged vars needed (directly or indirectly) per var
+        final List<Set<String>> rangedDeps = new ArrayList<>();
+        for (int i = 0; i < vars.length; i++) {
+            final Set<String> deps = new HashSet<>();
+            final Formula f = this.formulas[i];
+            if (f != null) {
+                if (f.getRangeIndexSize() > 1) {
+                    deps.add(vars[i]);
+                }
+                for (String n : f.getNeededVariables()) {
+                    deps.addAll(rangedDeps.get(varIndex.get(n)));
+                }
+            }
+            rangedDeps.add(deps);
+        }
+
+        //order dimensions: ranged vars of constraints with few ranged vars first, so these can prune early
+        final List<Constraint> constraintsSorted = new ArrayList<>(constraints);
+        final Map<Constraint, Set<String>> constraintDeps = new HashMap<>();
+        for (Constraint c : constraints) {
+            final Set<String> deps = new HashSet<>();
+            for (String n : c.getNeededVars()) {
+                deps.addAll(rangedDeps.get(varIndex.get(n)));
+            }
+            constraintDeps.put(c, deps);
+        }
+        Collections.sort(constraintsSorted, (c1, c2) -> Integer.compare(constraintDeps.get(c1).size(), constraintDeps.get(c2).size()));
+        final List<String> dimList = new ArrayList<>();
+        for (Constraint c : constraintsSorted) {
+            for (String v : sorted(constraintDeps.get(c))) {
+                if (!dimList.contains(v)) {
+                    dimList.add(v);
+                }
+            }
+        }
+        for (int i = 0; i < vars.length; i++) {
+            if (rangedDeps.get(i).contains(vars[i]) && !dimList.contains(vars[i])) {
+                dimList.add(vars[i]);
+            }
+        }
+        final Map<String, Integer> dimLevel = new HashMap<>();
+        dims = new int[dimList.size()];
+        dimSizes = new int[dims.length];
+        for (int d = 0; d < dims.length; d++) {
+            dimLevel.put(dimList.get(d), d);
+            dims[d] = varIndex.get(dimList.get(d));
+            dimSizes[d] = this.formulas[dims[d]].getRangeIndexSize();
+        }
+        subtreeSizes = new long[dims.length];
+        long size = 1;
+        for (int d = dims.length - 1; d >= 0; d--) {
+            subtreeSizes[d] = size;
+            size = size * dimSizes[d];
+        }
+
+        //assign vars and constraints to the level after which they can be evaluated (-1: constant)
+        final List<List<Integer>> levelVarLists = new ArrayList<>();
+        final List<List<Constraint>> levelConstraintLists = new ArrayList<>();
+        for (int d = 0; d < dims.length; d++) {
+            levelVarLists.add(new ArrayList<>());
+            levelConstraintLists.add(new ArrayList<>());
+        }
+        final List<Integer> constantVars = new ArrayList<>();
+        for (int i = 0; i < vars.length; i++) {
+            final int level = getLevel(rangedDeps.get(i), dimLevel);
+            (level < 0 ? constantVars : levelVarLists.get(level)).add(i);
+        }
+        final List<Constraint> constantConstraints = new ArrayList<>();
+        for (Constraint c : constraints) {
+            final int level = getLevel(constraintDeps.get(c), dimLevel);
+            (level < 0 ? constantConstraints : levelConstraintLists.get(level)).add(c);
+        }
+        levelVars = new int[dims.length][];
+        levelConstraints = new Constraint[dims.length][];
+        for (int d = 0; d < dims.length; d++) {
+            levelVars[d] = toIntArray(levelVarLists.get(d));
+            levelConstraints[d] = levelConstraintLists.get(d).toArray(new Constraint[0]);
+        }
+
+        //evaluate everything not depending on ranges once
+        constantValues = new Value[vars.length];
+        final int[] zeroIndices = new int[vars.length];
+        final Func1<String, Value> constantProvider = createProvider(constantValues);
+        for (int v : constantVars) {
+            constantValues[v] = evaluate(v, constantProvider, zeroIndices);
+        }
+        boolean met = true;
+        for (Constraint c : constantConstraints) {
+            met = met && c.test(constantProvider);
+        }
+        constantConstraintsMet = met;
+
+        final List<String> outputVars = sorted(dimList);
+        outputDims = new int[outputVars.size()];
+        outputSizes = new int[outputDims.length];
+        for (int i = 0; i < outputDims.length; i++) {
+            outputDims[i] = varIndex.get(outputVars.get(i));
+            outputSizes[i] = this.formulas[outputDims[i]].getRangeIndexSize();
+        }
+    }
+
+    /** Ranged variables the result depends on, sorted by name */
+    @NonNull
+    public List<String> getRangedVars() {
+        final List<String> result = new ArrayList<>();
+        for (int d : outputDims) {
+            result.add(vars[d]);
+        }
+        return result;
+    }
+
+    /** Number of combinations to check without pruning */
+    public long getCombinationCount() {
+        return dims.length == 0 ? 0 : subtreeSizes[0] * dimSizes[0];
+    }
+
+    /** Stops a running {@link #solve(Consumer)} as soon as possible */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Enumerates all combinations of the ranged variables in parallel and blocks until done or cancelled.
+     * The consumer is called from worker threads (but never concurrently) for each candidate found.
+     *
+     * @return number of candidates found
+     */
+    public int solve(@NonNull final Consumer<Candidate<T>> consumer) {
+        if (dims.length == 0 || !constantConstraintsMet) {
+            return 0;
+        }
+        final AtomicInteger found = new AtomicInteger(0);
+        final Consumer<Candidate<T>> syncConsumer = c -> {
+            synchronized (consumer) {
+                consumer.accept(c);
+            }
+        };
+        getPool().invoke(new SolveTask(0, 0, dimSizes[0], constantValues.clone(), new int[vars.length], syncConsumer, found));
+        return Math.min(found.get(), maxResults);
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        //commonPool() is not available before Android 7
+        if (pool == null) {
+            pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        }
+        return pool;
+    }
+
+    private class SolveTask extends RecursiveAction {
+
+        private final int level;
+        private final int from;
+        private final int to;
+        private final Value[] values;
+        private final int[] indices;
+        private final Func1<String, Value> provider;
+        private final Consumer<Candidate<T>> consumer;
+        private final AtomicInteger found;
+
+        SolveTask(final int level, final int from, final int to, final Value[] values, final int[] indices,
+                  final Consumer<Candidate<T>> consumer, final AtomicInteger found) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+            this.values = values;
+            this.indices = indices;
+            this.provider = createProvider(values);
+            this.consumer = consumer;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            if (to - from > 1 && (to - from) * subtreeSizes[level] >= SEQUENTIAL_THRESHOLD) {
+                //values up to this level are identical for both halves, deeper levels are recalculated anyway
+                final int middle = (from + to) / 2;
+                invokeAll(new SolveTask(level, from, middle, values.clone(), indices.clone(), consumer, found),
+                        new SolveTask(level, middle, to, values, indices, consumer, found));
+                return;
+            }
+            for (int i = from; i < to && !cancelled; i++) {
+                if (!assign(i)) {
+                    continue;
+                }
+                if (level == dims.length - 1) {
+                    deliver();
+                } else {
+                    new SolveTask(level + 1, 0, dimSizes[level + 1], values, indices, consumer, found).compute();
+                }
+            }
+        }
+
+        /** assigns a range index to the dimension of this level, returns false if a constraint prunes this branch */
+        private boolean assign(final int rangeIdx) {
+            indices[dims[level]] = rangeIdx;
+            for (int v : levelVars[level]) {
+                values[v] = evaluate(v, provider, indices);
+            }
+            for (Constraint c : levelConstraints[level]) {
+                if (!c.test(provider)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void deliver() {
+            final T result = resultFunction.call(provider);
+            if (result == null) {
+                return;
+            }
+            final int count = found.incrementAndGet();
+            if (count > maxResults) {
+                cancelled = true;
+                return;
+            }
+            final Map<String, Value> rangeValues = new LinkedHashMap<>();
+            long index = 0;
+            for (int i = 0; i < outputDims.length; i++) {
+                rangeValues.put(vars[outputDims[i]], values[outputDims[i]]);
+                index = index * outputSizes[i] + indices[outputDims[i]];
+            }
+            consumer.accept(new Candidate<>(index, rangeValues, result));
+            if (count == maxResults) {
+                cancelled = true;
+            }
+        }
+    }
+
+    @Nullable
+    private Value evaluate(final int var, final Func1<String, Value> provider, final int[] indices) {
+        final Formula f = formulas[var];
+        if (f == null) {
+            return null;
+        }
+        try {
+            return f.evaluateWithoutErrorDetails(provider, indices[var]);
+        } catch (FormulaException fe) {
+            return null;
+        }
+    }
+
+    private Func1<String, Value> createProvider(final Value[] values) {
+        return v -> {
+            final Integer idx = varIndex.get(v);
+            return idx == null ? null : values[idx];
+        };
+    }
+
+    private static void collectVars(final String var, final Func1<String, Formula> formulas, final Map<String, Formula> formulaMap,
+                                    final List<String> result, final Set<String> path, final Set<String> cyclic) {
+        if (path.contains(var)) {
+            cyclic.addAll(path);
+            return;
+        }
+        if (formulaMap.containsKey(var)) {
+            return;
+        }
+        final Formula f = formulas.call(var);
+        path.add(var);
+        if (f != null) {
+            for (String n : sorted(f.getNeededVariables())) {
+                collectVars(n, formulas, formulaMap, result, path, cyclic);
+            }
+        }
+        path.remove(var);
+        formulaMap.put(var, f);
+        result.add(var);
+    }
+
+    private static int getLevel(final Set<String> rangedDeps, final Map<String, Integer> dimLevel) {
+        int level = -1;
+        for (String v : rangedDeps) {
+            level = Math.max(level, dimLevel.get(v));
+        }
+        return level;
+    }
+
+    private static List<String> sorted(final Collection<String> values) {
+        final List<String> result = new ArrayList<>(values);
+        Collections.sort(result, Comparator.naturalOrder());
+        return result;
+    }
+
+    private static int[] toIntArray(final List<Integer> list) {
+        final int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "FormulaRangeSolver[dims=" + getRangedVars() + ", combinations=" + getCombinationCount() + "]";
+    }
+}
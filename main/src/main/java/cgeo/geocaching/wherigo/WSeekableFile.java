@@ -19,19 +19,61 @@ package cgeo.geocaching.wherigo;
 
 import cgeo.geocaching.utils.Log;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 
 import cz.matejcik.openwig.platform.SeekableFile;
 import org.oscim.utils.IOUtils;
 
+/**
+ * Implementation of OpenWIG's {@link SeekableFile} on top of a {@link FileChannel}.
+ *
+ * Whenever possible the file is memory-mapped, so reading cartridge data results in plain memory access.
+ * If mapping fails, data is read through a buffer window of {@link #BUFFER_SIZE} bytes.
+ * In both cases, numbers are decoded (little-endian) directly from the buffer without any extra allocation.
+ */
 public class WSeekableFile implements SeekableFile {
 
+    static final int BUFFER_SIZE = 64 * 1024;
+
     private final FileChannel fileChannel;
+    private final boolean mapped;
+
+    /** holds data of file starting at position {@link #bufferStart}. Buffer position is current read position */
+    private ByteBuffer buffer;
+    private long bufferStart = 0;
+    /** mapped mode only: distance of the read position beyond the end of the file after seeking there */
+    private long positionBeyondEnd = 0;
 
     public WSeekableFile(final FileChannel fileChannel) {
+        this(fileChannel, true);
+    }
+
+    WSeekableFile(final FileChannel fileChannel, final boolean allowMapping) {
         this.fileChannel = fileChannel;
+        this.buffer = allowMapping ? mapQuietly(fileChannel) : null;
+        this.mapped = this.buffer != null;
+        if (!mapped) {
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            this.buffer.limit(0);
+        }
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer mapQuietly(final FileChannel fileChannel) {
+        try {
+            final long size = fileChannel.size();
+            if (size <= 0 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException | RuntimeException e) {
+            Log.d("WSeekableFile: unable to map file, falling back to buffered reading", e);
+            return null;
+        }
     }
 
     public double readDouble() {
@@ -39,76 +81,80 @@ public class WSeekableFile implements SeekableFile {
     }
 
     public long readLong() {
-        final byte[] buffer = readInternal(8);
-        long result = 0;
-        for (int i = 0; i < 8; i++) {
-            result |= ((long) (buffer[i] & 0xff)) << (i * 8);
+        try {
+            return ensureAvailable(8).getLong();
+        } catch (IOException ioe) {
+            Log.e("Problem reading", ioe);
+            return 0;
         }
-        return result;
     }
 
     public int readInt() {
-        final byte[] buffer = readInternal(4);
-        int result = 0;
-        for (int i = 0; i < 4; i++) {
-            result += (buffer[i] & 0xFF) << (i * 8);
-        }
-
-        return result;
-    }
-
-    private byte[] readInternal(final int length) {
-        return readInternal(new byte[length]);
-    }
-
-    private byte[] readInternal(final byte[] array) {
         try {
-            final ByteBuffer bb = ByteBuffer.wrap(array);
-            fileChannel.read(bb);
-            return bb.array();
+            return ensureAvailable(4).getInt();
         } catch (IOException ioe) {
             Log.e("Problem reading", ioe);
-            return null;
+            return 0;
         }
     }
 
     public long position() throws IOException {
-        // Logger.i(TAG, "position(), res:" + raf.getFilePointer());
-        return fileChannel.position();
+        return bufferStart + buffer.position() + positionBeyondEnd;
     }
 
     public int read() throws IOException {
-        final byte[] r = readInternal(1);
-        return r[0];
+        return ensureAvailable(1).get();
     }
 
     public void readFully(final byte[] buf) throws IOException {
-        readInternal(buf);
+        if (mapped || buf.length <= BUFFER_SIZE) {
+            ensureAvailable(buf.length).get(buf);
+            return;
+        }
+        //large chunks (e.g. media files) are read directly into target array
+        final int fromBuffer = buffer.remaining();
+        buffer.get(buf, 0, fromBuffer);
+        final long pos = position();
+        final ByteBuffer target = ByteBuffer.wrap(buf, fromBuffer, buf.length - fromBuffer);
+        while (target.hasRemaining()) {
+            if (fileChannel.read(target, pos + target.position() - fromBuffer) < 0) {
+                throw new EOFException("Unexpected end of file at " + (pos + target.position() - fromBuffer));
+            }
+        }
+        resetBuffer(pos + buf.length - fromBuffer);
     }
 
     public short readShort() throws IOException {
-        final byte[] r = readInternal(2);
-        return (short) ((r[1] << 8) | (r[0] & 0xff));
+        return ensureAvailable(2).getShort();
     }
 
-
     public String readString() throws IOException {
         final StringBuilder sb = new StringBuilder();
-        byte[] b = readInternal(1);
-        while (b[0] > 0) {
-            sb.append((char) b[0]);
-            b = readInternal(1);
+        byte b = ensureAvailable(1).get();
+        while (b > 0) {
+            sb.append((char) b);
+            b = ensureAvailable(1).get();
         }
         return sb.toString();
     }
 
     public void seek(final long pos) throws IOException {
-        // Logger.i(TAG, "seek(" + pos + ")");
-        fileChannel.position(pos);
+        positionBeyondEnd = 0;
+        if (pos >= bufferStart && pos <= bufferStart + buffer.limit()) {
+            buffer.position((int) (pos - bufferStart));
+        } else if (mapped) {
+            if (pos < 0) {
+                throw new IOException("Negative seek position " + pos);
+            }
+            // as in buffered mode, seeking beyond the end of the file succeeds and reading there fails
+            buffer.position(buffer.limit());
+            positionBeyondEnd = pos - buffer.limit();
+        } else {
+            resetBuffer(pos);
+        }
     }
 
     public long skip(final long what) throws IOException {
-        // Logger.i(TAG, "skip(" + what + ")");
         seek(position() + what);
         return what;
     }
@@ -117,4 +163,36 @@ public class WSeekableFile implements SeekableFile {
         IOUtils.closeQuietly(fileChannel);
     }
 
+    /**
+     * ensures that at least 'length' bytes are available in buffer, starting at its current position. Returns the buffer.
+     */
+    private ByteBuffer ensureAvailable(final int length) throws IOException {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+        if (mapped) {
+            throw new EOFException("Unexpected end of file at " + position());
+        }
+        //refill buffer window starting at current position
+        final long pos = position();
+        buffer.clear();
+        bufferStart = pos;
+        while (buffer.position() < length) {
+            if (fileChannel.read(buffer, pos + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() < length) {
+            throw new EOFException("Unexpected end of file at " + pos);
+        }
+        return buffer;
+    }
+
+    private void resetBuffer(final long pos) {
+        bufferStart = pos;
+        buffer.clear();
+        buffer.limit(0);
+    }
+
 }
@@ -0,0 +1,104 @@
+package cgeo.geocaching.connector;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+
+import java.util.List;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+public class LiveMapTileCacheTest {
+
+    @Test
+    public void testLevelFor() {
+        final Viewport viewport = new Viewport(new Geopoint(48.0, 11.0), new Geopoint(48.1, 11.2));
+        final int level = LiveMapTileCache.Tile.getLevelFor(viewport);
+        // tiles are at least as large as the viewport, but not more than twice as large
+        assertThat(LiveMapTileCache.Tile.getLongitudeSpan(level)).isGreaterThanOrEqualTo(viewport.getLongitudeSpan());
+        assertThat(LiveMapTileCache.Tile.getLatitudeSpan(level)).isGreaterThanOrEqualTo(viewport.getLatitudeSpan());
+        assertThat(LiveMapTileCache.Tile.getLongitudeSpan(level + 1) < viewport.getLongitudeSpan()
+                || LiveMapTileCache.Tile.getLatitudeSpan(level + 1) < viewport.getLatitudeSpan()).isTrue();
+
+        final Viewport world = new Viewport(new Geopoint(-90, -180), new Geopoint(90, 180));
+        assertThat(LiveMapTileCache.Tile.getLevelFor(world)).isEqualTo(LiveMapTileCache.Tile.MIN_LEVEL);
+    }
+
+    @Test
+    public void testCovering() {
+        final Viewport viewport = new Viewport(new Geopoint(48.0, 11.0), new Geopoint(48.1, 11.2));
+        final int level = LiveMapTileCache.Tile.getLevelFor(viewport);
+        final List<LiveMapTileCache.Tile> tiles = LiveMapTileCache.Tile.getCovering(viewport, level);
+        assertThat(tiles.size()).isBetween(1, 4);
+        for (final LiveMapTileCache.Tile tile : tiles) {
+            assertThat(tile.getViewport().intersects(viewport)).isTrue();
+        }
+        // corners of viewport are covered
+        assertThat(isCovered(tiles, viewport.bottomLeft)).isTrue();
+        assertThat(isCovered(tiles, viewport.topRight)).isTrue();
+    }
+
+    @Test
+    public void testChildren() {
+        final LiveMapTileCache.Tile tile = new LiveMapTileCache.Tile(10, 500, 300);
+        final List<LiveMapTileCache.Tile> children = tile.getChildren();
+        assertThat(children).hasSize(4);
+        final Viewport parent = tile.getViewport();
+        for (final LiveMapTileCache.Tile child : children) {
+            assertThat(child.level).isEqualTo(11);
+            assertThat(parent.includes(child.getViewport())).isTrue();
+        }
+        assertThat(children).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void testSplitAtAntimeridian() {
+        final Viewport inside = new Viewport(new Geopoint(48.0, 11.0), new Geopoint(48.1, 11.2));
+        assertThat(LiveMapTileCache.Tile.splitAtAntimeridian(inside)).containsExactly(inside);
+
+        final List<Viewport> east = LiveMapTileCache.Tile.splitAtAntimeridian(new Viewport(new Geopoint(-18.0, 179.0), new Geopoint(-17.0, 181.0)));
+        assertThat(east).hasSize(2);
+        assertThat(east.get(0).getLongitudeMin()).isEqualTo(179.0);
+        assertThat(east.get(0).getLongitudeMax()).isEqualTo(180.0);
+        assertThat(east.get(1).getLongitudeMin()).isEqualTo(-180.0);
+        assertThat(east.get(1).getLongitudeMax()).isEqualTo(-179.0, within(1e-6));
+
+        final List<Viewport> west = LiveMapTileCache.Tile.splitAtAntimeridian(new Viewport(new Geopoint(-18.0, -182.0), new Geopoint(-17.0, -178.0)));
+        assertThat(west).hasSize(2);
+        assertThat(west.get(0).getLongitudeMin()).isEqualTo(178.0, within(1e-6));
+        assertThat(west.get(0).getLongitudeMax()).isEqualTo(180.0);
+        assertThat(west.get(1).getLongitudeMin()).isEqualTo(-180.0);
+        assertThat(west.get(1).getLongitudeMax()).isEqualTo(-178.0, within(1e-6));
+
+        // completely beyond the antimeridian
+        final List<Viewport> shifted = LiveMapTileCache.Tile.splitAtAntimeridian(new Viewport(new Geopoint(0.0, 190.0), new Geopoint(1.0, 191.0)));
+        assertThat(shifted).hasSize(1);
+        assertThat(shifted.get(0).getLongitudeMin()).isEqualTo(-170.0, within(1e-6));
+        assertThat(shifted.get(0).getLongitudeMax()).isEqualTo(-169.0, within(1e-6));
+    }
+
+    @Test
+    public void testCoveringAcrossAntimeridian() {
+        final Viewport viewport = new Viewport(new Geopoint(-18.0, 179.9), new Geopoint(-17.9, 180.1));
+        final int level = LiveMapTileCache.Tile.getLevelFor(viewport);
+        final List<LiveMapTileCache.Tile> tiles = LiveMapTileCache.Tile.getCovering(viewport, level);
+        // tiles on both sides of the antimeridian
+        assertThat(isCovered(tiles, new Geopoint(-17.95, 179.95))).isTrue();
+        assertThat(isCovered(tiles, new Geopoint(-17.95, -179.95))).isTrue();
+        assertThat(tiles).doesNotHaveDuplicates();
+        for (final LiveMapTileCache.Tile tile : tiles) {
+            assertThat(tile.x).isBetween(0, (1 << level) - 1);
+        }
+    }
+
+    private static boolean isCovered(final List<LiveMapTileCache.Tile> tiles, final Geopoint point) {
+        for (final LiveMapTileCache.Tile tile : tiles) {
+            if (tile.getViewport().contains(point)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
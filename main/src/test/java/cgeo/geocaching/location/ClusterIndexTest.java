@@ -0,0 +1,111 @@
+package cgeo.geocaching.location;
+
+import java.util.List;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+public class ClusterIndexTest {
+
+    private static int total(final List<ClusterIndex.Cluster<String>> clusters) {
+        int count = 0;
+        for (ClusterIndex.Cluster<String> cluster : clusters) {
+            count += cluster.count;
+        }
+        return count;
+    }
+
+    @Test
+    public void clustersNearbyItemsAtLowZoom() {
+        final ClusterIndex<String> index = new ClusterIndex<>();
+        index.add("a", 49.90, 8.60);
+        index.add("b", 49.92, 8.62);
+        index.add("c", 48.00, 11.00);
+
+        final List<ClusterIndex.Cluster<String>> world = index.query(-85, -180, 85, 180, 5);
+        assertThat(world).hasSize(2);
+        assertThat(total(world)).isEqualTo(3);
+        for (ClusterIndex.Cluster<String> cluster : world) {
+            if (cluster.count == 2) {
+                assertThat(cluster.key).isNull();
+                assertThat(cluster.latitude).isEqualTo(49.91, within(1e-9));
+                assertThat(cluster.longitude).isEqualTo(8.61, within(1e-9));
+            } else {
+                assertThat(cluster.key).isEqualTo("c");
+                assertThat(cluster.latitude).isEqualTo(48.0, within(1e-9));
+            }
+        }
+
+        // about 2.5km apart, separated on the highest clustering level
+        assertThat(index.query(49.8, 8.5, 50.0, 8.7, ClusterIndex.MAX_ZOOM)).hasSize(2);
+        assertThat(index.query(49.8, 8.5, 50.0, 8.7, 20)).hasSize(2);
+    }
+
+    @Test
+    public void queryIsLimitedToArea() {
+        final ClusterIndex<String> index = new ClusterIndex<>();
+        index.add("a", 49.9, 8.6);
+        index.add("c", 48.0, 11.0);
+        final List<ClusterIndex.Cluster<String>> clusters = index.query(49.5, 8.0, 50.5, 9.0, 10);
+        assertThat(clusters).hasSize(1);
+        assertThat(clusters.get(0).key).isEqualTo("a");
+    }
+
+    @Test
+    public void queryAcrossAntimeridian() {
+        final ClusterIndex<String> index = new ClusterIndex<>();
+        index.add("east", -17.8, 178.0);
+        index.add("west", -16.5, -179.9);
+        index.add("far", -17.0, 150.0);
+        final List<ClusterIndex.Cluster<String>> clusters = index.query(-20, 175, -15, -175, 8);
+        assertThat(clusters).hasSize(2);
+        assertThat(total(clusters)).isEqualTo(2);
+        for (ClusterIndex.Cluster<String> cluster : clusters) {
+            assertThat(cluster.key).isIn("east", "west");
+        }
+
+        // both parts within the same cell column at the lowest zoom level are not counted twice
+        assertThat(total(index.query(-20, 10, -15, 5, 0))).isEqualTo(3);
+    }
+
+    @Test
+    public void removeAndMove() {
+        final ClusterIndex<String> index = new ClusterIndex<>();
+        index.add("a", 49.900, 8.600);
+        index.add("b", 49.901, 8.601);
+        assertThat(index.remove("a")).isTrue();
+        assertThat(index.remove("a")).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+
+        List<ClusterIndex.Cluster<String>> clusters = index.query(-85, -180, 85, 180, 3);
+        assertThat(clusters).hasSize(1);
+        assertThat(clusters.get(0).key).isEqualTo("b");
+        assertThat(clusters.get(0).latitude).isEqualTo(49.901, within(1e-9));
+
+        index.add("b", -33.9, 18.4);
+        clusters = index.query(-85, -180, 85, 180, 3);
+        assertThat(clusters).hasSize(1);
+        assertThat(clusters.get(0).latitude).isEqualTo(-33.9, within(1e-9));
+
+        index.remove("b");
+        assertThat(index.query(-85, -180, 85, 180, 3)).isEmpty();
+    }
+
+    @Test
+    public void manyItems() {
+        final ClusterIndex<Integer> index = new ClusterIndex<>();
+        for (int i = 0; i < 10000; i++) {
+            index.add(i, 49 + (i % 100) * 0.01, 8 + (i / 100) * 0.01);
+        }
+        // a viewport of roughly 1000x1000 pixels contains at most 16x16 cells
+        final List<ClusterIndex.Cluster<Integer>> clusters = index.query(48.9, 7.9, 50.1, 9.1, 8);
+        assertThat(clusters.size()).isLessThanOrEqualTo(256);
+        int count = 0;
+        for (ClusterIndex.Cluster<Integer> cluster : clusters) {
+            count += cluster.count;
+        }
+        assertThat(count).isEqualTo(10000);
+    }
+
+}
@@ -0,0 +1,108 @@
+package cgeo.geocaching.location;
+
+import cgeo.geocaching.enumerations.WaypointType;
+import cgeo.geocaching.models.IWaypoint;
+import cgeo.geocaching.models.Waypoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ProximityIndexTest {
+
+    private static final Geopoint CENTER = new Geopoint(48.0, 11.0);
+
+    private static Waypoint waypoint(final String name, final Geopoint coords) {
+        final Waypoint waypoint = new Waypoint(name, WaypointType.STAGE, false);
+        waypoint.setCoords(coords);
+        return waypoint;
+    }
+
+    /** item at the given distance in meters north of CENTER */
+    private static Waypoint north(final String name, final int meters) {
+        return waypoint(name, CENTER.project(0, meters / 1000.0));
+    }
+
+    @Test
+    public void closestWithinDistance() {
+        final List<IWaypoint> items = new ArrayList<>();
+        items.add(north("far", 900));
+        items.add(north("near", 300));
+        items.add(waypoint("east", CENTER.project(90, 0.5)));
+        items.add(waypoint("other", new Geopoint(-33.0, 151.0)));
+        final ProximityIndex index = new ProximityIndex(() -> items);
+
+        final WaypointDistanceInfo closest = index.getClosest(CENTER, 1000);
+        assertThat(closest).isNotNull();
+        assertThat(closest.name).isEqualTo("near (stage)");
+        assertThat(closest.meters).isBetween(299, 300);
+
+        assertThat(index.getClosest(CENTER, 200)).isNull();
+        assertThat(index.getClosest(CENTER.project(180, 0.5), 800).name).isEqualTo("east (stage)");
+    }
+
+    @Test
+    public void ignoresItemsAtPositionAndWithoutCoords() {
+        final List<IWaypoint> items = new ArrayList<>();
+        items.add(waypoint("here", CENTER));
+        items.add(new Waypoint("nocoords", WaypointType.STAGE, false));
+        items.add(north("near", 100));
+        final ProximityIndex index = new ProximityIndex(() -> items);
+        assertThat(index.getClosest(CENTER, 1000).name).isEqualTo("near (stage)");
+    }
+
+    @Test
+    public void matchesLinearScan() {
+        final List<IWaypoint> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(waypoint("wp" + i, new Geopoint(47.9 + (i * 7919 % 1000) / 5000.0, 10.9 + (i * 104729 % 1000) / 5000.0)));
+        }
+        final ProximityIndex index = new ProximityIndex(() -> items);
+        for (int i = 0; i < 100; i++) {
+            final Geopoint position = new Geopoint(47.9 + (i * 31 % 100) / 500.0, 10.9 + (i * 17 % 100) / 500.0);
+            int minDistance = Integer.MAX_VALUE;
+            for (IWaypoint item : items) {
+                final int distance = (int) (1000f * position.distanceTo(item.getCoords()));
+                if (distance > 0 && distance < minDistance) {
+                    minDistance = distance;
+                }
+            }
+            final WaypointDistanceInfo closest = index.getClosest(position, 1500);
+            assertThat(closest == null ? null : closest.meters).isEqualTo(minDistance <= 1500 ? minDistance : null);
+        }
+    }
+
+    @Test
+    public void nearDateLine() {
+        final ProximityIndex index = new ProximityIndex(() -> Collections.singletonList(waypoint("west", new Geopoint(10.0, -179.9995))));
+        final WaypointDistanceInfo closest = index.getClosest(new Geopoint(10.0, 179.9995), 1000);
+        assertThat(closest).isNotNull();
+        assertThat(closest.name).isEqualTo("west (stage)");
+    }
+
+    @Test
+    public void checkSkipsLookupsUntilMovedCloser() {
+        final AtomicInteger loads = new AtomicInteger();
+        final List<IWaypoint> items = Collections.singletonList(north("target", 2000));
+        final ProximityIndex index = new ProximityIndex(() -> {
+            loads.incrementAndGet();
+            return items;
+        });
+
+        // closest item is 2000m away, so the next 1000m can be moved without any item getting within 1000m
+        assertThat(index.checkClosest(CENTER, 1000)).isNull();
+        assertThat(index.checkClosest(CENTER.project(0, 0.5), 1000)).isNull();
+        assertThat(index.checkClosest(CENTER.project(0, 1.1), 1000).meters).isBetween(899, 900);
+        assertThat(loads.get()).isEqualTo(1);
+
+        // new items are found after invalidating the index
+        index.invalidate();
+        assertThat(index.checkClosest(CENTER, 1000)).isNull();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,65 @@
+package cgeo.geocaching.log;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class LogSummaryTest {
+
+    private static LogSummary createSummary() {
+        // logs are added newest first
+        return new LogSummary.Builder("me")
+                .addLog(LogType.NOTE, "other", 500)
+                .addLog(LogType.WILL_ATTEND, "Me", 400)
+                .addLog(LogType.FOUND_IT, "other", 300)
+                .addLog(LogType.DIDNT_FIND_IT, "me", 200)
+                .addLog(LogType.FOUND_IT, "me", 100)
+                .build();
+    }
+
+    @Test
+    public void testBuild() {
+        final LogSummary summary = createSummary();
+        assertThat(summary.logCount).isEqualTo(5);
+        assertThat(summary.lastFoundDate).isEqualTo(300);
+        assertThat(summary.hasAttendedLog).isFalse();
+        assertThat(summary.hasOwnLog(LogType.WILL_ATTEND)).isTrue();
+        assertThat(summary.hasOwnLog(LogType.FOUND_IT)).isTrue();
+        assertThat(summary.hasOwnLog(LogType.NOTE)).isFalse();
+        assertThat(summary.getLatestLogTypes()).containsExactly(LogType.NOTE, LogType.WILL_ATTEND, LogType.FOUND_IT, LogType.DIDNT_FIND_IT, LogType.FOUND_IT);
+    }
+
+    @Test
+    public void testLatestLogTypesLimited() {
+        final LogSummary.Builder builder = new LogSummary.Builder(null);
+        for (int i = 0; i < 20; i++) {
+            builder.addLog(i == 0 ? LogType.ATTENDED : LogType.NOTE, "someone", 1000 - i);
+        }
+        final LogSummary summary = builder.build();
+        assertThat(summary.logCount).isEqualTo(20);
+        assertThat(summary.hasAttendedLog).isTrue();
+        assertThat(summary.lastFoundDate).isEqualTo(1000);
+        assertThat(summary.getLatestLogTypes()).hasSize(LogSummary.MAX_LATEST_LOG_TYPES);
+    }
+
+    @Test
+    public void testStorageRoundtrip() {
+        final LogSummary summary = createSummary();
+        final LogSummary restored = LogSummary.fromStorage(summary.getUserName(), summary.logCount, summary.lastFoundDate, summary.hasAttendedLog,
+                summary.getOwnLogTypesAsString(), summary.getLatestLogTypesAsString());
+        assertThat(restored.logCount).isEqualTo(summary.logCount);
+        assertThat(restored.lastFoundDate).isEqualTo(summary.lastFoundDate);
+        assertThat(restored.hasOwnLog(LogType.WILL_ATTEND)).isTrue();
+        assertThat(restored.hasOwnLog(LogType.NOTE)).isFalse();
+        assertThat(restored.getLatestLogTypes()).isEqualTo(summary.getLatestLogTypes());
+    }
+
+    @Test
+    public void testValidity() {
+        final LogSummary summary = createSummary();
+        assertThat(summary.isValidFor("ME")).isTrue();
+        assertThat(summary.isValidFor("other")).isFalse();
+        assertThat(summary.isValidFor(null)).isFalse();
+        assertThat(LogSummary.EMPTY.isValidFor("anyone")).isTrue();
+    }
+
+}
@@ -0,0 +1,88 @@
+package cgeo.geocaching.maps.routing;
+
+import cgeo.geocaching.location.Geopoint;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class RouteTrackerTest {
+
+    /** route going east along latitude 48 in steps of about 7.5m, then north */
+    private static Geopoint[] createRoute() {
+        final Geopoint[] route = new Geopoint[201];
+        for (int i = 0; i <= 100; i++) {
+            route[i] = new Geopoint(48.0, 11.0 + i * 0.0001);
+        }
+        for (int i = 1; i <= 100; i++) {
+            route[100 + i] = new Geopoint(48.0 + i * 0.0001, 11.01);
+        }
+        return route;
+    }
+
+    @Test
+    public void testMatchOnRoute() {
+        final Geopoint[] route = createRoute();
+        final RouteTracker tracker = new RouteTracker(route, route[route.length - 1]);
+
+        // slightly beside the first leg (about 5m north)
+        final Geopoint position = new Geopoint(48.000045, 11.00505);
+        final RouteTracker.Match match = tracker.match(position);
+        assertThat(match).isNotNull();
+        assertThat(match.segment).isEqualTo(50);
+        assertThat(match.distance).isBetween(4.0, 6.0);
+
+        final Geopoint[] remaining = tracker.advance(position, match);
+        assertThat(remaining[0]).isEqualTo(position);
+        assertThat(remaining[1]).isEqualTo(route[51]);
+        assertThat(remaining[remaining.length - 1]).isEqualTo(route[route.length - 1]);
+        assertThat(remaining).hasSize(route.length - 50);
+    }
+
+    @Test
+    public void testOffRoute() {
+        final Geopoint[] route = createRoute();
+        final RouteTracker tracker = new RouteTracker(route, route[route.length - 1]);
+
+        // about 110m south of the first leg
+        final RouteTracker.Match match = tracker.match(new Geopoint(47.999, 11.005));
+        assertThat(match).isNotNull();
+        assertThat(match.distance).isGreaterThan(100);
+    }
+
+    @Test
+    public void testRemainingWhileOffRoute() {
+        final Geopoint[] route = createRoute();
+        final RouteTracker tracker = new RouteTracker(route, route[route.length - 1]);
+
+        // advance to the corner of the route
+        final Geopoint onRoute = new Geopoint(48.0, 11.00995);
+        tracker.advance(onRoute, tracker.match(onRoute));
+
+        // off route: remaining route starts at position and continues at last matched segment
+        final Geopoint offRoute = new Geopoint(47.999, 11.01);
+        final Geopoint[] remaining = tracker.remaining(offRoute);
+        assertThat(remaining[0]).isEqualTo(offRoute);
+        assertThat(remaining[1]).isEqualTo(route[100]);
+        assertThat(remaining).hasSize(route.length - 99);
+
+        // position was not accepted as new position on the route
+        assertThat(tracker.remaining(onRoute)).hasSize(route.length - 99);
+    }
+
+    @Test
+    public void testNoMatchBehindCurrentPosition() {
+        final Geopoint[] route = createRoute();
+        final RouteTracker tracker = new RouteTracker(route, route[route.length - 1]);
+
+        // advance onto second leg
+        final Geopoint position = new Geopoint(48.005, 11.01);
+        tracker.advance(position, tracker.match(position));
+
+        // start of route is now far away from remaining route
+        final RouteTracker.Match match = tracker.match(route[0]);
+        assertThat(match).isNotNull();
+        assertThat(match.segment).isGreaterThanOrEqualTo(100);
+        assertThat(match.distance).isGreaterThan(500);
+    }
+
+}
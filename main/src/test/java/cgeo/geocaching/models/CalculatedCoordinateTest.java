@@ -1,11 +1,18 @@
 package cgeo.geocaching.models;
 
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.utils.formulas.Formula;
+import cgeo.geocaching.utils.formulas.FormulaRangeSolver;
 import cgeo.geocaching.utils.formulas.Value;
 import static cgeo.geocaching.models.CalculatedCoordinateType.DEGREE;
 import static cgeo.geocaching.models.CalculatedCoordinateType.DEGREE_MINUTE_SEC;
 import static cgeo.geocaching.models.CalculatedCoordinateType.PLAIN;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Test;
 import static org.assertj.core.api.Assertions.offset;
 import static org.assertj.core.api.Java6Assertions.assertThat;
@@ -43,4 +50,29 @@ public class CalculatedCoordinateTest {
         assertThat(cc.calculateGeopoint(null).getLatitude()).isEqualTo(-48.123);
         assertThat(cc.calculateGeopoint(null).getLongitude()).isEqualTo(13.456);
     }
+
+    @Test
+    public void distanceConstraints() {
+        final CalculatedCoordinate cc = CalculatedCoordinate.createFromConfig("{CC|N48 1A.000|E13 1B.000}");
+        final Geopoint center = new Geopoint(48.25, 13.25);
+        final Map<String, Formula> formulas = new HashMap<>();
+        formulas.put("A", Formula.compile("[:0-9]"));
+        formulas.put("B", Formula.compile("[:0-9]"));
+
+        final List<Geopoint> expected = new ArrayList<>();
+        for (int a = 0; a < 10; a++) {
+            for (int b = 0; b < 10; b++) {
+                final Geopoint gp = cc.calculateGeopoint(Formula.toVarProvider("A", a, "B", b));
+                if (gp.distanceTo(center) <= 3f) {
+                    expected.add(gp);
+                }
+            }
+        }
+        assertThat(expected).hasSize(11);
+
+        final List<Geopoint> result = new ArrayList<>();
+        new FormulaRangeSolver<>(formulas::get, cc.getNeededVars(), cc::calculateGeopoint, cc.createDistanceConstraints(center, 3f), 100)
+                .solve(c -> result.add(c.getResult()));
+        assertThat(result).containsOnlyElementsOf(expected).hasSameSizeAs(expected);
+    }
 }
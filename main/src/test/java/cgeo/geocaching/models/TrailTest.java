@@ -0,0 +1,82 @@
+package cgeo.geocaching.models;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class TrailTest {
+
+    private static void addPoints(final Trail trail, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            trail.add(i, -i, 100 + i, 1000L * i);
+        }
+    }
+
+    private static void assertPoints(final Trail trail, final int from) {
+        for (int i = 0; i < trail.size(); i++) {
+            assertThat(trail.getLatitude(i)).isEqualTo(from + i);
+            assertThat(trail.getLongitude(i)).isEqualTo(-(from + i));
+            assertThat(trail.getAltitude(i)).isEqualTo(100 + from + i);
+            assertThat(trail.getTimestamp(i)).isEqualTo(1000L * (from + i));
+        }
+    }
+
+    @Test
+    public void addAndGrow() {
+        final Trail trail = new Trail();
+        addPoints(trail, 0, 1000);
+        assertThat(trail.size()).isEqualTo(1000);
+        assertPoints(trail, 0);
+    }
+
+    @Test
+    public void removeFirstKeepsOrder() {
+        final Trail trail = new Trail();
+        addPoints(trail, 0, 50);
+        trail.removeFirst(40);
+        assertThat(trail.size()).isEqualTo(10);
+        assertPoints(trail, 40);
+
+        // wraps around the end of the ring and grows afterwards
+        addPoints(trail, 50, 200);
+        assertThat(trail.size()).isEqualTo(160);
+        assertPoints(trail, 40);
+    }
+
+    @Test
+    public void removeFirstMoreThanSize() {
+        final Trail trail = new Trail();
+        addPoints(trail, 0, 5);
+        trail.removeFirst(10);
+        assertThat(trail.isEmpty()).isTrue();
+        addPoints(trail, 0, 5);
+        assertPoints(trail, 0);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        final Trail trail = new Trail();
+        addPoints(trail, 0, 70);
+        trail.removeFirst(60);
+        addPoints(trail, 70, 100);
+        final Trail copy = trail.copy();
+        trail.clear();
+        assertThat(trail.isEmpty()).isTrue();
+        assertThat(copy.size()).isEqualTo(40);
+        assertPoints(copy, 60);
+    }
+
+    @Test
+    public void addAllAppendsWrappedPoints() {
+        final Trail other = new Trail();
+        addPoints(other, 0, 70);
+        other.removeFirst(60);
+        addPoints(other, 70, 100);
+        final Trail trail = new Trail();
+        addPoints(trail, 50, 60);
+        trail.addAll(other);
+        assertThat(trail.size()).isEqualTo(50);
+        assertPoints(trail, 50);
+        assertThat(other.size()).isEqualTo(40);
+    }
+
+}
@@ -0,0 +1,87 @@
+package cgeo.geocaching.sensors;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+import static org.assertj.core.api.Java6Assertions.within;
+
+public class ReplayTraceTest {
+
+    private static InputStream stream(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void nmeaMergesRmcAndGga() throws IOException {
+        final ReplayTrace trace = ReplayTrace.parse(stream(
+                "$GPGGA,123519,4807.038,N,01131.000,E,1,08,0.9,545.4,M,46.9,M,,*47\n" +
+                        "$GPRMC,123519,A,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W*6A\n"));
+        assertThat(trace.size()).isEqualTo(1);
+        final ReplayTrace.Fix fix = trace.getFixes().get(0);
+        assertThat(fix.latitude).isEqualTo(48.1173, within(1e-6));
+        assertThat(fix.longitude).isEqualTo(11.516667, within(1e-6));
+        assertThat(fix.altitude).isEqualTo(545.4, within(1e-6));
+        assertThat(fix.speed).isEqualTo(11.523f, within(0.001f));
+        assertThat(fix.bearing).isEqualTo(84.4f, within(0.001f));
+        assertThat(fix.accuracy).isEqualTo(4.5f, within(0.001f));
+        assertThat(fix.time).isEqualTo(ReplayTrace.parseIsoTime("1994-03-23T12:35:19Z"));
+    }
+
+    @Test
+    public void nmeaSkipsInvalidSentences() throws IOException {
+        final ReplayTrace trace = ReplayTrace.parse(stream(
+                "$GPRMC,123519,A,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W*6B\n" + // wrong checksum
+                        "$GPRMC,123520,V,,,,,,,230394,,\n" + // no fix
+                        "garbage\n" +
+                        "$GPRMC,123521,A,4807.038,S,01131.000,W,0.0,,230394,,\n"));
+        assertThat(trace.size()).isEqualTo(1);
+        assertThat(trace.getFixes().get(0).latitude).isEqualTo(-48.1173, within(1e-6));
+        assertThat(trace.getFixes().get(0).longitude).isEqualTo(-11.516667, within(1e-6));
+    }
+
+    @Test
+    public void gpxTrackDerivesSpeedAndBearing() throws IOException {
+        final ReplayTrace trace = ReplayTrace.parse(stream("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<gpx version=\"1.1\" xmlns=\"http://www.topografix.com/GPX/1/1\"><trk><trkseg>\n" +
+                "<trkpt lat=\"48.0\" lon=\"11.0\"><ele>500</ele><time>2021-06-01T10:00:00Z</time></trkpt>\n" +
+                "<trkpt lat=\"48.001\" lon=\"11.0\"><ele>501</ele><time>2021-06-01T10:00:10Z</time></trkpt>\n" +
+                "<trkpt lat=\"48.001\" lon=\"11.0\"><time>2021-06-01T10:00:20Z</time></trkpt>\n" +
+                "</trkseg></trk></gpx>"));
+        assertThat(trace.size()).isEqualTo(3);
+        assertThat(trace.getDuration()).isEqualTo(20000);
+        final ReplayTrace.Fix first = trace.getFixes().get(0);
+        assertThat(first.altitude).isEqualTo(500.0, within(1e-6));
+        // about 111m in 10s to the north
+        assertThat(first.speed).isEqualTo(11.1f, within(0.1f));
+        assertThat(first.bearing).isEqualTo(0f, within(0.1f));
+        final ReplayTrace.Fix last = trace.getFixes().get(2);
+        assertThat(last.altitude).isNaN();
+        assertThat(last.speed).isEqualTo(0f);
+        assertThat(last.bearing).isNaN();
+    }
+
+    @Test
+    public void parseIsoTime() {
+        final long utc = ReplayTrace.parseIsoTime("2021-06-01T10:00:00Z");
+        assertThat(ReplayTrace.parseIsoTime("2021-06-01T10:00:00.250Z")).isEqualTo(utc + 250);
+        assertThat(ReplayTrace.parseIsoTime("2021-06-01T12:00:00+02:00")).isEqualTo(utc);
+        assertThat(ReplayTrace.parseIsoTime("2021-06-01T05:30:00-0430")).isEqualTo(utc);
+        assertThat(ReplayTrace.parseIsoTime("yesterday")).isEqualTo(0);
+    }
+
+    @Test
+    public void emptyTrace() {
+        try {
+            ReplayTrace.parse(stream("<gpx></gpx>"));
+            fail("trace without positions must not be parsed");
+        } catch (IOException expected) {
+            assertThat(expected).hasMessageContaining("No positions");
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class DistanceResorterTest {
+
+    private static Geocache cache(final String geocode, final Geopoint coords) {
+        final Geocache cache = new Geocache();
+        cache.setGeocode(geocode);
+        cache.setCoords(coords);
+        return cache;
+    }
+
+    @Test
+    public void testUnchangedOrder() {
+        final List<Geocache> caches = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            caches.add(cache("GC" + i, new Geopoint(i * 0.01, 0)));
+        }
+        final DistanceResorter.Result result = DistanceResorter.resort(caches, new Geopoint(0, 0));
+        assertThat(result.orderChanged).isFalse();
+        assertThat(result.caches).containsExactlyElementsOf(caches);
+        assertThat(result.distances[0]).isEqualTo(0f);
+        assertThat(result.distances[9]).isGreaterThan(result.distances[8]);
+    }
+
+    @Test
+    public void testMovedPosition() {
+        final List<Geocache> caches = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            caches.add(cache("GC" + i, new Geopoint(i * 0.01, 0)));
+        }
+        final DistanceResorter.Result result = DistanceResorter.resort(caches, new Geopoint(0.09, 0));
+        assertThat(result.orderChanged).isTrue();
+        assertThat(result.caches.get(0)).isSameAs(caches.get(9));
+        assertThat(result.caches.get(9)).isSameAs(caches.get(0));
+        // input list is not modified
+        assertThat(caches.get(0).getGeocode()).isEqualTo("GC0");
+    }
+
+    @Test
+    public void testCachesWithoutCoordsLast() {
+        final List<Geocache> caches = new ArrayList<>();
+        caches.add(cache("GCNONE1", null));
+        caches.add(cache("GCFAR", new Geopoint(10, 10)));
+        caches.add(cache("GCNONE2", null));
+        caches.add(cache("GCNEAR", new Geopoint(1, 1)));
+        final DistanceResorter.Result result = DistanceResorter.resort(caches, new Geopoint(0, 0));
+        assertThat(result.caches).containsExactly(caches.get(3), caches.get(1), caches.get(0), caches.get(2));
+        assertThat(Float.isNaN(result.distances[3])).isTrue();
+    }
+
+    @Test
+    public void testSameOrderAsComparator() {
+        final Random random = new Random(42);
+        final List<Geocache> caches = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            caches.add(cache("GC" + i, i % 17 == 0 ? null : new Geopoint(random.nextDouble() * 2, random.nextDouble() * 2)));
+        }
+        // unsorted input takes the fallback path, the slightly moved position afterwards the insertion sort path
+        final Geopoint position = new Geopoint(1, 1);
+        final List<Geocache> sorted = DistanceResorter.resort(caches, position).caches;
+        final Geopoint moved = new Geopoint(1.001, 1.001);
+        final List<Geocache> resorted = DistanceResorter.resort(sorted, moved).caches;
+
+        final List<Geocache> expected = new ArrayList<>(caches);
+        GlobalGPSDistanceComparator.updateGlobalGps(moved);
+        GlobalGPSDistanceComparator.INSTANCE.sort(expected);
+        assertThat(resorted).containsExactlyElementsOf(expected);
+    }
+
+}
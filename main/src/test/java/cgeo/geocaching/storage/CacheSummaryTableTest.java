@@ -0,0 +1,116 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.enumerations.CacheSize;
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.list.StoredList;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class CacheSummaryTableTest {
+
+    private static CacheSummaryTable createTable() {
+        final CacheSummaryTable table = new CacheSummaryTable();
+        table.put("GC1", new Geopoint(48.0, 11.0), CacheType.TRADITIONAL, CacheSize.SMALL, 1.5f, 2f, CacheSummaryTable.FLAG_FOUND, 0, Collections.singleton(1));
+        table.put("GC2", new Geopoint(48.5, 11.5), CacheType.MULTI, CacheSize.REGULAR, 3f, 4.5f, 0, 0x1f600, Collections.emptySet());
+        table.put("GC3", new Geopoint(50.0, 11.0), CacheType.MYSTERY, CacheSize.MICRO, 5f, 1f, CacheSummaryTable.FLAG_DISABLED, 0, Arrays.asList(1, 11));
+        table.put("GC4", null, CacheType.EVENT, CacheSize.NOT_CHOSEN, 1f, 1f, 0, 0, Collections.singleton(11));
+        return table;
+    }
+
+    @Test
+    public void testProperties() {
+        final CacheSummaryTable table = createTable();
+        assertThat(table.size()).isEqualTo(4);
+        assertThat(table.getType("GC2")).isEqualTo(CacheType.MULTI);
+        assertThat(table.getSize("GC3")).isEqualTo(CacheSize.MICRO);
+        assertThat(table.getDifficulty("GC1")).isEqualTo(1.5f);
+        assertThat(table.getTerrain("GC2")).isEqualTo(4.5f);
+        assertThat(table.getFlags("GC1")).isEqualTo(CacheSummaryTable.FLAG_FOUND);
+        assertThat(table.getEmoji("GC2")).isEqualTo(0x1f600);
+        assertThat(table.getCoords("GC2")).isEqualTo(new Geopoint(48.5, 11.5));
+        assertThat(table.getCoords("GC4")).isNull();
+        assertThat(table.getLists("GC3")).containsOnly(1, 11);
+        assertThat(table.getType("GC99")).isNull();
+    }
+
+    @Test
+    public void testViewport() {
+        final CacheSummaryTable table = createTable();
+        final Viewport viewport = new Viewport(new Geopoint(47.9, 10.9), new Geopoint(48.6, 11.6));
+        assertThat(table.getInViewport(viewport, false, 500)).containsOnly("GC1", "GC2");
+        assertThat(table.getInViewport(viewport, true, 500)).containsOnly("GC1");
+        assertThat(table.getInViewport(viewport, false, 1)).hasSize(1);
+    }
+
+    @Test
+    public void testViewportStoredOnlyIgnoresTemporaryList() {
+        final CacheSummaryTable table = createTable();
+        table.setLists("GC2", Collections.singleton(StoredList.TEMPORARY_LIST.id));
+        final Viewport viewport = new Viewport(new Geopoint(47.9, 10.9), new Geopoint(48.6, 11.6));
+        assertThat(table.getInViewport(viewport, true, 500)).containsOnly("GC1");
+        assertThat(table.getInViewport(viewport, false, 500)).containsOnly("GC1", "GC2");
+    }
+
+    @Test
+    public void testRemove() {
+        final CacheSummaryTable table = createTable();
+        table.remove(Arrays.asList("GC1", "GC99"));
+        assertThat(table.size()).isEqualTo(3);
+        assertThat(table.contains("GC1")).isFalse();
+        // rows moved into the gap keep their data
+        assertThat(table.getType("GC4")).isEqualTo(CacheType.EVENT);
+        assertThat(table.getLists("GC4")).containsOnly(11);
+        assertThat(table.countOnList(1)).isEqualTo(1);
+    }
+
+    @Test
+    public void testLists() {
+        final CacheSummaryTable table = createTable();
+        assertThat(table.countOnList(11)).isEqualTo(2);
+        table.setLists("GC2", Collections.singleton(12));
+        table.addLists("GC1", Collections.singleton(12));
+        assertThat(table.countOnList(12)).isEqualTo(2);
+
+        table.moveAll(11, 1);
+        assertThat(table.countOnList(11)).isEqualTo(0);
+        assertThat(table.getLists("GC4")).containsOnly(1);
+        assertThat(table.getLists("GC3")).containsOnly(1);
+    }
+
+    @Test
+    public void testMoveAllToListWithoutBit() {
+        final CacheSummaryTable table = createTable();
+        table.moveAll(11, 20);
+        assertThat(table.countOnList(11)).isEqualTo(0);
+        assertThat(table.countOnList(20)).isEqualTo(2);
+        assertThat(table.getLists("GC4")).containsOnly(20);
+        assertThat(table.getLists("GC3")).containsOnly(1, 20);
+        assertThat(table.getLists("GC1")).containsOnly(1);
+
+        // moving onto itself keeps memberships
+        table.moveAll(20, 20);
+        assertThat(table.countOnList(20)).isEqualTo(2);
+    }
+
+    @Test
+    public void testManyLists() {
+        final CacheSummaryTable table = createTable();
+        final HashSet<Integer> lists = new HashSet<>();
+        for (int listId = 100; listId < 300; listId++) {
+            lists.add(listId);
+        }
+        table.setLists("GC2", lists);
+        assertThat(table.getLists("GC2")).isEqualTo(lists);
+        // other rows are not affected by additional list words
+        assertThat(table.getLists("GC3")).containsOnly(1, 11);
+        assertThat(table.countOnList(299)).isEqualTo(1);
+    }
+
+}
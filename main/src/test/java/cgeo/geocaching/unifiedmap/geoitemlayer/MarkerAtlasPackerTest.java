@@ -0,0 +1,41 @@
+package cgeo.geocaching.unifiedmap.geoitemlayer;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MarkerAtlasPackerTest {
+
+    @Test
+    public void fillsShelvesAndPages() {
+        final MarkerAtlasPacker packer = new MarkerAtlasPacker(100, 2);
+        assertThat(packer.getPageCount()).isEqualTo(0);
+
+        final MarkerAtlasPacker.Slot first = packer.allocate(40, 30);
+        assertSlot(first, 0, 0, 0);
+        assertSlot(packer.allocate(40, 20), 0, 42, 0);
+        // does not fit into the first shelf anymore, starts a new one below its highest rectangle
+        assertSlot(packer.allocate(40, 50), 0, 0, 32);
+        assertSlot(packer.allocate(50, 50), 0, 42, 32);
+        // does not fit below on the first page
+        assertSlot(packer.allocate(30, 30), 1, 0, 0);
+        assertThat(packer.getPageCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void rejectsTooLargeRectangles() {
+        final MarkerAtlasPacker packer = new MarkerAtlasPacker(100, 2);
+        assertThat(packer.allocate(101, 10)).isNull();
+        assertThat(packer.allocate(10, 101)).isNull();
+        assertThat(packer.allocate(0, 10)).isNull();
+        assertSlot(packer.allocate(100, 100), 0, 0, 0);
+        assertSlot(packer.allocate(100, 100), 1, 0, 0);
+    }
+
+    private static void assertSlot(final MarkerAtlasPacker.Slot slot, final int page, final int x, final int y) {
+        assertThat(slot).isNotNull();
+        assertThat(slot.page).isEqualTo(page);
+        assertThat(slot.x).isEqualTo(x);
+        assertThat(slot.y).isEqualTo(y);
+    }
+
+}
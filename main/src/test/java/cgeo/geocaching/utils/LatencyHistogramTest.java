@@ -0,0 +1,49 @@
+package cgeo.geocaching.utils;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getMean()).isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(0);
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value = 0; value < 100000; value++) {
+            final int index = LatencyHistogram.getBucketIndex(value);
+            assertThat(LatencyHistogram.getBucketUpperBound(index)).isGreaterThanOrEqualTo(value);
+            // relative precision is 1/16
+            assertThat(LatencyHistogram.getBucketUpperBound(index) - value).isLessThanOrEqualTo(value / 16);
+            if (index > 0) {
+                assertThat(LatencyHistogram.getBucketUpperBound(index - 1)).isLessThan(value);
+            }
+        }
+        // huge values end up in highest bucket
+        assertThat(LatencyHistogram.getBucketIndex(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.getBucketIndex(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMax()).isEqualTo(1000000);
+        assertThat(histogram.getMean()).isEqualTo(500500);
+        assertThat(histogram.getValueAtPercentile(50)).isBetween(500000L, 500000L + 500000L / 16);
+        assertThat(histogram.getValueAtPercentile(99)).isBetween(990000L, 1000000L);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1000000);
+
+        histogram.reset();
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getMax()).isEqualTo(0);
+    }
+
+}
@@ -0,0 +1,146 @@
+package cgeo.geocaching.utils.formulas;
+
+import cgeo.geocaching.utils.functions.Func1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class FormulaRangeSolverTest {
+
+    private static Func1<String, Formula> formulas(final String... varFormulas) {
+        final Map<String, Formula> map = new HashMap<>();
+        for (int i = 0; i < varFormulas.length - 1; i += 2) {
+            map.put(varFormulas[i], Formula.compile(varFormulas[i + 1]));
+        }
+        return map::get;
+    }
+
+    private static FormulaRangeSolver<Value> createSolver(final Func1<String, Formula> formulas, final String resultVar,
+                                                          final List<FormulaRangeSolver.Constraint> constraints, final int maxResults) {
+        return new FormulaRangeSolver<>(formulas, Collections.singleton(resultVar), v -> v.call(resultVar), constraints, maxResults);
+    }
+
+    private static List<FormulaRangeSolver.Candidate<Value>> solve(final FormulaRangeSolver<Value> solver) {
+        final List<FormulaRangeSolver.Candidate<Value>> result = new ArrayList<>();
+        final int count = solver.solve(result::add);
+        assertThat(count).isEqualTo(result.size());
+        Collections.sort(result, (c1, c2) -> Long.compare(c1.getIndex(), c2.getIndex()));
+        return result;
+    }
+
+    private static FormulaRangeSolver.Constraint constraint(final AtomicInteger counter, final Func1<Func1<String, Value>, Boolean> test, final String... vars) {
+        return new FormulaRangeSolver.Constraint() {
+            @Override
+            public Set<String> getNeededVars() {
+                return new HashSet<>(Arrays.asList(vars));
+            }
+
+            @Override
+            public boolean test(final Func1<String, Value> v) {
+                counter.incrementAndGet();
+                return test.call(v);
+            }
+        };
+    }
+
+    @Test
+    public void simpleCrossProduct() {
+        final FormulaRangeSolver<Value> solver = createSolver(formulas("A", "[:0-3]", "B", "[:0-4]", "C", "A*10+B"), "C",
+                Collections.emptyList(), FormulaRangeSolver.DEFAULT_MAX_RESULTS);
+        assertThat(solver.getRangedVars()).containsExactly("A", "B");
+        assertThat(solver.getCombinationCount()).isEqualTo(20);
+
+        final List<FormulaRangeSolver.Candidate<Value>> result = solve(solver);
+        assertThat(result).hasSize(20);
+        for (int i = 0; i < 20; i++) {
+            final FormulaRangeSolver.Candidate<Value> c = result.get(i);
+            assertThat(c.getIndex()).isEqualTo(i);
+            assertThat(c.getRangeValues().keySet()).containsExactly("A", "B");
+            assertThat(c.getRangeValues().get("A").getAsInt()).isEqualTo(i / 5);
+            assertThat(c.getRangeValues().get("B").getAsInt()).isEqualTo(i % 5);
+            assertThat(c.getResult().getAsInt()).isEqualTo(i / 5 * 10 + i % 5);
+        }
+    }
+
+    @Test
+    public void constantAndDependentVariables() {
+        final FormulaRangeSolver<Value> solver = createSolver(formulas("D", "2", "A", "D*[:1-3]", "B", "A+D", "C", "B*[:0-1]"), "C",
+                Collections.emptyList(), FormulaRangeSolver.DEFAULT_MAX_RESULTS);
+        assertThat(solver.getRangedVars()).containsExactly("A", "C");
+        final List<Integer> values = new ArrayList<>();
+        for (FormulaRangeSolver.Candidate<Value> c : solve(solver)) {
+            values.add((int) c.getResult().getAsInt());
+        }
+        assertThat(values).containsExactly(0, 4, 0, 6, 0, 8);
+    }
+
+    @Test
+    public void errorsAndMissingVariables() {
+        assertThat(solve(createSolver(formulas("A", "[:0-3]", "C", "A+X"), "C", Collections.emptyList(), 100))).isEmpty();
+        assertThat(solve(createSolver(formulas("A", "[:0-3]+B", "B", "A", "C", "A"), "C", Collections.emptyList(), 100))).isEmpty();
+        assertThat(solve(createSolver(formulas("A", "3", "C", "A*2"), "C", Collections.emptyList(), 100))).isEmpty();
+    }
+
+    @Test
+    public void pruneEarly() {
+        final AtomicInteger aChecks = new AtomicInteger(0);
+        final AtomicInteger cChecks = new AtomicInteger(0);
+        final List<FormulaRangeSolver.Constraint> constraints = Arrays.asList(
+                constraint(cChecks, v -> v.call("C").getAsInt() % 3 == 0, "C"),
+                constraint(aChecks, v -> v.call("A").getAsInt() == 7, "A"));
+        final FormulaRangeSolver<Value> solver = createSolver(formulas("B", "[:0-9]", "A", "[:0-9]", "C", "A*100+B"), "C", constraints, 100);
+
+        final List<FormulaRangeSolver.Candidate<Value>> result = solve(solver);
+        final List<Integer> values = new ArrayList<>();
+        for (FormulaRangeSolver.Candidate<Value> c : result) {
+            values.add((int) c.getResult().getAsInt());
+        }
+        assertThat(values).containsExactly(702, 705, 708);
+        //constraint on A is checked first, so only the 10 combinations with A=7 have to be checked further
+        assertThat(aChecks.get()).isEqualTo(10);
+        assertThat(cChecks.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        final FormulaRangeSolver<Value> solver = createSolver(formulas("A", "[:0-9]", "B", "[:0-9]", "C", "[:0-9]", "D", "[:0-9]", "E", "[:0-4]", "X", "A+B+C+D+E"), "X",
+                Collections.singletonList(constraint(new AtomicInteger(), v -> v.call("X").getAsInt() == 20, "X")), 100000);
+        assertThat(solver.getCombinationCount()).isEqualTo(50000);
+
+        final List<FormulaRangeSolver.Candidate<Value>> result = solve(solver);
+        final List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            if (i / 5000 + i / 500 % 10 + i / 50 % 10 + i / 5 % 10 + i % 5 == 20) {
+                expected.add((long) i);
+            }
+        }
+        final List<Long> indexes = new ArrayList<>();
+        for (FormulaRangeSolver.Candidate<Value> c : result) {
+            indexes.add(c.getIndex());
+            assertThat(c.getResult().getAsInt()).isEqualTo(20);
+        }
+        assertThat(indexes).isEqualTo(expected);
+    }
+
+    @Test
+    public void maxResultsAndCancel() {
+        final FormulaRangeSolver<Value> solver = createSolver(formulas("A", "[:0-9]", "B", "[:0-9]", "C", "[:0-9]", "X", "A+B+C"), "X", Collections.emptyList(), 25);
+        assertThat(solve(solver)).hasSize(25);
+        assertThat(solver.isCancelled()).isTrue();
+
+        final FormulaRangeSolver<Value> cancelled = createSolver(formulas("A", "[:0-9]", "X", "A"), "X", Collections.emptyList(), 25);
+        cancelled.cancel();
+        assertThat(solve(cancelled)).isEmpty();
+    }
+
+}
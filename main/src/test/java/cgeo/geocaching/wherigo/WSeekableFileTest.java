@@ -0,0 +1,124 @@
+package cgeo.geocaching.wherigo;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+public class WSeekableFileTest {
+
+    @Test
+    public void readMapped() throws IOException {
+        assertReadContent(true);
+    }
+
+    @Test
+    public void readBuffered() throws IOException {
+        assertReadContent(false);
+    }
+
+    @Test
+    public void readFullyLargeChunkBuffered() throws IOException {
+        final byte[] data = new byte[WSeekableFile.BUFFER_SIZE * 3 + 17];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 101);
+        }
+        final File testFile = createTestFile(data);
+        final WSeekableFile file = new WSeekableFile(new FileInputStream(testFile).getChannel(), false);
+        try {
+            file.seek(5);
+            assertThat(file.read()).isEqualTo(5);
+
+            final byte[] chunk = new byte[WSeekableFile.BUFFER_SIZE * 2];
+            file.readFully(chunk);
+            for (int i = 0; i < chunk.length; i++) {
+                assertThat(chunk[i]).isEqualTo(data[i + 6]);
+            }
+            assertThat(file.position()).isEqualTo(6 + chunk.length);
+            assertThat(file.read()).isEqualTo(data[6 + chunk.length]);
+        } finally {
+            file.close();
+        }
+    }
+
+    @Test
+    public void seekPastEndMapped() throws IOException {
+        assertSeekPastEnd(true);
+    }
+
+    @Test
+    public void seekPastEndBuffered() throws IOException {
+        assertSeekPastEnd(false);
+    }
+
+    private static void assertSeekPastEnd(final boolean allowMapping) throws IOException {
+        final WSeekableFile file = new WSeekableFile(new FileInputStream(createTestFile(new byte[]{1, 2, 3, 4})).getChannel(), allowMapping);
+        try {
+            file.seek(10);
+            assertThat(file.position()).isEqualTo(10);
+            try {
+                file.read();
+                fail("reading beyond end of file must fail");
+            } catch (final EOFException expected) {
+                // expected
+            }
+
+            file.seek(1);
+            assertThat(file.read()).isEqualTo(2);
+            assertThat(file.skip(20)).isEqualTo(20);
+            assertThat(file.position()).isEqualTo(22);
+            file.seek(3);
+            assertThat(file.read()).isEqualTo(4);
+        } finally {
+            file.close();
+        }
+    }
+
+    private static void assertReadContent(final boolean allowMapping) throws IOException {
+        final ByteBuffer bb = ByteBuffer.allocate(100).order(ByteOrder.LITTLE_ENDIAN);
+        bb.putShort((short) -2);
+        bb.putInt(123456789);
+        bb.putLong(-1234567890123L);
+        bb.putDouble(47.11);
+        bb.put("abc".getBytes()).put((byte) 0);
+        bb.put(new byte[]{1, 2, 3});
+
+        final WSeekableFile file = new WSeekableFile(new FileInputStream(createTestFile(bb.array())).getChannel(), allowMapping);
+        try {
+            assertThat(file.readShort()).isEqualTo((short) -2);
+            assertThat(file.readInt()).isEqualTo(123456789);
+            assertThat(file.readLong()).isEqualTo(-1234567890123L);
+            assertThat(file.readDouble()).isEqualTo(47.11);
+            assertThat(file.readString()).isEqualTo("abc");
+            final byte[] buf = new byte[3];
+            file.readFully(buf);
+            assertThat(buf).isEqualTo(new byte[]{1, 2, 3});
+            assertThat(file.position()).isEqualTo(2 + 4 + 8 + 8 + 4 + 3);
+
+            file.seek(2);
+            assertThat(file.readInt()).isEqualTo(123456789);
+            file.skip(8);
+            assertThat(file.readDouble()).isEqualTo(47.11);
+        } finally {
+            file.close();
+        }
+    }
+
+    private static File createTestFile(final byte[] data) throws IOException {
+        final File newFile = File.createTempFile("cgeo-test-" + System.currentTimeMillis(), ".gwc");
+        newFile.deleteOnExit();
+        try (OutputStream os = new FileOutputStream(newFile, false)) {
+            IOUtils.write(data, os);
+        }
+        return newFile;
+    }
+}